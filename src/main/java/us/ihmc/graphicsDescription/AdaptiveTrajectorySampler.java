@@ -0,0 +1,317 @@
+package us.ihmc.graphicsDescription;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+
+/**
+ * This class samples a 3D trajectory with a fixed number of samples placed where the trajectory
+ * bends, such that it can be rendered with {@link SegmentedLine3DMeshDataGenerator} using fewer
+ * samples than with a uniform sampling in time for the same visual quality.
+ * <p>
+ * The trajectory is first evaluated on a dense uniform grid of candidate times. The samples are then
+ * selected among the candidates by recursively splitting the interval with the largest chord error,
+ * i.e. the largest distance from a candidate to the segment joining the two ends of the interval,
+ * at the candidate realizing this error. The chord error of an interval grows with the curvature
+ * times the square of its length, so tight turns get more samples while straight portions get few.
+ * When the trajectory is straight, the remaining samples are spread to split the longest intervals
+ * first.
+ * </p>
+ * <p>
+ * All the memory is allocated at construction, calling {@link #compute(double, double, TrajectoryFunction)}
+ * does not generate garbage.
+ * </p>
+ */
+public class AdaptiveTrajectorySampler
+{
+   /** Default number of candidates evaluated per output sample. */
+   public static final int DEFAULT_OVERSAMPLING = 8;
+   /** Chord error relative to the chord length under which an interval is considered straight. */
+   private static final double STRAIGHT_TOLERANCE = 1.0e-9;
+
+   /**
+    * Function used to evaluate the trajectory to be sampled.
+    */
+   public static interface TrajectoryFunction
+   {
+      /**
+       * Evaluates the position of the trajectory at the given time.
+       *
+       * @param time           the time at which the trajectory is evaluated.
+       * @param positionToPack the position of the trajectory. Modified.
+       */
+      void compute(double time, Point3DBasics positionToPack);
+   }
+
+   private final int numberOfSamples;
+   private final int numberOfCandidates;
+
+   private final double[] candidateTimes;
+   private final double[] candidateXs, candidateYs, candidateZs;
+   private final boolean[] isCandidateSelected;
+
+   /*
+    * Max-heap of the intervals that can be split, stored in parallel arrays. An interval is defined by
+    * the indices of its end candidates and is split at the candidate with the largest chord error.
+    */
+   private int heapSize;
+   private final int[] heapStarts, heapEnds, heapSplits;
+   private final double[] heapErrors;
+
+   private final double[] sampleTimes;
+   private final Point3D[] samplePositions;
+   private final Point3D tempPosition = new Point3D();
+
+   /**
+    * Creates a new sampler using {@link #DEFAULT_OVERSAMPLING} candidates per sample.
+    *
+    * @param numberOfSamples the number of samples to output, should be equal to the number of
+    *                        waypoints of the {@link SegmentedLine3DMeshDataGenerator} to feed.
+    */
+   public AdaptiveTrajectorySampler(int numberOfSamples)
+   {
+      this(numberOfSamples, DEFAULT_OVERSAMPLING * numberOfSamples);
+   }
+
+   /**
+    * Creates a new sampler.
+    *
+    * @param numberOfSamples    the number of samples to output, should be equal to the number of
+    *                           waypoints of the {@link SegmentedLine3DMeshDataGenerator} to feed.
+    * @param numberOfCandidates the number of times the trajectory is evaluated when computing the
+    *                           samples. A larger number improves the placement of the samples at the
+    *                           cost of computation time.
+    * @throws IllegalArgumentException if {@code numberOfSamples} is less than 2 or if
+    *                                  {@code numberOfCandidates} is less than
+    *                                  {@code numberOfSamples}.
+    */
+   public AdaptiveTrajectorySampler(int numberOfSamples, int numberOfCandidates)
+   {
+      if (numberOfSamples < 2)
+         throw new IllegalArgumentException("Unexpected number of samples. Expected: at least 2, but was: " + numberOfSamples);
+      if (numberOfCandidates < numberOfSamples)
+         throw new IllegalArgumentException("Unexpected number of candidates. Expected: at least " + numberOfSamples + ", but was: " + numberOfCandidates);
+
+      this.numberOfSamples = numberOfSamples;
+      this.numberOfCandidates = numberOfCandidates;
+
+      candidateTimes = new double[numberOfCandidates];
+      candidateXs = new double[numberOfCandidates];
+      candidateYs = new double[numberOfCandidates];
+      candidateZs = new double[numberOfCandidates];
+      isCandidateSelected = new boolean[numberOfCandidates];
+
+      heapStarts = new int[numberOfSamples - 1];
+      heapEnds = new int[numberOfSamples - 1];
+      heapSplits = new int[numberOfSamples - 1];
+      heapErrors = new double[numberOfSamples - 1];
+
+      sampleTimes = new double[numberOfSamples];
+      samplePositions = new Point3D[numberOfSamples];
+      for (int i = 0; i < numberOfSamples; i++)
+         samplePositions[i] = new Point3D();
+   }
+
+   /**
+    * Samples the trajectory over the given time interval.
+    * <p>
+    * The first and last samples are always at {@code startTime} and {@code endTime}, the results can
+    * be accessed via {@link #getSampleTimes()} and {@link #getSamplePositions()}.
+    * </p>
+    *
+    * @param startTime  the time at which the trajectory starts.
+    * @param endTime    the time at which the trajectory ends.
+    * @param trajectory the function used to evaluate the trajectory.
+    */
+   public void compute(double startTime, double endTime, TrajectoryFunction trajectory)
+   {
+      for (int i = 0; i < numberOfCandidates; i++)
+      {
+         double t = startTime + i / (numberOfCandidates - 1.0) * (endTime - startTime);
+         trajectory.compute(t, tempPosition);
+         candidateTimes[i] = t;
+         candidateXs[i] = tempPosition.getX();
+         candidateYs[i] = tempPosition.getY();
+         candidateZs[i] = tempPosition.getZ();
+         isCandidateSelected[i] = false;
+      }
+
+      isCandidateSelected[0] = true;
+      isCandidateSelected[numberOfCandidates - 1] = true;
+
+      heapSize = 0;
+      pushInterval(0, numberOfCandidates - 1);
+
+      for (int sample = 2; sample < numberOfSamples; sample++)
+      {
+         int start = heapStarts[0];
+         int end = heapEnds[0];
+         int split = heapSplits[0];
+         popInterval();
+
+         isCandidateSelected[split] = true;
+         pushInterval(start, split);
+         pushInterval(split, end);
+      }
+
+      int sample = 0;
+
+      for (int i = 0; i < numberOfCandidates; i++)
+      {
+         if (!isCandidateSelected[i])
+            continue;
+
+         sampleTimes[sample] = candidateTimes[i];
+         samplePositions[sample].set(candidateXs[i], candidateYs[i], candidateZs[i]);
+         sample++;
+      }
+   }
+
+   /**
+    * Evaluates the chord error of the interval and adds it to the heap if it can be split.
+    */
+   private void pushInterval(int start, int end)
+   {
+      if (end - start < 2)
+         return; // No candidate to split the interval at.
+
+      double startX = candidateXs[start], startY = candidateYs[start], startZ = candidateZs[start];
+      double chordX = candidateXs[end] - startX;
+      double chordY = candidateYs[end] - startY;
+      double chordZ = candidateZs[end] - startZ;
+      double chordLengthSquared = chordX * chordX + chordY * chordY + chordZ * chordZ;
+
+      double maxErrorSquared = 0.0;
+      int split = (start + end) / 2;
+
+      for (int i = start + 1; i < end; i++)
+      {
+         double dx = candidateXs[i] - startX;
+         double dy = candidateYs[i] - startY;
+         double dz = candidateZs[i] - startZ;
+
+         if (chordLengthSquared > 0.0)
+         { // Distance to the segment.
+            double alpha = (dx * chordX + dy * chordY + dz * chordZ) / chordLengthSquared;
+            if (alpha > 1.0)
+               alpha = 1.0;
+            else if (alpha < 0.0)
+               alpha = 0.0;
+            dx -= alpha * chordX;
+            dy -= alpha * chordY;
+            dz -= alpha * chordZ;
+         }
+
+         double errorSquared = dx * dx + dy * dy + dz * dz;
+
+         if (errorSquared > maxErrorSquared)
+         {
+            maxErrorSquared = errorSquared;
+            split = i;
+         }
+      }
+
+      double error;
+
+      if (maxErrorSquared <= STRAIGHT_TOLERANCE * STRAIGHT_TOLERANCE * chordLengthSquared)
+      { // Straight interval, the longest ones are split first.
+         error = -1.0 / (end - start);
+         split = (start + end) / 2;
+      }
+      else
+      {
+         error = Math.sqrt(maxErrorSquared);
+      }
+
+      int index = heapSize++;
+      heapStarts[index] = start;
+      heapEnds[index] = end;
+      heapSplits[index] = split;
+      heapErrors[index] = error;
+
+      while (index > 0)
+      {
+         int parent = (index - 1) / 2;
+         if (heapErrors[parent] >= heapErrors[index])
+            break;
+         swap(index, parent);
+         index = parent;
+      }
+   }
+
+   private void popInterval()
+   {
+      heapSize--;
+      swap(0, heapSize);
+
+      int index = 0;
+
+      while (true)
+      {
+         int largest = index;
+         int left = 2 * index + 1;
+         int right = left + 1;
+         if (left < heapSize && heapErrors[left] > heapErrors[largest])
+            largest = left;
+         if (right < heapSize && heapErrors[right] > heapErrors[largest])
+            largest = right;
+         if (largest == index)
+            break;
+         swap(index, largest);
+         index = largest;
+      }
+   }
+
+   private void swap(int i, int j)
+   {
+      int start = heapStarts[i];
+      heapStarts[i] = heapStarts[j];
+      heapStarts[j] = start;
+      int end = heapEnds[i];
+      heapEnds[i] = heapEnds[j];
+      heapEnds[j] = end;
+      int split = heapSplits[i];
+      heapSplits[i] = heapSplits[j];
+      heapSplits[j] = split;
+      double error = heapErrors[i];
+      heapErrors[i] = heapErrors[j];
+      heapErrors[j] = error;
+   }
+
+   /**
+    * Gets the number of samples computed by this sampler.
+    *
+    * @return the number of samples.
+    */
+   public int getNumberOfSamples()
+   {
+      return numberOfSamples;
+   }
+
+   /**
+    * Gets the times of the samples, in increasing order.
+    * <p>
+    * WARNING: the array is part of the internal memory of this sampler and is updated when calling
+    * {@link #compute(double, double, TrajectoryFunction)}.
+    * </p>
+    *
+    * @return the times of the samples.
+    */
+   public double[] getSampleTimes()
+   {
+      return sampleTimes;
+   }
+
+   /**
+    * Gets the positions of the samples, in the same order as their times.
+    * <p>
+    * WARNING: the positions are part of the internal memory of this sampler and are updated when
+    * calling {@link #compute(double, double, TrajectoryFunction)}.
+    * </p>
+    *
+    * @return the positions of the samples.
+    */
+   public Point3D[] getSamplePositions()
+   {
+      return samplePositions;
+   }
+}
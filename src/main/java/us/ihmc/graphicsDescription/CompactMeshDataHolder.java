@@ -0,0 +1,524 @@
+package us.ihmc.graphicsDescription;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class provides a compact encoding of a 3D graphic mesh, meant to reduce the memory and
+ * bandwidth used when storing or sending meshes:
+ * <ul>
+ * <li>the vertex coordinates are quantized to 16-bit unsigned integers within the bounding box of
+ * the mesh, using 6 bytes instead of 12,
+ * <li>the vertex normals are octahedral-encoded with two 8-bit or two 16-bit components, using 2 or
+ * 4 bytes instead of 12,
+ * <li>the texture coordinates are stored as half-precision floats, using 4 bytes instead of 8,
+ * <li>the triangle indices are unchanged.
+ * </ul>
+ * <p>
+ * A vertex takes 12 or 14 bytes instead of the 32 bytes of a {@link PackedMeshDataHolder}. The
+ * maximum errors introduced by the encoding are given by {@link #getPositionErrorBound()},
+ * {@link #getNormalErrorBound()}, and {@link #getTexturePointErrorBound()}.
+ * </p>
+ * <p>
+ * Meshes are encoded with {@link #encode(PackedMeshDataHolder, NormalEncoding)}, decoded in bulk
+ * with {@link #decode()}, and can be serialized with {@link #write(ByteBuffer)} and
+ * {@link #read(ByteBuffer)}.
+ * </p>
+ */
+public class CompactMeshDataHolder
+{
+   /**
+    * The precision used to encode the vertex normals.
+    */
+   public enum NormalEncoding
+   {
+      /** Two 8-bit components per normal, the error is about 1 degree. */
+      OCTAHEDRAL_8(8),
+      /** Two 16-bit components per normal, the error is about 0.004 degree. */
+      OCTAHEDRAL_16(16);
+
+      private final int bitsPerComponent;
+
+      private NormalEncoding(int bitsPerComponent)
+      {
+         this.bitsPerComponent = bitsPerComponent;
+      }
+
+      /**
+       * @return the number of bits used for each of the two components of an encoded normal.
+       */
+      public int getBitsPerComponent()
+      {
+         return bitsPerComponent;
+      }
+
+      private int getMaxValue()
+      {
+         return (1 << bitsPerComponent) - 1;
+      }
+
+      public static final NormalEncoding[] values = values();
+   }
+
+   private static final int POSITION_MAX_VALUE = 0xFFFF;
+
+   private final int numberOfVertices;
+   private final NormalEncoding normalEncoding;
+   /** The bounding box used for quantizing the positions: {@code [minX, minY, minZ, maxX, maxY, maxZ]}. */
+   private final float[] bounds;
+   /** 3 unsigned 16-bit components per vertex. */
+   private final short[] quantizedPositions;
+   /** 1 short per vertex holding two 8-bit components, or 2 shorts per vertex. */
+   private final short[] encodedNormals;
+   /** 2 half-precision floats per vertex. */
+   private final short[] halfTexturePoints;
+   private final int[] triangleIndices;
+   private String name = "CompactMeshDataHolder";
+
+   private CompactMeshDataHolder(int numberOfVertices, NormalEncoding normalEncoding, float[] bounds, short[] quantizedPositions, short[] encodedNormals,
+                                 short[] halfTexturePoints, int[] triangleIndices)
+   {
+      this.numberOfVertices = numberOfVertices;
+      this.normalEncoding = normalEncoding;
+      this.bounds = bounds;
+      this.quantizedPositions = quantizedPositions;
+      this.encodedNormals = encodedNormals;
+      this.halfTexturePoints = halfTexturePoints;
+      this.triangleIndices = triangleIndices;
+   }
+
+   /**
+    * Encodes the given mesh.
+    *
+    * @param input          the mesh to encode. Not modified.
+    * @param normalEncoding the precision to use for the normals.
+    * @return the encoded mesh.
+    */
+   public static CompactMeshDataHolder encode(MeshDataHolder input, NormalEncoding normalEncoding)
+   {
+      CompactMeshDataHolder output = encode(PackedMeshDataHolder.pack(input), normalEncoding);
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Encodes the given mesh.
+    *
+    * @param input          the mesh to encode. Not modified.
+    * @param normalEncoding the precision to use for the normals.
+    * @return the encoded mesh.
+    */
+   public static CompactMeshDataHolder encode(PackedMeshDataHolder input, NormalEncoding normalEncoding)
+   {
+      int numberOfVertices = input.getNumberOfVertices();
+      float[] vertexCoordinates = input.getVertexCoordinates();
+      float[] normalCoordinates = input.getVertexNormalCoordinates();
+      float[] texturePointCoordinates = input.getTexturePointCoordinates();
+
+      float[] bounds = new float[6];
+
+      if (numberOfVertices > 0)
+      {
+         for (int axis = 0; axis < 3; axis++)
+         {
+            bounds[axis] = Float.POSITIVE_INFINITY;
+            bounds[axis + 3] = Float.NEGATIVE_INFINITY;
+         }
+
+         for (int i = 0; i < 3 * numberOfVertices; i += 3)
+         {
+            for (int axis = 0; axis < 3; axis++)
+            {
+               float value = vertexCoordinates[i + axis];
+               if (value < bounds[axis])
+                  bounds[axis] = value;
+               if (value > bounds[axis + 3])
+                  bounds[axis + 3] = value;
+            }
+         }
+      }
+
+      short[] quantizedPositions = new short[3 * numberOfVertices];
+
+      for (int axis = 0; axis < 3; axis++)
+      {
+         float min = bounds[axis];
+         float extent = bounds[axis + 3] - min;
+         float scale = extent > 0.0f ? POSITION_MAX_VALUE / extent : 0.0f;
+
+         for (int i = axis; i < 3 * numberOfVertices; i += 3)
+            quantizedPositions[i] = (short) Math.round((vertexCoordinates[i] - min) * scale);
+      }
+
+      int normalStride = normalEncoding == NormalEncoding.OCTAHEDRAL_8 ? 1 : 2;
+      short[] encodedNormals = new short[normalStride * numberOfVertices];
+      float normalMaxValue = normalEncoding.getMaxValue();
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         float x = normalCoordinates[3 * i], y = normalCoordinates[3 * i + 1], z = normalCoordinates[3 * i + 2];
+         float norm1 = Math.abs(x) + Math.abs(y) + Math.abs(z);
+         float u, v;
+
+         if (norm1 > 0.0f)
+         {
+            u = x / norm1;
+            v = y / norm1;
+
+            if (z < 0.0f)
+            { // The lower hemisphere is folded over the diagonals.
+               float foldedU = (1.0f - Math.abs(v)) * signNotZero(u);
+               v = (1.0f - Math.abs(u)) * signNotZero(v);
+               u = foldedU;
+            }
+         }
+         else
+         {
+            u = 0.0f;
+            v = 0.0f;
+         }
+
+         int quantizedU = Math.round((0.5f * u + 0.5f) * normalMaxValue);
+         int quantizedV = Math.round((0.5f * v + 0.5f) * normalMaxValue);
+
+         if (normalStride == 1)
+         {
+            encodedNormals[i] = (short) (quantizedU | quantizedV << 8);
+         }
+         else
+         {
+            encodedNormals[2 * i] = (short) quantizedU;
+            encodedNormals[2 * i + 1] = (short) quantizedV;
+         }
+      }
+
+      short[] halfTexturePoints = new short[2 * numberOfVertices];
+      for (int i = 0; i < 2 * numberOfVertices; i++)
+         halfTexturePoints[i] = floatToHalf(texturePointCoordinates[i]);
+
+      CompactMeshDataHolder output = new CompactMeshDataHolder(numberOfVertices,
+                                                               normalEncoding,
+                                                               bounds,
+                                                               quantizedPositions,
+                                                               encodedNormals,
+                                                               halfTexturePoints,
+                                                               input.getTriangleIndices().clone());
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Decodes this mesh.
+    *
+    * @return the decoded mesh.
+    */
+   public PackedMeshDataHolder decode()
+   {
+      PackedMeshDataHolder output = new PackedMeshDataHolder(numberOfVertices, triangleIndices.length);
+      decode(output.getVertexCoordinates(), output.getVertexNormalCoordinates(), output.getTexturePointCoordinates());
+      System.arraycopy(triangleIndices, 0, output.getTriangleIndices(), 0, triangleIndices.length);
+      output.setName(name);
+      return output;
+   }
+
+   /**
+    * Decodes the vertices of this mesh into the given arrays.
+    *
+    * @param vertexCoordinatesToPack       the array in which the vertex coordinates are stored, 3
+    *                                      floats per vertex. Modified.
+    * @param vertexNormalCoordinatesToPack the array in which the vertex normals are stored, 3 floats
+    *                                      per vertex. Modified.
+    * @param texturePointCoordinatesToPack the array in which the texture coordinates are stored, 2
+    *                                      floats per vertex. Modified.
+    */
+   public void decode(float[] vertexCoordinatesToPack, float[] vertexNormalCoordinatesToPack, float[] texturePointCoordinatesToPack)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         float min = bounds[axis];
+         float step = (bounds[axis + 3] - min) / POSITION_MAX_VALUE;
+
+         for (int i = axis; i < 3 * numberOfVertices; i += 3)
+            vertexCoordinatesToPack[i] = min + (quantizedPositions[i] & POSITION_MAX_VALUE) * step;
+      }
+
+      boolean isPackedInOneShort = normalEncoding == NormalEncoding.OCTAHEDRAL_8;
+      float normalScale = 2.0f / normalEncoding.getMaxValue();
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         int quantizedU, quantizedV;
+
+         if (isPackedInOneShort)
+         {
+            quantizedU = encodedNormals[i] & 0xFF;
+            quantizedV = encodedNormals[i] >> 8 & 0xFF;
+         }
+         else
+         {
+            quantizedU = encodedNormals[2 * i] & 0xFFFF;
+            quantizedV = encodedNormals[2 * i + 1] & 0xFFFF;
+         }
+
+         float x = quantizedU * normalScale - 1.0f;
+         float y = quantizedV * normalScale - 1.0f;
+         float z = 1.0f - Math.abs(x) - Math.abs(y);
+
+         if (z < 0.0f)
+         {
+            float unfoldedX = (1.0f - Math.abs(y)) * signNotZero(x);
+            y = (1.0f - Math.abs(x)) * signNotZero(y);
+            x = unfoldedX;
+         }
+
+         float inverseNorm = (float) (1.0 / Math.sqrt(x * x + y * y + z * z));
+         vertexNormalCoordinatesToPack[3 * i] = x * inverseNorm;
+         vertexNormalCoordinatesToPack[3 * i + 1] = y * inverseNorm;
+         vertexNormalCoordinatesToPack[3 * i + 2] = z * inverseNorm;
+      }
+
+      for (int i = 0; i < 2 * numberOfVertices; i++)
+         texturePointCoordinatesToPack[i] = halfToFloat(halfTexturePoints[i]);
+   }
+
+   private static float signNotZero(float value)
+   {
+      return value >= 0.0f ? 1.0f : -1.0f;
+   }
+
+   /**
+    * Gets the maximum distance between an original vertex and its decoded counterpart.
+    *
+    * @return the error bound on the vertex positions.
+    */
+   public double getPositionErrorBound()
+   {
+      double errorSquared = 0.0;
+
+      for (int axis = 0; axis < 3; axis++)
+      {
+         // Half a quantization step, and the rounding of the decoded value to a float.
+         double maxAbsolute = Math.max(Math.abs(bounds[axis]), Math.abs(bounds[axis + 3]));
+         double error = 0.5 * (bounds[axis + 3] - bounds[axis]) / POSITION_MAX_VALUE + 2.0 * Math.ulp((float) maxAbsolute);
+         errorSquared += error * error;
+      }
+
+      return Math.sqrt(errorSquared);
+   }
+
+   /**
+    * Gets the maximum distance between an original unit normal and its decoded counterpart.
+    * <p>
+    * Rounding introduces an error of at most half a step, {@code 1 / (2^bits - 1)}, on each of the two
+    * octahedral components, which moves the point on the octahedron by at most {@code sqrt(6)} times
+    * this value. Projecting back onto the unit sphere scales it by at most {@code sqrt(3)}.
+    * </p>
+    *
+    * @return the error bound on the vertex normals.
+    */
+   public double getNormalErrorBound()
+   {
+      return Math.sqrt(18.0) / normalEncoding.getMaxValue();
+   }
+
+   /**
+    * Gets the maximum difference between an original texture coordinate and its decoded counterpart.
+    *
+    * @return the error bound on the texture coordinates.
+    */
+   public double getTexturePointErrorBound()
+   {
+      float maxAbsolute = 0.0f;
+      for (int i = 0; i < 2 * numberOfVertices; i++)
+         maxAbsolute = Math.max(maxAbsolute, Math.abs(halfToFloat(halfTexturePoints[i])));
+
+      // Half-precision floats have 10 bits of mantissa and a minimum exponent of -14.
+      int exponent = Math.max(Math.getExponent(maxAbsolute), -14);
+      return Math.scalb(0.5, exponent - 10);
+   }
+
+   /**
+    * Converts a float to the bits of the closest half-precision float. Values too large to be
+    * represented are converted to infinity.
+    *
+    * @param value the value to convert.
+    * @return the half-precision float bits.
+    */
+   public static short floatToHalf(float value)
+   {
+      int bits = Float.floatToRawIntBits(value);
+      int sign = bits >>> 16 & 0x8000;
+      int exponent = (bits >>> 23 & 0xFF) - 127 + 15;
+      int mantissa = bits & 0x007FFFFF;
+
+      if (exponent >= 0x1F)
+      {
+         if ((bits & 0x7FFFFFFF) > 0x7F800000) // NaN
+            return (short) (sign | 0x7E00);
+         // Infinity or overflow, which can also come from rounding below.
+         return (short) (sign | 0x7C00);
+      }
+
+      if (exponent <= 0)
+      { // Subnormal or zero.
+         if (exponent < -10)
+            return (short) sign;
+         mantissa |= 0x00800000;
+         int shift = 14 - exponent;
+         int half = mantissa >> shift;
+         int remainder = mantissa & (1 << shift) - 1;
+         int halfway = 1 << shift - 1;
+         if (remainder > halfway || remainder == halfway && (half & 1) != 0)
+            half++;
+         return (short) (sign | half);
+      }
+
+      int half = exponent << 10 | mantissa >> 13;
+      int remainder = mantissa & 0x1FFF;
+      if (remainder > 0x1000 || remainder == 0x1000 && (half & 1) != 0)
+         half++; // A carry into the exponent correctly rounds up to the next power of 2 or infinity.
+      return (short) (sign | half);
+   }
+
+   /**
+    * Converts the bits of a half-precision float to a float.
+    *
+    * @param half the half-precision float bits.
+    * @return the float value.
+    */
+   public static float halfToFloat(short half)
+   {
+      int sign = (half & 0x8000) << 16;
+      int exponent = half >>> 10 & 0x1F;
+      int mantissa = half & 0x03FF;
+
+      if (exponent == 0x1F)
+         return Float.intBitsToFloat(sign | 0x7F800000 | mantissa << 13);
+
+      if (exponent == 0)
+      {
+         float value = mantissa * 0x1.0p-24f;
+         return sign == 0 ? value : -value;
+      }
+
+      return Float.intBitsToFloat(sign | exponent - 15 + 127 << 23 | mantissa << 13);
+   }
+
+   /**
+    * Writes this mesh to the given buffer in little-endian order, see {@link #getSizeInBytes()} for
+    * the number of bytes written. A {@code null} name is written empty.
+    *
+    * @param buffer the buffer to write to, starting at its position. Modified.
+    * @throws IllegalArgumentException if the name is longer than 65535 bytes in UTF-8.
+    */
+   public void write(ByteBuffer buffer)
+   {
+      ByteOrder order = buffer.order();
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+      byte[] nameBytes = getNameBytes();
+      buffer.putShort((short) nameBytes.length);
+      buffer.put(nameBytes);
+      buffer.put((byte) normalEncoding.ordinal());
+      buffer.putInt(numberOfVertices);
+      buffer.putInt(triangleIndices.length);
+      for (float bound : bounds)
+         buffer.putFloat(bound);
+      buffer.asShortBuffer().put(quantizedPositions).put(encodedNormals).put(halfTexturePoints);
+      buffer.position(buffer.position() + Short.BYTES * (quantizedPositions.length + encodedNormals.length + halfTexturePoints.length));
+      buffer.asIntBuffer().put(triangleIndices);
+      buffer.position(buffer.position() + Integer.BYTES * triangleIndices.length);
+
+      buffer.order(order);
+   }
+
+   /**
+    * Reads a mesh written with {@link #write(ByteBuffer)}.
+    *
+    * @param buffer the buffer to read from, starting at its position. Modified.
+    * @return the mesh.
+    */
+   public static CompactMeshDataHolder read(ByteBuffer buffer)
+   {
+      ByteOrder order = buffer.order();
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+      byte[] nameBytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+      buffer.get(nameBytes);
+      NormalEncoding normalEncoding = NormalEncoding.values[buffer.get()];
+      int numberOfVertices = buffer.getInt();
+      int numberOfTriangleIndices = buffer.getInt();
+      float[] bounds = new float[6];
+      for (int i = 0; i < bounds.length; i++)
+         bounds[i] = buffer.getFloat();
+
+      short[] quantizedPositions = new short[3 * numberOfVertices];
+      short[] encodedNormals = new short[(normalEncoding == NormalEncoding.OCTAHEDRAL_8 ? 1 : 2) * numberOfVertices];
+      short[] halfTexturePoints = new short[2 * numberOfVertices];
+      int[] triangleIndices = new int[numberOfTriangleIndices];
+      buffer.asShortBuffer().get(quantizedPositions).get(encodedNormals).get(halfTexturePoints);
+      buffer.position(buffer.position() + Short.BYTES * (quantizedPositions.length + encodedNormals.length + halfTexturePoints.length));
+      buffer.asIntBuffer().get(triangleIndices);
+      buffer.position(buffer.position() + Integer.BYTES * triangleIndices.length);
+
+      buffer.order(order);
+
+      CompactMeshDataHolder output = new CompactMeshDataHolder(numberOfVertices,
+                                                               normalEncoding,
+                                                               bounds,
+                                                               quantizedPositions,
+                                                               encodedNormals,
+                                                               halfTexturePoints,
+                                                               triangleIndices);
+      output.setName(new String(nameBytes, StandardCharsets.UTF_8));
+      return output;
+   }
+
+   /**
+    * Gets the number of bytes used by {@link #write(ByteBuffer)} for this mesh.
+    *
+    * @return the size in bytes of this mesh once serialized.
+    */
+   public int getSizeInBytes()
+   {
+      int size = Short.BYTES + getNameBytes().length + 1 + 2 * Integer.BYTES + 6 * Float.BYTES;
+      size += Short.BYTES * (quantizedPositions.length + encodedNormals.length + halfTexturePoints.length);
+      size += Integer.BYTES * triangleIndices.length;
+      return size;
+   }
+
+   private byte[] getNameBytes()
+   {
+      // A null name is written empty.
+      byte[] nameBytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+      if (nameBytes.length > 0xFFFF)
+         throw new IllegalArgumentException("The mesh name is too long. Expected: at most " + 0xFFFF + " bytes, but was: " + nameBytes.length);
+      return nameBytes;
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public NormalEncoding getNormalEncoding()
+   {
+      return normalEncoding;
+   }
+
+   public int[] getTriangleIndices()
+   {
+      return triangleIndices;
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String name)
+   {
+      this.name = name;
+   }
+}
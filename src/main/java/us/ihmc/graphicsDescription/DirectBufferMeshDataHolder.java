@@ -0,0 +1,542 @@
+package us.ihmc.graphicsDescription;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import us.ihmc.euclid.interfaces.Transformable;
+import us.ihmc.euclid.transform.interfaces.Transform;
+import us.ihmc.euclid.tuple2D.interfaces.Tuple2DBasics;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
+
+/**
+ * This class provides an off-heap data structure for 3D graphic mesh that is independent from the
+ * graphics engine to be used. The mesh data is stored in direct {@link ByteBuffer}s using the
+ * native byte order such that an engine adapter can hand the buffers straight to the graphics
+ * driver without copying them first.
+ * <p>
+ * Two memory layouts are available, see {@link Layout}. All the accessors of this class use
+ * absolute indexing, the position and limit of the buffers are never modified by this class.
+ * </p>
+ * <p>
+ * The index format is selected automatically: meshes with at most
+ * {@link #MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES} vertices store their triangle indices as
+ * unsigned 16-bit values, halving the size of the index buffer, larger meshes use 32-bit indices.
+ * See {@link MeshChunker} to split a large mesh into chunks that can all use 16-bit indices.
+ * </p>
+ */
+public class DirectBufferMeshDataHolder implements Transformable
+{
+   /** Memory layout used for the vertex data. */
+   public enum Layout
+   {
+      /**
+       * A single buffer holds the data of each vertex contiguously:
+       * {@code [x0, y0, z0, nx0, ny0, nz0, u0, v0, x1, ...]}. See {@link #INTERLEAVED_STRIDE},
+       * {@link #INTERLEAVED_POSITION_OFFSET}, {@link #INTERLEAVED_NORMAL_OFFSET}, and
+       * {@link #INTERLEAVED_TEXTURE_OFFSET}.
+       */
+      INTERLEAVED,
+      /**
+       * One buffer per attribute: {@code [x0, y0, z0, x1, ...]}, {@code [nx0, ny0, nz0, nx1, ...]},
+       * and {@code [u0, v0, u1, ...]}.
+       */
+      PLANAR
+   }
+
+   /** Format used to store the triangle indices. */
+   public enum IndexType
+   {
+      /** The indices are stored as unsigned 16-bit values, see {@link #getShortTriangleIndexBuffer()}. */
+      UNSIGNED_SHORT,
+      /** The indices are stored as 32-bit values, see {@link #getTriangleIndexBuffer()}. */
+      UNSIGNED_INT
+   }
+
+   /** Maximum number of vertices a mesh can have to be indexed with unsigned 16-bit values. */
+   public static final int MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES = 1 << 16;
+
+   /** Number of floats per vertex in the interleaved layout. */
+   public static final int INTERLEAVED_STRIDE = 8;
+   /** Offset in floats of the vertex position in the interleaved layout. */
+   public static final int INTERLEAVED_POSITION_OFFSET = 0;
+   /** Offset in floats of the vertex normal in the interleaved layout. */
+   public static final int INTERLEAVED_NORMAL_OFFSET = 3;
+   /** Offset in floats of the texture coordinates in the interleaved layout. */
+   public static final int INTERLEAVED_TEXTURE_OFFSET = 6;
+
+   private final Layout layout;
+   private final int numberOfVertices;
+
+   private final FloatBuffer interleavedBuffer;
+   private final FloatBuffer vertexBuffer;
+   private final FloatBuffer vertexNormalBuffer;
+   private final FloatBuffer texturePointBuffer;
+   private final IndexType indexType;
+   private final IntBuffer triangleIndexBuffer;
+   private final ShortBuffer shortTriangleIndexBuffer;
+
+   private String name = "DirectBufferMeshDataHolder";
+
+   private final Point3D32 tempVertex = new Point3D32();
+   private final Vector3D32 tempNormal = new Vector3D32();
+
+   /**
+    * Allocates a new off-heap mesh. All the values are initialized to zero. The index format is
+    * selected from the number of vertices.
+    *
+    * @param numberOfVertices        the number of vertices of the mesh.
+    * @param numberOfTriangleIndices the number of triangle indices, i.e. 3 times the number of
+    *                                triangles.
+    * @param layout                  the memory layout to use for the vertex data.
+    */
+   public DirectBufferMeshDataHolder(int numberOfVertices, int numberOfTriangleIndices, Layout layout)
+   {
+      this.layout = layout;
+      this.numberOfVertices = numberOfVertices;
+
+      if (layout == Layout.INTERLEAVED)
+      {
+         interleavedBuffer = allocateFloatBuffer(INTERLEAVED_STRIDE * numberOfVertices);
+         vertexBuffer = null;
+         vertexNormalBuffer = null;
+         texturePointBuffer = null;
+      }
+      else
+      {
+         interleavedBuffer = null;
+         vertexBuffer = allocateFloatBuffer(3 * numberOfVertices);
+         vertexNormalBuffer = allocateFloatBuffer(3 * numberOfVertices);
+         texturePointBuffer = allocateFloatBuffer(2 * numberOfVertices);
+      }
+
+      indexType = selectIndexType(numberOfVertices);
+
+      if (indexType == IndexType.UNSIGNED_SHORT)
+      {
+         triangleIndexBuffer = null;
+         shortTriangleIndexBuffer = ByteBuffer.allocateDirect(Short.BYTES * numberOfTriangleIndices).order(ByteOrder.nativeOrder()).asShortBuffer();
+      }
+      else
+      {
+         triangleIndexBuffer = ByteBuffer.allocateDirect(Integer.BYTES * numberOfTriangleIndices).order(ByteOrder.nativeOrder()).asIntBuffer();
+         shortTriangleIndexBuffer = null;
+      }
+   }
+
+   /**
+    * Selects the most compact index format that can address the given number of vertices.
+    *
+    * @param numberOfVertices the number of vertices of the mesh.
+    * @return the index format to use.
+    */
+   public static IndexType selectIndexType(int numberOfVertices)
+   {
+      return numberOfVertices <= MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES ? IndexType.UNSIGNED_SHORT : IndexType.UNSIGNED_INT;
+   }
+
+   private DirectBufferMeshDataHolder(int numberOfVertices, FloatBuffer vertexBuffer, FloatBuffer vertexNormalBuffer, FloatBuffer texturePointBuffer,
+                                      IntBuffer triangleIndexBuffer, ShortBuffer shortTriangleIndexBuffer)
+   {
+      layout = Layout.PLANAR;
+      this.numberOfVertices = numberOfVertices;
+      interleavedBuffer = null;
+      this.vertexBuffer = vertexBuffer;
+      this.vertexNormalBuffer = vertexNormalBuffer;
+      this.texturePointBuffer = texturePointBuffer;
+      indexType = shortTriangleIndexBuffer != null ? IndexType.UNSIGNED_SHORT : IndexType.UNSIGNED_INT;
+      this.triangleIndexBuffer = triangleIndexBuffer;
+      this.shortTriangleIndexBuffer = shortTriangleIndexBuffer;
+   }
+
+   /**
+    * Creates a mesh with the {@link Layout#PLANAR} layout that uses the given buffers without copying
+    * them, for instance buffers mapped from a file.
+    *
+    * @param numberOfVertices         the number of vertices of the mesh.
+    * @param vertexBuffer             the vertex coordinates, its capacity has to be
+    *                                 {@code 3 * numberOfVertices}.
+    * @param vertexNormalBuffer       the vertex normals, its capacity has to be
+    *                                 {@code 3 * numberOfVertices}.
+    * @param texturePointBuffer       the texture coordinates, its capacity has to be
+    *                                 {@code 2 * numberOfVertices}.
+    * @param triangleIndexBuffer      the 32-bit triangle indices, {@code null} if the mesh uses
+    *                                 16-bit indices.
+    * @param shortTriangleIndexBuffer the 16-bit triangle indices, {@code null} if the mesh uses
+    *                                 32-bit indices.
+    * @return the new mesh.
+    * @throws IllegalArgumentException if the buffer capacities are inconsistent or if the index
+    *                                  format cannot address the vertices.
+    */
+   public static DirectBufferMeshDataHolder wrapPlanar(int numberOfVertices, FloatBuffer vertexBuffer, FloatBuffer vertexNormalBuffer,
+                                                       FloatBuffer texturePointBuffer, IntBuffer triangleIndexBuffer, ShortBuffer shortTriangleIndexBuffer)
+   {
+      if (vertexBuffer.capacity() != 3 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected buffer size. Expected: " + 3 * numberOfVertices + ", but was: " + vertexBuffer.capacity());
+      if (vertexNormalBuffer.capacity() != 3 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected buffer size. Expected: " + 3 * numberOfVertices + ", but was: " + vertexNormalBuffer.capacity());
+      if (texturePointBuffer.capacity() != 2 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected buffer size. Expected: " + 2 * numberOfVertices + ", but was: " + texturePointBuffer.capacity());
+      if ((triangleIndexBuffer == null) == (shortTriangleIndexBuffer == null))
+         throw new IllegalArgumentException("Exactly one of the index buffers has to be provided.");
+      if (shortTriangleIndexBuffer != null && numberOfVertices > MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES)
+         throw new IllegalArgumentException("Too many vertices for 16-bit indices: " + numberOfVertices);
+
+      return new DirectBufferMeshDataHolder(numberOfVertices, vertexBuffer, vertexNormalBuffer, texturePointBuffer, triangleIndexBuffer, shortTriangleIndexBuffer);
+   }
+
+   private static FloatBuffer allocateFloatBuffer(int size)
+   {
+      return ByteBuffer.allocateDirect(Float.BYTES * size).order(ByteOrder.nativeOrder()).asFloatBuffer();
+   }
+
+   /**
+    * Copies the given mesh into a new off-heap mesh.
+    *
+    * @param input  the mesh to copy. Not modified.
+    * @param layout the memory layout to use for the vertex data.
+    * @return the off-heap mesh.
+    */
+   public static DirectBufferMeshDataHolder create(MeshDataHolder input, Layout layout)
+   {
+      Point3D32[] vertices = input.getVertices();
+      TexCoord2f[] texturePoints = input.getTexturePoints();
+      Vector3D32[] vertexNormals = input.getVertexNormals();
+      int[] triangleIndices = input.getTriangleIndices();
+
+      DirectBufferMeshDataHolder output = new DirectBufferMeshDataHolder(vertices.length, triangleIndices.length, layout);
+
+      for (int i = 0; i < vertices.length; i++)
+      {
+         output.setVertex(i, vertices[i]);
+         output.setVertexNormal(i, vertexNormals[i]);
+         output.setTexturePoint(i, texturePoints[i].x, texturePoints[i].y);
+      }
+      output.setTriangleIndices(triangleIndices);
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Copies the given packed mesh into a new off-heap mesh. With the {@link Layout#PLANAR} layout,
+    * the arrays are bulk copied.
+    *
+    * @param input  the mesh to copy. Not modified.
+    * @param layout the memory layout to use for the vertex data.
+    * @return the off-heap mesh.
+    */
+   public static DirectBufferMeshDataHolder create(PackedMeshDataHolder input, Layout layout)
+   {
+      float[] vertexCoordinates = input.getVertexCoordinates();
+      float[] vertexNormalCoordinates = input.getVertexNormalCoordinates();
+      float[] texturePointCoordinates = input.getTexturePointCoordinates();
+      int numberOfVertices = input.getNumberOfVertices();
+
+      DirectBufferMeshDataHolder output = new DirectBufferMeshDataHolder(numberOfVertices, input.getTriangleIndices().length, layout);
+
+      if (layout == Layout.PLANAR)
+      {
+         output.vertexBuffer.duplicate().put(vertexCoordinates);
+         output.vertexNormalBuffer.duplicate().put(vertexNormalCoordinates);
+         output.texturePointBuffer.duplicate().put(texturePointCoordinates);
+      }
+      else
+      {
+         FloatBuffer buffer = output.interleavedBuffer.duplicate();
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            buffer.put(vertexCoordinates, 3 * i, 3);
+            buffer.put(vertexNormalCoordinates, 3 * i, 3);
+            buffer.put(texturePointCoordinates, 2 * i, 2);
+         }
+      }
+      output.setTriangleIndices(input.getTriangleIndices());
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Creates an object based copy of this mesh that can be used wherever a {@link MeshDataHolder} is
+    * expected.
+    *
+    * @return the new mesh.
+    */
+   public MeshDataHolder toMeshDataHolder()
+   {
+      Point3D32[] vertices = new Point3D32[numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+      Vector3D32[] vertexNormals = new Vector3D32[numberOfVertices];
+      int[] triangleIndices = new int[getNumberOfTriangleIndices()];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertices[i] = new Point3D32();
+         texturePoints[i] = new TexCoord2f();
+         vertexNormals[i] = new Vector3D32();
+         getVertex(i, vertices[i]);
+         getTexturePoint(i, texturePoints[i]);
+         getVertexNormal(i, vertexNormals[i]);
+      }
+      for (int i = 0; i < triangleIndices.length; i++)
+         triangleIndices[i] = getTriangleIndex(i);
+
+      MeshDataHolder output = new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
+      output.setName(name);
+      return output;
+   }
+
+   public boolean containsNaN()
+   {
+      if (layout == Layout.INTERLEAVED)
+         return containsNaN(interleavedBuffer);
+      else
+         return containsNaN(vertexBuffer) || containsNaN(vertexNormalBuffer) || containsNaN(texturePointBuffer);
+   }
+
+   private static boolean containsNaN(FloatBuffer buffer)
+   {
+      for (int i = 0; i < buffer.capacity(); i++)
+      {
+         if (Float.isNaN(buffer.get(i)))
+            return true;
+      }
+      return false;
+   }
+
+   public Layout getLayout()
+   {
+      return layout;
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public int getNumberOfTriangleIndices()
+   {
+      return indexType == IndexType.UNSIGNED_SHORT ? shortTriangleIndexBuffer.capacity() : triangleIndexBuffer.capacity();
+   }
+
+   public IndexType getIndexType()
+   {
+      return indexType;
+   }
+
+   /**
+    * @return the buffer holding all the vertex data when using the {@link Layout#INTERLEAVED} layout,
+    *         {@code null} otherwise.
+    */
+   public FloatBuffer getInterleavedBuffer()
+   {
+      return interleavedBuffer;
+   }
+
+   /**
+    * @return the buffer holding the vertex coordinates when using the {@link Layout#PLANAR} layout,
+    *         {@code null} otherwise.
+    */
+   public FloatBuffer getVertexBuffer()
+   {
+      return vertexBuffer;
+   }
+
+   /**
+    * @return the buffer holding the vertex normals when using the {@link Layout#PLANAR} layout,
+    *         {@code null} otherwise.
+    */
+   public FloatBuffer getVertexNormalBuffer()
+   {
+      return vertexNormalBuffer;
+   }
+
+   /**
+    * @return the buffer holding the texture coordinates when using the {@link Layout#PLANAR} layout,
+    *         {@code null} otherwise.
+    */
+   public FloatBuffer getTexturePointBuffer()
+   {
+      return texturePointBuffer;
+   }
+
+   /**
+    * @return the buffer holding the triplet indices describing the triangles of this mesh when using
+    *         the {@link IndexType#UNSIGNED_INT} index format, {@code null} otherwise.
+    */
+   public IntBuffer getTriangleIndexBuffer()
+   {
+      return triangleIndexBuffer;
+   }
+
+   /**
+    * @return the buffer holding the triplet indices describing the triangles of this mesh when using
+    *         the {@link IndexType#UNSIGNED_SHORT} index format, {@code null} otherwise. The values
+    *         have to be interpreted as unsigned.
+    */
+   public ShortBuffer getShortTriangleIndexBuffer()
+   {
+      return shortTriangleIndexBuffer;
+   }
+
+   public void getVertex(int vertexIndex, Tuple3DBasics vertexToPack)
+   {
+      get3D(positionBuffer(), positionIndex(vertexIndex), vertexToPack);
+   }
+
+   public void getVertexNormal(int vertexIndex, Tuple3DBasics normalToPack)
+   {
+      get3D(normalBuffer(), normalIndex(vertexIndex), normalToPack);
+   }
+
+   public void getTexturePoint(int vertexIndex, Tuple2DBasics texturePointToPack)
+   {
+      FloatBuffer buffer = textureBuffer();
+      int index = textureIndex(vertexIndex);
+      texturePointToPack.set(buffer.get(index), buffer.get(index + 1));
+   }
+
+   public void setVertex(int vertexIndex, Tuple3DReadOnly vertex)
+   {
+      setVertex(vertexIndex, vertex.getX32(), vertex.getY32(), vertex.getZ32());
+   }
+
+   public void setVertex(int vertexIndex, float x, float y, float z)
+   {
+      set3D(positionBuffer(), positionIndex(vertexIndex), x, y, z);
+   }
+
+   public void setVertexNormal(int vertexIndex, Tuple3DReadOnly normal)
+   {
+      setVertexNormal(vertexIndex, normal.getX32(), normal.getY32(), normal.getZ32());
+   }
+
+   public void setVertexNormal(int vertexIndex, float x, float y, float z)
+   {
+      set3D(normalBuffer(), normalIndex(vertexIndex), x, y, z);
+   }
+
+   public void setTexturePoint(int vertexIndex, float u, float v)
+   {
+      FloatBuffer buffer = textureBuffer();
+      int index = textureIndex(vertexIndex);
+      buffer.put(index, u);
+      buffer.put(index + 1, v);
+   }
+
+   public int getTriangleIndex(int index)
+   {
+      if (indexType == IndexType.UNSIGNED_SHORT)
+         return Short.toUnsignedInt(shortTriangleIndexBuffer.get(index));
+      else
+         return triangleIndexBuffer.get(index);
+   }
+
+   public void setTriangleIndex(int index, int vertexIndex)
+   {
+      if (indexType == IndexType.UNSIGNED_SHORT)
+         shortTriangleIndexBuffer.put(index, (short) vertexIndex);
+      else
+         triangleIndexBuffer.put(index, vertexIndex);
+   }
+
+   private void setTriangleIndices(int[] triangleIndices)
+   {
+      if (indexType == IndexType.UNSIGNED_SHORT)
+      {
+         for (int i = 0; i < triangleIndices.length; i++)
+            shortTriangleIndexBuffer.put(i, (short) triangleIndices[i]);
+      }
+      else
+      {
+         triangleIndexBuffer.duplicate().put(triangleIndices);
+      }
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String name)
+   {
+      this.name = name;
+   }
+
+   @Override
+   public void applyTransform(Transform transform)
+   {
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         getVertex(i, tempVertex);
+         tempVertex.applyTransform(transform);
+         setVertex(i, tempVertex);
+
+         getVertexNormal(i, tempNormal);
+         tempNormal.applyTransform(transform);
+         setVertexNormal(i, tempNormal);
+      }
+   }
+
+   @Override
+   public void applyInverseTransform(Transform transform)
+   {
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         getVertex(i, tempVertex);
+         tempVertex.applyInverseTransform(transform);
+         setVertex(i, tempVertex);
+
+         getVertexNormal(i, tempNormal);
+         tempNormal.applyInverseTransform(transform);
+         setVertexNormal(i, tempNormal);
+      }
+   }
+
+   private FloatBuffer positionBuffer()
+   {
+      return layout == Layout.INTERLEAVED ? interleavedBuffer : vertexBuffer;
+   }
+
+   private FloatBuffer normalBuffer()
+   {
+      return layout == Layout.INTERLEAVED ? interleavedBuffer : vertexNormalBuffer;
+   }
+
+   private FloatBuffer textureBuffer()
+   {
+      return layout == Layout.INTERLEAVED ? interleavedBuffer : texturePointBuffer;
+   }
+
+   private int positionIndex(int vertexIndex)
+   {
+      return layout == Layout.INTERLEAVED ? INTERLEAVED_STRIDE * vertexIndex + INTERLEAVED_POSITION_OFFSET : 3 * vertexIndex;
+   }
+
+   private int normalIndex(int vertexIndex)
+   {
+      return layout == Layout.INTERLEAVED ? INTERLEAVED_STRIDE * vertexIndex + INTERLEAVED_NORMAL_OFFSET : 3 * vertexIndex;
+   }
+
+   private int textureIndex(int vertexIndex)
+   {
+      return layout == Layout.INTERLEAVED ? INTERLEAVED_STRIDE * vertexIndex + INTERLEAVED_TEXTURE_OFFSET : 2 * vertexIndex;
+   }
+
+   private static void get3D(FloatBuffer buffer, int index, Tuple3DBasics tupleToPack)
+   {
+      tupleToPack.set(buffer.get(index), buffer.get(index + 1), buffer.get(index + 2));
+   }
+
+   private static void set3D(FloatBuffer buffer, int index, float x, float y, float z)
+   {
+      buffer.put(index, x);
+      buffer.put(index + 1, y);
+      buffer.put(index + 2, z);
+   }
+}
@@ -0,0 +1,462 @@
+package us.ihmc.graphicsDescription;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import us.ihmc.graphicsDescription.PolygonWithHolesTriangulator.Triangulation;
+
+/**
+ * Cache of the extruded meshes of font glyphs, used to render 3D text without deriving the glyph
+ * geometry from the font every time the text changes, see {@link Text3DMeshGenerator}.
+ * <p>
+ * A glyph is identified by its font, its character, and its thickness. Its mesh is created from the
+ * outline of the glyph which is flattened and triangulated for the front and back faces, and
+ * extruded for the sides. The coordinates are in the units of the font size, i.e. a glyph of a font
+ * of size 40 is about 40 units tall, with the x-axis pointing right, the y-axis pointing up, and the
+ * origin on the baseline at the left of the glyph. The glyph is extruded from {@code z = 0} to
+ * {@code z = thickness}, its front face facing {@code +z}.
+ * </p>
+ * <p>
+ * The kerning between two consecutive characters is also cached. It is only non-zero for fonts with
+ * the {@link java.awt.font.TextAttribute#KERNING} attribute enabled.
+ * </p>
+ * <p>
+ * Looking up a glyph or a kerning offset that is already cached does not allocate memory. The cached
+ * meshes are shared and should be considered immutable. This class is thread-safe.
+ * </p>
+ */
+public class GlyphMeshCache
+{
+   /** The flatness of the glyph outlines as a fraction of the font size. */
+   private static final double DEFAULT_FLATNESS = 0.005;
+
+   private static final GlyphMeshCache SHARED_CACHE = new GlyphMeshCache();
+
+   /**
+    * The extruded mesh of a glyph.
+    */
+   public static class Glyph
+   {
+      private final PackedMeshDataHolder meshDataHolder;
+      private final float advance;
+
+      private Glyph(PackedMeshDataHolder meshDataHolder, float advance)
+      {
+         this.meshDataHolder = meshDataHolder;
+         this.advance = advance;
+      }
+
+      /**
+       * Gets the mesh of this glyph.
+       * <p>
+       * WARNING: the mesh is shared by all the users of the cache and should not be modified.
+       * </p>
+       *
+       * @return the mesh of this glyph.
+       */
+      public PackedMeshDataHolder getMeshDataHolder()
+      {
+         return meshDataHolder;
+      }
+
+      /**
+       * @return the distance the pen moves along the x-axis after this glyph, ignoring the kerning.
+       */
+      public float getAdvance()
+      {
+         return advance;
+      }
+   }
+
+   private final FontRenderContext fontRenderContext = new FontRenderContext(null, true, true);
+   private final double flatness;
+   private final ConcurrentHashMap<Font, FontEntry> fontEntries = new ConcurrentHashMap<>();
+
+   private final AtomicLong hitCount = new AtomicLong();
+   private final AtomicLong missCount = new AtomicLong();
+
+   /**
+    * Gets the cache shared by all the 3D texts.
+    *
+    * @return the shared cache.
+    */
+   public static GlyphMeshCache getSharedCache()
+   {
+      return SHARED_CACHE;
+   }
+
+   /**
+    * Creates a new cache with the default flatness.
+    */
+   public GlyphMeshCache()
+   {
+      this(DEFAULT_FLATNESS);
+   }
+
+   /**
+    * Creates a new cache.
+    *
+    * @param flatness the maximum distance between the glyph outlines and their polygonal
+    *                 approximations, as a fraction of the font size.
+    */
+   public GlyphMeshCache(double flatness)
+   {
+      this.flatness = flatness;
+   }
+
+   /**
+    * Gets the mesh of a glyph, creating it if it is not cached yet.
+    *
+    * @param font      the font of the glyph.
+    * @param codePoint the character to get the glyph of.
+    * @param thickness the extrusion thickness.
+    * @return the glyph.
+    */
+   public Glyph getGlyph(Font font, int codePoint, double thickness)
+   {
+      FontEntry fontEntry = getFontEntry(font);
+      long key = (long) Float.floatToIntBits((float) thickness) << 32 | codePoint;
+      Glyph glyph = fontEntry.glyphs.get(key);
+
+      if (glyph != null)
+      {
+         hitCount.incrementAndGet();
+         return glyph;
+      }
+
+      missCount.incrementAndGet();
+      glyph = createGlyph(font, codePoint, (float) thickness);
+      return fontEntry.glyphs.putIfAbsent(key, glyph);
+   }
+
+   /**
+    * Gets the kerning offset to add to the advance of the first character when followed by the second
+    * one.
+    *
+    * @param font   the font of the characters.
+    * @param first  the first character.
+    * @param second the character following {@code first}.
+    * @return the kerning offset, typically negative to move the characters closer.
+    */
+   public float getKerning(Font font, int first, int second)
+   {
+      FontEntry fontEntry = getFontEntry(font);
+      long key = (long) first << 32 | second;
+      Float kerning = fontEntry.kernings.get(key);
+
+      if (kerning != null)
+         return kerning.floatValue();
+
+      kerning = computeKerning(font, first, second);
+      return fontEntry.kernings.putIfAbsent(key, kerning).floatValue();
+   }
+
+   /**
+    * Removes all the glyphs from this cache.
+    */
+   public void clear()
+   {
+      fontEntries.clear();
+   }
+
+   /**
+    * @return the number of times a glyph was found in this cache.
+    */
+   public long getHitCount()
+   {
+      return hitCount.get();
+   }
+
+   /**
+    * @return the number of times a glyph had to be created.
+    */
+   public long getMissCount()
+   {
+      return missCount.get();
+   }
+
+   private FontEntry getFontEntry(Font font)
+   {
+      FontEntry fontEntry = fontEntries.get(font);
+      if (fontEntry == null)
+         fontEntry = fontEntries.computeIfAbsent(font, f -> new FontEntry());
+      return fontEntry;
+   }
+
+   private float computeKerning(Font font, int first, int second)
+   {
+      char[] chars = (new String(Character.toChars(first)) + new String(Character.toChars(second))).toCharArray();
+      GlyphVector glyphVector = font.layoutGlyphVector(fontRenderContext, chars, 0, chars.length, Font.LAYOUT_LEFT_TO_RIGHT);
+      if (glyphVector.getNumGlyphs() != 2)
+         return 0.0f;
+      double advance = glyphVector.getGlyphMetrics(0).getAdvanceX();
+      return (float) (glyphVector.getGlyphPosition(1).getX() - glyphVector.getGlyphPosition(0).getX() - advance);
+   }
+
+   private Glyph createGlyph(Font font, int codePoint, float thickness)
+   {
+      char[] chars = Character.toChars(codePoint);
+      GlyphVector glyphVector = font.layoutGlyphVector(fontRenderContext, chars, 0, chars.length, Font.LAYOUT_LEFT_TO_RIGHT);
+      float advance = glyphVector.getGlyphMetrics(0).getAdvanceX();
+
+      List<float[]> contours = extractContours(glyphVector, font.getSize2D() * flatness);
+      PackedMeshDataHolder meshDataHolder = extrude(contours, thickness, font.getSize2D());
+      meshDataHolder.setName("Glyph_" + new String(chars));
+      return new Glyph(meshDataHolder, advance);
+   }
+
+   /**
+    * Flattens the outline of the glyph into closed contours with the y-axis pointing up.
+    */
+   private static List<float[]> extractContours(GlyphVector glyphVector, double flatness)
+   {
+      List<float[]> contours = new ArrayList<>();
+      PathIterator iterator = glyphVector.getGlyphOutline(0).getPathIterator(null, flatness);
+      float[] segment = new float[6];
+      float[] contour = new float[32];
+      int size = 0;
+
+      while (!iterator.isDone())
+      {
+         int type = iterator.currentSegment(segment);
+
+         if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_CLOSE)
+         {
+            addContour(contours, contour, size);
+            size = 0;
+         }
+
+         if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO)
+         {
+            float x = segment[0], y = -segment[1];
+
+            if (size == 0 || x != contour[size - 2] || y != contour[size - 1])
+            {
+               if (size == contour.length)
+                  contour = Arrays.copyOf(contour, 2 * size);
+               contour[size++] = x;
+               contour[size++] = y;
+            }
+         }
+
+         iterator.next();
+      }
+
+      addContour(contours, contour, size);
+      return contours;
+   }
+
+   private static void addContour(List<float[]> contours, float[] contour, int size)
+   {
+      // The closing point is implicit.
+      if (size >= 4 && contour[0] == contour[size - 2] && contour[1] == contour[size - 1])
+         size -= 2;
+      if (size < 6)
+         return;
+
+      float[] closedContour = Arrays.copyOf(contour, size);
+      if (PolygonWithHolesTriangulator.signedArea(closedContour) != 0.0)
+         contours.add(closedContour);
+   }
+
+   /**
+    * Creates the mesh of the front and back faces from the triangulation of the contours and of the
+    * sides from the contour edges, each side quad having its own vertices for flat shading.
+    */
+   private static PackedMeshDataHolder extrude(List<float[]> contours, float thickness, float fontSize)
+   {
+      // The side normals are computed assuming the region lies on the left of the contours.
+      PolygonWithHolesTriangulator.orientContours(contours);
+      Triangulation triangulation = PolygonWithHolesTriangulator.triangulate(contours);
+      int numberOfFaceVertices = triangulation.vertices.length / 2;
+      int numberOfFaceIndices = triangulation.triangleIndices.length;
+      int numberOfEdges = 0;
+      for (float[] contour : contours)
+         numberOfEdges += contour.length / 2;
+
+      PackedMeshDataHolder mesh = new PackedMeshDataHolder(2 * numberOfFaceVertices + 4 * numberOfEdges, 2 * numberOfFaceIndices + 6 * numberOfEdges);
+      float[] vertices = mesh.getVertexCoordinates();
+      float[] normals = mesh.getVertexNormalCoordinates();
+      float[] texturePoints = mesh.getTexturePointCoordinates();
+      int[] triangleIndices = mesh.getTriangleIndices();
+      float inverseSize = 1.0f / fontSize;
+
+      for (int i = 0; i < numberOfFaceVertices; i++)
+      {
+         float x = triangulation.vertices[2 * i];
+         float y = triangulation.vertices[2 * i + 1];
+         int front = i;
+         int back = numberOfFaceVertices + i;
+         setVertex(vertices, normals, texturePoints, front, x, y, thickness, 0.0f, 0.0f, 1.0f, x * inverseSize, y * inverseSize);
+         setVertex(vertices, normals, texturePoints, back, x, y, 0.0f, 0.0f, 0.0f, -1.0f, x * inverseSize, y * inverseSize);
+      }
+
+      int index = 0;
+      for (int i = 0; i < numberOfFaceIndices; i += 3)
+      {
+         triangleIndices[index++] = triangulation.triangleIndices[i];
+         triangleIndices[index++] = triangulation.triangleIndices[i + 1];
+         triangleIndices[index++] = triangulation.triangleIndices[i + 2];
+      }
+      for (int i = 0; i < numberOfFaceIndices; i += 3)
+      { // The back face is reversed.
+         triangleIndices[index++] = numberOfFaceVertices + triangulation.triangleIndices[i];
+         triangleIndices[index++] = numberOfFaceVertices + triangulation.triangleIndices[i + 2];
+         triangleIndices[index++] = numberOfFaceVertices + triangulation.triangleIndices[i + 1];
+      }
+
+      int vertex = 2 * numberOfFaceVertices;
+      float v = thickness * inverseSize;
+
+      for (float[] contour : contours)
+      {
+         int n = contour.length;
+
+         for (int a = 0; a < n; a += 2)
+         {
+            int b = (a + 2) % n;
+            float ax = contour[a], ay = contour[a + 1];
+            float bx = contour[b], by = contour[b + 1];
+            // The region is on the left of the contours, the outward normal is on the right.
+            float nx = by - ay, ny = ax - bx;
+            float length = (float) Math.sqrt(nx * nx + ny * ny);
+            nx /= length;
+            ny /= length;
+            float u = length * inverseSize;
+
+            setVertex(vertices, normals, texturePoints, vertex, ax, ay, 0.0f, nx, ny, 0.0f, 0.0f, 0.0f);
+            setVertex(vertices, normals, texturePoints, vertex + 1, bx, by, 0.0f, nx, ny, 0.0f, u, 0.0f);
+            setVertex(vertices, normals, texturePoints, vertex + 2, bx, by, thickness, nx, ny, 0.0f, u, v);
+            setVertex(vertices, normals, texturePoints, vertex + 3, ax, ay, thickness, nx, ny, 0.0f, 0.0f, v);
+
+            triangleIndices[index++] = vertex;
+            triangleIndices[index++] = vertex + 1;
+            triangleIndices[index++] = vertex + 2;
+            triangleIndices[index++] = vertex;
+            triangleIndices[index++] = vertex + 2;
+            triangleIndices[index++] = vertex + 3;
+            vertex += 4;
+         }
+      }
+
+      return mesh;
+   }
+
+   private static void setVertex(float[] vertices, float[] normals, float[] texturePoints, int vertex, float x, float y, float z, float nx, float ny,
+                                 float nz, float u, float v)
+   {
+      vertices[3 * vertex] = x;
+      vertices[3 * vertex + 1] = y;
+      vertices[3 * vertex + 2] = z;
+      normals[3 * vertex] = nx;
+      normals[3 * vertex + 1] = ny;
+      normals[3 * vertex + 2] = nz;
+      texturePoints[2 * vertex] = u;
+      texturePoints[2 * vertex + 1] = v;
+   }
+
+   private static class FontEntry
+   {
+      private final LongKeyTable<Glyph> glyphs = new LongKeyTable<>();
+      private final LongKeyTable<Float> kernings = new LongKeyTable<>();
+   }
+
+   /**
+    * Concurrent hash table with primitive keys such that lookups do not allocate and are lock-free.
+    * The insertions are synchronized and done in place: the key is written before the value is
+    * published, such that a lookup that finds a value also sees its key. The table is only copied
+    * when it grows, which keeps the insertions amortized constant time.
+    */
+   private static class LongKeyTable<V>
+   {
+      private volatile Entries entries = new Entries(16);
+
+      @SuppressWarnings("unchecked")
+      V get(long key)
+      {
+         Entries entries = this.entries;
+         int mask = entries.keys.length - 1;
+
+         for (int index = hash(key) & mask;; index = index + 1 & mask)
+         {
+            Object value = entries.values.get(index);
+            if (value == null)
+               return null;
+            if (entries.keys[index] == key)
+               return (V) value;
+         }
+      }
+
+      /**
+       * Adds the entry if the key is not in the table yet.
+       *
+       * @return the value in the table for the key after this call.
+       */
+      synchronized V putIfAbsent(long key, V value)
+      {
+         V existing = get(key);
+         if (existing != null)
+            return existing;
+
+         Entries currentEntries = entries;
+         int capacity = currentEntries.keys.length;
+
+         if (2 * (currentEntries.size + 1) > capacity)
+         {
+            Entries newEntries = new Entries(2 * capacity);
+            for (int i = 0; i < capacity; i++)
+            {
+               Object currentValue = currentEntries.values.get(i);
+               if (currentValue != null)
+                  newEntries.insert(currentEntries.keys[i], currentValue);
+            }
+            newEntries.insert(key, value);
+            entries = newEntries;
+         }
+         else
+         {
+            currentEntries.insert(key, value);
+         }
+
+         return value;
+      }
+
+      private static int hash(long key)
+      {
+         long hash = key * 0x9E3779B97F4A7C15L;
+         return (int) (hash ^ hash >>> 32);
+      }
+
+      private static class Entries
+      {
+         private final long[] keys;
+         private final AtomicReferenceArray<Object> values;
+         private int size = 0;
+
+         Entries(int capacity)
+         {
+            keys = new long[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+         }
+
+         void insert(long key, Object value)
+         {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (values.get(index) != null)
+               index = index + 1 & mask;
+            keys[index] = key;
+            values.set(index, value);
+            size++;
+         }
+      }
+   }
+}
@@ -0,0 +1,366 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox3DBasics;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox3DReadOnly;
+import us.ihmc.euclid.matrix.Matrix3D;
+import us.ihmc.euclid.tuple2D.interfaces.Point2DReadOnly;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.graphicsDescription.instructions.ArcTorusGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CapsuleGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CylinderGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ExtrudedPolygonGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddExtrusionInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddHeightMapInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddInstancedMeshInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DPrimitiveInstruction;
+import us.ihmc.graphicsDescription.instructions.HemiEllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PolygonGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PrimitiveGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PyramidCubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.TruncatedConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.WedgeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DIdentityInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DTranslateInstruction;
+
+/**
+ * Computes the axis-aligned bounding box of a list of graphics instructions as they would be
+ * rendered by a {@link us.ihmc.graphicsDescription.instructions.Graphics3DInstructionExecutor}.
+ * <p>
+ * The translate, rotate, and scale instructions are accumulated into the current transform which is
+ * reset by the identity instruction. The local bounding box of each geometry is then transformed
+ * with the current transform and merged into the result. The bounding boxes of meshes are the ones
+ * cached in {@link MeshDataHolder} and the bounding boxes of the primitive shapes are computed from
+ * the parameters of their instruction, such that no geometry is generated or traversed.
+ * </p>
+ * <p>
+ * Model files and image or text extrusions, see {@link Graphics3DAddExtrusionInstruction}, are not
+ * accounted for as their geometry is unknown until loaded by the graphics engine.
+ * </p>
+ */
+public class Graphics3DBoundsCalculator
+{
+   private static final double HALF_PI = 0.5 * Math.PI;
+
+   private Graphics3DBoundsCalculator()
+   {
+      // Prevent an object being generated.
+   }
+
+   /**
+    * Computes the bounding box of the geometries described by the given instructions.
+    *
+    * @param instructions the instructions to compute the bounding box of. Not modified.
+    * @return the bounding box, {@code NaN} if no instruction adds a geometry with known bounds.
+    */
+   public static BoundingBox3D computeBoundingBox(List<Graphics3DPrimitiveInstruction> instructions)
+   {
+      BoundingBox3D boundingBox = new BoundingBox3D();
+      boundingBox.setToNaN();
+
+      Matrix3D linearPart = new Matrix3D();
+      Vector3D translation = new Vector3D();
+      Vector3D localTranslation = new Vector3D();
+      linearPart.setIdentity();
+
+      BoundingBox3D localBoundingBox = new BoundingBox3D();
+
+      for (Graphics3DPrimitiveInstruction instruction : instructions)
+      {
+         if (instruction instanceof Graphics3DIdentityInstruction)
+         {
+            linearPart.setIdentity();
+            translation.setToZero();
+         }
+         else if (instruction instanceof Graphics3DTranslateInstruction)
+         {
+            localTranslation.set(((Graphics3DTranslateInstruction) instruction).getTranslation());
+            linearPart.transform(localTranslation);
+            translation.add(localTranslation);
+         }
+         else if (instruction instanceof Graphics3DRotateInstruction)
+         {
+            linearPart.multiply(((Graphics3DRotateInstruction) instruction).getRotationMatrix());
+         }
+         else if (instruction instanceof Graphics3DScaleInstruction)
+         {
+            Vector3D scaleFactor = ((Graphics3DScaleInstruction) instruction).getScaleFactor();
+            linearPart.scaleColumns(scaleFactor.getX(), scaleFactor.getY(), scaleFactor.getZ());
+         }
+         else if (instruction instanceof Graphics3DAddInstancedMeshInstruction)
+         {
+            combineInstances(linearPart, translation, (Graphics3DAddInstancedMeshInstruction) instruction, boundingBox);
+         }
+         else if (getLocalBoundingBox(instruction, localBoundingBox))
+         {
+            transformAndCombine(linearPart, translation, localBoundingBox, boundingBox);
+         }
+      }
+
+      return boundingBox;
+   }
+
+   private static void combineInstances(Matrix3D linearPart, Vector3D translation, Graphics3DAddInstancedMeshInstruction instruction,
+                                        BoundingBox3DBasics boundingBoxToUpdate)
+   {
+      MeshDataHolder meshData = instruction.getMeshData();
+      if (meshData == null || meshData.getBoundingBox().containsNaN())
+         return;
+
+      float[] instanceTransforms = instruction.getInstanceTransforms();
+      Matrix3D instanceLinearPart = new Matrix3D();
+      Vector3D instanceTranslation = new Vector3D();
+
+      for (int instance = 0; instance < instruction.getNumberOfInstances(); instance++)
+      {
+         int offset = Graphics3DAddInstancedMeshInstruction.TRANSFORM_STRIDE * instance;
+         instanceLinearPart.set(instanceTransforms[offset],
+                                instanceTransforms[offset + 1],
+                                instanceTransforms[offset + 2],
+                                instanceTransforms[offset + 4],
+                                instanceTransforms[offset + 5],
+                                instanceTransforms[offset + 6],
+                                instanceTransforms[offset + 8],
+                                instanceTransforms[offset + 9],
+                                instanceTransforms[offset + 10]);
+         instanceTranslation.set(instanceTransforms[offset + 3], instanceTransforms[offset + 7], instanceTransforms[offset + 11]);
+
+         // Composes the current transform with the instance transform.
+         linearPart.transform(instanceTranslation);
+         instanceTranslation.add(translation);
+         instanceLinearPart.preMultiply(linearPart);
+
+         transformAndCombine(instanceLinearPart, instanceTranslation, meshData.getBoundingBox(), boundingBoxToUpdate);
+      }
+   }
+
+   /**
+    * Gets the bounding box of the geometry added by the given instruction in its local frame.
+    *
+    * @param instruction           the instruction to get the bounding box of. Not modified.
+    * @param localBoundingBoxToPack the bounding box of the geometry. Modified.
+    * @return whether the bounding box is known.
+    */
+   private static boolean getLocalBoundingBox(Graphics3DPrimitiveInstruction instruction, BoundingBox3DBasics localBoundingBoxToPack)
+   {
+      localBoundingBoxToPack.setToNaN();
+
+      if (instruction instanceof Graphics3DAddMeshDataInstruction)
+      {
+         BoundingBox3DReadOnly meshBoundingBox = ((Graphics3DAddMeshDataInstruction) instruction).getBoundingBox();
+         if (meshBoundingBox != null)
+            localBoundingBoxToPack.set(meshBoundingBox);
+      }
+      else if (instruction instanceof Graphics3DAddHeightMapInstruction)
+      {
+         HeightMap heightMap = ((Graphics3DAddHeightMapInstruction) instruction).getHeightMap();
+         BoundingBox3DReadOnly heightMapBoundingBox = heightMap == null ? null : heightMap.getBoundingBox();
+         if (heightMapBoundingBox != null)
+            localBoundingBoxToPack.set(heightMapBoundingBox);
+      }
+      else if (instruction instanceof PolygonGraphics3DInstruction)
+      {
+         for (Point3DReadOnly point : ((PolygonGraphics3DInstruction) instruction).getPolygonPoints())
+            updateToIncludePoint(localBoundingBoxToPack, point.getX(), point.getY(), point.getZ());
+      }
+      else if (instruction instanceof ExtrudedPolygonGraphics3DInstruction)
+      {
+         ExtrudedPolygonGraphics3DInstruction extrudedPolygon = (ExtrudedPolygonGraphics3DInstruction) instruction;
+
+         for (Point2DReadOnly point : extrudedPolygon.getPolygonPoints())
+         {
+            updateToIncludePoint(localBoundingBoxToPack, point.getX(), point.getY(), 0.0);
+            updateToIncludePoint(localBoundingBoxToPack, point.getX(), point.getY(), extrudedPolygon.getExtrusionHeight());
+         }
+      }
+      else if (instruction instanceof PrimitiveGraphics3DInstruction)
+      {
+         getPrimitiveBoundingBox((PrimitiveGraphics3DInstruction) instruction, localBoundingBoxToPack);
+      }
+
+      return !localBoundingBoxToPack.containsNaN();
+   }
+
+   /**
+    * Computes the bounding box of a primitive shape from the parameters of its instruction, matching
+    * the geometry generated by {@link MeshDataGenerator}.
+    *
+    * @param instruction            the primitive to get the bounding box of. Not modified.
+    * @param localBoundingBoxToPack the bounding box of the primitive, left to {@code NaN} if the
+    *                               primitive is not supported. Modified.
+    */
+   private static void getPrimitiveBoundingBox(PrimitiveGraphics3DInstruction instruction, BoundingBox3DBasics localBoundingBoxToPack)
+   {
+      if (instruction instanceof SphereGraphics3DInstruction)
+      {
+         double radius = ((SphereGraphics3DInstruction) instruction).getRadius();
+         setCorners(localBoundingBoxToPack, -radius, -radius, -radius, radius, radius, radius);
+      }
+      else if (instruction instanceof EllipsoidGraphics3DInstruction)
+      {
+         EllipsoidGraphics3DInstruction ellipsoid = (EllipsoidGraphics3DInstruction) instruction;
+         double xRadius = ellipsoid.getXRadius(), yRadius = ellipsoid.getYRadius(), zRadius = ellipsoid.getZRadius();
+         setCorners(localBoundingBoxToPack, -xRadius, -yRadius, -zRadius, xRadius, yRadius, zRadius);
+      }
+      else if (instruction instanceof HemiEllipsoidGraphics3DInstruction)
+      {
+         HemiEllipsoidGraphics3DInstruction hemiEllipsoid = (HemiEllipsoidGraphics3DInstruction) instruction;
+         double xRadius = hemiEllipsoid.getXRadius(), yRadius = hemiEllipsoid.getYRadius();
+         setCorners(localBoundingBoxToPack, -xRadius, -yRadius, 0.0, xRadius, yRadius, hemiEllipsoid.getZRadius());
+      }
+      else if (instruction instanceof CylinderGraphics3DInstruction)
+      {
+         CylinderGraphics3DInstruction cylinder = (CylinderGraphics3DInstruction) instruction;
+         double radius = cylinder.getRadius();
+         setCorners(localBoundingBoxToPack, -radius, -radius, 0.0, radius, radius, cylinder.getHeight());
+      }
+      else if (instruction instanceof ConeGraphics3DInstruction)
+      {
+         ConeGraphics3DInstruction cone = (ConeGraphics3DInstruction) instruction;
+         double radius = cone.getRadius();
+         setCorners(localBoundingBoxToPack, -radius, -radius, 0.0, radius, radius, cone.getHeight());
+      }
+      else if (instruction instanceof TruncatedConeGraphics3DInstruction)
+      {
+         TruncatedConeGraphics3DInstruction cone = (TruncatedConeGraphics3DInstruction) instruction;
+         double xRadius = Math.max(Math.abs(cone.getXBaseRadius()), Math.abs(cone.getXTopRadius()));
+         double yRadius = Math.max(Math.abs(cone.getYBaseRadius()), Math.abs(cone.getYTopRadius()));
+         setCorners(localBoundingBoxToPack, -xRadius, -yRadius, 0.0, xRadius, yRadius, cone.getHeight());
+      }
+      else if (instruction instanceof ArcTorusGraphics3DInstruction)
+      {
+         getArcTorusBoundingBox((ArcTorusGraphics3DInstruction) instruction, localBoundingBoxToPack);
+      }
+      else if (instruction instanceof CapsuleGraphics3DInstruction)
+      {
+         CapsuleGraphics3DInstruction capsule = (CapsuleGraphics3DInstruction) instruction;
+         double xRadius = capsule.getXRadius(), yRadius = capsule.getYRadius();
+         double halfLength = 0.5 * capsule.getHeight() + capsule.getZRadius();
+         setCorners(localBoundingBoxToPack, -xRadius, -yRadius, -halfLength, xRadius, yRadius, halfLength);
+      }
+      else if (instruction instanceof CubeGraphics3DInstruction)
+      {
+         CubeGraphics3DInstruction cube = (CubeGraphics3DInstruction) instruction;
+         double halfLength = 0.5 * cube.getLength(), halfWidth = 0.5 * cube.getWidth();
+         double minZ = cube.getCenteredInTheCenter() ? -0.5 * cube.getHeight() : 0.0;
+         setCorners(localBoundingBoxToPack, -halfLength, -halfWidth, minZ, halfLength, halfWidth, minZ + cube.getHeight());
+      }
+      else if (instruction instanceof WedgeGraphics3DInstruction)
+      {
+         WedgeGraphics3DInstruction wedge = (WedgeGraphics3DInstruction) instruction;
+         double halfLength = 0.5 * wedge.getLengthX(), halfWidth = 0.5 * wedge.getWidthY();
+         setCorners(localBoundingBoxToPack, -halfLength, -halfWidth, 0.0, halfLength, halfWidth, wedge.getHeightZ());
+      }
+      else if (instruction instanceof PyramidCubeGraphics3DInstruction)
+      {
+         PyramidCubeGraphics3DInstruction pyramidCube = (PyramidCubeGraphics3DInstruction) instruction;
+         double halfLength = 0.5 * pyramidCube.getLengthX(), halfWidth = 0.5 * pyramidCube.getWidthY();
+         double pyramidHeight = pyramidCube.getPyramidHeight();
+         setCorners(localBoundingBoxToPack, -halfLength, -halfWidth, -pyramidHeight, halfLength, halfWidth, pyramidCube.getHeightZ() + pyramidHeight);
+      }
+   }
+
+   /**
+    * The arc lies in the xy-plane, its bounding box is the one of the arc of the major circle,
+    * including the axis-aligned extremes it spans, grown by the minor radius.
+    */
+   private static void getArcTorusBoundingBox(ArcTorusGraphics3DInstruction arcTorus, BoundingBox3DBasics localBoundingBoxToPack)
+   {
+      double majorRadius = arcTorus.getMajorRadius();
+      double minorRadius = Math.abs(arcTorus.getMinorRadius());
+      double startAngle = Math.min(arcTorus.getStartAngle(), arcTorus.getEndAngle());
+      double endAngle = Math.max(arcTorus.getStartAngle(), arcTorus.getEndAngle());
+
+      double minX, minY, maxX, maxY;
+
+      if (endAngle - startAngle >= 2.0 * Math.PI)
+      {
+         minX = minY = -Math.abs(majorRadius);
+         maxX = maxY = Math.abs(majorRadius);
+      }
+      else
+      {
+         minX = maxX = majorRadius * Math.cos(startAngle);
+         minY = maxY = majorRadius * Math.sin(startAngle);
+
+         double endX = majorRadius * Math.cos(endAngle);
+         double endY = majorRadius * Math.sin(endAngle);
+         minX = Math.min(minX, endX);
+         maxX = Math.max(maxX, endX);
+         minY = Math.min(minY, endY);
+         maxY = Math.max(maxY, endY);
+
+         for (double angle = Math.ceil(startAngle / HALF_PI) * HALF_PI; angle < endAngle; angle += HALF_PI)
+         {
+            double x = majorRadius * Math.cos(angle);
+            double y = majorRadius * Math.sin(angle);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+         }
+      }
+
+      setCorners(localBoundingBoxToPack, minX - minorRadius, minY - minorRadius, -minorRadius, maxX + minorRadius, maxY + minorRadius, minorRadius);
+   }
+
+   /**
+    * Sets the bounding box to the box spanned by the two given corners, such that negative dimensions
+    * of a primitive do not result in an invalid box.
+    */
+   private static void setCorners(BoundingBox3DBasics boundingBox, double x0, double y0, double z0, double x1, double y1, double z1)
+   {
+      boundingBox.set(Math.min(x0, x1), Math.min(y0, y1), Math.min(z0, z1), Math.max(x0, x1), Math.max(y0, y1), Math.max(z0, z1));
+   }
+
+   private static void updateToIncludePoint(BoundingBox3DBasics boundingBox, double x, double y, double z)
+   {
+      if (boundingBox.containsNaN())
+         boundingBox.set(x, y, z, x, y, z);
+      else
+         boundingBox.updateToIncludePoint(x, y, z);
+   }
+
+   /**
+    * Transforms the given box and grows {@code boundingBoxToUpdate} to include the result.
+    * <p>
+    * The transformed box is computed from the center and half-size of the box: the center is
+    * transformed while the half-size is multiplied by the absolute value of the linear part, which
+    * gives the tightest axis-aligned box around the 8 transformed corners.
+    * </p>
+    */
+   private static void transformAndCombine(Matrix3D linearPart, Vector3D translation, BoundingBox3DReadOnly localBoundingBox,
+                                           BoundingBox3DBasics boundingBoxToUpdate)
+   {
+      Point3DReadOnly min = localBoundingBox.getMinPoint();
+      Point3DReadOnly max = localBoundingBox.getMaxPoint();
+
+      double localCenterX = 0.5 * (min.getX() + max.getX());
+      double localCenterY = 0.5 * (min.getY() + max.getY());
+      double localCenterZ = 0.5 * (min.getZ() + max.getZ());
+      double halfSizeX = 0.5 * (max.getX() - min.getX());
+      double halfSizeY = 0.5 * (max.getY() - min.getY());
+      double halfSizeZ = 0.5 * (max.getZ() - min.getZ());
+
+      double centerX = linearPart.getM00() * localCenterX + linearPart.getM01() * localCenterY + linearPart.getM02() * localCenterZ + translation.getX();
+      double centerY = linearPart.getM10() * localCenterX + linearPart.getM11() * localCenterY + linearPart.getM12() * localCenterZ + translation.getY();
+      double centerZ = linearPart.getM20() * localCenterX + linearPart.getM21() * localCenterY + linearPart.getM22() * localCenterZ + translation.getZ();
+
+      double extentX = Math.abs(linearPart.getM00()) * halfSizeX + Math.abs(linearPart.getM01()) * halfSizeY + Math.abs(linearPart.getM02()) * halfSizeZ;
+      double extentY = Math.abs(linearPart.getM10()) * halfSizeX + Math.abs(linearPart.getM11()) * halfSizeY + Math.abs(linearPart.getM12()) * halfSizeZ;
+      double extentZ = Math.abs(linearPart.getM20()) * halfSizeX + Math.abs(linearPart.getM21()) * halfSizeY + Math.abs(linearPart.getM22()) * halfSizeZ;
+
+      updateToIncludePoint(boundingBoxToUpdate, centerX - extentX, centerY - extentY, centerZ - extentZ);
+      boundingBoxToUpdate.updateToIncludePoint(centerX + extentX, centerY + extentY, centerZ + extentZ);
+   }
+}
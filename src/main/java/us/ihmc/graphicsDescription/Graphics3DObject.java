@@ -4,9 +4,12 @@ import java.awt.image.BufferedImage;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import us.ihmc.euclid.Axis3D;
 import us.ihmc.euclid.axisAngle.AxisAngle;
+import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.interfaces.ConvexPolygon2DReadOnly;
 import us.ihmc.euclid.geometry.tools.EuclidGeometryTools;
 import us.ihmc.euclid.matrix.RotationMatrix;
@@ -45,6 +48,7 @@ import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
 import us.ihmc.graphicsDescription.instructions.ExtrudedPolygonGraphics3DInstruction;
 import us.ihmc.graphicsDescription.instructions.Graphics3DAddExtrusionInstruction;
 import us.ihmc.graphicsDescription.instructions.Graphics3DAddHeightMapInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddInstancedMeshInstruction;
 import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
 import us.ihmc.graphicsDescription.instructions.Graphics3DAddModelFileInstruction;
 import us.ihmc.graphicsDescription.instructions.Graphics3DInstruction;
@@ -74,6 +78,11 @@ public class Graphics3DObject
 
    private boolean changeable = false;
 
+   /** The bounding box last computed, valid while the instructions are unchanged. */
+   private BoundingBox3D boundingBox;
+   private int boundingBoxInstructionCount = -1;
+   private long boundingBoxGeometryVersion = -1;
+
    public Graphics3DObject(Shape3DReadOnly shape, AppearanceDefinition appearance)
    {
       this(shape, appearance, null);
@@ -126,6 +135,49 @@ public class Graphics3DObject
       return graphics3DInstructions;
    }
 
+   /**
+    * Computes the axis-aligned bounding box of this object accounting for the translate, rotate, and
+    * scale instructions.
+    * <p>
+    * The bounding box is cached and only computed again when instructions are added or removed, or
+    * when the geometry of an instruction changes, for instance when a mesh, the instances, or a
+    * height map are updated, see {@link Graphics3DPrimitiveInstruction#getGeometryVersion()}. This is
+    * cheap enough to be used for culling and picking. An instruction replaced in the list returned by
+    * {@link #getGraphics3DInstructions()} requires a call to {@link #invalidateBoundingBox()}.
+    * </p>
+    * <p>
+    * Model files and image or text extrusions are not accounted for.
+    * </p>
+    *
+    * @return the bounding box of this object, {@code NaN} if it has no geometry with known bounds.
+    * @see Graphics3DBoundsCalculator
+    */
+   public BoundingBox3D computeBoundingBox()
+   {
+      int instructionCount = graphics3DInstructions.size();
+      long geometryVersion = 0;
+      for (int i = 0; i < instructionCount; i++)
+         geometryVersion += graphics3DInstructions.get(i).getGeometryVersion();
+
+      if (boundingBox == null || instructionCount != boundingBoxInstructionCount || geometryVersion != boundingBoxGeometryVersion)
+      {
+         boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(graphics3DInstructions);
+         boundingBoxInstructionCount = instructionCount;
+         boundingBoxGeometryVersion = geometryVersion;
+      }
+
+      return new BoundingBox3D(boundingBox);
+   }
+
+   /**
+    * Clears the cached bounding box such that it is computed again on the next call to
+    * {@link #computeBoundingBox()}.
+    */
+   public void invalidateBoundingBox()
+   {
+      boundingBox = null;
+   }
+
    public Graphics3DObject(Graphics3DObject graphics3DObject)
    {
       this();
@@ -323,6 +375,7 @@ public class Graphics3DObject
       }
 
       graphics3DInstructions = newInstructions;
+      invalidateBoundingBox();
    }
 
    /**
@@ -734,6 +787,61 @@ public class Graphics3DObject
       return instruction;
    }
 
+   /**
+    * Adds a mesh that is generated the first time it is needed, and released once added to the scene
+    * by the graphics engine. This reduces the memory used by large generated meshes, see
+    * {@link Graphics3DAddMeshDataInstruction#Graphics3DAddMeshDataInstruction(Supplier, AppearanceDefinition)}.
+    *
+    * @param meshSupplier   the function used to generate the mesh.
+    * @param meshAppearance the appearance of the mesh.
+    * @return the instruction created.
+    */
+   public Graphics3DAddMeshDataInstruction addMeshData(Supplier<MeshDataHolder> meshSupplier, AppearanceDefinition meshAppearance)
+   {
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(meshSupplier, meshAppearance);
+      graphics3DInstructions.add(instruction);
+
+      return instruction;
+   }
+
+   /**
+    * Adds a mesh with several levels of detail, see {@link MeshSimplifier#generateLODChain}.
+    * Executors that do not support levels of detail render the full resolution level.
+    *
+    * @param lodChain       the levels of detail of the mesh.
+    * @param meshAppearance the appearance of the mesh.
+    * @return the instruction that was added.
+    */
+   public Graphics3DAddMeshDataInstruction addMeshData(MeshLODChain lodChain, AppearanceDefinition meshAppearance)
+   {
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(lodChain, meshAppearance);
+      graphics3DInstructions.add(instruction);
+
+      return instruction;
+   }
+
+   /**
+    * Adds an instruction for rendering many copies of the given mesh. The instances are then placed
+    * using the returned instruction, see {@link Graphics3DAddInstancedMeshInstruction}.
+    *
+    * @param meshData             the mesh to be rendered for each instance.
+    * @param maxNumberOfInstances the maximum number of instances.
+    * @param hasInstanceColors    whether each instance has its own color.
+    * @param meshAppearance       the appearance of the mesh.
+    * @return the instruction that was added.
+    */
+   public Graphics3DAddInstancedMeshInstruction addInstancedMeshData(MeshDataHolder meshData, int maxNumberOfInstances, boolean hasInstanceColors,
+                                                                     AppearanceDefinition meshAppearance)
+   {
+      Graphics3DAddInstancedMeshInstruction instruction = new Graphics3DAddInstancedMeshInstruction(meshData,
+                                                                                                    maxNumberOfInstances,
+                                                                                                    hasInstanceColors,
+                                                                                                    meshAppearance);
+      graphics3DInstructions.add(instruction);
+
+      return instruction;
+   }
+
    public static Graphics3DAddMeshDataInstruction createMeshDataInstruction(MeshDataHolder meshData, AppearanceDefinition meshAppearance)
    {
       if (meshData == null)
@@ -1299,6 +1407,33 @@ public class Graphics3DObject
       return instruction;
    }
 
+   /**
+    * Adds a terrain meshed as tiles with multiple levels of detail, see {@link HeightMapTileMesher}.
+    * The tiles are generated in parallel using the common {@link ForkJoinPool}.
+    *
+    * @param heightMap      the height map describing the terrain.
+    * @param numberOfTilesX the number of tiles along the x-axis.
+    * @param numberOfTilesY the number of tiles along the y-axis.
+    * @param tileResolution the number of quads per tile side at the finest level.
+    * @param numberOfLevels the number of levels of detail.
+    * @param appearance     the appearance of the terrain.
+    * @return the instruction, which provides the tile mesher.
+    */
+   public Graphics3DAddHeightMapInstruction addTiledHeightMap(HeightMap heightMap, int numberOfTilesX, int numberOfTilesY, int tileResolution,
+                                                              int numberOfLevels, AppearanceDefinition appearance)
+   {
+      HeightMapTileMesher tileMesher = new HeightMapTileMesher(heightMap,
+                                                               numberOfTilesX,
+                                                               numberOfTilesY,
+                                                               tileResolution,
+                                                               numberOfLevels,
+                                                               ForkJoinPool.commonPool());
+      Graphics3DAddHeightMapInstruction instruction = new Graphics3DAddHeightMapInstruction(tileMesher, appearance);
+      graphics3DInstructions.add(instruction);
+
+      return instruction;
+   }
+
    public void notifySelectedListeners(Graphics3DNode graphics3dNode, ModifierKeyInterface modifierKeyHolder, Point3DReadOnly location,
                                        Point3DReadOnly cameraPosition, QuaternionReadOnly cameraRotation)
    {
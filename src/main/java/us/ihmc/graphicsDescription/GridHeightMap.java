@@ -0,0 +1,454 @@
+package us.ihmc.graphicsDescription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Height map sampled on a regular grid, such as an elevation map.
+ * <p>
+ * The grid has {@code numberOfPointsX} by {@code numberOfPointsY} points spaced by
+ * {@code resolution}, the point {@code (i, j)} being located at
+ * {@code (originX + i * resolution, originY + j * resolution)}. The heights are stored row by row
+ * along the x-axis, either in a float array or in a file mapped in memory with
+ * {@link #map(Path, long, int, int, double, double, double)}. A mapped file is not read into the
+ * heap, the operating system loads the pages of the file as they are accessed, which allows to use
+ * elevation maps larger than the available memory. Computing the bounding box of such a map reads
+ * every height, when the height range is known, e.g. from the header of the file, it should be
+ * given to {@link #map(Path, long, int, int, double, double, double, double, double)} instead.
+ * </p>
+ * <p>
+ * The heights in between the grid points are interpolated, see {@link Interpolation}. Outside the
+ * grid, the heights of the closest border are used. Besides {@link #heightAt(double, double, double)},
+ * the heights can be sampled in bulk with {@link #heightsAt(double[], double[], double[], int)} and
+ * {@link #heightsOnGrid(double[], double[], double[])} which avoid one call per point.
+ * </p>
+ */
+public class GridHeightMap implements HeightMap
+{
+   /** The method used to compute the height in between the grid points. */
+   public enum Interpolation
+   {
+      /** Interpolates linearly along x and y between the 4 surrounding points. */
+      BILINEAR,
+      /**
+       * Interpolates with Catmull-Rom splines along x and y over the 16 surrounding points. The
+       * result is smooth across the cells but can slightly overshoot the heights of the grid points.
+       */
+      BICUBIC;
+
+      public static final Interpolation[] values = values();
+   }
+
+   private final int numberOfPointsX, numberOfPointsY;
+   private final double originX, originY, resolution;
+
+   /** The heights when stored in the heap, {@code null} when mapped. */
+   private final float[] heights;
+   /** The heights when mapped, split in chunks of rows as a buffer cannot exceed 2GB. */
+   private final FloatBuffer[] mappedRows;
+   private final int rowsPerChunk;
+
+   private Interpolation interpolation = Interpolation.BILINEAR;
+   private volatile BoundingBox3D boundingBox;
+
+   /**
+    * Creates a new height map backed by the given array.
+    *
+    * @param heights         the heights of the grid points, row by row along the x-axis. The array
+    *                        is not copied.
+    * @param numberOfPointsX the number of grid points along the x-axis.
+    * @param numberOfPointsY the number of grid points along the y-axis.
+    * @param originX         the x-coordinate of the first grid point.
+    * @param originY         the y-coordinate of the first grid point.
+    * @param resolution      the distance between two consecutive grid points.
+    * @throws IllegalArgumentException if the grid has less than 2 points along an axis, or if the size
+    *                                  of the array does not match the grid.
+    */
+   public GridHeightMap(float[] heights, int numberOfPointsX, int numberOfPointsY, double originX, double originY, double resolution)
+   {
+      this(heights, null, 0, numberOfPointsX, numberOfPointsY, originX, originY, resolution);
+
+      if (heights.length != (long) numberOfPointsX * numberOfPointsY)
+         throw new IllegalArgumentException("Unexpected array size. Expected: " + (long) numberOfPointsX * numberOfPointsY + ", but was: " + heights.length);
+   }
+
+   private GridHeightMap(float[] heights, FloatBuffer[] mappedRows, int rowsPerChunk, int numberOfPointsX, int numberOfPointsY, double originX,
+                         double originY, double resolution)
+   {
+      if (numberOfPointsX < 2 || numberOfPointsY < 2)
+         throw new IllegalArgumentException("Unexpected grid size. Expected: at least 2x2, but was: " + numberOfPointsX + "x" + numberOfPointsY);
+      if (!(resolution > 0.0))
+         throw new IllegalArgumentException("Unexpected resolution. Expected: positive, but was: " + resolution);
+
+      this.heights = heights;
+      this.mappedRows = mappedRows;
+      this.rowsPerChunk = rowsPerChunk;
+      this.numberOfPointsX = numberOfPointsX;
+      this.numberOfPointsY = numberOfPointsY;
+      this.originX = originX;
+      this.originY = originY;
+      this.resolution = resolution;
+   }
+
+   /**
+    * Creates a new height map backed by a file mapped in memory. The file is expected to contain the
+    * heights as little-endian 32-bit floats, row by row along the x-axis, as written by
+    * {@link #write(Path)}. The file is mapped read-only and can be closed once mapped.
+    *
+    * @param path            the path to the file.
+    * @param offset          the position in bytes of the first height in the file.
+    * @param numberOfPointsX the number of grid points along the x-axis.
+    * @param numberOfPointsY the number of grid points along the y-axis.
+    * @param originX         the x-coordinate of the first grid point.
+    * @param originY         the y-coordinate of the first grid point.
+    * @param resolution      the distance between two consecutive grid points.
+    * @return the mapped height map.
+    * @throws IOException if an I/O error occurs, or if the file is too small for the grid.
+    */
+   public static GridHeightMap map(Path path, long offset, int numberOfPointsX, int numberOfPointsY, double originX, double originY, double resolution)
+         throws IOException
+   {
+      return map(path, offset, numberOfPointsX, numberOfPointsY, originX, originY, resolution, Double.NaN, Double.NaN);
+   }
+
+   /**
+    * Creates a new height map backed by a file mapped in memory, see
+    * {@link #map(Path, long, int, int, double, double, double)}.
+    * <p>
+    * The given height range is used for the bounding box of the map such that the file does not
+    * have to be read entirely to compute it. It is trusted as is, the bounding box is wrong if the
+    * file contains heights outside of it.
+    * </p>
+    *
+    * @param path            the path to the file.
+    * @param offset          the position in bytes of the first height in the file.
+    * @param numberOfPointsX the number of grid points along the x-axis.
+    * @param numberOfPointsY the number of grid points along the y-axis.
+    * @param originX         the x-coordinate of the first grid point.
+    * @param originY         the y-coordinate of the first grid point.
+    * @param resolution      the distance between two consecutive grid points.
+    * @param minZ            the lowest height in the file, {@code NaN} if unknown.
+    * @param maxZ            the highest height in the file, {@code NaN} if unknown.
+    * @return the mapped height map.
+    * @throws IOException if an I/O error occurs, or if the file is too small for the grid.
+    */
+   public static GridHeightMap map(Path path, long offset, int numberOfPointsX, int numberOfPointsY, double originX, double originY, double resolution,
+                                   double minZ, double maxZ)
+         throws IOException
+   {
+      long rowLength = (long) Float.BYTES * numberOfPointsX;
+      int rowsPerChunk = (int) Math.max(1, Math.min(numberOfPointsY, Integer.MAX_VALUE / rowLength));
+      FloatBuffer[] mappedRows = new FloatBuffer[(numberOfPointsY + rowsPerChunk - 1) / rowsPerChunk];
+
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+      {
+         long expectedSize = offset + rowLength * numberOfPointsY;
+         if (channel.size() < expectedSize)
+            throw new IOException("Unexpected file size for " + path + ". Expected: at least " + expectedSize + ", but was: " + channel.size());
+
+         for (int chunk = 0; chunk < mappedRows.length; chunk++)
+         {
+            int numberOfRows = Math.min(rowsPerChunk, numberOfPointsY - chunk * rowsPerChunk);
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset + chunk * rowsPerChunk * rowLength, numberOfRows * rowLength);
+            mappedRows[chunk] = buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+         }
+      }
+
+      GridHeightMap heightMap = new GridHeightMap(null, mappedRows, rowsPerChunk, numberOfPointsX, numberOfPointsY, originX, originY, resolution);
+      if (!Double.isNaN(minZ) && !Double.isNaN(maxZ))
+         heightMap.boundingBox = heightMap.createBoundingBox(minZ, maxZ);
+      return heightMap;
+   }
+
+   /**
+    * Writes the heights of this map to a file that can be mapped with
+    * {@link #map(Path, long, int, int, double, double, double)} with an offset of zero.
+    *
+    * @param path the path to the file to write, it is replaced if it already exists.
+    * @throws IOException if an I/O error occurs.
+    */
+   public void write(Path path) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         ByteBuffer buffer = ByteBuffer.allocateDirect(Float.BYTES * numberOfPointsX).order(ByteOrder.LITTLE_ENDIAN);
+
+         for (int j = 0; j < numberOfPointsY; j++)
+         {
+            buffer.clear();
+            for (int i = 0; i < numberOfPointsX; i++)
+               buffer.putFloat(getHeight(i, j));
+            buffer.flip();
+            while (buffer.hasRemaining())
+               channel.write(buffer);
+         }
+      }
+   }
+
+   /**
+    * Gets the height of a grid point.
+    *
+    * @param i the index of the point along the x-axis.
+    * @param j the index of the point along the y-axis.
+    * @return the height of the point.
+    */
+   public float getHeight(int i, int j)
+   {
+      if (heights != null)
+         return heights[j * numberOfPointsX + i];
+      else
+         return mappedRows[j / rowsPerChunk].get(j % rowsPerChunk * numberOfPointsX + i);
+   }
+
+   /**
+    * Changes the height of a grid point. The cached bounding box is grown if needed but never shrunk.
+    * <p>
+    * When the height map is rendered, the region in which the heights are interpolated from the
+    * modified point, i.e. the cells around it, should then be notified with
+    * {@link us.ihmc.graphicsDescription.instructions.Graphics3DAddHeightMapInstruction#notifyHeightMapChanged(double, double, double, double)}.
+    * </p>
+    *
+    * @param i      the index of the point along the x-axis.
+    * @param j      the index of the point along the y-axis.
+    * @param height the new height of the point.
+    * @throws UnsupportedOperationException if the heights are stored in a mapped file.
+    */
+   public void setHeight(int i, int j, float height)
+   {
+      if (heights == null)
+         throw new UnsupportedOperationException("The heights of a mapped height map are read-only.");
+
+      heights[j * numberOfPointsX + i] = height;
+
+      BoundingBox3D boundingBox = this.boundingBox;
+      if (boundingBox != null && (height < boundingBox.getMinZ() || height > boundingBox.getMaxZ()))
+      {
+         BoundingBox3D grownBoundingBox = new BoundingBox3D(boundingBox);
+         grownBoundingBox.updateToIncludePoint(boundingBox.getMinX(), boundingBox.getMinY(), height);
+         this.boundingBox = grownBoundingBox;
+      }
+   }
+
+   @Override
+   public double heightAt(double x, double y, double z)
+   {
+      double u = (x - originX) / resolution;
+      double v = (y - originY) / resolution;
+      return interpolation == Interpolation.BILINEAR ? interpolateBilinear(u, v) : interpolateBicubic(u, v);
+   }
+
+   /**
+    * Computes the heights at the given points.
+    *
+    * @param xs             the x-coordinates of the points. Not modified.
+    * @param ys             the y-coordinates of the points. Not modified.
+    * @param heightsToPack  the array in which the heights are stored. Modified.
+    * @param numberOfPoints the number of points to compute the height of.
+    */
+   public void heightsAt(double[] xs, double[] ys, double[] heightsToPack, int numberOfPoints)
+   {
+      double inverseResolution = 1.0 / resolution;
+
+      if (interpolation == Interpolation.BILINEAR)
+      {
+         for (int i = 0; i < numberOfPoints; i++)
+            heightsToPack[i] = interpolateBilinear((xs[i] - originX) * inverseResolution, (ys[i] - originY) * inverseResolution);
+      }
+      else
+      {
+         for (int i = 0; i < numberOfPoints; i++)
+            heightsToPack[i] = interpolateBicubic((xs[i] - originX) * inverseResolution, (ys[i] - originY) * inverseResolution);
+      }
+   }
+
+   /**
+    * Computes the heights at every point of the grid formed by the given coordinates, i.e. the height
+    * at {@code (xs[i], ys[j])} is stored at {@code heightsToPack[j * xs.length + i]}.
+    *
+    * @param xs            the x-coordinates of the grid. Not modified.
+    * @param ys            the y-coordinates of the grid. Not modified.
+    * @param heightsToPack the array in which the heights are stored, it has to be at least
+    *                      {@code xs.length * ys.length} long. Modified.
+    */
+   public void heightsOnGrid(double[] xs, double[] ys, double[] heightsToPack)
+   {
+      double inverseResolution = 1.0 / resolution;
+      boolean isBilinear = interpolation == Interpolation.BILINEAR;
+      int index = 0;
+
+      for (int j = 0; j < ys.length; j++)
+      {
+         double v = (ys[j] - originY) * inverseResolution;
+
+         for (int i = 0; i < xs.length; i++)
+         {
+            double u = (xs[i] - originX) * inverseResolution;
+            heightsToPack[index++] = isBilinear ? interpolateBilinear(u, v) : interpolateBicubic(u, v);
+         }
+      }
+   }
+
+   private double interpolateBilinear(double u, double v)
+   {
+      int i = cellIndex(u, numberOfPointsX);
+      int j = cellIndex(v, numberOfPointsY);
+      double alphaX = clamp(u - i);
+      double alphaY = clamp(v - j);
+
+      double h00 = getHeight(i, j);
+      double h10 = getHeight(i + 1, j);
+      double h01 = getHeight(i, j + 1);
+      double h11 = getHeight(i + 1, j + 1);
+      double h0 = h00 + alphaX * (h10 - h00);
+      double h1 = h01 + alphaX * (h11 - h01);
+      return h0 + alphaY * (h1 - h0);
+   }
+
+   private double interpolateBicubic(double u, double v)
+   {
+      int i = cellIndex(u, numberOfPointsX);
+      int j = cellIndex(v, numberOfPointsY);
+      double alphaX = clamp(u - i);
+      double alphaY = clamp(v - j);
+
+      // The indices of the 4x4 neighborhood are clamped to the grid.
+      int i0 = Math.max(i - 1, 0);
+      int i3 = Math.min(i + 2, numberOfPointsX - 1);
+      int j0 = Math.max(j - 1, 0);
+      int j3 = Math.min(j + 2, numberOfPointsY - 1);
+
+      double h0 = interpolateRow(i0, i, i3, j0, alphaX);
+      double h1 = interpolateRow(i0, i, i3, j, alphaX);
+      double h2 = interpolateRow(i0, i, i3, j + 1, alphaX);
+      double h3 = interpolateRow(i0, i, i3, j3, alphaX);
+      return catmullRom(h0, h1, h2, h3, alphaY);
+   }
+
+   private double interpolateRow(int i0, int i, int i3, int j, double alphaX)
+   {
+      return catmullRom(getHeight(i0, j), getHeight(i, j), getHeight(i + 1, j), getHeight(i3, j), alphaX);
+   }
+
+   private static double catmullRom(double p0, double p1, double p2, double p3, double t)
+   {
+      return p1 + 0.5 * t * (p2 - p0 + t * (2.0 * p0 - 5.0 * p1 + 4.0 * p2 - p3 + t * (3.0 * (p1 - p2) + p3 - p0)));
+   }
+
+   /**
+    * Gets the index of the first point of the cell containing the given grid coordinate, clamped such
+    * that the cell is within the grid.
+    */
+   private static int cellIndex(double gridCoordinate, int numberOfPoints)
+   {
+      if (!(gridCoordinate > 0.0))
+         return 0;
+      return (int) Math.min(gridCoordinate, numberOfPoints - 2);
+   }
+
+   private static double clamp(double alpha)
+   {
+      return alpha < 0.0 ? 0.0 : alpha > 1.0 ? 1.0 : alpha;
+   }
+
+   /**
+    * Gets the bounding box of this height map. The box spans the grid along x and y, and the heights
+    * of the grid points along z. Unless the height range was given when mapping the file, it is
+    * computed the first time this method is called, which requires going through all the heights,
+    * and is then cached.
+    *
+    * @return a copy of the bounding box.
+    */
+   @Override
+   public BoundingBox3D getBoundingBox()
+   {
+      BoundingBox3D boundingBox = this.boundingBox;
+
+      if (boundingBox == null)
+      {
+         float minZ = Float.POSITIVE_INFINITY;
+         float maxZ = Float.NEGATIVE_INFINITY;
+
+         for (int j = 0; j < numberOfPointsY; j++)
+         {
+            for (int i = 0; i < numberOfPointsX; i++)
+            {
+               float height = getHeight(i, j);
+               minZ = Math.min(minZ, height);
+               maxZ = Math.max(maxZ, height);
+            }
+         }
+
+         boundingBox = createBoundingBox(minZ, maxZ);
+         this.boundingBox = boundingBox;
+      }
+
+      return new BoundingBox3D(boundingBox);
+   }
+
+   private BoundingBox3D createBoundingBox(double minZ, double maxZ)
+   {
+      return new BoundingBox3D(originX,
+                               originY,
+                               minZ,
+                               originX + (numberOfPointsX - 1) * resolution,
+                               originY + (numberOfPointsY - 1) * resolution,
+                               maxZ);
+   }
+
+   /**
+    * Sets the method used to compute the height in between the grid points, it is
+    * {@link Interpolation#BILINEAR} by default.
+    *
+    * @param interpolation the interpolation method.
+    */
+   public void setInterpolation(Interpolation interpolation)
+   {
+      this.interpolation = interpolation;
+   }
+
+   public Interpolation getInterpolation()
+   {
+      return interpolation;
+   }
+
+   /**
+    * @return whether the heights are stored in a file mapped in memory.
+    */
+   public boolean isMapped()
+   {
+      return heights == null;
+   }
+
+   public int getNumberOfPointsX()
+   {
+      return numberOfPointsX;
+   }
+
+   public int getNumberOfPointsY()
+   {
+      return numberOfPointsY;
+   }
+
+   public double getOriginX()
+   {
+      return originX;
+   }
+
+   public double getOriginY()
+   {
+      return originY;
+   }
+
+   public double getResolution()
+   {
+      return resolution;
+   }
+}
@@ -0,0 +1,623 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.graphicsDescription.instructions.listeners.HeightMapChangedListener;
+
+/**
+ * Generates the meshes of a large terrain described by a {@link HeightMap} as a grid of tiles with
+ * multiple levels of detail, such that a graphics engine only has to render a fine mesh close to the
+ * camera.
+ * <p>
+ * The bounding box of the height map is split into {@code numberOfTilesX} by
+ * {@code numberOfTilesY} tiles. Each tile is meshed independently with a regular grid, a geometric
+ * mipmap: the level {@code 0} has {@code tileResolution} quads per side and each following level
+ * halves the resolution. The vertices of a coarser level are a subset of the ones of the finer
+ * levels, and the vertices on a tile border are exactly at the same coordinates as the ones of the
+ * neighbor tile. The cracks that appear where two tiles of different levels meet are hidden by a
+ * skirt: the border of each tile is extruded downward by {@link #getSkirtDepth()}.
+ * </p>
+ * <p>
+ * The vertices of a tile mesh are laid out as follows:
+ * <ul>
+ * <li>the {@code (n + 1)^2} grid vertices, row by row along the x-axis, where {@code n} is the
+ * number of quads per side of the level,
+ * <li>the {@code 4 n} skirt vertices, one below each vertex of the tile border going
+ * counter-clockwise around the tile when seen from above, starting from the corner with the
+ * smallest coordinates.
+ * </ul>
+ * The normals are computed from the height map with central differences, including the heights
+ * across the tile borders, such that the shading is continuous from one tile to the next. The
+ * texture coordinates span the entire height map from {@code (0, 0)} to {@code (1, 1)}.
+ * </p>
+ * <p>
+ * The tile meshes are generated when first requested and are then regenerated in place, either
+ * entirely with {@link #regenerateTile(int, int)}, or only where the heights have changed with
+ * {@link #updateRegion(double, double, double, double, HeightMapChangedListener)}. When created
+ * with a {@link ForkJoinPool}, the tiles are generated in parallel by {@link #generateLevel(int)}
+ * and {@link #regenerate()}. The public methods are synchronized such that the meshes can be
+ * requested from the rendering thread while the tiles are regenerated from another thread.
+ * </p>
+ */
+public class HeightMapTileMesher
+{
+   private final HeightMap heightMap;
+   private final int numberOfTilesX, numberOfTilesY;
+   private final int tileResolution;
+   private final int numberOfLevels;
+   private final ForkJoinPool forkJoinPool;
+
+   private final double minX, minY, maxX, maxY, sampleZ, centerZ;
+   private final double tileSizeX, tileSizeY;
+
+   private double skirtDepth;
+   private double lodDistance;
+
+   /** The tile meshes, indexed by level, then by tile, {@code null} until generated. */
+   private final PackedMeshDataHolder[] tileMeshes;
+
+   /**
+    * Creates a new mesher that generates the tiles sequentially.
+    *
+    * @param heightMap      the height map to generate the meshes of. Its bounding box is used to
+    *                       define the area to mesh. Not modified.
+    * @param numberOfTilesX the number of tiles along the x-axis.
+    * @param numberOfTilesY the number of tiles along the y-axis.
+    * @param tileResolution the number of quads per tile side at the finest level.
+    * @param numberOfLevels the number of levels of detail.
+    */
+   public HeightMapTileMesher(HeightMap heightMap, int numberOfTilesX, int numberOfTilesY, int tileResolution, int numberOfLevels)
+   {
+      this(heightMap, numberOfTilesX, numberOfTilesY, tileResolution, numberOfLevels, null);
+   }
+
+   /**
+    * Creates a new mesher.
+    *
+    * @param heightMap      the height map to generate the meshes of. Its bounding box is used to
+    *                       define the area to mesh. Not modified.
+    * @param numberOfTilesX the number of tiles along the x-axis.
+    * @param numberOfTilesY the number of tiles along the y-axis.
+    * @param tileResolution the number of quads per tile side at the finest level.
+    * @param numberOfLevels the number of levels of detail.
+    * @param forkJoinPool   the pool used to generate the tiles in parallel, typically
+    *                       {@link ForkJoinPool#commonPool()}. If {@code null}, the tiles are always
+    *                       generated sequentially.
+    * @throws IllegalArgumentException if the number of tiles or levels is not positive, or if the
+    *                                  tile resolution cannot be halved {@code numberOfLevels - 1}
+    *                                  times.
+    */
+   public HeightMapTileMesher(HeightMap heightMap, int numberOfTilesX, int numberOfTilesY, int tileResolution, int numberOfLevels,
+                              ForkJoinPool forkJoinPool)
+   {
+      if (numberOfTilesX < 1 || numberOfTilesY < 1)
+         throw new IllegalArgumentException("Unexpected number of tiles. Expected: at least 1, but was: " + numberOfTilesX + "x" + numberOfTilesY);
+      if (numberOfLevels < 1 || numberOfLevels > 31)
+         throw new IllegalArgumentException("Unexpected number of levels. Expected: in [1, 31], but was: " + numberOfLevels);
+      int coarsestStep = 1 << numberOfLevels - 1;
+      if (tileResolution < coarsestStep || tileResolution % coarsestStep != 0)
+         throw new IllegalArgumentException("Unexpected tile resolution. Expected: a positive multiple of " + coarsestStep + ", but was: " + tileResolution);
+
+      this.heightMap = heightMap;
+      this.numberOfTilesX = numberOfTilesX;
+      this.numberOfTilesY = numberOfTilesY;
+      this.tileResolution = tileResolution;
+      this.numberOfLevels = numberOfLevels;
+      this.forkJoinPool = forkJoinPool;
+
+      BoundingBox3D boundingBox = heightMap.getBoundingBox();
+      minX = boundingBox.getMinX();
+      minY = boundingBox.getMinY();
+      maxX = boundingBox.getMaxX();
+      maxY = boundingBox.getMaxY();
+      sampleZ = boundingBox.getMaxZ();
+      centerZ = 0.5 * (boundingBox.getMinZ() + boundingBox.getMaxZ());
+      tileSizeX = (maxX - minX) / numberOfTilesX;
+      tileSizeY = (maxY - minY) / numberOfTilesY;
+
+      // The cracks between levels cannot be deeper than the height range of the map.
+      skirtDepth = boundingBox.getMaxZ() - boundingBox.getMinZ();
+      lodDistance = 2.0 * Math.max(tileSizeX, tileSizeY);
+
+      tileMeshes = new PackedMeshDataHolder[numberOfLevels * numberOfTilesX * numberOfTilesY];
+   }
+
+   /**
+    * Gets the mesh of a tile, generating it if needed.
+    * <p>
+    * WARNING: the mesh is part of the internal memory of this mesher and is updated in place when
+    * the tile is regenerated.
+    * </p>
+    *
+    * @param tileX the index of the tile along the x-axis.
+    * @param tileY the index of the tile along the y-axis.
+    * @param level the level of detail, {@code 0} being the finest.
+    * @return the mesh of the tile.
+    */
+   public synchronized PackedMeshDataHolder getTileMesh(int tileX, int tileY, int level)
+   {
+      checkTile(tileX, tileY);
+      checkLevel(level);
+
+      int index = tileMeshIndex(tileX, tileY, level);
+      if (tileMeshes[index] == null)
+         tileMeshes[index] = generateTileMesh(tileX, tileY, level);
+      return tileMeshes[index];
+   }
+
+   /**
+    * Generates all the tiles of the given level that have not been generated yet, in parallel when
+    * this mesher was created with a {@link ForkJoinPool}.
+    *
+    * @param level the level of detail to generate.
+    */
+   public synchronized void generateLevel(int level)
+   {
+      checkLevel(level);
+
+      forEachTile(tile ->
+      {
+         int index = level * numberOfTilesX * numberOfTilesY + tile;
+         if (tileMeshes[index] == null)
+            tileMeshes[index] = generateTileMesh(tile % numberOfTilesX, tile / numberOfTilesX, level);
+      });
+   }
+
+   /**
+    * Samples again the height map for every tile that has been generated, to be called after the
+    * height map has changed. The meshes are updated in place, in parallel when this mesher was
+    * created with a {@link ForkJoinPool}.
+    */
+   public synchronized void regenerate()
+   {
+      forEachTile(tile -> regenerateTileUnsafe(tile % numberOfTilesX, tile / numberOfTilesX));
+   }
+
+   /**
+    * Samples again the height map for the given tile at every level that has been generated. The
+    * meshes are updated in place while the other tiles are left untouched.
+    *
+    * @param tileX the index of the tile along the x-axis.
+    * @param tileY the index of the tile along the y-axis.
+    */
+   public synchronized void regenerateTile(int tileX, int tileY)
+   {
+      checkTile(tileX, tileY);
+      regenerateTileUnsafe(tileX, tileY);
+   }
+
+   /**
+    * Samples again the height map within the given rectangle, to be called after the heights have
+    * changed in this rectangle. Only the tiles of the generated levels overlapping the rectangle are
+    * updated, and only their vertices whose height or normal depends on the rectangle are
+    * recomputed. The rest of the mesh memory is left untouched.
+    * <p>
+    * The rectangle has to contain every point whose height has changed, including, for a
+    * {@link GridHeightMap}, the cells interpolating the modified grid points.
+    * </p>
+    *
+    * @param minX     the lower x-coordinate of the modified rectangle.
+    * @param minY     the lower y-coordinate of the modified rectangle.
+    * @param maxX     the upper x-coordinate of the modified rectangle.
+    * @param maxY     the upper y-coordinate of the modified rectangle.
+    * @param listener the listener to notify of each updated tile mesh, can be {@code null}.
+    * @return the number of tile meshes updated.
+    */
+   public synchronized int updateRegion(double minX, double minY, double maxX, double maxY, HeightMapChangedListener listener)
+   {
+      int numberOfUpdatedMeshes = 0;
+
+      for (int level = 0; level < numberOfLevels; level++)
+      {
+         int n = getNumberOfQuadsPerSide(level);
+         // The normals of the vertices one sample away from the rectangle depend on its heights.
+         double marginX = tileSizeX / n;
+         double marginY = tileSizeY / n;
+         int tileXMin = tileIndex(minX - marginX - this.minX, tileSizeX, numberOfTilesX);
+         int tileXMax = tileIndex(maxX + marginX - this.minX, tileSizeX, numberOfTilesX);
+         int tileYMin = tileIndex(minY - marginY - this.minY, tileSizeY, numberOfTilesY);
+         int tileYMax = tileIndex(maxY + marginY - this.minY, tileSizeY, numberOfTilesY);
+
+         for (int tileY = tileYMin; tileY <= tileYMax; tileY++)
+         {
+            for (int tileX = tileXMin; tileX <= tileXMax; tileX++)
+            {
+               PackedMeshDataHolder mesh = tileMeshes[tileMeshIndex(tileX, tileY, level)];
+               if (mesh == null)
+                  continue;
+
+               double tileMinX = this.minX + tileX * tileSizeX;
+               double tileMinY = this.minY + tileY * tileSizeY;
+               int iMin = Math.max((int) Math.floor((minX - tileMinX) / marginX) - 1, 0);
+               int iMax = Math.min((int) Math.ceil((maxX - tileMinX) / marginX) + 1, n);
+               int jMin = Math.max((int) Math.floor((minY - tileMinY) / marginY) - 1, 0);
+               int jMax = Math.min((int) Math.ceil((maxY - tileMinY) / marginY) + 1, n);
+               if (iMin > iMax || jMin > jMax)
+                  continue;
+
+               updateVertices(mesh, tileX, tileY, n, iMin, iMax, jMin, jMax);
+               numberOfUpdatedMeshes++;
+
+               if (listener != null)
+               {
+                  int fromVertex = jMin * (n + 1) + iMin;
+                  int toVertex = jMax * (n + 1) + iMax + 1;
+                  if (iMin == 0 || jMin == 0 || iMax == n || jMax == n)
+                     toVertex = mesh.getNumberOfVertices(); // The skirt vertices are stored last.
+                  listener.tileMeshChanged(mesh, tileX, tileY, level, fromVertex, toVertex);
+               }
+            }
+         }
+      }
+
+      return numberOfUpdatedMeshes;
+   }
+
+   private static int tileIndex(double offset, double tileSize, int numberOfTiles)
+   {
+      int index = (int) Math.floor(offset / tileSize);
+      return Math.min(Math.max(index, 0), numberOfTiles - 1);
+   }
+
+   private void regenerateTileUnsafe(int tileX, int tileY)
+   {
+      for (int level = 0; level < numberOfLevels; level++)
+      {
+         PackedMeshDataHolder mesh = tileMeshes[tileMeshIndex(tileX, tileY, level)];
+         if (mesh != null)
+         {
+            int n = getNumberOfQuadsPerSide(level);
+            updateVertices(mesh, tileX, tileY, n, 0, n, 0, n);
+         }
+      }
+   }
+
+   /**
+    * Computes the level of detail at which a tile should be rendered. The level increases by one
+    * each time the distance from the viewer to the center of the tile doubles past
+    * {@link #getLODDistance()}.
+    *
+    * @param tileX        the index of the tile along the x-axis.
+    * @param tileY        the index of the tile along the y-axis.
+    * @param viewPosition the position of the viewer, typically the camera. Not modified.
+    * @return the level of detail, in {@code [0, numberOfLevels - 1]}.
+    */
+   public int computeLevel(int tileX, int tileY, Point3DReadOnly viewPosition)
+   {
+      checkTile(tileX, tileY);
+
+      double dx = viewPosition.getX() - (minX + (tileX + 0.5) * tileSizeX);
+      double dy = viewPosition.getY() - (minY + (tileY + 0.5) * tileSizeY);
+      double dz = viewPosition.getZ() - centerZ;
+      double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+      if (!(distance >= lodDistance))
+         return 0;
+      int level = Math.getExponent(distance / lodDistance) + 1;
+      return Math.min(level, numberOfLevels - 1);
+   }
+
+   private PackedMeshDataHolder generateTileMesh(int tileX, int tileY, int level)
+   {
+      int n = getNumberOfQuadsPerSide(level);
+      int numberOfGridVertices = (n + 1) * (n + 1);
+      PackedMeshDataHolder mesh = new PackedMeshDataHolder(numberOfGridVertices + 4 * n, 6 * n * (n + 4));
+      mesh.setName("HeightMapTile_" + tileX + "_" + tileY + "_" + level);
+
+      int[] triangleIndices = mesh.getTriangleIndices();
+      int index = 0;
+
+      for (int j = 0; j < n; j++)
+      {
+         for (int i = 0; i < n; i++)
+         {
+            int v00 = j * (n + 1) + i;
+            int v10 = v00 + 1;
+            int v01 = v00 + n + 1;
+            int v11 = v01 + 1;
+            triangleIndices[index++] = v00;
+            triangleIndices[index++] = v10;
+            triangleIndices[index++] = v11;
+            triangleIndices[index++] = v00;
+            triangleIndices[index++] = v11;
+            triangleIndices[index++] = v01;
+         }
+      }
+
+      for (int k = 0; k < 4 * n; k++)
+      {
+         int next = (k + 1) % (4 * n);
+         int a = borderVertexIndex(k, n);
+         int b = borderVertexIndex(next, n);
+         int skirtA = numberOfGridVertices + k;
+         int skirtB = numberOfGridVertices + next;
+         triangleIndices[index++] = a;
+         triangleIndices[index++] = skirtA;
+         triangleIndices[index++] = skirtB;
+         triangleIndices[index++] = a;
+         triangleIndices[index++] = skirtB;
+         triangleIndices[index++] = b;
+      }
+
+      float[] texturePointCoordinates = mesh.getTexturePointCoordinates();
+      double mapSizeX = maxX - minX;
+      double mapSizeY = maxY - minY;
+
+      for (int j = 0; j <= n; j++)
+      {
+         for (int i = 0; i <= n; i++)
+         {
+            int vertex = j * (n + 1) + i;
+            texturePointCoordinates[2 * vertex] = (float) ((sampleX(tileX, i, n) - minX) / mapSizeX);
+            texturePointCoordinates[2 * vertex + 1] = (float) ((sampleY(tileY, j, n) - minY) / mapSizeY);
+         }
+      }
+
+      for (int k = 0; k < 4 * n; k++)
+         System.arraycopy(texturePointCoordinates, 2 * borderVertexIndex(k, n), texturePointCoordinates, 2 * (numberOfGridVertices + k), 2);
+
+      updateVertices(mesh, tileX, tileY, n, 0, n, 0, n);
+      return mesh;
+   }
+
+   /**
+    * Samples the height map to update the positions and normals of the grid vertices in
+    * {@code [iMin, iMax]x[jMin, jMax]} and of their skirt vertices.
+    */
+   private void updateVertices(PackedMeshDataHolder mesh, int tileX, int tileY, int n, int iMin, int iMax, int jMin, int jMax)
+   {
+      // The heights are sampled with a one-sample border for the central differences.
+      int sizeX = iMax - iMin + 3;
+      int sizeY = jMax - jMin + 3;
+      double[] xs = new double[sizeX];
+      double[] ys = new double[sizeY];
+      double[] heights = new double[sizeX * sizeY];
+
+      for (int i = 0; i < sizeX; i++)
+         xs[i] = sampleX(tileX, iMin - 1 + i, n);
+      for (int j = 0; j < sizeY; j++)
+         ys[j] = sampleY(tileY, jMin - 1 + j, n);
+
+      if (heightMap instanceof GridHeightMap)
+      {
+         ((GridHeightMap) heightMap).heightsOnGrid(xs, ys, heights);
+      }
+      else
+      {
+         for (int j = 0; j < sizeY; j++)
+         {
+            for (int i = 0; i < sizeX; i++)
+               heights[j * sizeX + i] = heightMap.heightAt(xs[i], ys[j], sampleZ);
+         }
+      }
+
+      float[] vertexCoordinates = mesh.getVertexCoordinates();
+      float[] normalCoordinates = mesh.getVertexNormalCoordinates();
+      int numberOfGridVertices = (n + 1) * (n + 1);
+      float skirtOffset = (float) skirtDepth;
+
+      for (int j = 1; j < sizeY - 1; j++)
+      {
+         for (int i = 1; i < sizeX - 1; i++)
+         {
+            int sample = j * sizeX + i;
+            double deltaX = xs[i + 1] - xs[i - 1];
+            double deltaY = ys[j + 1] - ys[j - 1];
+            double slopeX = deltaX > 0.0 ? (heights[sample + 1] - heights[sample - 1]) / deltaX : 0.0;
+            double slopeY = deltaY > 0.0 ? (heights[sample + sizeX] - heights[sample - sizeX]) / deltaY : 0.0;
+            double inverseNorm = 1.0 / Math.sqrt(slopeX * slopeX + slopeY * slopeY + 1.0);
+
+            int gridI = iMin - 1 + i;
+            int gridJ = jMin - 1 + j;
+            int vertex = gridJ * (n + 1) + gridI;
+            vertexCoordinates[3 * vertex] = (float) xs[i];
+            vertexCoordinates[3 * vertex + 1] = (float) ys[j];
+            vertexCoordinates[3 * vertex + 2] = (float) heights[sample];
+            normalCoordinates[3 * vertex] = (float) (-slopeX * inverseNorm);
+            normalCoordinates[3 * vertex + 1] = (float) (-slopeY * inverseNorm);
+            normalCoordinates[3 * vertex + 2] = (float) inverseNorm;
+
+            int k = borderIndex(gridI, gridJ, n);
+
+            if (k >= 0)
+            {
+               int skirtVertex = numberOfGridVertices + k;
+               System.arraycopy(vertexCoordinates, 3 * vertex, vertexCoordinates, 3 * skirtVertex, 3);
+               vertexCoordinates[3 * skirtVertex + 2] -= skirtOffset;
+               System.arraycopy(normalCoordinates, 3 * vertex, normalCoordinates, 3 * skirtVertex, 3);
+            }
+         }
+      }
+   }
+
+   /**
+    * Gets the index of the grid vertex at the {@code k}-th position along the border of a tile,
+    * going counter-clockwise from the corner with the smallest coordinates.
+    */
+   private static int borderVertexIndex(int k, int n)
+   {
+      int side = k / n;
+      int offset = k % n;
+
+      switch (side)
+      {
+         case 0:
+            return offset;
+         case 1:
+            return offset * (n + 1) + n;
+         case 2:
+            return n * (n + 1) + n - offset;
+         default:
+            return (n - offset) * (n + 1);
+      }
+   }
+
+   /**
+    * Inverse of {@link #borderVertexIndex(int, int)}, returns {@code -1} if the grid vertex is not on
+    * the border of the tile.
+    */
+   private static int borderIndex(int i, int j, int n)
+   {
+      if (j == 0 && i < n)
+         return i;
+      if (i == n && j < n)
+         return n + j;
+      if (j == n && i > 0)
+         return 2 * n + n - i;
+      if (i == 0 && j > 0)
+         return 3 * n + n - j;
+      return -1;
+   }
+
+   /**
+    * Computes the x-coordinate of the {@code i}-th sample of a tile, clamped to the height map. The
+    * samples shared by two tiles or by two levels are computed from the same ratio, such that they
+    * are exactly equal.
+    */
+   private double sampleX(int tileX, int i, int n)
+   {
+      double x = minX + tileSizeX * (tileX + (double) i / n);
+      return Math.min(Math.max(x, minX), maxX);
+   }
+
+   private double sampleY(int tileY, int j, int n)
+   {
+      double y = minY + tileSizeY * (tileY + (double) j / n);
+      return Math.min(Math.max(y, minY), maxY);
+   }
+
+   private void forEachTile(TileTask task)
+   {
+      int numberOfTiles = numberOfTilesX * numberOfTilesY;
+
+      if (forkJoinPool == null || numberOfTiles == 1)
+      {
+         for (int tile = 0; tile < numberOfTiles; tile++)
+            task.run(tile);
+         return;
+      }
+
+      forkJoinPool.invoke(new RecursiveAction()
+      {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected void compute()
+         {
+            RecursiveAction[] subtasks = new RecursiveAction[numberOfTiles];
+
+            for (int tile = 0; tile < numberOfTiles; tile++)
+            {
+               int tileIndex = tile;
+               subtasks[tile] = new RecursiveAction()
+               {
+                  private static final long serialVersionUID = 1L;
+
+                  @Override
+                  protected void compute()
+                  {
+                     task.run(tileIndex);
+                  }
+               };
+            }
+
+            invokeAll(subtasks);
+         }
+      });
+   }
+
+   private static interface TileTask
+   {
+      void run(int tileIndex);
+   }
+
+   private int tileMeshIndex(int tileX, int tileY, int level)
+   {
+      return (level * numberOfTilesY + tileY) * numberOfTilesX + tileX;
+   }
+
+   private void checkTile(int tileX, int tileY)
+   {
+      if (tileX < 0 || tileX >= numberOfTilesX || tileY < 0 || tileY >= numberOfTilesY)
+         throw new IndexOutOfBoundsException("Unexpected tile: (" + tileX + ", " + tileY + "), the grid has " + numberOfTilesX + "x" + numberOfTilesY
+               + " tiles.");
+   }
+
+   private void checkLevel(int level)
+   {
+      if (level < 0 || level >= numberOfLevels)
+         throw new IndexOutOfBoundsException("Unexpected level: " + level + ", the number of levels is: " + numberOfLevels);
+   }
+
+   /**
+    * Gets the number of quads per tile side at the given level of detail.
+    *
+    * @param level the level of detail, {@code 0} being the finest.
+    * @return the number of quads per side.
+    */
+   public int getNumberOfQuadsPerSide(int level)
+   {
+      return tileResolution >> level;
+   }
+
+   /**
+    * Sets the depth by which the skirts extend below the tile borders. It defaults to the height
+    * range of the height map which covers any crack. The new depth only applies to the tiles
+    * generated or regenerated afterwards.
+    *
+    * @param skirtDepth the depth of the skirts.
+    */
+   public synchronized void setSkirtDepth(double skirtDepth)
+   {
+      this.skirtDepth = skirtDepth;
+   }
+
+   public double getSkirtDepth()
+   {
+      return skirtDepth;
+   }
+
+   /**
+    * Sets the distance to a tile under which it is rendered at the finest level, see
+    * {@link #computeLevel(int, int, Point3DReadOnly)}. It defaults to twice the tile size.
+    *
+    * @param lodDistance the distance under which the finest level is used.
+    */
+   public void setLODDistance(double lodDistance)
+   {
+      this.lodDistance = lodDistance;
+   }
+
+   public double getLODDistance()
+   {
+      return lodDistance;
+   }
+
+   public HeightMap getHeightMap()
+   {
+      return heightMap;
+   }
+
+   public int getNumberOfTilesX()
+   {
+      return numberOfTilesX;
+   }
+
+   public int getNumberOfTilesY()
+   {
+      return numberOfTilesY;
+   }
+
+   public int getTileResolution()
+   {
+      return tileResolution;
+   }
+
+   public int getNumberOfLevels()
+   {
+      return numberOfLevels;
+   }
+}
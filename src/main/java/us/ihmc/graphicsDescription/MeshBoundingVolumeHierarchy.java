@@ -0,0 +1,865 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Bounding volume hierarchy over the triangles of a mesh for fast ray picking and proximity
+ * queries.
+ * <p>
+ * The hierarchy is built top-down by splitting the triangles according to the surface area
+ * heuristic (SAH) evaluated on a fixed number of bins along each axis. The nodes are stored in flat
+ * arrays: 6 floats per node for the axis-aligned bounds and 2 integers per node for the children or
+ * the range of triangles of a leaf, the two children of a node being always stored next to each
+ * other.
+ * </p>
+ * <p>
+ * The hierarchy is a snapshot of the mesh geometry at the time it was built. It has to be rebuilt
+ * after modifying the mesh. Once built, the queries can be performed concurrently from multiple
+ * threads.
+ * </p>
+ */
+public class MeshBoundingVolumeHierarchy
+{
+   /** Minimum number of triangles in a subtree for it to be built in a separate task. */
+   private static final int PARALLEL_BUILD_THRESHOLD = 4096;
+   private static final int NUMBER_OF_BINS = 16;
+   private static final int MAX_LEAF_SIZE = 8;
+   private static final int MIN_LEAF_SIZE = 2;
+   /** Cost of traversing a node relative to the cost of intersecting a triangle. */
+   private static final double TRAVERSAL_COST = 1.0;
+   private static final double DETERMINANT_EPSILON = 1.0e-12;
+
+   private final float[] vertexCoordinates;
+   private final int[] triangleIndices;
+
+   /** Triangle indices sorted such that each leaf refers to a contiguous range. */
+   private final int[] triangleOrder;
+   private float[] nodeBounds;
+   /**
+    * For each node: the index of the first child and {@code 0} for an internal node, the index of the
+    * first triangle in {@link #triangleOrder} and the number of triangles for a leaf.
+    */
+   private int[] nodeData;
+   private int numberOfNodes;
+
+   /**
+    * Builds the hierarchy for the given mesh on the calling thread.
+    *
+    * @param mesh the mesh to build the hierarchy for. Not modified.
+    */
+   public MeshBoundingVolumeHierarchy(MeshDataHolder mesh)
+   {
+      this(mesh, null);
+   }
+
+   /**
+    * Builds the hierarchy for the given mesh.
+    *
+    * @param mesh the mesh to build the hierarchy for. Not modified.
+    * @param pool the pool used to build the large subtrees in parallel, or {@code null} to build on
+    *             the calling thread.
+    */
+   public MeshBoundingVolumeHierarchy(MeshDataHolder mesh, ForkJoinPool pool)
+   {
+      this(toVertexCoordinates(mesh.getVertices()), mesh.getTriangleIndices().clone(), pool);
+   }
+
+   /**
+    * Builds the hierarchy for the given mesh.
+    * <p>
+    * The arrays of the mesh are not copied, the hierarchy has to be rebuilt if the mesh is modified.
+    * </p>
+    *
+    * @param mesh the mesh to build the hierarchy for. Not modified.
+    * @param pool the pool used to build the large subtrees in parallel, or {@code null} to build on
+    *             the calling thread.
+    */
+   public MeshBoundingVolumeHierarchy(PackedMeshDataHolder mesh, ForkJoinPool pool)
+   {
+      this(mesh.getVertexCoordinates(), mesh.getTriangleIndices(), pool);
+   }
+
+   /**
+    * Builds the hierarchy for the given triangles.
+    * <p>
+    * The arrays are not copied, the hierarchy has to be rebuilt if they are modified.
+    * </p>
+    *
+    * @param vertexCoordinates the vertex coordinates packed as {@code [x0, y0, z0, x1, ...]}. Not
+    *                          modified.
+    * @param triangleIndices   the triangle indices. Not modified.
+    * @param pool              the pool used to build the large subtrees in parallel, or {@code null}
+    *                          to build on the calling thread.
+    */
+   public MeshBoundingVolumeHierarchy(float[] vertexCoordinates, int[] triangleIndices, ForkJoinPool pool)
+   {
+      this.vertexCoordinates = vertexCoordinates;
+      this.triangleIndices = triangleIndices;
+
+      int numberOfTriangles = triangleIndices.length / 3;
+      triangleOrder = new int[numberOfTriangles];
+      for (int i = 0; i < numberOfTriangles; i++)
+         triangleOrder[i] = i;
+
+      if (numberOfTriangles == 0)
+      {
+         nodeBounds = new float[0];
+         nodeData = new int[0];
+         numberOfNodes = 0;
+         return;
+      }
+
+      Builder builder = new Builder(numberOfTriangles, pool != null);
+      BuildTask root = new BuildTask(builder, 0, 0, numberOfTriangles);
+
+      if (pool == null)
+         root.compute();
+      else
+         pool.invoke(root);
+
+      numberOfNodes = builder.nodeCounter.get();
+      nodeBounds = Arrays.copyOf(nodeBounds, 6 * numberOfNodes);
+      nodeData = Arrays.copyOf(nodeData, 2 * numberOfNodes);
+   }
+
+   private static float[] toVertexCoordinates(Point3D32[] vertices)
+   {
+      float[] vertexCoordinates = new float[3 * vertices.length];
+      for (int i = 0; i < vertices.length; i++)
+      {
+         vertexCoordinates[3 * i] = vertices[i].getX32();
+         vertexCoordinates[3 * i + 1] = vertices[i].getY32();
+         vertexCoordinates[3 * i + 2] = vertices[i].getZ32();
+      }
+      return vertexCoordinates;
+   }
+
+   /**
+    * Finds the closest intersection between a ray and the triangles of the mesh. The triangles are
+    * considered double-sided.
+    *
+    * @param rayOrigin    the origin of the ray. Not modified.
+    * @param rayDirection the direction of the ray, does not need to be unit-length. Not modified.
+    * @param resultToPack the closest intersection: the triangle, the distance from the ray origin,
+    *                     and the intersection point. Modified only if an intersection is found.
+    * @return whether the ray intersects the mesh.
+    */
+   public boolean closestHit(Point3DReadOnly rayOrigin, Vector3DReadOnly rayDirection, QueryResult resultToPack)
+   {
+      return rayCast(rayOrigin, rayDirection, Double.POSITIVE_INFINITY, false, resultToPack);
+   }
+
+   /**
+    * Tests whether a ray intersects any triangle of the mesh within the given distance. This is
+    * faster than {@link #closestHit(Point3DReadOnly, Vector3DReadOnly, QueryResult)} as the search
+    * stops at the first intersection, which is useful for occlusion tests.
+    *
+    * @param rayOrigin    the origin of the ray. Not modified.
+    * @param rayDirection the direction of the ray, does not need to be unit-length. Not modified.
+    * @param maxDistance  the maximum distance from the ray origin to consider.
+    * @return whether the ray intersects the mesh.
+    */
+   public boolean anyHit(Point3DReadOnly rayOrigin, Vector3DReadOnly rayDirection, double maxDistance)
+   {
+      return rayCast(rayOrigin, rayDirection, maxDistance, true, null);
+   }
+
+   private boolean rayCast(Point3DReadOnly rayOrigin, Vector3DReadOnly rayDirection, double maxDistance, boolean stopAtFirstHit, QueryResult resultToPack)
+   {
+      if (numberOfNodes == 0)
+         return false;
+
+      double directionLength = rayDirection.norm();
+      if (directionLength == 0.0)
+         return false;
+
+      double ox = rayOrigin.getX(), oy = rayOrigin.getY(), oz = rayOrigin.getZ();
+      double dx = rayDirection.getX() / directionLength, dy = rayDirection.getY() / directionLength, dz = rayDirection.getZ() / directionLength;
+      double invDx = 1.0 / dx, invDy = 1.0 / dy, invDz = 1.0 / dz;
+
+      double closestDistance = maxDistance;
+      int closestTriangle = -1;
+      int numberOfVisitedNodes = 0;
+
+      int[] stack = new int[64];
+      int stackSize = 0;
+      stack[stackSize++] = 0;
+
+      while (stackSize > 0)
+      {
+         int node = stack[--stackSize];
+         numberOfVisitedNodes++;
+
+         if (Double.isNaN(intersectBox(node, ox, oy, oz, invDx, invDy, invDz, closestDistance)))
+            continue;
+
+         int count = nodeData[2 * node + 1];
+
+         if (count > 0)
+         {
+            int first = nodeData[2 * node];
+
+            for (int i = first; i < first + count; i++)
+            {
+               int triangle = triangleOrder[i];
+               double distance = intersectTriangle(triangle, ox, oy, oz, dx, dy, dz);
+
+               if (distance <= closestDistance)
+               {
+                  closestDistance = distance;
+                  closestTriangle = triangle;
+
+                  if (stopAtFirstHit)
+                     return true;
+               }
+            }
+         }
+         else
+         {
+            int left = nodeData[2 * node];
+            int right = left + 1;
+            double leftDistance = intersectBox(left, ox, oy, oz, invDx, invDy, invDz, closestDistance);
+            double rightDistance = intersectBox(right, ox, oy, oz, invDx, invDy, invDz, closestDistance);
+
+            if (stackSize + 2 > stack.length)
+               stack = Arrays.copyOf(stack, 2 * stack.length);
+
+            // The nearest child is pushed last to be visited first.
+            if (Double.isNaN(rightDistance) || leftDistance > rightDistance)
+            {
+               if (!Double.isNaN(leftDistance))
+                  stack[stackSize++] = left;
+               if (!Double.isNaN(rightDistance))
+                  stack[stackSize++] = right;
+            }
+            else
+            {
+               stack[stackSize++] = right;
+               if (!Double.isNaN(leftDistance))
+                  stack[stackSize++] = left;
+            }
+         }
+      }
+
+      if (resultToPack != null)
+         resultToPack.numberOfVisitedNodes = numberOfVisitedNodes;
+
+      if (closestTriangle == -1)
+         return false;
+
+      if (resultToPack != null)
+      {
+         resultToPack.triangleIndex = closestTriangle;
+         resultToPack.distance = closestDistance;
+         resultToPack.point.set(ox + closestDistance * dx, oy + closestDistance * dy, oz + closestDistance * dz);
+      }
+      return true;
+   }
+
+   /**
+    * Slab test between a ray and the bounds of a node.
+    *
+    * @return the distance along the ray at which it enters the box, or {@link Double#NaN} if it
+    *         misses the box within {@code maxDistance}.
+    */
+   private double intersectBox(int node, double ox, double oy, double oz, double invDx, double invDy, double invDz, double maxDistance)
+   {
+      int offset = 6 * node;
+      double tMin = 0.0;
+      double tMax = maxDistance;
+
+      // The comparisons are written such that NaN, from a ray parallel to a slab and lying on its boundary, is ignored.
+      double t1 = (nodeBounds[offset] - ox) * invDx;
+      double t2 = (nodeBounds[offset + 3] - ox) * invDx;
+      if (t1 > t2)
+      {
+         double temp = t1;
+         t1 = t2;
+         t2 = temp;
+      }
+      if (t1 > tMin)
+         tMin = t1;
+      if (t2 < tMax)
+         tMax = t2;
+
+      t1 = (nodeBounds[offset + 1] - oy) * invDy;
+      t2 = (nodeBounds[offset + 4] - oy) * invDy;
+      if (t1 > t2)
+      {
+         double temp = t1;
+         t1 = t2;
+         t2 = temp;
+      }
+      if (t1 > tMin)
+         tMin = t1;
+      if (t2 < tMax)
+         tMax = t2;
+
+      t1 = (nodeBounds[offset + 2] - oz) * invDz;
+      t2 = (nodeBounds[offset + 5] - oz) * invDz;
+      if (t1 > t2)
+      {
+         double temp = t1;
+         t1 = t2;
+         t2 = temp;
+      }
+      if (t1 > tMin)
+         tMin = t1;
+      if (t2 < tMax)
+         tMax = t2;
+
+      return tMin <= tMax ? tMin : Double.NaN;
+   }
+
+   /**
+    * Moller-Trumbore ray-triangle intersection.
+    *
+    * @return the distance along the ray to the intersection, or {@link Double#NaN} if there is no
+    *         intersection.
+    */
+   private double intersectTriangle(int triangle, double ox, double oy, double oz, double dx, double dy, double dz)
+   {
+      int v0 = 3 * triangleIndices[3 * triangle];
+      int v1 = 3 * triangleIndices[3 * triangle + 1];
+      int v2 = 3 * triangleIndices[3 * triangle + 2];
+
+      double x0 = vertexCoordinates[v0], y0 = vertexCoordinates[v0 + 1], z0 = vertexCoordinates[v0 + 2];
+      double e1x = vertexCoordinates[v1] - x0, e1y = vertexCoordinates[v1 + 1] - y0, e1z = vertexCoordinates[v1 + 2] - z0;
+      double e2x = vertexCoordinates[v2] - x0, e2y = vertexCoordinates[v2 + 1] - y0, e2z = vertexCoordinates[v2 + 2] - z0;
+
+      double px = dy * e2z - dz * e2y;
+      double py = dz * e2x - dx * e2z;
+      double pz = dx * e2y - dy * e2x;
+      double determinant = e1x * px + e1y * py + e1z * pz;
+
+      if (Math.abs(determinant) < DETERMINANT_EPSILON)
+         return Double.NaN;
+
+      double invDeterminant = 1.0 / determinant;
+      double sx = ox - x0, sy = oy - y0, sz = oz - z0;
+      double u = (sx * px + sy * py + sz * pz) * invDeterminant;
+      if (u < 0.0 || u > 1.0)
+         return Double.NaN;
+
+      double qx = sy * e1z - sz * e1y;
+      double qy = sz * e1x - sx * e1z;
+      double qz = sx * e1y - sy * e1x;
+      double v = (dx * qx + dy * qy + dz * qz) * invDeterminant;
+      if (v < 0.0 || u + v > 1.0)
+         return Double.NaN;
+
+      double t = (e2x * qx + e2y * qy + e2z * qz) * invDeterminant;
+      return t >= 0.0 ? t : Double.NaN;
+   }
+
+   /**
+    * Finds the point on the surface of the mesh that is the closest to the given query point.
+    *
+    * @param query        the query point. Not modified.
+    * @param resultToPack the closest point: the triangle it belongs to, its distance to the query, and
+    *                     its coordinates. Modified only if the mesh has at least one triangle.
+    * @return whether the mesh has at least one triangle.
+    */
+   public boolean nearestPoint(Point3DReadOnly query, QueryResult resultToPack)
+   {
+      if (numberOfNodes == 0)
+         return false;
+
+      double qx = query.getX(), qy = query.getY(), qz = query.getZ();
+      double closestDistanceSquared = Double.POSITIVE_INFINITY;
+      int closestTriangle = -1;
+      double[] closestPoint = new double[3];
+      double[] candidatePoint = new double[3];
+
+      int[] stack = new int[64];
+      int stackSize = 0;
+      stack[stackSize++] = 0;
+
+      while (stackSize > 0)
+      {
+         int node = stack[--stackSize];
+
+         if (distanceSquaredToBox(node, qx, qy, qz) >= closestDistanceSquared)
+            continue;
+
+         int count = nodeData[2 * node + 1];
+
+         if (count > 0)
+         {
+            int first = nodeData[2 * node];
+
+            for (int i = first; i < first + count; i++)
+            {
+               int triangle = triangleOrder[i];
+               closestPointOnTriangle(triangle, qx, qy, qz, candidatePoint);
+               double ex = candidatePoint[0] - qx, ey = candidatePoint[1] - qy, ez = candidatePoint[2] - qz;
+               double distanceSquared = ex * ex + ey * ey + ez * ez;
+
+               if (distanceSquared < closestDistanceSquared)
+               {
+                  closestDistanceSquared = distanceSquared;
+                  closestTriangle = triangle;
+                  System.arraycopy(candidatePoint, 0, closestPoint, 0, 3);
+               }
+            }
+         }
+         else
+         {
+            int left = nodeData[2 * node];
+            int right = left + 1;
+            double leftDistance = distanceSquaredToBox(left, qx, qy, qz);
+            double rightDistance = distanceSquaredToBox(right, qx, qy, qz);
+
+            if (stackSize + 2 > stack.length)
+               stack = Arrays.copyOf(stack, 2 * stack.length);
+
+            if (leftDistance <= rightDistance)
+            {
+               stack[stackSize++] = right;
+               stack[stackSize++] = left;
+            }
+            else
+            {
+               stack[stackSize++] = left;
+               stack[stackSize++] = right;
+            }
+         }
+      }
+
+      resultToPack.triangleIndex = closestTriangle;
+      resultToPack.distance = Math.sqrt(closestDistanceSquared);
+      resultToPack.point.set(closestPoint[0], closestPoint[1], closestPoint[2]);
+      return true;
+   }
+
+   private double distanceSquaredToBox(int node, double qx, double qy, double qz)
+   {
+      int offset = 6 * node;
+      double dx = Math.max(0.0, Math.max(nodeBounds[offset] - qx, qx - nodeBounds[offset + 3]));
+      double dy = Math.max(0.0, Math.max(nodeBounds[offset + 1] - qy, qy - nodeBounds[offset + 4]));
+      double dz = Math.max(0.0, Math.max(nodeBounds[offset + 2] - qz, qz - nodeBounds[offset + 5]));
+      return dx * dx + dy * dy + dz * dz;
+   }
+
+   /**
+    * Computes the closest point on a triangle to a query point by identifying the Voronoi region of
+    * the triangle the query lies in, as described in Ericson's Real-Time Collision Detection.
+    */
+   private void closestPointOnTriangle(int triangle, double qx, double qy, double qz, double[] pointToPack)
+   {
+      int v0 = 3 * triangleIndices[3 * triangle];
+      int v1 = 3 * triangleIndices[3 * triangle + 1];
+      int v2 = 3 * triangleIndices[3 * triangle + 2];
+
+      double ax = vertexCoordinates[v0], ay = vertexCoordinates[v0 + 1], az = vertexCoordinates[v0 + 2];
+      double abx = vertexCoordinates[v1] - ax, aby = vertexCoordinates[v1 + 1] - ay, abz = vertexCoordinates[v1 + 2] - az;
+      double acx = vertexCoordinates[v2] - ax, acy = vertexCoordinates[v2 + 1] - ay, acz = vertexCoordinates[v2 + 2] - az;
+      double apx = qx - ax, apy = qy - ay, apz = qz - az;
+
+      double d1 = abx * apx + aby * apy + abz * apz;
+      double d2 = acx * apx + acy * apy + acz * apz;
+      if (d1 <= 0.0 && d2 <= 0.0)
+      { // Vertex region A
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, 0.0, 0.0, pointToPack);
+         return;
+      }
+
+      double bpx = apx - abx, bpy = apy - aby, bpz = apz - abz;
+      double d3 = abx * bpx + aby * bpy + abz * bpz;
+      double d4 = acx * bpx + acy * bpy + acz * bpz;
+      if (d3 >= 0.0 && d4 <= d3)
+      { // Vertex region B
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, 1.0, 0.0, pointToPack);
+         return;
+      }
+
+      double vc = d1 * d4 - d3 * d2;
+      if (vc <= 0.0 && d1 >= 0.0 && d3 <= 0.0)
+      { // Edge region AB
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, d1 / (d1 - d3), 0.0, pointToPack);
+         return;
+      }
+
+      double cpx = apx - acx, cpy = apy - acy, cpz = apz - acz;
+      double d5 = abx * cpx + aby * cpy + abz * cpz;
+      double d6 = acx * cpx + acy * cpy + acz * cpz;
+      if (d6 >= 0.0 && d5 <= d6)
+      { // Vertex region C
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, 0.0, 1.0, pointToPack);
+         return;
+      }
+
+      double vb = d5 * d2 - d1 * d6;
+      if (vb <= 0.0 && d2 >= 0.0 && d6 <= 0.0)
+      { // Edge region AC
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, 0.0, d2 / (d2 - d6), pointToPack);
+         return;
+      }
+
+      double va = d3 * d6 - d5 * d4;
+      if (va <= 0.0 && d4 - d3 >= 0.0 && d5 - d6 >= 0.0)
+      { // Edge region BC
+         double w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+         setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, 1.0 - w, w, pointToPack);
+         return;
+      }
+
+      // Face region
+      double denominator = 1.0 / (va + vb + vc);
+      setBarycentric(ax, ay, az, abx, aby, abz, acx, acy, acz, vb * denominator, vc * denominator, pointToPack);
+   }
+
+   private static void setBarycentric(double ax, double ay, double az, double abx, double aby, double abz, double acx, double acy, double acz, double v,
+                                      double w, double[] pointToPack)
+   {
+      pointToPack[0] = ax + v * abx + w * acx;
+      pointToPack[1] = ay + v * aby + w * acy;
+      pointToPack[2] = az + v * abz + w * acz;
+   }
+
+   /**
+    * @return the number of nodes in the hierarchy.
+    */
+   public int getNumberOfNodes()
+   {
+      return numberOfNodes;
+   }
+
+   /**
+    * @return the number of triangles in the hierarchy.
+    */
+   public int getNumberOfTriangles()
+   {
+      return triangleOrder.length;
+   }
+
+   /**
+    * Result of a query on the hierarchy.
+    */
+   public static class QueryResult
+   {
+      private int triangleIndex = -1;
+      private double distance = Double.NaN;
+      private final Point3D point = new Point3D();
+      private int numberOfVisitedNodes = 0;
+
+      public QueryResult()
+      {
+      }
+
+      /**
+       * @return the index of the triangle, such that its vertices are given by the triangle indices
+       *         {@code 3 * triangleIndex}, {@code 3 * triangleIndex + 1}, and
+       *         {@code 3 * triangleIndex + 2}.
+       */
+      public int getTriangleIndex()
+      {
+         return triangleIndex;
+      }
+
+      /**
+       * @return the distance from the ray origin or the query point to {@link #getPoint()}.
+       */
+      public double getDistance()
+      {
+         return distance;
+      }
+
+      /**
+       * @return the intersection or closest point on the mesh.
+       */
+      public Point3DReadOnly getPoint()
+      {
+         return point;
+      }
+
+      /**
+       * @return the number of nodes popped from the traversal stack by the last ray cast, used to
+       *         verify the traversal order.
+       */
+      int getNumberOfVisitedNodes()
+      {
+         return numberOfVisitedNodes;
+      }
+   }
+
+   /**
+    * Scratch data used during the build, shared by the build tasks.
+    */
+   private class Builder
+   {
+      private final float[] triangleBounds;
+      private final float[] triangleCentroids;
+      private final AtomicInteger nodeCounter = new AtomicInteger(1);
+      private final boolean parallel;
+
+      private Builder(int numberOfTriangles, boolean parallel)
+      {
+         this.parallel = parallel;
+         triangleBounds = new float[6 * numberOfTriangles];
+         triangleCentroids = new float[3 * numberOfTriangles];
+         // A binary tree with one triangle per leaf at most has 2n-1 nodes.
+         nodeBounds = new float[6 * (2 * numberOfTriangles - 1)];
+         nodeData = new int[2 * (2 * numberOfTriangles - 1)];
+
+         for (int triangle = 0; triangle < numberOfTriangles; triangle++)
+         {
+            for (int axis = 0; axis < 3; axis++)
+            {
+               float a = vertexCoordinates[3 * triangleIndices[3 * triangle] + axis];
+               float b = vertexCoordinates[3 * triangleIndices[3 * triangle + 1] + axis];
+               float c = vertexCoordinates[3 * triangleIndices[3 * triangle + 2] + axis];
+               float min = Math.min(a, Math.min(b, c));
+               float max = Math.max(a, Math.max(b, c));
+               triangleBounds[6 * triangle + axis] = min;
+               triangleBounds[6 * triangle + axis + 3] = max;
+               triangleCentroids[3 * triangle + axis] = 0.5f * (min + max);
+            }
+         }
+      }
+   }
+
+   private class BuildTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = -1813092484516093311L;
+
+      private final Builder builder;
+      private final int node;
+      private final int start;
+      private final int end;
+
+      private BuildTask(Builder builder, int node, int start, int end)
+      {
+         this.builder = builder;
+         this.node = node;
+         this.start = start;
+         this.end = end;
+      }
+
+      @Override
+      protected void compute()
+      {
+         int count = end - start;
+         float[] triangleBounds = builder.triangleBounds;
+         float[] triangleCentroids = builder.triangleCentroids;
+
+         // Bounds of the node and of the centroids of its triangles.
+         double[] bounds = newEmptyBounds();
+         double[] centroidBounds = newEmptyBounds();
+         for (int i = start; i < end; i++)
+         {
+            int triangle = triangleOrder[i];
+            for (int axis = 0; axis < 3; axis++)
+            {
+               float centroid = triangleCentroids[3 * triangle + axis];
+               if (triangleBounds[6 * triangle + axis] < bounds[axis])
+                  bounds[axis] = triangleBounds[6 * triangle + axis];
+               if (triangleBounds[6 * triangle + axis + 3] > bounds[axis + 3])
+                  bounds[axis + 3] = triangleBounds[6 * triangle + axis + 3];
+               if (centroid < centroidBounds[axis])
+                  centroidBounds[axis] = centroid;
+               if (centroid > centroidBounds[axis + 3])
+                  centroidBounds[axis + 3] = centroid;
+            }
+         }
+         for (int i = 0; i < 6; i++)
+            nodeBounds[6 * node + i] = (float) bounds[i];
+
+         if (count <= MIN_LEAF_SIZE)
+         {
+            makeLeaf();
+            return;
+         }
+
+         // Evaluates the SAH for each split plane between the bins of each axis.
+         int bestAxis = -1;
+         int bestSplit = -1;
+         double bestCost = Double.POSITIVE_INFINITY;
+         int[] binCounts = new int[NUMBER_OF_BINS];
+         double[] binBounds = new double[6 * NUMBER_OF_BINS];
+         double[] leftCosts = new double[NUMBER_OF_BINS];
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            double centroidMin = centroidBounds[axis];
+            double extent = centroidBounds[axis + 3] - centroidMin;
+            if (extent <= 0.0)
+               continue;
+
+            Arrays.fill(binCounts, 0);
+            for (int bin = 0; bin < NUMBER_OF_BINS; bin++)
+               setEmptyBounds(binBounds, bin);
+
+            double binScale = NUMBER_OF_BINS / extent;
+            for (int i = start; i < end; i++)
+            {
+               int triangle = triangleOrder[i];
+               int bin = computeBin(triangleCentroids[3 * triangle + axis], centroidMin, binScale);
+               binCounts[bin]++;
+               for (int k = 0; k < 3; k++)
+               {
+                  if (triangleBounds[6 * triangle + k] < binBounds[6 * bin + k])
+                     binBounds[6 * bin + k] = triangleBounds[6 * triangle + k];
+                  if (triangleBounds[6 * triangle + k + 3] > binBounds[6 * bin + k + 3])
+                     binBounds[6 * bin + k + 3] = triangleBounds[6 * triangle + k + 3];
+               }
+            }
+
+            // Sweep from the left to accumulate the cost of the left side of each split.
+            double[] sweepBounds = newEmptyBounds();
+            int sweepCount = 0;
+            for (int bin = 0; bin < NUMBER_OF_BINS - 1; bin++)
+            {
+               sweepCount += binCounts[bin];
+               growBounds(sweepBounds, binBounds, bin);
+               leftCosts[bin] = sweepCount == 0 ? 0.0 : sweepCount * surfaceArea(sweepBounds);
+            }
+
+            // Sweep from the right and evaluate the total cost of each split.
+            sweepBounds = newEmptyBounds();
+            sweepCount = 0;
+            for (int bin = NUMBER_OF_BINS - 1; bin > 0; bin--)
+            {
+               sweepCount += binCounts[bin];
+               growBounds(sweepBounds, binBounds, bin);
+               if (sweepCount == 0 || sweepCount == count)
+                  continue;
+
+               double cost = leftCosts[bin - 1] + sweepCount * surfaceArea(sweepBounds);
+               if (cost < bestCost)
+               {
+                  bestCost = cost;
+                  bestAxis = axis;
+                  bestSplit = bin;
+               }
+            }
+         }
+
+         int middle;
+
+         if (bestAxis == -1)
+         { // All the centroids are at the same location, only split to bound the leaf size.
+            if (count <= MAX_LEAF_SIZE)
+            {
+               makeLeaf();
+               return;
+            }
+            middle = (start + end) >>> 1;
+         }
+         else
+         {
+            double parentArea = surfaceArea(bounds);
+            double splitCost = TRAVERSAL_COST + (parentArea > 0.0 ? bestCost / parentArea : count);
+
+            if (splitCost >= count && count <= MAX_LEAF_SIZE)
+            {
+               makeLeaf();
+               return;
+            }
+
+            middle = partition(bestAxis, bestSplit, centroidBounds);
+         }
+
+         int left = builder.nodeCounter.getAndAdd(2);
+         nodeData[2 * node] = left;
+         nodeData[2 * node + 1] = 0;
+
+         BuildTask leftTask = new BuildTask(builder, left, start, middle);
+         BuildTask rightTask = new BuildTask(builder, left + 1, middle, end);
+
+         if (builder.parallel && count >= PARALLEL_BUILD_THRESHOLD)
+         {
+            invokeAll(leftTask, rightTask);
+         }
+         else
+         {
+            leftTask.compute();
+            rightTask.compute();
+         }
+      }
+
+      private void makeLeaf()
+      {
+         nodeData[2 * node] = start;
+         nodeData[2 * node + 1] = end - start;
+      }
+
+      /**
+       * Moves the triangles which centroid falls in the bins before {@code split} to the beginning of
+       * the range.
+       *
+       * @return the index of the first triangle of the right side.
+       */
+      private int partition(int axis, int split, double[] centroidBounds)
+      {
+         double centroidMin = centroidBounds[axis];
+         double binScale = NUMBER_OF_BINS / (centroidBounds[axis + 3] - centroidMin);
+         float[] triangleCentroids = builder.triangleCentroids;
+         int i = start;
+         int j = end - 1;
+
+         while (i <= j)
+         {
+            if (computeBin(triangleCentroids[3 * triangleOrder[i] + axis], centroidMin, binScale) < split)
+            {
+               i++;
+            }
+            else
+            {
+               int temp = triangleOrder[i];
+               triangleOrder[i] = triangleOrder[j];
+               triangleOrder[j] = temp;
+               j--;
+            }
+         }
+
+         return i;
+      }
+   }
+
+   private static int computeBin(double centroid, double centroidMin, double binScale)
+   {
+      return Math.min(NUMBER_OF_BINS - 1, (int) ((centroid - centroidMin) * binScale));
+   }
+
+   private static double[] newEmptyBounds()
+   {
+      double[] bounds = new double[6];
+      setEmptyBounds(bounds, 0);
+      return bounds;
+   }
+
+   private static void setEmptyBounds(double[] bounds, int index)
+   {
+      for (int k = 0; k < 3; k++)
+      {
+         bounds[6 * index + k] = Double.POSITIVE_INFINITY;
+         bounds[6 * index + k + 3] = Double.NEGATIVE_INFINITY;
+      }
+   }
+
+   private static void growBounds(double[] bounds, double[] binBounds, int bin)
+   {
+      for (int k = 0; k < 3; k++)
+      {
+         bounds[k] = Math.min(bounds[k], binBounds[6 * bin + k]);
+         bounds[k + 3] = Math.max(bounds[k + 3], binBounds[6 * bin + k + 3]);
+      }
+   }
+
+   private static double surfaceArea(double[] bounds)
+   {
+      double dx = bounds[3] - bounds[0];
+      double dy = bounds[4] - bounds[1];
+      double dz = bounds[5] - bounds[2];
+      return 2.0 * (dx * dy + dy * dz + dz * dx);
+   }
+}
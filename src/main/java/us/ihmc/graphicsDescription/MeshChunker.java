@@ -0,0 +1,174 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+/**
+ * Splits meshes that have too many vertices to be indexed with unsigned 16-bit values into
+ * sub-meshes that each fit, such that graphics engine adapters can always use the cheaper index
+ * format, see {@link DirectBufferMeshDataHolder.IndexType}.
+ * <p>
+ * The triangles are assigned in order: a chunk is filled with consecutive triangles until adding
+ * the next triangle would exceed the maximum number of vertices, the vertices shared between
+ * triangles of the same chunk are not duplicated. Rendering all the chunks is equivalent to
+ * rendering the original mesh.
+ * </p>
+ */
+public class MeshChunker
+{
+   /**
+    * Splits the given mesh such that each chunk can be indexed with unsigned 16-bit values.
+    *
+    * @param input the mesh to split. Not modified.
+    * @return the chunks. If the mesh already fits, the list only contains {@code input}.
+    */
+   public static List<MeshDataHolder> splitForShortIndices(MeshDataHolder input)
+   {
+      return split(input, DirectBufferMeshDataHolder.MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES);
+   }
+
+   /**
+    * Splits the given packed mesh such that each chunk can be indexed with unsigned 16-bit values.
+    *
+    * @param input the mesh to split. Not modified.
+    * @return the chunks. If the mesh already fits, the list only contains {@code input}.
+    */
+   public static List<PackedMeshDataHolder> splitForShortIndices(PackedMeshDataHolder input)
+   {
+      return split(input, DirectBufferMeshDataHolder.MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES);
+   }
+
+   /**
+    * Splits the given mesh into chunks of at most {@code maxNumberOfVertices} vertices.
+    *
+    * @param input               the mesh to split. Not modified.
+    * @param maxNumberOfVertices the maximum number of vertices per chunk, at least 3.
+    * @return the chunks. If the mesh already fits, the list only contains {@code input}.
+    */
+   public static List<MeshDataHolder> split(MeshDataHolder input, int maxNumberOfVertices)
+   {
+      if (input.getVertices().length <= maxNumberOfVertices)
+         return Collections.singletonList(input);
+
+      List<MeshDataHolder> chunks = new ArrayList<>();
+
+      for (Chunk chunk : computeChunks(input.getTriangleIndices(), input.getVertices().length, maxNumberOfVertices))
+      {
+         int numberOfVertices = chunk.vertexIndices.size();
+         Point3D32[] vertices = new Point3D32[numberOfVertices];
+         TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+         Vector3D32[] vertexNormals = new Vector3D32[numberOfVertices];
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            int vertexIndex = chunk.vertexIndices.get(i);
+            vertices[i] = new Point3D32(input.getVertices()[vertexIndex]);
+            texturePoints[i] = new TexCoord2f(input.getTexturePoints()[vertexIndex]);
+            vertexNormals[i] = new Vector3D32(input.getVertexNormals()[vertexIndex]);
+         }
+
+         MeshDataHolder output = new MeshDataHolder(vertices, texturePoints, chunk.triangleIndices.toArray(), vertexNormals);
+         output.setName(input.getName() + "_" + chunks.size());
+         chunks.add(output);
+      }
+
+      return chunks;
+   }
+
+   /**
+    * Splits the given packed mesh into chunks of at most {@code maxNumberOfVertices} vertices.
+    *
+    * @param input               the mesh to split. Not modified.
+    * @param maxNumberOfVertices the maximum number of vertices per chunk, at least 3.
+    * @return the chunks. If the mesh already fits, the list only contains {@code input}.
+    */
+   public static List<PackedMeshDataHolder> split(PackedMeshDataHolder input, int maxNumberOfVertices)
+   {
+      if (input.getNumberOfVertices() <= maxNumberOfVertices)
+         return Collections.singletonList(input);
+
+      List<PackedMeshDataHolder> chunks = new ArrayList<>();
+
+      for (Chunk chunk : computeChunks(input.getTriangleIndices(), input.getNumberOfVertices(), maxNumberOfVertices))
+      {
+         int numberOfVertices = chunk.vertexIndices.size();
+         PackedMeshDataHolder output = new PackedMeshDataHolder(numberOfVertices, chunk.triangleIndices.size());
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            int vertexIndex = chunk.vertexIndices.get(i);
+            System.arraycopy(input.getVertexCoordinates(), 3 * vertexIndex, output.getVertexCoordinates(), 3 * i, 3);
+            System.arraycopy(input.getVertexNormalCoordinates(), 3 * vertexIndex, output.getVertexNormalCoordinates(), 3 * i, 3);
+            System.arraycopy(input.getTexturePointCoordinates(), 2 * vertexIndex, output.getTexturePointCoordinates(), 2 * i, 2);
+         }
+         chunk.triangleIndices.toArray(output.getTriangleIndices());
+         output.setName(input.getName() + "_" + chunks.size());
+         chunks.add(output);
+      }
+
+      return chunks;
+   }
+
+   private static List<Chunk> computeChunks(int[] triangleIndices, int numberOfVertices, int maxNumberOfVertices)
+   {
+      if (maxNumberOfVertices < 3)
+         throw new IllegalArgumentException("A chunk needs at least 3 vertices, was: " + maxNumberOfVertices);
+
+      List<Chunk> chunks = new ArrayList<>();
+      // For each vertex of the input mesh: its index in the current chunk, valid only if the stamp matches the chunk.
+      int[] localIndices = new int[numberOfVertices];
+      int[] chunkStamps = new int[numberOfVertices];
+      Chunk chunk = new Chunk();
+      int stamp = 1;
+
+      for (int i = 0; i + 2 < triangleIndices.length; i += 3)
+      {
+         int numberOfNewVertices = 0;
+
+         for (int j = 0; j < 3; j++)
+         {
+            int vertexIndex = triangleIndices[i + j];
+            if (chunkStamps[vertexIndex] != stamp && (j < 1 || vertexIndex != triangleIndices[i]) && (j < 2 || vertexIndex != triangleIndices[i + 1]))
+               numberOfNewVertices++;
+         }
+
+         if (chunk.vertexIndices.size() + numberOfNewVertices > maxNumberOfVertices)
+         {
+            chunks.add(chunk);
+            chunk = new Chunk();
+            stamp++;
+         }
+
+         for (int j = 0; j < 3; j++)
+         {
+            int vertexIndex = triangleIndices[i + j];
+
+            if (chunkStamps[vertexIndex] != stamp)
+            {
+               chunkStamps[vertexIndex] = stamp;
+               localIndices[vertexIndex] = chunk.vertexIndices.size();
+               chunk.vertexIndices.add(vertexIndex);
+            }
+            chunk.triangleIndices.add(localIndices[vertexIndex]);
+         }
+      }
+
+      if (!chunk.triangleIndices.isEmpty())
+         chunks.add(chunk);
+
+      return chunks;
+   }
+
+   private static class Chunk
+   {
+      /** The indices of the vertices of the input mesh that belong to this chunk. */
+      private final TIntArrayList vertexIndices = new TIntArrayList();
+      /** The triangle indices of this chunk, expressed in the local vertex indices. */
+      private final TIntArrayList triangleIndices = new TIntArrayList();
+   }
+}
@@ -0,0 +1,582 @@
+package us.ihmc.graphicsDescription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.IndexType;
+
+/**
+ * Reads and writes lists of named meshes in a compact, versioned, binary file format.
+ * <p>
+ * All the values are little-endian. The file starts with a header:
+ * <ul>
+ * <li>{@code int magic} equal to {@link #MAGIC}, {@code int version}, {@code int numberOfMeshes},
+ * {@code int headerLength} in bytes,
+ * <li>one entry per mesh: {@code short nameLength}, the UTF-8 name, {@code int numberOfVertices},
+ * {@code int numberOfTriangleIndices}, {@code byte indexSize} (2 or 4), {@code long dataOffset},
+ * {@code long dataLength}, and {@code int dataChecksum},
+ * <li>{@code int headerChecksum} of all the previous bytes.
+ * </ul>
+ * The data block of each mesh starts at a multiple of 8 bytes and contains the arrays of a
+ * {@link PackedMeshDataHolder} one after the other: the vertex coordinates, the vertex normals, the
+ * texture coordinates, and the triangle indices. The indices are 16-bit when the mesh has few
+ * enough vertices, see {@link DirectBufferMeshDataHolder#selectIndexType(int)}. The checksums are
+ * CRC32.
+ * </p>
+ * <p>
+ * The meshes are written one at a time through a small buffer, such that large files can be
+ * written without building them in memory. They are loaded by mapping the data block of each mesh,
+ * either to bulk copy the arrays into a {@link PackedMeshDataHolder}, or to use the mapped memory
+ * directly as a {@link DirectBufferMeshDataHolder}. {@link #probe(Path)} only reads the header, to
+ * list the content of a file without loading it.
+ * </p>
+ */
+public class MeshDataBinaryFormat
+{
+   /** The first 4 bytes of the file, "IMSH" in ASCII. */
+   public static final int MAGIC = 0x48534D49;
+   /** The version of the format written by this class. */
+   public static final int VERSION = 1;
+
+   private static final int FIXED_HEADER_LENGTH = 4 * Integer.BYTES;
+   private static final int MAX_NAME_LENGTH = 0xFFFF;
+   private static final int DATA_ALIGNMENT = 8;
+   private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+   private MeshDataBinaryFormat()
+   {
+      // Prevent an object being generated.
+   }
+
+   /**
+    * Describes a mesh stored in a file, as read by {@link #probe(Path)}.
+    */
+   public static class MeshEntry
+   {
+      private final String name;
+      private final int numberOfVertices;
+      private final int numberOfTriangleIndices;
+      private final int indexSize;
+      private final long dataOffset;
+      private final long dataLength;
+      private final int dataChecksum;
+
+      private MeshEntry(String name, int numberOfVertices, int numberOfTriangleIndices, int indexSize, long dataOffset, long dataLength, int dataChecksum)
+      {
+         this.name = name;
+         this.numberOfVertices = numberOfVertices;
+         this.numberOfTriangleIndices = numberOfTriangleIndices;
+         this.indexSize = indexSize;
+         this.dataOffset = dataOffset;
+         this.dataLength = dataLength;
+         this.dataChecksum = dataChecksum;
+      }
+
+      public String getName()
+      {
+         return name;
+      }
+
+      public int getNumberOfVertices()
+      {
+         return numberOfVertices;
+      }
+
+      public int getNumberOfTriangleIndices()
+      {
+         return numberOfTriangleIndices;
+      }
+
+      /**
+       * @return the size in bytes of each triangle index: 2 or 4.
+       */
+      public int getIndexSize()
+      {
+         return indexSize;
+      }
+
+      public long getDataOffset()
+      {
+         return dataOffset;
+      }
+
+      public long getDataLength()
+      {
+         return dataLength;
+      }
+
+      public int getDataChecksum()
+      {
+         return dataChecksum;
+      }
+
+      private long getVertexDataLength()
+      {
+         return (long) Float.BYTES * 8 * numberOfVertices;
+      }
+
+      @Override
+      public String toString()
+      {
+         return name + ": " + numberOfVertices + " vertices, " + numberOfTriangleIndices / 3 + " triangles";
+      }
+   }
+
+   /**
+    * Writes the given meshes to a file, replacing it if it exists. The meshes are packed one at a
+    * time while writing.
+    *
+    * @param path   the file to write.
+    * @param meshes the meshes to write, their names are saved. Not modified.
+    * @throws IOException              if an I/O error occurs.
+    * @throws IllegalArgumentException if the name of a mesh is longer than 65535 bytes in UTF-8.
+    */
+   public static void writeMeshes(Path path, List<MeshDataHolder> meshes) throws IOException
+   {
+      String[] names = new String[meshes.size()];
+      int[] numberOfVertices = new int[meshes.size()];
+      int[] numberOfTriangleIndices = new int[meshes.size()];
+
+      for (int i = 0; i < meshes.size(); i++)
+      {
+         names[i] = meshes.get(i).getName();
+         numberOfVertices[i] = meshes.get(i).getVertices().length;
+         numberOfTriangleIndices[i] = meshes.get(i).getTriangleIndices().length;
+      }
+
+      write(path, names, numberOfVertices, numberOfTriangleIndices, i -> PackedMeshDataHolder.pack(meshes.get(i)));
+   }
+
+   /**
+    * Writes the given packed meshes to a file, replacing it if it exists.
+    *
+    * @param path   the file to write.
+    * @param meshes the meshes to write, their names are saved. Not modified.
+    * @throws IOException              if an I/O error occurs.
+    * @throws IllegalArgumentException if the name of a mesh is longer than 65535 bytes in UTF-8.
+    */
+   public static void writePackedMeshes(Path path, List<PackedMeshDataHolder> meshes) throws IOException
+   {
+      String[] names = new String[meshes.size()];
+      int[] numberOfVertices = new int[meshes.size()];
+      int[] numberOfTriangleIndices = new int[meshes.size()];
+
+      for (int i = 0; i < meshes.size(); i++)
+      {
+         names[i] = meshes.get(i).getName();
+         numberOfVertices[i] = meshes.get(i).getNumberOfVertices();
+         numberOfTriangleIndices[i] = meshes.get(i).getTriangleIndices().length;
+      }
+
+      write(path, names, numberOfVertices, numberOfTriangleIndices, meshes::get);
+   }
+
+   private static void write(Path path, String[] names, int[] numberOfVertices, int[] numberOfTriangleIndices, IntFunction<PackedMeshDataHolder> meshes)
+         throws IOException
+   {
+      int numberOfMeshes = names.length;
+      List<MeshEntry> entries = new ArrayList<>(numberOfMeshes);
+      int headerLength = FIXED_HEADER_LENGTH + Integer.BYTES;
+
+      for (int i = 0; i < numberOfMeshes; i++)
+      {
+         if (names[i] == null)
+            names[i] = "";
+         headerLength += entryLength(names[i]);
+      }
+
+      long dataOffset = align(headerLength);
+
+      for (int i = 0; i < numberOfMeshes; i++)
+      {
+         int indexSize = DirectBufferMeshDataHolder.selectIndexType(numberOfVertices[i]) == IndexType.UNSIGNED_SHORT ? Short.BYTES : Integer.BYTES;
+         long dataLength = (long) Float.BYTES * 8 * numberOfVertices[i] + (long) indexSize * numberOfTriangleIndices[i];
+         // The checksum is filled in once the data is written.
+         entries.add(new MeshEntry(names[i], numberOfVertices[i], numberOfTriangleIndices[i], indexSize, dataOffset, dataLength, 0));
+         dataOffset = align(dataOffset + dataLength);
+      }
+
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+         CRC32 crc = new CRC32();
+
+         for (int i = 0; i < numberOfMeshes; i++)
+         {
+            PackedMeshDataHolder mesh = meshes.apply(i);
+            MeshEntry entry = entries.get(i);
+            crc.reset();
+            channel.position(entry.dataOffset);
+            writeFloats(channel, buffer, crc, mesh.getVertexCoordinates());
+            writeFloats(channel, buffer, crc, mesh.getVertexNormalCoordinates());
+            writeFloats(channel, buffer, crc, mesh.getTexturePointCoordinates());
+            writeIndices(channel, buffer, crc, mesh.getTriangleIndices(), entry.indexSize);
+            entries.set(i,
+                        new MeshEntry(entry.name,
+                                      entry.numberOfVertices,
+                                      entry.numberOfTriangleIndices,
+                                      entry.indexSize,
+                                      entry.dataOffset,
+                                      entry.dataLength,
+                                      (int) crc.getValue()));
+         }
+
+         ByteBuffer header = createHeader(entries, headerLength);
+         while (header.hasRemaining())
+            channel.write(header, header.position());
+      }
+   }
+
+   private static int entryLength(String name)
+   {
+      int nameLength = name.getBytes(StandardCharsets.UTF_8).length;
+      if (nameLength > MAX_NAME_LENGTH)
+         throw new IllegalArgumentException("The mesh name is too long. Expected: at most " + MAX_NAME_LENGTH + " bytes, but was: " + nameLength);
+      return entryLength(nameLength);
+   }
+
+   private static int entryLength(int nameLength)
+   {
+      return Short.BYTES + nameLength + 2 * Integer.BYTES + 1 + 2 * Long.BYTES + Integer.BYTES;
+   }
+
+   private static long align(long offset)
+   {
+      return (offset + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+   }
+
+   private static ByteBuffer createHeader(List<MeshEntry> entries, int headerLength)
+   {
+      ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC);
+      header.putInt(VERSION);
+      header.putInt(entries.size());
+      header.putInt(headerLength);
+
+      for (MeshEntry entry : entries)
+      {
+         byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+         header.putShort((short) name.length);
+         header.put(name);
+         header.putInt(entry.numberOfVertices);
+         header.putInt(entry.numberOfTriangleIndices);
+         header.put((byte) entry.indexSize);
+         header.putLong(entry.dataOffset);
+         header.putLong(entry.dataLength);
+         header.putInt(entry.dataChecksum);
+      }
+
+      CRC32 crc = new CRC32();
+      crc.update(header.array(), 0, header.position());
+      header.putInt((int) crc.getValue());
+      header.flip();
+      return header;
+   }
+
+   private static void writeFloats(FileChannel channel, ByteBuffer buffer, CRC32 crc, float[] values) throws IOException
+   {
+      int index = 0;
+
+      while (index < values.length)
+      {
+         buffer.clear();
+         int length = Math.min(values.length - index, buffer.capacity() / Float.BYTES);
+         buffer.asFloatBuffer().put(values, index, length);
+         buffer.limit(length * Float.BYTES);
+         flush(channel, buffer, crc);
+         index += length;
+      }
+   }
+
+   private static void writeIndices(FileChannel channel, ByteBuffer buffer, CRC32 crc, int[] values, int indexSize) throws IOException
+   {
+      int index = 0;
+
+      while (index < values.length)
+      {
+         buffer.clear();
+         int length = Math.min(values.length - index, buffer.capacity() / indexSize);
+
+         if (indexSize == Short.BYTES)
+         {
+            for (int i = 0; i < length; i++)
+               buffer.putShort((short) values[index + i]);
+            buffer.flip();
+         }
+         else
+         {
+            buffer.asIntBuffer().put(values, index, length);
+            buffer.limit(length * Integer.BYTES);
+         }
+
+         flush(channel, buffer, crc);
+         index += length;
+      }
+   }
+
+   private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException
+   {
+      crc.update(buffer.duplicate());
+      while (buffer.hasRemaining())
+         channel.write(buffer);
+   }
+
+   /**
+    * Reads the header of the given file only, which is enough to list its content.
+    *
+    * @param path the file to read.
+    * @return the description of the meshes stored in the file.
+    * @throws IOException if an I/O error occurs, or if the file is not valid.
+    */
+   public static List<MeshEntry> probe(Path path) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+      {
+         return readHeader(channel, path);
+      }
+   }
+
+   private static List<MeshEntry> readHeader(FileChannel channel, Path path) throws IOException
+   {
+      ByteBuffer fixedHeader = readFully(channel, 0, FIXED_HEADER_LENGTH, path);
+
+      if (fixedHeader.getInt(0) != MAGIC)
+         throw new IOException("Not a binary mesh file: " + path);
+      int version = fixedHeader.getInt(4);
+      if (version != VERSION)
+         throw new IOException("Unsupported binary mesh file version: " + version + ", expected: " + VERSION + ", file: " + path);
+      int numberOfMeshes = fixedHeader.getInt(8);
+      int headerLength = fixedHeader.getInt(12);
+      if (numberOfMeshes < 0)
+         throw new IOException("Invalid number of meshes: " + numberOfMeshes + ", file: " + path);
+      if (headerLength < FIXED_HEADER_LENGTH + Integer.BYTES || headerLength > channel.size())
+         throw new IOException("Invalid header length: " + headerLength + ", file: " + path);
+
+      ByteBuffer header = readFully(channel, 0, headerLength, path);
+      CRC32 crc = new CRC32();
+      crc.update(header.array(), 0, headerLength - Integer.BYTES);
+      if ((int) crc.getValue() != header.getInt(headerLength - Integer.BYTES))
+         throw new IOException("Corrupted header, checksum mismatch, file: " + path);
+
+      header.position(FIXED_HEADER_LENGTH);
+      List<MeshEntry> entries = new ArrayList<>(numberOfMeshes);
+
+      for (int i = 0; i < numberOfMeshes; i++)
+      {
+         if (header.remaining() < Short.BYTES)
+            throw new IOException("Invalid header, truncated entry: " + i + ", file: " + path);
+         int nameLength = Short.toUnsignedInt(header.getShort());
+         if (header.remaining() < entryLength(nameLength) - Short.BYTES + Integer.BYTES)
+            throw new IOException("Invalid header, truncated entry: " + i + ", file: " + path);
+
+         byte[] name = new byte[nameLength];
+         header.get(name);
+         int numberOfVertices = header.getInt();
+         int numberOfTriangleIndices = header.getInt();
+         int indexSize = header.get();
+         long dataOffset = header.getLong();
+         long dataLength = header.getLong();
+         int dataChecksum = header.getInt();
+         MeshEntry entry = new MeshEntry(new String(name, StandardCharsets.UTF_8),
+                                         numberOfVertices,
+                                         numberOfTriangleIndices,
+                                         indexSize,
+                                         dataOffset,
+                                         dataLength,
+                                         dataChecksum);
+         checkEntry(entry, headerLength, channel.size(), path);
+         entries.add(entry);
+      }
+
+      return Collections.unmodifiableList(entries);
+   }
+
+   private static void checkEntry(MeshEntry entry, int headerLength, long fileSize, Path path) throws IOException
+   {
+      if (entry.indexSize != Short.BYTES && entry.indexSize != Integer.BYTES)
+         throw new IOException("Invalid index size: " + entry.indexSize + ", mesh: " + entry.name + ", file: " + path);
+      if (entry.numberOfVertices < 0 || entry.numberOfTriangleIndices < 0)
+         throw new IOException("Invalid mesh size: " + entry + ", file: " + path);
+
+      long expectedDataLength = entry.getVertexDataLength() + (long) entry.indexSize * entry.numberOfTriangleIndices;
+      if (entry.dataLength != expectedDataLength)
+         throw new IOException("Invalid data length: " + entry.dataLength + ", expected: " + expectedDataLength + ", mesh: " + entry.name + ", file: " + path);
+      if (entry.dataLength > Integer.MAX_VALUE || entry.dataOffset < headerLength || entry.dataOffset > fileSize - entry.dataLength)
+         throw new IOException("Invalid data block for mesh: " + entry.name + ", file: " + path);
+   }
+
+   private static ByteBuffer readFully(FileChannel channel, long position, int length, Path path) throws IOException
+   {
+      ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+      while (buffer.hasRemaining())
+      {
+         if (channel.read(buffer, position + buffer.position()) < 0)
+            throw new IOException("Unexpected end of file: " + path);
+      }
+      buffer.flip();
+      return buffer;
+   }
+
+   /**
+    * Loads all the meshes of the given file.
+    *
+    * @param path            the file to read.
+    * @param verifyChecksums whether to verify the integrity of the mesh data.
+    * @return the meshes with their names.
+    * @throws IOException if an I/O error occurs, or if the file is not valid.
+    */
+   public static List<MeshDataHolder> readMeshes(Path path, boolean verifyChecksums) throws IOException
+   {
+      List<MeshDataHolder> meshes = new ArrayList<>();
+      for (PackedMeshDataHolder packedMesh : readPackedMeshes(path, verifyChecksums))
+         meshes.add(packedMesh.toMeshDataHolder());
+      return meshes;
+   }
+
+   /**
+    * Loads all the meshes of the given file into packed meshes. Each array is bulk copied from the
+    * mapped file, there is no per-vertex parsing.
+    *
+    * @param path            the file to read.
+    * @param verifyChecksums whether to verify the integrity of the mesh data.
+    * @return the meshes with their names.
+    * @throws IOException if an I/O error occurs, or if the file is not valid.
+    */
+   public static List<PackedMeshDataHolder> readPackedMeshes(Path path, boolean verifyChecksums) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+      {
+         List<PackedMeshDataHolder> meshes = new ArrayList<>();
+
+         for (MeshEntry entry : readHeader(channel, path))
+         {
+            ByteBuffer data = mapData(channel, entry, verifyChecksums, path);
+            PackedMeshDataHolder mesh = new PackedMeshDataHolder(entry.numberOfVertices, entry.numberOfTriangleIndices);
+            int n = entry.numberOfVertices;
+
+            slice(data, 0, 3 * n * Float.BYTES).asFloatBuffer().get(mesh.getVertexCoordinates());
+            slice(data, 3 * n * Float.BYTES, 3 * n * Float.BYTES).asFloatBuffer().get(mesh.getVertexNormalCoordinates());
+            slice(data, 6 * n * Float.BYTES, 2 * n * Float.BYTES).asFloatBuffer().get(mesh.getTexturePointCoordinates());
+
+            ByteBuffer indexData = slice(data, (int) entry.getVertexDataLength(), entry.indexSize * entry.numberOfTriangleIndices);
+            int[] triangleIndices = mesh.getTriangleIndices();
+
+            if (entry.indexSize == Short.BYTES)
+            {
+               ShortBuffer shortIndices = indexData.asShortBuffer();
+               for (int i = 0; i < triangleIndices.length; i++)
+                  triangleIndices[i] = Short.toUnsignedInt(shortIndices.get(i));
+            }
+            else
+            {
+               indexData.asIntBuffer().get(triangleIndices);
+            }
+
+            mesh.setName(entry.name);
+            meshes.add(mesh);
+         }
+
+         return meshes;
+      }
+   }
+
+   /**
+    * Maps all the meshes of the given file as off-heap meshes using the {@link
+    * DirectBufferMeshDataHolder.Layout#PLANAR} layout. When the platform is little-endian, the
+    * meshes directly use the mapped memory and nothing is copied. The mapping is read-only: the
+    * meshes can be uploaded as is to a graphics engine, but calling a setter on them throws a
+    * {@link java.nio.ReadOnlyBufferException}, use {@link #readPackedMeshes(Path, boolean)} to get
+    * meshes that can be modified.
+    *
+    * @param path            the file to read.
+    * @param verifyChecksums whether to verify the integrity of the mesh data.
+    * @return the meshes with their names.
+    * @throws IOException if an I/O error occurs, or if the file is not valid.
+    */
+   public static List<DirectBufferMeshDataHolder> mapDirectBufferMeshes(Path path, boolean verifyChecksums) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+      {
+         List<DirectBufferMeshDataHolder> meshes = new ArrayList<>();
+         boolean nativeOrder = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+         for (MeshEntry entry : readHeader(channel, path))
+         {
+            ByteBuffer data = mapData(channel, entry, verifyChecksums, path);
+
+            if (!nativeOrder)
+            { // The buffers of a DirectBufferMeshDataHolder use the native order, copying.
+               ByteBuffer copy = ByteBuffer.allocateDirect(data.capacity()).order(ByteOrder.nativeOrder());
+               FloatBuffer vertexData = slice(data, 0, (int) entry.getVertexDataLength()).asFloatBuffer();
+               copy.asFloatBuffer().put(vertexData);
+               ByteBuffer indices = slice(data, (int) entry.getVertexDataLength(), entry.indexSize * entry.numberOfTriangleIndices);
+               ByteBuffer indicesCopy = slice(copy, (int) entry.getVertexDataLength(), entry.indexSize * entry.numberOfTriangleIndices);
+               if (entry.indexSize == Short.BYTES)
+                  indicesCopy.asShortBuffer().put(indices.asShortBuffer());
+               else
+                  indicesCopy.asIntBuffer().put(indices.asIntBuffer());
+               data = copy;
+            }
+
+            int n = entry.numberOfVertices;
+            FloatBuffer vertexBuffer = slice(data, 0, 3 * n * Float.BYTES).asFloatBuffer();
+            FloatBuffer vertexNormalBuffer = slice(data, 3 * n * Float.BYTES, 3 * n * Float.BYTES).asFloatBuffer();
+            FloatBuffer texturePointBuffer = slice(data, 6 * n * Float.BYTES, 2 * n * Float.BYTES).asFloatBuffer();
+            ByteBuffer indexData = slice(data, (int) entry.getVertexDataLength(), entry.indexSize * entry.numberOfTriangleIndices);
+            IntBuffer triangleIndexBuffer = entry.indexSize == Integer.BYTES ? indexData.asIntBuffer() : null;
+            ShortBuffer shortTriangleIndexBuffer = entry.indexSize == Short.BYTES ? indexData.asShortBuffer() : null;
+
+            DirectBufferMeshDataHolder mesh = DirectBufferMeshDataHolder.wrapPlanar(n,
+                                                                                    vertexBuffer,
+                                                                                    vertexNormalBuffer,
+                                                                                    texturePointBuffer,
+                                                                                    triangleIndexBuffer,
+                                                                                    shortTriangleIndexBuffer);
+            mesh.setName(entry.name);
+            meshes.add(mesh);
+         }
+
+         return meshes;
+      }
+   }
+
+   private static ByteBuffer mapData(FileChannel channel, MeshEntry entry, boolean verifyChecksum, Path path) throws IOException
+   {
+      MappedByteBuffer data = channel.map(MapMode.READ_ONLY, entry.dataOffset, entry.dataLength);
+      data.order(ByteOrder.LITTLE_ENDIAN);
+
+      if (verifyChecksum)
+      {
+         CRC32 crc = new CRC32();
+         crc.update(data.duplicate());
+         if ((int) crc.getValue() != entry.dataChecksum)
+            throw new IOException("Corrupted mesh data, checksum mismatch, mesh: " + entry.name + ", file: " + path);
+      }
+
+      return data;
+   }
+
+   private static ByteBuffer slice(ByteBuffer buffer, int offset, int length)
+   {
+      ByteBuffer duplicate = buffer.duplicate();
+      duplicate.position(offset);
+      duplicate.limit(offset + length);
+      return duplicate.slice().order(buffer.order());
+   }
+}
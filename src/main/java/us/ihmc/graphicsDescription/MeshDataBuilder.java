@@ -528,4 +528,35 @@ public class MeshDataBuilder
    {
       return meshDataHolder.createMeshDataHolder();
    }
+
+   /**
+    * Generates the resulting mesh and merges the vertices duplicated at the seams between the shapes.
+    *
+    * @param welder the welder used to merge the vertices, it holds the tolerances and reports the
+    *               compaction achieved. Modified.
+    * @return the resulting welded mesh ready to be interpreted by the adequate mesh data interpreter.
+    */
+   public MeshDataHolder generateMeshDataHolder(MeshVertexWelder welder)
+   {
+      return welder.weld(meshDataHolder.createPackedMeshDataHolder()).toMeshDataHolder();
+   }
+
+   /**
+    * @return the resulting mesh as a packed mesh ready to be interpreted by the adequate mesh data
+    *         interpreter.
+    */
+   public PackedMeshDataHolder generatePackedMeshDataHolder()
+   {
+      return meshDataHolder.createPackedMeshDataHolder();
+   }
+
+   /**
+    * @param layout the memory layout to use for the vertex data.
+    * @return the resulting mesh stored off-heap, ready to be uploaded by a graphics engine without
+    *         copy.
+    */
+   public DirectBufferMeshDataHolder generateDirectBufferMeshDataHolder(DirectBufferMeshDataHolder.Layout layout)
+   {
+      return meshDataHolder.createDirectBufferMeshDataHolder(layout);
+   }
 }
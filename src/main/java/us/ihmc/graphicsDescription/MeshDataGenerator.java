@@ -1,13 +1,9 @@
 package us.ihmc.graphicsDescription;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
+import gnu.trove.list.array.TIntArrayList;
 import us.ihmc.commons.MathTools;
 import us.ihmc.euclid.geometry.interfaces.ConvexPolygon2DReadOnly;
 import us.ihmc.euclid.geometry.interfaces.LineSegment3DReadOnly;
@@ -2305,78 +2301,29 @@ public class MeshDataGenerator
       return points3f;
    }
 
+   /**
+    * Computes the normal of each vertex as the average of the unit normals of the faces it belongs
+    * to.
+    * <p>
+    * See {@link MeshNormalCalculator} for other weighting options and for writing into a
+    * pre-allocated output.
+    * </p>
+    *
+    * @param indices  the triplets of vertex indices describing the triangles. Not modified.
+    * @param vertices the vertex coordinates. Not modified.
+    * @return the vertex normals. Vertices that do not belong to any triangle get a zero normal.
+    */
    public static Vector3D32[] findNormalsPerVertex(int[] indices, Point3DReadOnly[] vertices)
    {
-      Map<Integer, Set<Integer>> participatingFacesPerVertex = new LinkedHashMap<>();
-
-      for (int i = 0; i < indices.length; i++)
-      {
-         Set<Integer> vertexFacesSet = participatingFacesPerVertex.get(indices[i]);
-
-         if (vertexFacesSet == null)
-         {
-            vertexFacesSet = new LinkedHashSet<>();
-            participatingFacesPerVertex.put(indices[i], vertexFacesSet);
-         }
-
-         // Abuse integer division assuming each face is a triangle => 3 indices per face;
-         vertexFacesSet.add(i / 3);
-      }
-
-      Vector3D32[] normalsPerFace = findNormalsPerFace(indices, vertices);
-
-      int pos = 0;
       Vector3D32[] normalsPerVertex = new Vector3D32[vertices.length];
 
       for (int vertexIndex = 0; vertexIndex < vertices.length; vertexIndex++)
-      {
-         Set<Integer> participatingFaceIndices = participatingFacesPerVertex.get(vertexIndex);
-         if (participatingFaceIndices == null)
-            continue;
-
-         Vector3D32 vertexNormal = new Vector3D32();
-
-         for (int face : participatingFaceIndices)
-            vertexNormal.add(normalsPerFace[face]);
-
-         float faces = participatingFaceIndices.size();
-         vertexNormal.scale(1.0f / faces);
-         normalsPerVertex[pos++] = vertexNormal;
-      }
+         normalsPerVertex[vertexIndex] = new Vector3D32();
 
+      new MeshNormalCalculator().computeVertexNormals(indices, vertices, MeshNormalCalculator.Weighting.UNIFORM, normalsPerVertex);
       return normalsPerVertex;
    }
 
-   private static Vector3D32[] findNormalsPerFace(int[] indices, Point3DReadOnly[] vertices)
-   {
-      Vector3D32[] normalsPerFace = new Vector3D32[indices.length / 3]; // Abuse integer division.
-
-      Vector3D32 firstVector = new Vector3D32();
-      Vector3D32 secondVector = new Vector3D32();
-      Point3DReadOnly[] faceVertices = new Point3DReadOnly[3];
-
-      for (int face = 0; face < normalsPerFace.length; face++)
-      {
-         normalsPerFace[face] = new Vector3D32();
-
-         for (int i = 0; i < faceVertices.length; i++)
-         {
-            faceVertices[i] = vertices[indices[face * 3 + i]];
-         }
-
-         firstVector.set(faceVertices[2]);
-         firstVector.sub(faceVertices[0]);
-
-         secondVector.set(faceVertices[2]);
-         secondVector.sub(faceVertices[1]);
-
-         normalsPerFace[face].cross(firstVector, secondVector);
-         normalsPerFace[face].normalize();
-      }
-
-      return normalsPerFace;
-   }
-
    public static MeshDataHolder createFromVerticesAndStripCounts(Point3DReadOnly[] vertices, int[] polygonStripCounts)
    {
       Point3D32[] verticesWithFloats = new Point3D32[vertices.length];
@@ -2391,20 +2338,44 @@ public class MeshDataGenerator
 
    public static MeshDataHolder createFromVerticesAndStripCounts(Point3D32[] vertices, int[] polygonStripCounts)
    {
-      int[] polygonIndices = new int[vertices.length];
-
-      for (int i = 0; i < vertices.length; i++)
-      {
-         polygonIndices[i] = i;
-      }
-
       TexCoord2f[] textPoints = new TexCoord2f[vertices.length];
       for (int i = 0; i < vertices.length; i++)
       {
          textPoints[i] = new TexCoord2f();
       }
 
-      List<Integer> triangleIndices = new ArrayList<>();
+      int[] indices = triangulateStripCounts(polygonStripCounts);
+
+      Vector3D32[] normals = findNormalsPerVertex(indices, vertices);
+      return new MeshDataHolder(vertices, textPoints, indices, normals);
+   }
+
+   /**
+    * Creates a packed mesh from a set of convex polygons.
+    * <p>
+    * This is the packed equivalent of
+    * {@link #createFromVerticesAndStripCounts(Point3D32[], int[])}: the vertices are read from and
+    * the normals are written to primitive arrays without creating any intermediate object per vertex.
+    * </p>
+    *
+    * @param vertexCoordinates  the polygon vertices packed as {@code [x0, y0, z0, x1, y1, z1, ...]}.
+    *                           The array is used as is by the resulting mesh.
+    * @param polygonStripCounts the number of vertices for each polygon. The vertices of each polygon
+    *                           are expected to be consecutive, convex and counter-clockwise ordered.
+    * @return the packed mesh.
+    */
+   public static PackedMeshDataHolder createPackedFromVerticesAndStripCounts(float[] vertexCoordinates, int[] polygonStripCounts)
+   {
+      int numberOfVertices = vertexCoordinates.length / 3;
+      int[] indices = triangulateStripCounts(polygonStripCounts);
+      float[] normals = new float[3 * numberOfVertices];
+      new MeshNormalCalculator().computeVertexNormals(indices, vertexCoordinates, MeshNormalCalculator.Weighting.UNIFORM, normals);
+      return new PackedMeshDataHolder(vertexCoordinates, new float[2 * numberOfVertices], indices, normals);
+   }
+
+   private static int[] triangulateStripCounts(int[] polygonStripCounts)
+   {
+      TIntArrayList triangleIndices = new TIntArrayList();
 
       int polygonIndicesStart = 0;
       for (int pointsForThisPolygon : polygonStripCounts)
@@ -2413,27 +2384,15 @@ public class MeshDataGenerator
 
          for (int i = 0; i < pointsForThisPolygon; i++)
          {
-            polygon[i] = polygonIndices[polygonIndicesStart + i];
+            polygon[i] = polygonIndicesStart + i;
          }
 
-         int[] splitIntoTriangles = splitPolygonIntoTriangles(polygon);
-
-         for (int i : splitIntoTriangles)
-         {
-            triangleIndices.add(i);
-         }
+         triangleIndices.add(splitPolygonIntoTriangles(polygon));
 
          polygonIndicesStart += pointsForThisPolygon;
       }
 
-      int[] indices = new int[triangleIndices.size()];
-      for (int i = 0; i < indices.length; i++)
-      {
-         indices[i] = triangleIndices.get(i);
-      }
-
-      Vector3D32[] normals = findNormalsPerVertex(indices, vertices);
-      return new MeshDataHolder(vertices, textPoints, indices, normals);
+      return triangleIndices.toArray();
    }
 
    private static int[] splitPolygonIntoTriangles(int[] polygonIndices)
@@ -0,0 +1,468 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import us.ihmc.graphicsDescription.instructions.ArcTorusGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CapsuleGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CylinderGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.HemiEllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PrimitiveGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PyramidCubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.TruncatedConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.WedgeGraphics3DInstruction;
+
+/**
+ * Memoizing front-end to {@link MeshDataGenerator}.
+ * <p>
+ * Each method of this cache mirrors the generator method of the same name. The first call with a
+ * given set of parameters generates the mesh, subsequent calls with the same parameters return the
+ * cached mesh. Parameters are compared after being converted to {@code float} as this is the
+ * precision used by the generator.
+ * </p>
+ * <p>
+ * The cache is bounded by a memory budget: when the estimated memory used by the cached meshes
+ * exceeds the budget, the least recently used meshes are evicted.
+ * </p>
+ * <p>
+ * By default, a deep copy of the cached mesh is returned such that the caller is free to modify it,
+ * which is still much cheaper than generating it. When the cache is created with
+ * {@code copyOnAccess = false}, the cached meshes are shared and returned as is, they should then be
+ * considered immutable by the caller.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public class MeshDataGeneratorCache
+{
+   /** Default memory budget: 64MB. */
+   public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+   /**
+    * Estimated memory used per vertex by a {@link MeshDataHolder}: one {@code Point3D32}, one
+    * {@code Vector3D32}, one {@code TexCoord2f}, and the three references to them.
+    */
+   private static final long BYTES_PER_VERTEX = 3 * 24 + 3 * 4;
+   private static final long BYTES_PER_INDEX = Integer.BYTES;
+   private static final long BYTES_PER_MESH = 128;
+
+   private final long memoryBudget;
+   private final boolean copyOnAccess;
+
+   private final LinkedHashMap<MeshKey, MeshDataHolder> cache = new LinkedHashMap<>(16, 0.75f, true);
+   private long memoryUsage = 0;
+
+   private final AtomicLong hitCount = new AtomicLong();
+   private final AtomicLong missCount = new AtomicLong();
+   private final AtomicLong evictionCount = new AtomicLong();
+
+   /**
+    * Creates a new cache with the {@link #DEFAULT_MEMORY_BUDGET} that returns copies of the cached
+    * meshes.
+    */
+   public MeshDataGeneratorCache()
+   {
+      this(DEFAULT_MEMORY_BUDGET, true);
+   }
+
+   /**
+    * Creates a new cache.
+    *
+    * @param memoryBudget maximum memory in bytes the cached meshes can use. The memory used by a mesh
+    *                     is estimated from its number of vertices and triangle indices.
+    * @param copyOnAccess whether the cache should return a deep copy of the cached meshes or the
+    *                     shared instances. Shared instances must not be modified by the caller.
+    */
+   public MeshDataGeneratorCache(long memoryBudget, boolean copyOnAccess)
+   {
+      this.memoryBudget = memoryBudget;
+      this.copyOnAccess = copyOnAccess;
+   }
+
+   public MeshDataHolder Sphere(double radius, int latitudeN, int longitudeN)
+   {
+      return get("Sphere", () -> MeshDataGenerator.Sphere(radius, latitudeN, longitudeN), radius, latitudeN, longitudeN);
+   }
+
+   public MeshDataHolder Ellipsoid(double xRadius, double yRadius, double zRadius, int latitudeN, int longitudeN)
+   {
+      return get("Ellipsoid",
+                 () -> MeshDataGenerator.Ellipsoid(xRadius, yRadius, zRadius, latitudeN, longitudeN),
+                 xRadius,
+                 yRadius,
+                 zRadius,
+                 latitudeN,
+                 longitudeN);
+   }
+
+   public MeshDataHolder HemiEllipsoid(double xRadius, double yRadius, double zRadius, int latitudeN, int longitudeN)
+   {
+      return get("HemiEllipsoid",
+                 () -> MeshDataGenerator.HemiEllipsoid(xRadius, yRadius, zRadius, latitudeN, longitudeN),
+                 xRadius,
+                 yRadius,
+                 zRadius,
+                 latitudeN,
+                 longitudeN);
+   }
+
+   public MeshDataHolder Cylinder(double radius, double height, int N)
+   {
+      return get("Cylinder", () -> MeshDataGenerator.Cylinder(radius, height, N), radius, height, N);
+   }
+
+   public MeshDataHolder HollowCylinder(double outerRadius, double innerRadius, double height, int N)
+   {
+      return get("HollowCylinder", () -> MeshDataGenerator.HollowCylinder(outerRadius, innerRadius, height, N), outerRadius, innerRadius, height, N);
+   }
+
+   public MeshDataHolder Cone(double height, double radius, int N)
+   {
+      return get("Cone", () -> MeshDataGenerator.Cone(height, radius, N), height, radius, N);
+   }
+
+   public MeshDataHolder GenTruncatedCone(double height, double xBaseRadius, double yBaseRadius, double xTopRadius, double yTopRadius, int N)
+   {
+      return get("GenTruncatedCone",
+                 () -> MeshDataGenerator.GenTruncatedCone(height, xBaseRadius, yBaseRadius, xTopRadius, yTopRadius, N),
+                 height,
+                 xBaseRadius,
+                 yBaseRadius,
+                 xTopRadius,
+                 yTopRadius,
+                 N);
+   }
+
+   public MeshDataHolder ArcTorus(double startAngle, double endAngle, double majorRadius, double minorRadius, int N)
+   {
+      return get("ArcTorus",
+                 () -> MeshDataGenerator.ArcTorus(startAngle, endAngle, majorRadius, minorRadius, N),
+                 startAngle,
+                 endAngle,
+                 majorRadius,
+                 minorRadius,
+                 N);
+   }
+
+   public MeshDataHolder Capsule(double height, double xRadius, double yRadius, double zRadius, int latitudeN, int longitudeN)
+   {
+      return get("Capsule",
+                 () -> MeshDataGenerator.Capsule(height, xRadius, yRadius, zRadius, latitudeN, longitudeN),
+                 height,
+                 xRadius,
+                 yRadius,
+                 zRadius,
+                 latitudeN,
+                 longitudeN);
+   }
+
+   public MeshDataHolder Cube(double lx, double ly, double lz, boolean centered, boolean[] textureFaces)
+   {
+      return get("Cube",
+                 () -> MeshDataGenerator.Cube(lx, ly, lz, centered, textureFaces),
+                 lx,
+                 ly,
+                 lz,
+                 centered ? 1.0 : 0.0,
+                 textureFaces == null ? -1.0 : textureFaces.length,
+                 textureFacesToBits(textureFaces));
+   }
+
+   public MeshDataHolder Wedge(double lx, double ly, double lz)
+   {
+      return get("Wedge", () -> MeshDataGenerator.Wedge(lx, ly, lz), lx, ly, lz);
+   }
+
+   public MeshDataHolder PyramidCube(double lx, double ly, double lz, double lh)
+   {
+      return get("PyramidCube", () -> MeshDataGenerator.PyramidCube(lx, ly, lz, lh), lx, ly, lz, lh);
+   }
+
+   public MeshDataHolder Tetrahedron(double edgeLength)
+   {
+      return get("Tetrahedron", () -> MeshDataGenerator.Tetrahedron(edgeLength), edgeLength);
+   }
+
+   /**
+    * Gets the mesh for the given primitive instruction, generating it if it is not cached yet.
+    *
+    * @param instruction the instruction to get the mesh for. Not modified.
+    * @return the mesh, or {@code null} if this type of primitive is not supported by this cache.
+    */
+   public MeshDataHolder getMeshData(PrimitiveGraphics3DInstruction instruction)
+   {
+      if (instruction instanceof SphereGraphics3DInstruction)
+      {
+         SphereGraphics3DInstruction sphere = (SphereGraphics3DInstruction) instruction;
+         return Sphere(sphere.getRadius(), sphere.getResolution(), sphere.getResolution());
+      }
+      else if (instruction instanceof EllipsoidGraphics3DInstruction)
+      {
+         EllipsoidGraphics3DInstruction ellipsoid = (EllipsoidGraphics3DInstruction) instruction;
+         int resolution = ellipsoid.getResolution();
+         return Ellipsoid(ellipsoid.getXRadius(), ellipsoid.getYRadius(), ellipsoid.getZRadius(), resolution, resolution);
+      }
+      else if (instruction instanceof HemiEllipsoidGraphics3DInstruction)
+      {
+         HemiEllipsoidGraphics3DInstruction hemiEllipsoid = (HemiEllipsoidGraphics3DInstruction) instruction;
+         int resolution = hemiEllipsoid.getResolution();
+         return HemiEllipsoid(hemiEllipsoid.getXRadius(), hemiEllipsoid.getYRadius(), hemiEllipsoid.getZRadius(), resolution, resolution);
+      }
+      else if (instruction instanceof CylinderGraphics3DInstruction)
+      {
+         CylinderGraphics3DInstruction cylinder = (CylinderGraphics3DInstruction) instruction;
+         return Cylinder(cylinder.getRadius(), cylinder.getHeight(), cylinder.getResolution());
+      }
+      else if (instruction instanceof ConeGraphics3DInstruction)
+      {
+         ConeGraphics3DInstruction cone = (ConeGraphics3DInstruction) instruction;
+         return Cone(cone.getHeight(), cone.getRadius(), cone.getResolution());
+      }
+      else if (instruction instanceof TruncatedConeGraphics3DInstruction)
+      {
+         TruncatedConeGraphics3DInstruction cone = (TruncatedConeGraphics3DInstruction) instruction;
+         return GenTruncatedCone(cone.getHeight(),
+                                 cone.getXBaseRadius(),
+                                 cone.getYBaseRadius(),
+                                 cone.getXTopRadius(),
+                                 cone.getYTopRadius(),
+                                 cone.getResolution());
+      }
+      else if (instruction instanceof ArcTorusGraphics3DInstruction)
+      {
+         ArcTorusGraphics3DInstruction arcTorus = (ArcTorusGraphics3DInstruction) instruction;
+         return ArcTorus(arcTorus.getStartAngle(), arcTorus.getEndAngle(), arcTorus.getMajorRadius(), arcTorus.getMinorRadius(), arcTorus.getResolution());
+      }
+      else if (instruction instanceof CapsuleGraphics3DInstruction)
+      {
+         CapsuleGraphics3DInstruction capsule = (CapsuleGraphics3DInstruction) instruction;
+         int resolution = capsule.getResolution();
+         return Capsule(capsule.getHeight(), capsule.getXRadius(), capsule.getYRadius(), capsule.getZRadius(), resolution, resolution);
+      }
+      else if (instruction instanceof CubeGraphics3DInstruction)
+      {
+         CubeGraphics3DInstruction cube = (CubeGraphics3DInstruction) instruction;
+         return Cube(cube.getLength(), cube.getWidth(), cube.getHeight(), cube.getCenteredInTheCenter(), cube.getTextureFaces());
+      }
+      else if (instruction instanceof WedgeGraphics3DInstruction)
+      {
+         WedgeGraphics3DInstruction wedge = (WedgeGraphics3DInstruction) instruction;
+         return Wedge(wedge.getLengthX(), wedge.getWidthY(), wedge.getHeightZ());
+      }
+      else if (instruction instanceof PyramidCubeGraphics3DInstruction)
+      {
+         PyramidCubeGraphics3DInstruction pyramidCube = (PyramidCubeGraphics3DInstruction) instruction;
+         return PyramidCube(pyramidCube.getLengthX(), pyramidCube.getWidthY(), pyramidCube.getHeightZ(), pyramidCube.getPyramidHeight());
+      }
+      else
+      {
+         return null;
+      }
+   }
+
+   /**
+    * Gets the mesh associated to the given generator name and parameters. If the mesh is not cached
+    * yet, it is created using {@code generator} and stored.
+    * <p>
+    * This method can be used to cache meshes from generators that are not covered by the other
+    * methods of this class. The generator name is used to differentiate meshes with identical
+    * parameters.
+    * </p>
+    *
+    * @param generatorName the name used to identify the generator.
+    * @param generator     the function used to create the mesh when it is not in the cache.
+    * @param parameters    the parameters fully describing the mesh to be generated.
+    * @return the cached mesh or a copy of it.
+    */
+   public MeshDataHolder get(String generatorName, Supplier<MeshDataHolder> generator, double... parameters)
+   {
+      MeshKey key = new MeshKey(generatorName, parameters);
+      MeshDataHolder meshDataHolder;
+
+      synchronized (cache)
+      {
+         meshDataHolder = cache.get(key);
+      }
+
+      if (meshDataHolder != null)
+      {
+         hitCount.incrementAndGet();
+      }
+      else
+      {
+         missCount.incrementAndGet();
+         // Generating outside the lock so other threads can keep using the cache meanwhile.
+         MeshDataHolder newMeshDataHolder = generator.get();
+
+         synchronized (cache)
+         {
+            meshDataHolder = cache.putIfAbsent(key, newMeshDataHolder);
+
+            if (meshDataHolder == null)
+            {
+               meshDataHolder = newMeshDataHolder;
+               memoryUsage += estimateMemoryUsage(newMeshDataHolder);
+               evict();
+            }
+         }
+      }
+
+      return copyOnAccess ? new MeshDataHolder(meshDataHolder) : meshDataHolder;
+   }
+
+   private void evict()
+   {
+      Iterator<Entry<MeshKey, MeshDataHolder>> iterator = cache.entrySet().iterator();
+
+      // Always keep the most recent entry even if it is on its own over the budget.
+      while (memoryUsage > memoryBudget && cache.size() > 1)
+      {
+         Entry<MeshKey, MeshDataHolder> eldest = iterator.next();
+         memoryUsage -= estimateMemoryUsage(eldest.getValue());
+         iterator.remove();
+         evictionCount.incrementAndGet();
+      }
+   }
+
+   /**
+    * Removes all the meshes from this cache. The statistics are not reset.
+    */
+   public void clear()
+   {
+      synchronized (cache)
+      {
+         cache.clear();
+         memoryUsage = 0;
+      }
+   }
+
+   /**
+    * Resets the hit, miss, and eviction counters to zero.
+    */
+   public void resetStatistics()
+   {
+      hitCount.set(0);
+      missCount.set(0);
+      evictionCount.set(0);
+   }
+
+   /**
+    * @return the number of calls that were served from the cache.
+    */
+   public long getHitCount()
+   {
+      return hitCount.get();
+   }
+
+   /**
+    * @return the number of calls that required to generate a new mesh.
+    */
+   public long getMissCount()
+   {
+      return missCount.get();
+   }
+
+   /**
+    * @return the number of meshes that were removed from this cache to stay within the memory
+    *         budget.
+    */
+   public long getEvictionCount()
+   {
+      return evictionCount.get();
+   }
+
+   /**
+    * @return the number of meshes currently in this cache.
+    */
+   public int getNumberOfCachedMeshes()
+   {
+      synchronized (cache)
+      {
+         return cache.size();
+      }
+   }
+
+   /**
+    * @return the estimated memory in bytes used by the meshes currently in this cache.
+    */
+   public long getMemoryUsage()
+   {
+      synchronized (cache)
+      {
+         return memoryUsage;
+      }
+   }
+
+   public long getMemoryBudget()
+   {
+      return memoryBudget;
+   }
+
+   /**
+    * Estimates the memory used by the given mesh.
+    *
+    * @param meshDataHolder the mesh to evaluate. Not modified.
+    * @return the estimated memory usage in bytes.
+    */
+   public static long estimateMemoryUsage(MeshDataHolder meshDataHolder)
+   {
+      return BYTES_PER_MESH + BYTES_PER_VERTEX * meshDataHolder.getVertices().length + BYTES_PER_INDEX * meshDataHolder.getTriangleIndices().length;
+   }
+
+   private static double textureFacesToBits(boolean[] textureFaces)
+   {
+      if (textureFaces == null)
+         return -1.0;
+
+      int bits = 0;
+      for (int i = 0; i < textureFaces.length; i++)
+      {
+         if (textureFaces[i])
+            bits |= 1 << i;
+      }
+      return bits;
+   }
+
+   private static class MeshKey
+   {
+      private final String generatorName;
+      private final float[] parameters;
+      private final int hashCode;
+
+      public MeshKey(String generatorName, double[] parameters)
+      {
+         this.generatorName = generatorName;
+         this.parameters = new float[parameters.length];
+         for (int i = 0; i < parameters.length; i++)
+            this.parameters[i] = (float) parameters[i];
+         hashCode = 31 * generatorName.hashCode() + Arrays.hashCode(this.parameters);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+         if (object == this)
+            return true;
+         if (!(object instanceof MeshKey))
+            return false;
+
+         MeshKey other = (MeshKey) object;
+         return generatorName.equals(other.generatorName) && Arrays.equals(parameters, other.parameters);
+      }
+   }
+}
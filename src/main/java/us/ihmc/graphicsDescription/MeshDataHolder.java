@@ -1,12 +1,20 @@
 package us.ihmc.graphicsDescription;
 
 import java.lang.reflect.Array;
+import java.util.List;
+import java.util.stream.IntStream;
 
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox3DReadOnly;
 import us.ihmc.euclid.interfaces.Transformable;
 import us.ihmc.euclid.orientation.interfaces.Orientation3DReadOnly;
+import us.ihmc.euclid.transform.interfaces.AffineTransformReadOnly;
+import us.ihmc.euclid.transform.interfaces.RigidBodyTransformReadOnly;
 import us.ihmc.euclid.transform.interfaces.Transform;
+import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Point3D32;
 import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
 import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
 
 /**
@@ -22,6 +30,8 @@ public class MeshDataHolder implements Transformable
    private final int[] triangleIndices;
    private final Vector3D32[] vertexNormals;
    private String name = "MeshDataHolder";
+   /** The bounding volumes computed lazily, {@code null} until requested or after invalidation. */
+   private volatile Bounds bounds = null;
 
    /**
     * Default construct to create a mesh data.
@@ -41,6 +51,27 @@ public class MeshDataHolder implements Transformable
       this.vertexNormals = vertexNormals;
    }
 
+   /**
+    * Creates a deep copy of the given mesh.
+    * 
+    * @param other the mesh to copy. Not modified.
+    */
+   public MeshDataHolder(MeshDataHolder other)
+   {
+      vertices = new Point3D32[other.vertices.length];
+      texturePoints = new TexCoord2f[other.texturePoints.length];
+      vertexNormals = new Vector3D32[other.vertexNormals.length];
+      triangleIndices = other.triangleIndices.clone();
+
+      for (int i = 0; i < vertices.length; i++)
+         vertices[i] = new Point3D32(other.vertices[i]);
+      for (int i = 0; i < texturePoints.length; i++)
+         texturePoints[i] = new TexCoord2f(other.texturePoints[i]);
+      for (int i = 0; i < vertexNormals.length; i++)
+         vertexNormals[i] = new Vector3D32(other.vertexNormals[i]);
+      name = other.name;
+   }
+
    public boolean containsNaN()
    {
       for (Point3D32 vertex : vertices)
@@ -105,24 +136,113 @@ public class MeshDataHolder implements Transformable
       this.name = name;
    }
 
+   /**
+    * Gets the axis-aligned bounding box of the vertices of this mesh.
+    * <p>
+    * The bounding box is computed on the first call and cached until this mesh is transformed or
+    * {@link #invalidateBounds()} is called. The box is {@code NaN} if this mesh has no vertex.
+    * </p>
+    * 
+    * @return the bounding box of this mesh. Not to be modified.
+    */
+   public BoundingBox3DReadOnly getBoundingBox()
+   {
+      return getBounds().boundingBox;
+   }
+
+   /**
+    * Gets the center of the bounding sphere of this mesh, which is the center of its bounding box.
+    * 
+    * @return the center of the bounding sphere. Not to be modified.
+    * @see #getBoundingBox()
+    */
+   public Point3DReadOnly getBoundingSphereCenter()
+   {
+      return getBounds().sphereCenter;
+   }
+
+   /**
+    * Gets the radius of the bounding sphere of this mesh, i.e. the largest distance between a vertex
+    * and the center of the bounding sphere.
+    * 
+    * @return the radius of the bounding sphere, or {@code NaN} if this mesh has no vertex.
+    * @see #getBoundingBox()
+    */
+   public double getBoundingSphereRadius()
+   {
+      return getBounds().sphereRadius;
+   }
+
+   /**
+    * Clears the cached bounding volumes such that they are recomputed the next time they are
+    * requested.
+    * <p>
+    * This is done automatically when transforming this mesh, but it has to be called after modifying
+    * directly the vertices.
+    * </p>
+    */
+   public void invalidateBounds()
+   {
+      bounds = null;
+   }
+
+   private Bounds getBounds()
+   {
+      Bounds localBounds = bounds;
+
+      if (localBounds == null)
+      {
+         localBounds = new Bounds(vertices);
+         bounds = localBounds;
+      }
+      return localBounds;
+   }
+
    @Override
    public void applyTransform(Transform transform)
    {
+      if (transform instanceof RigidBodyTransformReadOnly || transform instanceof AffineTransformReadOnly)
+      { // Fast path: the transform is packed once and applied without going through the Transform interface for each vertex.
+         float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+         if (transform instanceof RigidBodyTransformReadOnly)
+            MeshTransforms.packMatrix((RigidBodyTransformReadOnly) transform, matrix);
+         else
+            MeshTransforms.packMatrix((AffineTransformReadOnly) transform, matrix);
+         MeshTransforms.transformPoints(matrix, vertices);
+         MeshTransforms.transformVectors(matrix, vertexNormals);
+         invalidateBounds();
+         return;
+      }
+
       for (int i = 0; i < vertices.length; i++)
          vertices[i].applyTransform(transform);
 
       for (int i = 0; i < vertexNormals.length; i++)
          vertexNormals[i].applyTransform(transform);
+
+      invalidateBounds();
    }
 
    @Override
    public void applyInverseTransform(Transform transform)
    {
+      if (transform instanceof RigidBodyTransformReadOnly)
+      {
+         float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+         MeshTransforms.packInverseMatrix((RigidBodyTransformReadOnly) transform, matrix);
+         MeshTransforms.transformPoints(matrix, vertices);
+         MeshTransforms.transformVectors(matrix, vertexNormals);
+         invalidateBounds();
+         return;
+      }
+
       for (int i = 0; i < vertices.length; i++)
          vertices[i].applyInverseTransform(transform);
 
       for (int i = 0; i < vertexNormals.length; i++)
          vertexNormals[i].applyInverseTransform(transform);
+
+      invalidateBounds();
    }
 
    /**
@@ -217,10 +337,118 @@ public class MeshDataHolder implements Transformable
       return new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
    }
 
+   /**
+    * Utility method to combine any number of meshes into one by concatenation: (pseudo-code)
+    * {@code result = [mesh1, mesh2, ..., meshN]}.
+    * <p>
+    * Unlike successive calls to {@link #combine(MeshDataHolder, MeshDataHolder, boolean)}, each
+    * element is copied only once into output arrays sized exactly. As with {@code combine}, the
+    * vertices, texture points, and normals of the result are the same instances as in the input
+    * meshes.
+    * </p>
+    * 
+    * @param meshes the meshes to combine. Not modified.
+    * @return a new mesh resulting from the combination.
+    */
+   public static MeshDataHolder combineAll(List<MeshDataHolder> meshes)
+   {
+      return combineAll(meshes, false);
+   }
+
+   /**
+    * Utility method to combine any number of meshes into one by concatenation: (pseudo-code)
+    * {@code result = [mesh1, mesh2, ..., meshN]}.
+    * 
+    * @param meshes   the meshes to combine. Not modified.
+    * @param parallel whether to copy the input meshes in parallel, worth it only for large numbers of
+    *                 meshes.
+    * @return a new mesh resulting from the combination.
+    * @see #combineAll(List)
+    */
+   public static MeshDataHolder combineAll(List<MeshDataHolder> meshes, boolean parallel)
+   {
+      return combineAll(meshes, null, parallel);
+   }
+
+   /**
+    * Utility method to combine any number of meshes into one by concatenation after transforming
+    * each of them: (pseudo-code)
+    * {@code result = [transform1 * mesh1, transform2 * mesh2, ..., transformN * meshN]}.
+    * <p>
+    * The vertices and normals of the result are new instances, the input meshes are not modified.
+    * </p>
+    * 
+    * @param meshes     the meshes to combine. Not modified.
+    * @param transforms the transform to apply to each mesh. Not modified.
+    * @param parallel   whether to process the input meshes in parallel, worth it only for large
+    *                   numbers of meshes.
+    * @return a new mesh resulting from the combination.
+    * @throws IllegalArgumentException if the lists have different sizes.
+    */
+   public static MeshDataHolder combineAll(List<MeshDataHolder> meshes, List<? extends RigidBodyTransformReadOnly> transforms, boolean parallel)
+   {
+      if (transforms != null && transforms.size() != meshes.size())
+         throw new IllegalArgumentException("Unexpected list size. Expected: " + meshes.size() + ", but was: " + transforms.size());
+
+      int numberOfMeshes = meshes.size();
+      // Offsets of each mesh in the output arrays, the last element holds the total size.
+      int[] vertexOffsets = new int[numberOfMeshes + 1];
+      int[] indexOffsets = new int[numberOfMeshes + 1];
+
+      for (int i = 0; i < numberOfMeshes; i++)
+      {
+         vertexOffsets[i + 1] = vertexOffsets[i] + meshes.get(i).vertices.length;
+         indexOffsets[i + 1] = indexOffsets[i] + meshes.get(i).triangleIndices.length;
+      }
+
+      Point3D32[] vertices = new Point3D32[vertexOffsets[numberOfMeshes]];
+      TexCoord2f[] texturePoints = new TexCoord2f[vertexOffsets[numberOfMeshes]];
+      Vector3D32[] vertexNormals = new Vector3D32[vertexOffsets[numberOfMeshes]];
+      int[] triangleIndices = new int[indexOffsets[numberOfMeshes]];
+
+      IntStream meshIndices = IntStream.range(0, numberOfMeshes);
+      if (parallel)
+         meshIndices = meshIndices.parallel();
+
+      meshIndices.forEach(i ->
+      {
+         MeshDataHolder mesh = meshes.get(i);
+         int vertexOffset = vertexOffsets[i];
+
+         if (transforms == null)
+         {
+            System.arraycopy(mesh.vertices, 0, vertices, vertexOffset, mesh.vertices.length);
+            System.arraycopy(mesh.vertexNormals, 0, vertexNormals, vertexOffset, mesh.vertexNormals.length);
+         }
+         else
+         {
+            RigidBodyTransformReadOnly transform = transforms.get(i);
+
+            for (int j = 0; j < mesh.vertices.length; j++)
+            {
+               Point3D32 vertex = new Point3D32();
+               Vector3D32 normal = new Vector3D32();
+               transform.transform(mesh.vertices[j], vertex);
+               transform.transform(mesh.vertexNormals[j], normal);
+               vertices[vertexOffset + j] = vertex;
+               vertexNormals[vertexOffset + j] = normal;
+            }
+         }
+
+         System.arraycopy(mesh.texturePoints, 0, texturePoints, vertexOffset, mesh.texturePoints.length);
+
+         int indexOffset = indexOffsets[i];
+         for (int j = 0; j < mesh.triangleIndices.length; j++)
+            triangleIndices[indexOffset + j] = mesh.triangleIndices[j] + vertexOffset;
+      });
+
+      return new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
+   }
+
    private static <T> T[] combineArrays(T[] array1, T[] array2)
    {
       @SuppressWarnings("unchecked")
-      T[] combined = (T[]) Array.newInstance(array1[0].getClass(), array1.length + array2.length);
+      T[] combined = (T[]) Array.newInstance(array1.getClass().getComponentType(), array1.length + array2.length);
       System.arraycopy(array1, 0, combined, 0, array1.length);
       System.arraycopy(array2, 0, combined, array1.length, array2.length);
       return combined;
@@ -233,4 +461,37 @@ public class MeshDataHolder implements Transformable
       System.arraycopy(array2, 0, combined, array1.length, array2.length);
       return combined;
    }
+
+   /**
+    * Immutable snapshot of the bounding volumes of a mesh, such that it can be safely published to
+    * other threads.
+    */
+   private static class Bounds
+   {
+      private final BoundingBox3D boundingBox = new BoundingBox3D();
+      private final Point3D sphereCenter = new Point3D();
+      private final double sphereRadius;
+
+      private Bounds(Point3D32[] vertices)
+      {
+         if (vertices.length == 0)
+         {
+            boundingBox.setToNaN();
+            sphereCenter.setToNaN();
+            sphereRadius = Double.NaN;
+            return;
+         }
+
+         boundingBox.set(vertices[0], vertices[0]);
+         for (int i = 1; i < vertices.length; i++)
+            boundingBox.updateToIncludePoint(vertices[i]);
+
+         sphereCenter.interpolate(boundingBox.getMinPoint(), boundingBox.getMaxPoint(), 0.5);
+
+         double maxDistanceSquared = 0.0;
+         for (int i = 0; i < vertices.length; i++)
+            maxDistanceSquared = Math.max(maxDistanceSquared, sphereCenter.distanceSquared(vertices[i]));
+         sphereRadius = Math.sqrt(maxDistanceSquared);
+      }
+   }
 }
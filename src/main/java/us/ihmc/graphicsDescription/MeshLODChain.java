@@ -0,0 +1,107 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the levels of detail of a mesh, from the full resolution mesh to the coarsest one, see
+ * {@link MeshSimplifier#generateLODChain(MeshDataHolder, double...)}.
+ * <p>
+ * Each level has a minimum screen size, which is the ratio of the projected size of the mesh over
+ * the viewport height above which the level should be used. The minimum screen sizes are in
+ * decreasing order, such that a graphics engine can pick the level to render with
+ * {@link #selectLevel(double)}.
+ * </p>
+ */
+public class MeshLODChain
+{
+   /** Screen size above which a mesh is rendered at full resolution by default. */
+   public static final double DEFAULT_FULL_DETAIL_SCREEN_SIZE = 0.5;
+
+   private final List<MeshDataHolder> levels;
+   private final double[] minimumScreenSizes;
+
+   /**
+    * Creates a new chain of levels of detail.
+    *
+    * @param levels             the meshes of each level, from the finest to the coarsest. Not
+    *                           modified.
+    * @param minimumScreenSizes the minimum screen size of each level, in decreasing order. Not
+    *                           modified.
+    * @throws IllegalArgumentException if the arguments have different sizes, if there is no level,
+    *                                  or if the screen sizes are not in decreasing order.
+    */
+   public MeshLODChain(List<MeshDataHolder> levels, double[] minimumScreenSizes)
+   {
+      if (levels.isEmpty())
+         throw new IllegalArgumentException("A chain of levels of detail needs at least one level.");
+      if (levels.size() != minimumScreenSizes.length)
+         throw new IllegalArgumentException("Unexpected array size. Expected: " + levels.size() + ", but was: " + minimumScreenSizes.length);
+      for (int i = 1; i < minimumScreenSizes.length; i++)
+      {
+         if (minimumScreenSizes[i] > minimumScreenSizes[i - 1])
+            throw new IllegalArgumentException("The minimum screen sizes have to be in decreasing order.");
+      }
+
+      this.levels = Collections.unmodifiableList(new ArrayList<>(levels));
+      this.minimumScreenSizes = minimumScreenSizes.clone();
+   }
+
+   /**
+    * Computes the default minimum screen size of a level from its triangle ratio. The number of
+    * triangles covering a given area of the screen is kept constant: the triangle count scales with
+    * the projected area, i.e. with the square of the screen size.
+    *
+    * @param triangleRatio the number of triangles of the level as a fraction of the full resolution
+    *                      mesh.
+    * @return the minimum screen size for the level.
+    */
+   public static double computeDefaultMinimumScreenSize(double triangleRatio)
+   {
+      return DEFAULT_FULL_DETAIL_SCREEN_SIZE * Math.sqrt(triangleRatio);
+   }
+
+   /**
+    * Selects the level to render for the given screen size.
+    *
+    * @param screenSize the ratio of the projected size of the mesh over the viewport height.
+    * @return the index of the finest level which minimum screen size is lower than or equal to
+    *         {@code screenSize}, or the index of the coarsest level.
+    */
+   public int selectLevel(double screenSize)
+   {
+      for (int i = 0; i < minimumScreenSizes.length; i++)
+      {
+         if (screenSize >= minimumScreenSizes[i])
+            return i;
+      }
+      return minimumScreenSizes.length - 1;
+   }
+
+   /**
+    * Gets the mesh to render for the given screen size, see {@link #selectLevel(double)}.
+    *
+    * @param screenSize the ratio of the projected size of the mesh over the viewport height.
+    * @return the mesh of the selected level.
+    */
+   public MeshDataHolder getMeshData(double screenSize)
+   {
+      return levels.get(selectLevel(screenSize));
+   }
+
+   public int getNumberOfLevels()
+   {
+      return levels.size();
+   }
+
+   public MeshDataHolder getLevel(int index)
+   {
+      return levels.get(index);
+   }
+
+   public double getMinimumScreenSize(int index)
+   {
+      return minimumScreenSizes[index];
+   }
+}
@@ -0,0 +1,623 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DBasics;
+
+/**
+ * Computes the vertex normals and tangents of a triangle mesh in a single pass over its triangles.
+ * <p>
+ * The face normals are accumulated directly into the per-vertex output array, such that the
+ * computation is linear in the number of triangles and vertices. The calculator only uses
+ * primitive arrays and recycles its internal memory, it is allocation-free after warm-up when used
+ * sequentially.
+ * </p>
+ * <p>
+ * When created with a {@link ForkJoinPool}, meshes with more triangles than the parallel threshold
+ * are processed in parallel: the triangles are partitioned in as many ranges as the pool
+ * parallelism, each range is accumulated in its own buffer, and the buffers are then summed up in
+ * parallel over ranges of vertices. Smaller meshes fall back to the sequential computation. Note
+ * that in parallel the floating-point sums are performed in a different order, the result may then
+ * differ from the sequential one by a few ulps.
+ * </p>
+ * <p>
+ * This class is not thread-safe, a separate instance should be used per thread.
+ * </p>
+ */
+public class MeshNormalCalculator
+{
+   /** Default number of triangles above which the computation is done in parallel. */
+   public static final int DEFAULT_PARALLEL_THRESHOLD = 50000;
+
+   /**
+    * Describes how the normals of the faces around a vertex are combined to compute the vertex
+    * normal.
+    */
+   public enum Weighting
+   {
+      /**
+       * The vertex normal is the average of the unit normals of the adjacent faces. The result is not
+       * re-normalized. This is the behavior of {@link MeshDataGenerator#findNormalsPerVertex}.
+       */
+      UNIFORM,
+      /**
+       * The face normals are weighted by the face area. The result is normalized.
+       */
+      AREA,
+      /**
+       * The face normals are weighted by the interior angle of the face at the vertex. The result is
+       * normalized.
+       */
+      ANGLE
+   }
+
+   private final ForkJoinPool forkJoinPool;
+   private final int parallelThreshold;
+
+   private int[] faceCounts = new int[0];
+   private float[] vertexCoordinatesBuffer = new float[0];
+   private float[] normalsBuffer = new float[0];
+   private float[] tangentAccumulator = new float[0];
+
+   private float[][] partialAccumulators = new float[0][];
+   private int[][] partialFaceCounts = new int[0][];
+
+   /**
+    * Creates a new calculator that always performs the computation sequentially.
+    */
+   public MeshNormalCalculator()
+   {
+      this(null, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Creates a new calculator that performs the computation in parallel for large meshes.
+    *
+    * @param forkJoinPool      the pool used to run the parallel computation, typically
+    *                          {@link ForkJoinPool#commonPool()}. If {@code null}, the computation is
+    *                          always sequential.
+    * @param parallelThreshold the number of triangles above which the parallel computation is used.
+    */
+   public MeshNormalCalculator(ForkJoinPool forkJoinPool, int parallelThreshold)
+   {
+      this.forkJoinPool = forkJoinPool;
+      this.parallelThreshold = parallelThreshold;
+   }
+
+   /**
+    * Computes the vertex normals of a triangle mesh given as packed arrays.
+    *
+    * @param triangleIndices   the triplets of vertex indices describing the triangles. Not modified.
+    * @param vertexCoordinates the vertex coordinates packed as {@code [x0, y0, z0, x1, ...]}. Not
+    *                          modified.
+    * @param weighting         the strategy used to combine the face normals.
+    * @param normalsToPack     the array in which the normals are stored, packed as
+    *                          {@code [nx0, ny0, nz0, nx1, ...]}. It has to be at least as long as
+    *                          {@code vertexCoordinates}. Vertices that do not belong to any
+    *                          triangle get a zero normal. Modified.
+    */
+   public void computeVertexNormals(int[] triangleIndices, float[] vertexCoordinates, Weighting weighting, float[] normalsToPack)
+   {
+      computeVertexNormals(triangleIndices, vertexCoordinates, vertexCoordinates.length / 3, weighting, normalsToPack);
+   }
+
+   /**
+    * Computes the vertex normals of a triangle mesh.
+    *
+    * @param triangleIndices the triplets of vertex indices describing the triangles. Not modified.
+    * @param vertices        the vertex coordinates. Not modified.
+    * @param weighting       the strategy used to combine the face normals.
+    * @param normalsToPack   the array in which the normals are stored. It has to be at least as long
+    *                        as {@code vertices} and its elements have to be non-null. Vertices that do
+    *                        not belong to any triangle get a zero normal. Modified.
+    */
+   public void computeVertexNormals(int[] triangleIndices, Point3DReadOnly[] vertices, Weighting weighting, Tuple3DBasics[] normalsToPack)
+   {
+      int numberOfVertices = vertices.length;
+
+      if (vertexCoordinatesBuffer.length < 3 * numberOfVertices)
+      {
+         vertexCoordinatesBuffer = new float[3 * numberOfVertices];
+         normalsBuffer = new float[3 * numberOfVertices];
+      }
+
+      float[] vertexCoordinates = vertexCoordinatesBuffer;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertexCoordinates[3 * i] = vertices[i].getX32();
+         vertexCoordinates[3 * i + 1] = vertices[i].getY32();
+         vertexCoordinates[3 * i + 2] = vertices[i].getZ32();
+      }
+
+      computeVertexNormals(triangleIndices, vertexCoordinates, numberOfVertices, weighting, normalsBuffer);
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         normalsToPack[i].set(normalsBuffer[3 * i], normalsBuffer[3 * i + 1], normalsBuffer[3 * i + 2]);
+      }
+   }
+
+   private void computeVertexNormals(int[] triangleIndices, float[] vertexCoordinates, int numberOfVertices, Weighting weighting, float[] normalsToPack)
+   {
+      if (normalsToPack.length < 3 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected array size. Expected at least: " + 3 * numberOfVertices + ", but was: " + normalsToPack.length);
+
+      int numberOfTriangles = triangleIndices.length / 3;
+      boolean countFaces = weighting == Weighting.UNIFORM;
+
+      if (countFaces && faceCounts.length < numberOfVertices)
+         faceCounts = new int[numberOfVertices];
+
+      if (!isParallel(numberOfTriangles))
+      {
+         Arrays.fill(normalsToPack, 0, 3 * numberOfVertices, 0.0f);
+         if (countFaces)
+            Arrays.fill(faceCounts, 0, numberOfVertices, 0);
+         accumulateNormals(triangleIndices, vertexCoordinates, weighting, 0, numberOfTriangles, normalsToPack, faceCounts);
+      }
+      else
+      {
+         int numberOfTasks = forkJoinPool.getParallelism();
+         ensurePartialAccumulatorsCapacity(numberOfTasks, 3 * numberOfVertices, countFaces ? numberOfVertices : 0);
+
+         invokeInParallel(numberOfTasks, task ->
+         {
+            int start = (int) ((long) numberOfTriangles * task / numberOfTasks);
+            int end = (int) ((long) numberOfTriangles * (task + 1) / numberOfTasks);
+            float[] accumulator = partialAccumulators[task];
+            int[] counts = partialFaceCounts[task];
+            Arrays.fill(accumulator, 0, 3 * numberOfVertices, 0.0f);
+            if (countFaces)
+               Arrays.fill(counts, 0, numberOfVertices, 0);
+            accumulateNormals(triangleIndices, vertexCoordinates, weighting, start, end, accumulator, counts);
+         });
+
+         invokeInParallel(numberOfTasks, task ->
+         {
+            int start = (int) ((long) numberOfVertices * task / numberOfTasks);
+            int end = (int) ((long) numberOfVertices * (task + 1) / numberOfTasks);
+            reducePartialAccumulators(numberOfTasks, 3 * start, 3 * end, normalsToPack);
+            if (countFaces)
+               reducePartialFaceCounts(numberOfTasks, start, end, faceCounts);
+         });
+      }
+
+      if (countFaces)
+         averageNormals(normalsToPack, faceCounts, numberOfVertices);
+      else
+         normalize(normalsToPack, numberOfVertices);
+   }
+
+   /**
+    * Computes the vertex tangents of a textured triangle mesh given as packed arrays. The tangents are
+    * required when rendering normal maps, as with
+    * {@link us.ihmc.graphicsDescription.appearance.HeightBasedTerrainBlend}.
+    * <p>
+    * The tangent of a vertex is aligned with the direction of increasing u texture coordinate,
+    * orthogonalized with respect to the vertex normal. The fourth component of each tangent gives the
+    * handedness of the tangent frame: the bitangent is {@code w * cross(normal, tangent)}.
+    * </p>
+    *
+    * @param triangleIndices         the triplets of vertex indices describing the triangles. Not
+    *                                modified.
+    * @param vertexCoordinates       the vertex coordinates packed as {@code [x0, y0, z0, x1, ...]}.
+    *                                Not modified.
+    * @param texturePointCoordinates the texture coordinates packed as {@code [u0, v0, u1, ...]}. Not
+    *                                modified.
+    * @param vertexNormals           the unit vertex normals packed as {@code [nx0, ny0, nz0, nx1,
+    *                                ...]}. Not modified.
+    * @param tangentsToPack          the array in which the tangents are stored, packed as
+    *                                {@code [tx0, ty0, tz0, w0, tx1, ...]}. Modified.
+    */
+   public void computeVertexTangents(int[] triangleIndices, float[] vertexCoordinates, float[] texturePointCoordinates, float[] vertexNormals,
+                                     float[] tangentsToPack)
+   {
+      int numberOfVertices = vertexCoordinates.length / 3;
+      int numberOfTriangles = triangleIndices.length / 3;
+
+      if (tangentsToPack.length < 4 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected array size. Expected at least: " + 4 * numberOfVertices + ", but was: " + tangentsToPack.length);
+
+      if (tangentAccumulator.length < 6 * numberOfVertices)
+         tangentAccumulator = new float[6 * numberOfVertices];
+
+      if (!isParallel(numberOfTriangles))
+      {
+         Arrays.fill(tangentAccumulator, 0, 6 * numberOfVertices, 0.0f);
+         accumulateTangents(triangleIndices, vertexCoordinates, texturePointCoordinates, 0, numberOfTriangles, tangentAccumulator);
+         finalizeTangents(vertexNormals, tangentAccumulator, 0, numberOfVertices, tangentsToPack);
+      }
+      else
+      {
+         int numberOfTasks = forkJoinPool.getParallelism();
+         ensurePartialAccumulatorsCapacity(numberOfTasks, 6 * numberOfVertices, 0);
+
+         invokeInParallel(numberOfTasks, task ->
+         {
+            int start = (int) ((long) numberOfTriangles * task / numberOfTasks);
+            int end = (int) ((long) numberOfTriangles * (task + 1) / numberOfTasks);
+            float[] accumulator = partialAccumulators[task];
+            Arrays.fill(accumulator, 0, 6 * numberOfVertices, 0.0f);
+            accumulateTangents(triangleIndices, vertexCoordinates, texturePointCoordinates, start, end, accumulator);
+         });
+
+         invokeInParallel(numberOfTasks, task ->
+         {
+            int start = (int) ((long) numberOfVertices * task / numberOfTasks);
+            int end = (int) ((long) numberOfVertices * (task + 1) / numberOfTasks);
+            reducePartialAccumulators(numberOfTasks, 6 * start, 6 * end, tangentAccumulator);
+            finalizeTangents(vertexNormals, tangentAccumulator, start, end, tangentsToPack);
+         });
+      }
+   }
+
+   private boolean isParallel(int numberOfTriangles)
+   {
+      return forkJoinPool != null && forkJoinPool.getParallelism() > 1 && numberOfTriangles >= parallelThreshold;
+   }
+
+   private void ensurePartialAccumulatorsCapacity(int numberOfTasks, int accumulatorSize, int countsSize)
+   {
+      if (partialAccumulators.length < numberOfTasks)
+      {
+         partialAccumulators = Arrays.copyOf(partialAccumulators, numberOfTasks);
+         partialFaceCounts = Arrays.copyOf(partialFaceCounts, numberOfTasks);
+      }
+
+      for (int task = 0; task < numberOfTasks; task++)
+      {
+         if (partialAccumulators[task] == null || partialAccumulators[task].length < accumulatorSize)
+            partialAccumulators[task] = new float[accumulatorSize];
+         if (partialFaceCounts[task] == null || partialFaceCounts[task].length < countsSize)
+            partialFaceCounts[task] = new int[countsSize];
+      }
+   }
+
+   private void reducePartialAccumulators(int numberOfTasks, int start, int end, float[] output)
+   {
+      System.arraycopy(partialAccumulators[0], start, output, start, end - start);
+
+      for (int task = 1; task < numberOfTasks; task++)
+      {
+         float[] accumulator = partialAccumulators[task];
+         for (int i = start; i < end; i++)
+            output[i] += accumulator[i];
+      }
+   }
+
+   private void reducePartialFaceCounts(int numberOfTasks, int start, int end, int[] output)
+   {
+      System.arraycopy(partialFaceCounts[0], start, output, start, end - start);
+
+      for (int task = 1; task < numberOfTasks; task++)
+      {
+         int[] counts = partialFaceCounts[task];
+         for (int i = start; i < end; i++)
+            output[i] += counts[i];
+      }
+   }
+
+   private void invokeInParallel(int numberOfTasks, TaskBody taskBody)
+   {
+      forkJoinPool.invoke(new RecursiveAction()
+      {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected void compute()
+         {
+            RecursiveAction[] subtasks = new RecursiveAction[numberOfTasks];
+
+            for (int task = 0; task < numberOfTasks; task++)
+            {
+               int taskIndex = task;
+               subtasks[task] = new RecursiveAction()
+               {
+                  private static final long serialVersionUID = 1L;
+
+                  @Override
+                  protected void compute()
+                  {
+                     taskBody.run(taskIndex);
+                  }
+               };
+            }
+
+            invokeAll(subtasks);
+         }
+      });
+   }
+
+   private static interface TaskBody
+   {
+      void run(int taskIndex);
+   }
+
+   private static void accumulateNormals(int[] triangleIndices, float[] vertexCoordinates, Weighting weighting, int startTriangle, int endTriangle,
+                                         float[] accumulator, int[] faceCounts)
+   {
+      switch (weighting)
+      {
+         case UNIFORM:
+            accumulateUniform(triangleIndices, vertexCoordinates, startTriangle, endTriangle, accumulator, faceCounts);
+            break;
+         case AREA:
+            accumulateAreaWeighted(triangleIndices, vertexCoordinates, startTriangle, endTriangle, accumulator);
+            break;
+         case ANGLE:
+            accumulateAngleWeighted(triangleIndices, vertexCoordinates, startTriangle, endTriangle, accumulator);
+            break;
+         default:
+            throw new IllegalArgumentException("Unexpected weighting: " + weighting);
+      }
+   }
+
+   private static void accumulateUniform(int[] triangleIndices, float[] vertexCoordinates, int startTriangle, int endTriangle, float[] accumulator,
+                                         int[] faceCounts)
+   {
+      for (int index = 3 * startTriangle; index < 3 * endTriangle; index += 3)
+      {
+         int v0 = triangleIndices[index];
+         int v1 = triangleIndices[index + 1];
+         int v2 = triangleIndices[index + 2];
+         int i0 = 3 * v0;
+         int i1 = 3 * v1;
+         int i2 = 3 * v2;
+
+         // Same operations and rounding as the face normal computed with Vector3D32.
+         float firstX = vertexCoordinates[i2] - vertexCoordinates[i0];
+         float firstY = vertexCoordinates[i2 + 1] - vertexCoordinates[i0 + 1];
+         float firstZ = vertexCoordinates[i2 + 2] - vertexCoordinates[i0 + 2];
+         float secondX = vertexCoordinates[i2] - vertexCoordinates[i1];
+         float secondY = vertexCoordinates[i2 + 1] - vertexCoordinates[i1 + 1];
+         float secondZ = vertexCoordinates[i2 + 2] - vertexCoordinates[i1 + 2];
+
+         float normalX = (float) ((double) firstY * secondZ - (double) firstZ * secondY);
+         float normalY = (float) ((double) firstZ * secondX - (double) firstX * secondZ);
+         float normalZ = (float) ((double) firstX * secondY - (double) firstY * secondX);
+         double invNorm = 1.0 / Math.sqrt((double) normalX * normalX + (double) normalY * normalY + (double) normalZ * normalZ);
+         normalX = (float) (normalX * invNorm);
+         normalY = (float) (normalY * invNorm);
+         normalZ = (float) (normalZ * invNorm);
+
+         addToVertex(accumulator, v0, normalX, normalY, normalZ);
+         faceCounts[v0]++;
+         // A vertex listed twice in the same face only counts once.
+         if (v1 != v0)
+         {
+            addToVertex(accumulator, v1, normalX, normalY, normalZ);
+            faceCounts[v1]++;
+         }
+         if (v2 != v0 && v2 != v1)
+         {
+            addToVertex(accumulator, v2, normalX, normalY, normalZ);
+            faceCounts[v2]++;
+         }
+      }
+   }
+
+   private static void accumulateAreaWeighted(int[] triangleIndices, float[] vertexCoordinates, int startTriangle, int endTriangle, float[] accumulator)
+   {
+      for (int index = 3 * startTriangle; index < 3 * endTriangle; index += 3)
+      {
+         int v0 = triangleIndices[index];
+         int v1 = triangleIndices[index + 1];
+         int v2 = triangleIndices[index + 2];
+         int i0 = 3 * v0;
+         int i1 = 3 * v1;
+         int i2 = 3 * v2;
+
+         double firstX = vertexCoordinates[i1] - vertexCoordinates[i0];
+         double firstY = vertexCoordinates[i1 + 1] - vertexCoordinates[i0 + 1];
+         double firstZ = vertexCoordinates[i1 + 2] - vertexCoordinates[i0 + 2];
+         double secondX = vertexCoordinates[i2] - vertexCoordinates[i0];
+         double secondY = vertexCoordinates[i2 + 1] - vertexCoordinates[i0 + 1];
+         double secondZ = vertexCoordinates[i2 + 2] - vertexCoordinates[i0 + 2];
+
+         // The norm of the cross product is twice the triangle area, which is the weight.
+         float normalX = (float) (firstY * secondZ - firstZ * secondY);
+         float normalY = (float) (firstZ * secondX - firstX * secondZ);
+         float normalZ = (float) (firstX * secondY - firstY * secondX);
+
+         addToVertex(accumulator, v0, normalX, normalY, normalZ);
+         addToVertex(accumulator, v1, normalX, normalY, normalZ);
+         addToVertex(accumulator, v2, normalX, normalY, normalZ);
+      }
+   }
+
+   private static void accumulateAngleWeighted(int[] triangleIndices, float[] vertexCoordinates, int startTriangle, int endTriangle, float[] accumulator)
+   {
+      for (int index = 3 * startTriangle; index < 3 * endTriangle; index += 3)
+      {
+         int v0 = triangleIndices[index];
+         int v1 = triangleIndices[index + 1];
+         int v2 = triangleIndices[index + 2];
+         int i0 = 3 * v0;
+         int i1 = 3 * v1;
+         int i2 = 3 * v2;
+
+         double e01X = vertexCoordinates[i1] - vertexCoordinates[i0];
+         double e01Y = vertexCoordinates[i1 + 1] - vertexCoordinates[i0 + 1];
+         double e01Z = vertexCoordinates[i1 + 2] - vertexCoordinates[i0 + 2];
+         double e02X = vertexCoordinates[i2] - vertexCoordinates[i0];
+         double e02Y = vertexCoordinates[i2 + 1] - vertexCoordinates[i0 + 1];
+         double e02Z = vertexCoordinates[i2 + 2] - vertexCoordinates[i0 + 2];
+         double e12X = vertexCoordinates[i2] - vertexCoordinates[i1];
+         double e12Y = vertexCoordinates[i2 + 1] - vertexCoordinates[i1 + 1];
+         double e12Z = vertexCoordinates[i2 + 2] - vertexCoordinates[i1 + 2];
+
+         double normalX = e01Y * e02Z - e01Z * e02Y;
+         double normalY = e01Z * e02X - e01X * e02Z;
+         double normalZ = e01X * e02Y - e01Y * e02X;
+         double doubleArea = Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+
+         if (doubleArea == 0.0)
+            continue;
+
+         normalX /= doubleArea;
+         normalY /= doubleArea;
+         normalZ /= doubleArea;
+
+         // The interior angles computed from the sine (triangle area) and cosine (dot product).
+         double angle0 = Math.atan2(doubleArea, e01X * e02X + e01Y * e02Y + e01Z * e02Z);
+         double angle1 = Math.atan2(doubleArea, -e01X * e12X - e01Y * e12Y - e01Z * e12Z);
+         double angle2 = Math.PI - angle0 - angle1;
+
+         addToVertex(accumulator, v0, (float) (angle0 * normalX), (float) (angle0 * normalY), (float) (angle0 * normalZ));
+         addToVertex(accumulator, v1, (float) (angle1 * normalX), (float) (angle1 * normalY), (float) (angle1 * normalZ));
+         addToVertex(accumulator, v2, (float) (angle2 * normalX), (float) (angle2 * normalY), (float) (angle2 * normalZ));
+      }
+   }
+
+   /**
+    * Accumulates for each vertex the texture-space u direction in the first 3 floats and the v
+    * direction in the last 3 floats of a 6-float block.
+    */
+   private static void accumulateTangents(int[] triangleIndices, float[] vertexCoordinates, float[] texturePointCoordinates, int startTriangle, int endTriangle,
+                                          float[] accumulator)
+   {
+      for (int index = 3 * startTriangle; index < 3 * endTriangle; index += 3)
+      {
+         int v0 = triangleIndices[index];
+         int v1 = triangleIndices[index + 1];
+         int v2 = triangleIndices[index + 2];
+
+         double x1 = vertexCoordinates[3 * v1] - vertexCoordinates[3 * v0];
+         double y1 = vertexCoordinates[3 * v1 + 1] - vertexCoordinates[3 * v0 + 1];
+         double z1 = vertexCoordinates[3 * v1 + 2] - vertexCoordinates[3 * v0 + 2];
+         double x2 = vertexCoordinates[3 * v2] - vertexCoordinates[3 * v0];
+         double y2 = vertexCoordinates[3 * v2 + 1] - vertexCoordinates[3 * v0 + 1];
+         double z2 = vertexCoordinates[3 * v2 + 2] - vertexCoordinates[3 * v0 + 2];
+
+         double s1 = texturePointCoordinates[2 * v1] - texturePointCoordinates[2 * v0];
+         double t1 = texturePointCoordinates[2 * v1 + 1] - texturePointCoordinates[2 * v0 + 1];
+         double s2 = texturePointCoordinates[2 * v2] - texturePointCoordinates[2 * v0];
+         double t2 = texturePointCoordinates[2 * v2 + 1] - texturePointCoordinates[2 * v0 + 1];
+
+         double determinant = s1 * t2 - s2 * t1;
+
+         if (Math.abs(determinant) < 1.0e-12)
+            continue; // Degenerate texture mapping, the triangle does not define a tangent.
+
+         double r = 1.0 / determinant;
+         float uX = (float) ((t2 * x1 - t1 * x2) * r);
+         float uY = (float) ((t2 * y1 - t1 * y2) * r);
+         float uZ = (float) ((t2 * z1 - t1 * z2) * r);
+         float vX = (float) ((s1 * x2 - s2 * x1) * r);
+         float vY = (float) ((s1 * y2 - s2 * y1) * r);
+         float vZ = (float) ((s1 * z2 - s2 * z1) * r);
+
+         addTangentToVertex(accumulator, v0, uX, uY, uZ, vX, vY, vZ);
+         addTangentToVertex(accumulator, v1, uX, uY, uZ, vX, vY, vZ);
+         addTangentToVertex(accumulator, v2, uX, uY, uZ, vX, vY, vZ);
+      }
+   }
+
+   private static void finalizeTangents(float[] vertexNormals, float[] accumulator, int startVertex, int endVertex, float[] tangentsToPack)
+   {
+      for (int vertexIndex = startVertex; vertexIndex < endVertex; vertexIndex++)
+      {
+         double nX = vertexNormals[3 * vertexIndex];
+         double nY = vertexNormals[3 * vertexIndex + 1];
+         double nZ = vertexNormals[3 * vertexIndex + 2];
+         double uX = accumulator[6 * vertexIndex];
+         double uY = accumulator[6 * vertexIndex + 1];
+         double uZ = accumulator[6 * vertexIndex + 2];
+         double vX = accumulator[6 * vertexIndex + 3];
+         double vY = accumulator[6 * vertexIndex + 4];
+         double vZ = accumulator[6 * vertexIndex + 5];
+
+         // Gram-Schmidt: removing the normal component of the u direction.
+         double dot = nX * uX + nY * uY + nZ * uZ;
+         double tX = uX - dot * nX;
+         double tY = uY - dot * nY;
+         double tZ = uZ - dot * nZ;
+         double norm = Math.sqrt(tX * tX + tY * tY + tZ * tZ);
+
+         if (norm < 1.0e-12)
+         { // No usable texture direction, picking any direction orthogonal to the normal.
+            if (Math.abs(nX) < 0.9)
+            { // cross(n, x-axis)
+               tX = 0.0;
+               tY = nZ;
+               tZ = -nY;
+            }
+            else
+            { // cross(n, y-axis)
+               tX = -nZ;
+               tY = 0.0;
+               tZ = nX;
+            }
+            norm = Math.sqrt(tX * tX + tY * tY + tZ * tZ);
+         }
+
+         if (norm == 0.0)
+         {
+            tX = 1.0;
+            norm = 1.0;
+         }
+
+         tangentsToPack[4 * vertexIndex] = (float) (tX / norm);
+         tangentsToPack[4 * vertexIndex + 1] = (float) (tY / norm);
+         tangentsToPack[4 * vertexIndex + 2] = (float) (tZ / norm);
+
+         // Handedness: sign of dot(cross(n, t), v)
+         double bX = nY * tZ - nZ * tY;
+         double bY = nZ * tX - nX * tZ;
+         double bZ = nX * tY - nY * tX;
+         tangentsToPack[4 * vertexIndex + 3] = bX * vX + bY * vY + bZ * vZ < 0.0 ? -1.0f : 1.0f;
+      }
+   }
+
+   private static void addToVertex(float[] normals, int vertexIndex, float x, float y, float z)
+   {
+      normals[3 * vertexIndex] += x;
+      normals[3 * vertexIndex + 1] += y;
+      normals[3 * vertexIndex + 2] += z;
+   }
+
+   private static void addTangentToVertex(float[] accumulator, int vertexIndex, float uX, float uY, float uZ, float vX, float vY, float vZ)
+   {
+      accumulator[6 * vertexIndex] += uX;
+      accumulator[6 * vertexIndex + 1] += uY;
+      accumulator[6 * vertexIndex + 2] += uZ;
+      accumulator[6 * vertexIndex + 3] += vX;
+      accumulator[6 * vertexIndex + 4] += vY;
+      accumulator[6 * vertexIndex + 5] += vZ;
+   }
+
+   private static void averageNormals(float[] normals, int[] faceCounts, int numberOfVertices)
+   {
+      for (int vertexIndex = 0; vertexIndex < numberOfVertices; vertexIndex++)
+      {
+         if (faceCounts[vertexIndex] == 0)
+            continue;
+         float scale = 1.0f / faceCounts[vertexIndex];
+         normals[3 * vertexIndex] *= scale;
+         normals[3 * vertexIndex + 1] *= scale;
+         normals[3 * vertexIndex + 2] *= scale;
+      }
+   }
+
+   private static void normalize(float[] normals, int numberOfVertices)
+   {
+      for (int vertexIndex = 0; vertexIndex < numberOfVertices; vertexIndex++)
+      {
+         double x = normals[3 * vertexIndex];
+         double y = normals[3 * vertexIndex + 1];
+         double z = normals[3 * vertexIndex + 2];
+         double norm = Math.sqrt(x * x + y * y + z * z);
+
+         if (norm == 0.0)
+            continue;
+
+         normals[3 * vertexIndex] = (float) (x / norm);
+         normals[3 * vertexIndex + 1] = (float) (y / norm);
+         normals[3 * vertexIndex + 2] = (float) (z / norm);
+      }
+   }
+}
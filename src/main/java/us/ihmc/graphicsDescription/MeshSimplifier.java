@@ -0,0 +1,611 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+/**
+ * Reduces the number of triangles of a mesh using quadric error metrics edge collapses (Garland and
+ * Heckbert, 1997).
+ * <p>
+ * Each vertex accumulates the quadric of the planes of its adjacent triangles. The edges are then
+ * collapsed in order of increasing error until the target number of triangles is reached or no
+ * valid collapse remains. The collapses are half-edge collapses: a vertex is merged onto one of its
+ * neighbors, which keeps its position, normal, and texture coordinates, so no attribute has to be
+ * interpolated.
+ * </p>
+ * <p>
+ * Vertices that are exact duplicates, i.e. with the same position, normal, and texture coordinates,
+ * are merged before simplifying. The vertices on the mesh borders and the vertices on attribute
+ * seams, i.e. vertices sharing their position with another vertex that has a different normal or
+ * texture coordinates, are never moved. This preserves the outline of open meshes and the UV
+ * layout. Collapses that would flip a triangle, create a non-manifold edge, or duplicate a triangle
+ * are rejected.
+ * </p>
+ */
+public class MeshSimplifier
+{
+   private static final double FLIP_DOT_THRESHOLD = 1.0e-3;
+
+   private MeshSimplifier()
+   {
+      // Prevent an object being generated.
+   }
+
+   /**
+    * Simplifies the given mesh.
+    *
+    * @param input               the mesh to simplify. Not modified.
+    * @param targetTriangleRatio the desired number of triangles as a fraction of the number of
+    *                            triangles of {@code input}, in [0, 1].
+    * @return the new simplified mesh. It may have more triangles than targeted when the borders and
+    *         seams prevent further collapses.
+    */
+   public static MeshDataHolder simplify(MeshDataHolder input, double targetTriangleRatio)
+   {
+      if (targetTriangleRatio < 0.0 || targetTriangleRatio > 1.0)
+         throw new IllegalArgumentException("The target triangle ratio has to be in [0, 1], was: " + targetTriangleRatio);
+
+      int targetNumberOfTriangles = (int) Math.round(targetTriangleRatio * input.getTriangleIndices().length / 3);
+      return new Simplification(input).run(targetNumberOfTriangles);
+   }
+
+   /**
+    * Generates a chain of levels of detail from the given mesh. The first level is the input mesh
+    * itself, the following levels are simplified from the previous level. The minimum screen size of
+    * each level is set from its triangle ratio, see
+    * {@link MeshLODChain#computeDefaultMinimumScreenSize(double)}.
+    *
+    * @param input          the full resolution mesh. Not modified.
+    * @param triangleRatios the target triangle ratio of each simplified level with respect to
+    *                       {@code input}, in decreasing order.
+    * @return the chain of levels of detail.
+    */
+   public static MeshLODChain generateLODChain(MeshDataHolder input, double... triangleRatios)
+   {
+      double[] minimumScreenSizes = new double[triangleRatios.length + 1];
+      minimumScreenSizes[0] = MeshLODChain.computeDefaultMinimumScreenSize(1.0);
+      for (int i = 0; i < triangleRatios.length; i++)
+         minimumScreenSizes[i + 1] = MeshLODChain.computeDefaultMinimumScreenSize(triangleRatios[i]);
+      minimumScreenSizes[triangleRatios.length] = 0.0;
+
+      return generateLODChain(input, triangleRatios, minimumScreenSizes);
+   }
+
+   /**
+    * Generates a chain of levels of detail from the given mesh. The first level is the input mesh
+    * itself, the following levels are simplified from the previous level.
+    *
+    * @param input              the full resolution mesh. Not modified.
+    * @param triangleRatios     the target triangle ratio of each simplified level with respect to
+    *                           {@code input}, in decreasing order.
+    * @param minimumScreenSizes the minimum screen size of each level, including the first level, see
+    *                           {@link MeshLODChain}. Its length has to be
+    *                           {@code triangleRatios.length + 1}.
+    * @return the chain of levels of detail.
+    */
+   public static MeshLODChain generateLODChain(MeshDataHolder input, double[] triangleRatios, double[] minimumScreenSizes)
+   {
+      if (minimumScreenSizes.length != triangleRatios.length + 1)
+         throw new IllegalArgumentException("Unexpected array size. Expected: " + (triangleRatios.length + 1) + ", but was: " + minimumScreenSizes.length);
+
+      int numberOfTriangles = input.getTriangleIndices().length / 3;
+      List<MeshDataHolder> levels = new ArrayList<>();
+      levels.add(input);
+      MeshDataHolder previous = input;
+
+      for (int i = 0; i < triangleRatios.length; i++)
+      {
+         if (i > 0 && triangleRatios[i] > triangleRatios[i - 1])
+            throw new IllegalArgumentException("The triangle ratios have to be in decreasing order.");
+         int targetNumberOfTriangles = (int) Math.round(triangleRatios[i] * numberOfTriangles);
+         previous = new Simplification(previous).run(targetNumberOfTriangles);
+         previous.setName(input.getName() + "_LOD" + (i + 1));
+         levels.add(previous);
+      }
+
+      return new MeshLODChain(levels, minimumScreenSizes);
+   }
+
+   private static class Simplification
+   {
+      private final Point3D32[] vertices;
+      private final TexCoord2f[] texturePoints;
+      private final Vector3D32[] vertexNormals;
+      private final String name;
+
+      private final int[] triangles;
+      private final boolean[] triangleRemoved;
+      private final TIntArrayList[] vertexTriangles;
+      private final boolean[] vertexLocked;
+      private final int[] vertexPositionId;
+      private final boolean[] vertexRemoved;
+      private final int[] vertexVersion;
+      private final double[] quadrics;
+      private int numberOfTriangles;
+
+      private final PriorityQueue<Collapse> queue = new PriorityQueue<>();
+      private final TIntArrayList fromNeighbors = new TIntArrayList();
+      private final TIntArrayList oppositeVertices = new TIntArrayList();
+
+      private Simplification(MeshDataHolder input)
+      {
+         vertices = input.getVertices();
+         texturePoints = input.getTexturePoints();
+         vertexNormals = input.getVertexNormals();
+         name = input.getName();
+
+         int numberOfVertices = vertices.length;
+         triangles = input.getTriangleIndices().clone();
+         numberOfTriangles = triangles.length / 3;
+         triangleRemoved = new boolean[numberOfTriangles];
+         vertexTriangles = new TIntArrayList[numberOfVertices];
+         vertexLocked = new boolean[numberOfVertices];
+         vertexPositionId = new int[numberOfVertices];
+         vertexRemoved = new boolean[numberOfVertices];
+         vertexVersion = new int[numberOfVertices];
+         quadrics = new double[10 * numberOfVertices];
+
+         for (int i = 0; i < numberOfVertices; i++)
+            vertexTriangles[i] = new TIntArrayList(6);
+
+         weldDuplicatesAndLockSeams();
+
+         for (int t = 0; t < triangleRemoved.length; t++)
+         {
+            int v0 = triangles[3 * t], v1 = triangles[3 * t + 1], v2 = triangles[3 * t + 2];
+
+            if (v0 == v1 || v1 == v2 || v2 == v0)
+            {
+               triangleRemoved[t] = true;
+               numberOfTriangles--;
+               continue;
+            }
+
+            vertexTriangles[v0].add(t);
+            vertexTriangles[v1].add(t);
+            vertexTriangles[v2].add(t);
+            addTriangleQuadric(t);
+         }
+
+         lockBorders();
+      }
+
+      private void addTriangleQuadric(int triangle)
+      {
+         Point3D32 p0 = vertices[triangles[3 * triangle]];
+         Point3D32 p1 = vertices[triangles[3 * triangle + 1]];
+         Point3D32 p2 = vertices[triangles[3 * triangle + 2]];
+
+         double e1x = p1.getX() - p0.getX(), e1y = p1.getY() - p0.getY(), e1z = p1.getZ() - p0.getZ();
+         double e2x = p2.getX() - p0.getX(), e2y = p2.getY() - p0.getY(), e2z = p2.getZ() - p0.getZ();
+         double nx = e1y * e2z - e1z * e2y;
+         double ny = e1z * e2x - e1x * e2z;
+         double nz = e1x * e2y - e1y * e2x;
+         double doubleArea = Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+         if (doubleArea == 0.0)
+            return;
+
+         double a = nx / doubleArea, b = ny / doubleArea, c = nz / doubleArea;
+         double d = -(a * p0.getX() + b * p0.getY() + c * p0.getZ());
+         // Area weighted such that large triangles dominate the error.
+         double w = 0.5 * doubleArea;
+
+         for (int j = 0; j < 3; j++)
+         {
+            int offset = 10 * triangles[3 * triangle + j];
+            quadrics[offset] += w * a * a;
+            quadrics[offset + 1] += w * a * b;
+            quadrics[offset + 2] += w * a * c;
+            quadrics[offset + 3] += w * a * d;
+            quadrics[offset + 4] += w * b * b;
+            quadrics[offset + 5] += w * b * c;
+            quadrics[offset + 6] += w * b * d;
+            quadrics[offset + 7] += w * c * c;
+            quadrics[offset + 8] += w * c * d;
+            quadrics[offset + 9] += w * d * d;
+         }
+      }
+
+      /**
+       * Merges the vertices with the same position, normal, and texture coordinates, and locks the
+       * vertices that share their position with a vertex with different attributes.
+       */
+      private void weldDuplicatesAndLockSeams()
+      {
+         Map<Point3D32, TIntArrayList> positionGroups = new HashMap<>();
+         int[] canonicalVertex = new int[vertices.length];
+
+         for (int i = 0; i < vertices.length; i++)
+         {
+            TIntArrayList group = positionGroups.computeIfAbsent(vertices[i], p -> new TIntArrayList(2));
+            canonicalVertex[i] = i;
+
+            for (int k = 0; k < group.size(); k++)
+            {
+               if (haveSameAttributes(group.get(k), i))
+               {
+                  canonicalVertex[i] = group.get(k);
+                  break;
+               }
+            }
+
+            if (canonicalVertex[i] == i)
+               group.add(i);
+         }
+
+         int positionId = 0;
+         for (TIntArrayList group : positionGroups.values())
+         {
+            for (int k = 0; k < group.size(); k++)
+            {
+               vertexPositionId[group.get(k)] = positionId;
+               // Vertices sharing the same position with different attributes are on a seam.
+               if (group.size() > 1)
+                  vertexLocked[group.get(k)] = true;
+            }
+            positionId++;
+         }
+
+         for (int i = 0; i < triangles.length; i++)
+            triangles[i] = canonicalVertex[triangles[i]];
+      }
+
+      private boolean haveSameAttributes(int a, int b)
+      {
+         Vector3D32 normalA = vertexNormals[a], normalB = vertexNormals[b];
+         if (normalA.getX32() != normalB.getX32() || normalA.getY32() != normalB.getY32() || normalA.getZ32() != normalB.getZ32())
+            return false;
+
+         TexCoord2f texturePointA = texturePoints[a], texturePointB = texturePoints[b];
+         return texturePointA.x == texturePointB.x && texturePointA.y == texturePointB.y;
+      }
+
+      private void lockBorders()
+      {
+         // Edges, expressed with position ids, that belong to a single triangle are on a border.
+         TLongIntHashMap edgeCount = new TLongIntHashMap();
+
+         for (int t = 0; t < triangleRemoved.length; t++)
+         {
+            if (triangleRemoved[t])
+               continue;
+            for (int j = 0; j < 3; j++)
+               edgeCount.adjustOrPutValue(edgeKey(vertexPositionId[triangles[3 * t + j]], vertexPositionId[triangles[3 * t + (j + 1) % 3]]), 1, 1);
+         }
+
+         for (int t = 0; t < triangleRemoved.length; t++)
+         {
+            if (triangleRemoved[t])
+               continue;
+
+            for (int j = 0; j < 3; j++)
+            {
+               int v0 = triangles[3 * t + j];
+               int v1 = triangles[3 * t + (j + 1) % 3];
+
+               if (edgeCount.get(edgeKey(vertexPositionId[v0], vertexPositionId[v1])) == 1)
+               {
+                  vertexLocked[v0] = true;
+                  vertexLocked[v1] = true;
+               }
+            }
+         }
+      }
+
+      private static long edgeKey(int a, int b)
+      {
+         return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+      }
+
+      private MeshDataHolder run(int targetNumberOfTriangles)
+      {
+         for (int v = 0; v < vertices.length; v++)
+            pushCollapses(v);
+
+         while (numberOfTriangles > targetNumberOfTriangles && !queue.isEmpty())
+         {
+            Collapse collapse = queue.poll();
+
+            if (vertexRemoved[collapse.from] || vertexRemoved[collapse.to])
+               continue;
+            if (vertexVersion[collapse.from] != collapse.fromVersion || vertexVersion[collapse.to] != collapse.toVersion)
+               continue;
+            if (!isCollapseValid(collapse.from, collapse.to) || !satisfiesLinkCondition(collapse.from, collapse.to)
+                  || createsDuplicateTriangle(collapse.from, collapse.to))
+               continue;
+
+            performCollapse(collapse.from, collapse.to);
+         }
+
+         return createResult();
+      }
+
+      private void pushCollapses(int vertex)
+      {
+         TIntArrayList adjacentTriangles = vertexTriangles[vertex];
+
+         for (int i = 0; i < adjacentTriangles.size(); i++)
+         {
+            int t = adjacentTriangles.get(i);
+
+            for (int j = 0; j < 3; j++)
+            {
+               int other = triangles[3 * t + j];
+               if (other == vertex)
+                  continue;
+               if (!vertexLocked[vertex])
+                  queue.add(new Collapse(vertex, other, collapseCost(vertex, other), vertexVersion[vertex], vertexVersion[other]));
+               if (!vertexLocked[other])
+                  queue.add(new Collapse(other, vertex, collapseCost(other, vertex), vertexVersion[other], vertexVersion[vertex]));
+            }
+         }
+      }
+
+      private double collapseCost(int from, int to)
+      {
+         double x = vertices[to].getX(), y = vertices[to].getY(), z = vertices[to].getZ();
+         int f = 10 * from, t = 10 * to;
+         double a2 = quadrics[f] + quadrics[t];
+         double ab = quadrics[f + 1] + quadrics[t + 1];
+         double ac = quadrics[f + 2] + quadrics[t + 2];
+         double ad = quadrics[f + 3] + quadrics[t + 3];
+         double b2 = quadrics[f + 4] + quadrics[t + 4];
+         double bc = quadrics[f + 5] + quadrics[t + 5];
+         double bd = quadrics[f + 6] + quadrics[t + 6];
+         double c2 = quadrics[f + 7] + quadrics[t + 7];
+         double cd = quadrics[f + 8] + quadrics[t + 8];
+         double d2 = quadrics[f + 9] + quadrics[t + 9];
+         return a2 * x * x + 2.0 * ab * x * y + 2.0 * ac * x * z + 2.0 * ad * x + b2 * y * y + 2.0 * bc * y * z + 2.0 * bd * y + c2 * z * z + 2.0 * cd * z
+               + d2;
+      }
+
+      private boolean isCollapseValid(int from, int to)
+      {
+         TIntArrayList adjacentTriangles = vertexTriangles[from];
+
+         for (int i = 0; i < adjacentTriangles.size(); i++)
+         {
+            int t = adjacentTriangles.get(i);
+            int v0 = triangles[3 * t], v1 = triangles[3 * t + 1], v2 = triangles[3 * t + 2];
+
+            if (v0 == to || v1 == to || v2 == to)
+               continue; // This triangle disappears with the collapse.
+
+            Point3D32 p0 = vertices[v0], p1 = vertices[v1], p2 = vertices[v2];
+            Point3D32 q0 = v0 == from ? vertices[to] : p0;
+            Point3D32 q1 = v1 == from ? vertices[to] : p1;
+            Point3D32 q2 = v2 == from ? vertices[to] : p2;
+
+            double oldNx = normalX(p0, p1, p2), oldNy = normalY(p0, p1, p2), oldNz = normalZ(p0, p1, p2);
+            double newNx = normalX(q0, q1, q2), newNy = normalY(q0, q1, q2), newNz = normalZ(q0, q1, q2);
+            double oldNorm = Math.sqrt(oldNx * oldNx + oldNy * oldNy + oldNz * oldNz);
+            double newNorm = Math.sqrt(newNx * newNx + newNy * newNy + newNz * newNz);
+
+            if (newNorm == 0.0)
+               return false;
+            if (oldNorm != 0.0 && (oldNx * newNx + oldNy * newNy + oldNz * newNz) / (oldNorm * newNorm) < FLIP_DOT_THRESHOLD)
+               return false;
+         }
+
+         return true;
+      }
+
+      /**
+       * Checks that the vertices adjacent to both ends of the edge are only the vertices opposite to
+       * the edge in the triangles sharing it. Otherwise, the collapse would merge two distinct edges
+       * into a non-manifold one.
+       */
+      private boolean satisfiesLinkCondition(int from, int to)
+      {
+         fromNeighbors.resetQuick();
+         oppositeVertices.resetQuick();
+         TIntArrayList fromTriangles = vertexTriangles[from];
+
+         for (int i = 0; i < fromTriangles.size(); i++)
+         {
+            int t = fromTriangles.get(i);
+            boolean isSharedWithTo = containsVertex(t, to);
+
+            for (int j = 0; j < 3; j++)
+            {
+               int v = triangles[3 * t + j];
+               if (v == from || v == to)
+                  continue;
+               if (isSharedWithTo)
+                  oppositeVertices.add(v);
+               else if (!fromNeighbors.contains(v))
+                  fromNeighbors.add(v);
+            }
+         }
+
+         TIntArrayList toTriangles = vertexTriangles[to];
+
+         for (int i = 0; i < toTriangles.size(); i++)
+         {
+            int t = toTriangles.get(i);
+            if (containsVertex(t, from))
+               continue;
+
+            for (int j = 0; j < 3; j++)
+            {
+               int v = triangles[3 * t + j];
+               if (v != to && fromNeighbors.contains(v) && !oppositeVertices.contains(v))
+                  return false;
+            }
+         }
+
+         return true;
+      }
+
+      /**
+       * Checks whether a triangle of {@code from} would become identical to a triangle of {@code to}
+       * after the collapse, as when collapsing an edge of a tetrahedron.
+       */
+      private boolean createsDuplicateTriangle(int from, int to)
+      {
+         TIntArrayList fromTriangles = vertexTriangles[from];
+         TIntArrayList toTriangles = vertexTriangles[to];
+
+         for (int i = 0; i < fromTriangles.size(); i++)
+         {
+            int t = fromTriangles.get(i);
+            if (containsVertex(t, to))
+               continue;
+
+            int a = -1, b = -1;
+            for (int j = 0; j < 3; j++)
+            {
+               int v = triangles[3 * t + j];
+               if (v == from)
+                  continue;
+               if (a == -1)
+                  a = v;
+               else
+                  b = v;
+            }
+
+            for (int k = 0; k < toTriangles.size(); k++)
+            {
+               int other = toTriangles.get(k);
+               if (containsVertex(other, a) && containsVertex(other, b))
+                  return true;
+            }
+         }
+
+         return false;
+      }
+
+      private boolean containsVertex(int triangle, int vertex)
+      {
+         return triangles[3 * triangle] == vertex || triangles[3 * triangle + 1] == vertex || triangles[3 * triangle + 2] == vertex;
+      }
+
+      private void performCollapse(int from, int to)
+      {
+         TIntArrayList fromTriangles = vertexTriangles[from];
+
+         for (int i = 0; i < fromTriangles.size(); i++)
+         {
+            int t = fromTriangles.get(i);
+            int v0 = triangles[3 * t], v1 = triangles[3 * t + 1], v2 = triangles[3 * t + 2];
+
+            if (v0 == to || v1 == to || v2 == to)
+            {
+               triangleRemoved[t] = true;
+               numberOfTriangles--;
+               for (int j = 0; j < 3; j++)
+               {
+                  int v = triangles[3 * t + j];
+                  if (v != from)
+                     vertexTriangles[v].remove(t);
+               }
+            }
+            else
+            {
+               for (int j = 0; j < 3; j++)
+               {
+                  if (triangles[3 * t + j] == from)
+                     triangles[3 * t + j] = to;
+               }
+               vertexTriangles[to].add(t);
+            }
+         }
+
+         fromTriangles.clear();
+         vertexRemoved[from] = true;
+
+         for (int k = 0; k < 10; k++)
+            quadrics[10 * to + k] += quadrics[10 * from + k];
+
+         vertexVersion[to]++;
+         pushCollapses(to);
+      }
+
+      private MeshDataHolder createResult()
+      {
+         int[] newIndices = new int[vertices.length];
+         Arrays.fill(newIndices, -1);
+         List<Point3D32> newVertices = new ArrayList<>();
+         List<TexCoord2f> newTexturePoints = new ArrayList<>();
+         List<Vector3D32> newVertexNormals = new ArrayList<>();
+         int[] newTriangles = new int[3 * numberOfTriangles];
+         int index = 0;
+
+         for (int t = 0; t < triangleRemoved.length; t++)
+         {
+            if (triangleRemoved[t])
+               continue;
+
+            for (int j = 0; j < 3; j++)
+            {
+               int v = triangles[3 * t + j];
+
+               if (newIndices[v] == -1)
+               {
+                  newIndices[v] = newVertices.size();
+                  newVertices.add(new Point3D32(vertices[v]));
+                  newTexturePoints.add(new TexCoord2f(texturePoints[v]));
+                  newVertexNormals.add(new Vector3D32(vertexNormals[v]));
+               }
+               newTriangles[index++] = newIndices[v];
+            }
+         }
+
+         MeshDataHolder output = new MeshDataHolder(newVertices.toArray(new Point3D32[0]),
+                                                    newTexturePoints.toArray(new TexCoord2f[0]),
+                                                    newTriangles,
+                                                    newVertexNormals.toArray(new Vector3D32[0]));
+         output.setName(name);
+         return output;
+      }
+
+      private static double normalX(Point3D32 p0, Point3D32 p1, Point3D32 p2)
+      {
+         return (p1.getY() - p0.getY()) * (p2.getZ() - p0.getZ()) - (p1.getZ() - p0.getZ()) * (p2.getY() - p0.getY());
+      }
+
+      private static double normalY(Point3D32 p0, Point3D32 p1, Point3D32 p2)
+      {
+         return (p1.getZ() - p0.getZ()) * (p2.getX() - p0.getX()) - (p1.getX() - p0.getX()) * (p2.getZ() - p0.getZ());
+      }
+
+      private static double normalZ(Point3D32 p0, Point3D32 p1, Point3D32 p2)
+      {
+         return (p1.getX() - p0.getX()) * (p2.getY() - p0.getY()) - (p1.getY() - p0.getY()) * (p2.getX() - p0.getX());
+      }
+   }
+
+   private static class Collapse implements Comparable<Collapse>
+   {
+      private final int from;
+      private final int to;
+      private final double cost;
+      private final int fromVersion;
+      private final int toVersion;
+
+      private Collapse(int from, int to, double cost, int fromVersion, int toVersion)
+      {
+         this.from = from;
+         this.to = to;
+         this.cost = cost;
+         this.fromVersion = fromVersion;
+         this.toVersion = toVersion;
+      }
+
+      @Override
+      public int compareTo(Collapse other)
+      {
+         return Double.compare(cost, other.cost);
+      }
+   }
+}
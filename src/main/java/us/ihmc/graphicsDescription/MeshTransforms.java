@@ -0,0 +1,288 @@
+package us.ihmc.graphicsDescription;
+
+import us.ihmc.euclid.matrix.RotationMatrix;
+import us.ihmc.euclid.matrix.interfaces.LinearTransform3DReadOnly;
+import us.ihmc.euclid.matrix.interfaces.RotationMatrixReadOnly;
+import us.ihmc.euclid.orientation.interfaces.Orientation3DReadOnly;
+import us.ihmc.euclid.transform.interfaces.AffineTransformReadOnly;
+import us.ihmc.euclid.transform.interfaces.RigidBodyTransformReadOnly;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Bulk transformation of vertices, vectors, and normals.
+ * <p>
+ * The transform is first packed into a float array of {@value #MATRIX_SIZE} elements holding the
+ * 3-by-4 affine matrix row by row: {@code [m00, m01, m02, tx, m10, m11, m12, ty, m20, m21, m22, tz]},
+ * which is the same layout as the instance transforms of
+ * {@link us.ihmc.graphicsDescription.instructions.Graphics3DAddInstancedMeshInstruction}. The
+ * kernels then go through the data in a single loop with the matrix held in local variables,
+ * avoiding the virtual calls and the conversions to double of transforming one tuple at a time.
+ * </p>
+ * <p>
+ * The kernels operating on packed arrays expect 3 floats per element, as used in
+ * {@link PackedMeshDataHolder}, and accept the same array as input and output.
+ * </p>
+ * <p>
+ * The transform is rounded to {@code float} when packed and the kernels compute in {@code float},
+ * whereas transforming a {@code Point3D32} through the {@code Transform} interface computes in
+ * {@code double} and rounds once. The results can therefore differ in the last bits, the difference
+ * becoming noticeable for translations that are large compared to the mesh, in which case the
+ * vertices should be transformed one at a time.
+ * </p>
+ */
+public class MeshTransforms
+{
+   /** Number of floats used to store a transform. */
+   public static final int MATRIX_SIZE = 12;
+
+   private MeshTransforms()
+   {
+      // Prevent an object being generated.
+   }
+
+   /**
+    * Packs the given rigid-body transform.
+    *
+    * @param transform    the transform to pack. Not modified.
+    * @param matrixToPack the array in which the transform is stored. Modified.
+    */
+   public static void packMatrix(RigidBodyTransformReadOnly transform, float[] matrixToPack)
+   {
+      RotationMatrixReadOnly rotation = toRotationMatrix(transform.getRotation());
+      packMatrix(rotation.getM00(), rotation.getM01(), rotation.getM02(),
+                 rotation.getM10(), rotation.getM11(), rotation.getM12(),
+                 rotation.getM20(), rotation.getM21(), rotation.getM22(),
+                 transform.getTranslationX(), transform.getTranslationY(), transform.getTranslationZ(), matrixToPack);
+   }
+
+   /**
+    * Packs the inverse of the given rigid-body transform.
+    *
+    * @param transform    the transform to pack the inverse of. Not modified.
+    * @param matrixToPack the array in which the inverse transform is stored. Modified.
+    */
+   public static void packInverseMatrix(RigidBodyTransformReadOnly transform, float[] matrixToPack)
+   {
+      RotationMatrixReadOnly rotation = toRotationMatrix(transform.getRotation());
+      double x = transform.getTranslationX(), y = transform.getTranslationY(), z = transform.getTranslationZ();
+      // The inverse is: [R^T, -R^T t]
+      packMatrix(rotation.getM00(), rotation.getM10(), rotation.getM20(),
+                 rotation.getM01(), rotation.getM11(), rotation.getM21(),
+                 rotation.getM02(), rotation.getM12(), rotation.getM22(),
+                 -(rotation.getM00() * x + rotation.getM10() * y + rotation.getM20() * z),
+                 -(rotation.getM01() * x + rotation.getM11() * y + rotation.getM21() * z),
+                 -(rotation.getM02() * x + rotation.getM12() * y + rotation.getM22() * z),
+                 matrixToPack);
+   }
+
+   /**
+    * Packs the given affine transform.
+    *
+    * @param transform    the transform to pack. Not modified.
+    * @param matrixToPack the array in which the transform is stored. Modified.
+    */
+   public static void packMatrix(AffineTransformReadOnly transform, float[] matrixToPack)
+   {
+      LinearTransform3DReadOnly linear = transform.getLinearTransform();
+      Vector3DReadOnly translation = transform.getTranslation();
+      packMatrix(linear.getM00(), linear.getM01(), linear.getM02(),
+                 linear.getM10(), linear.getM11(), linear.getM12(),
+                 linear.getM20(), linear.getM21(), linear.getM22(),
+                 translation.getX(), translation.getY(), translation.getZ(), matrixToPack);
+   }
+
+   private static RotationMatrixReadOnly toRotationMatrix(Orientation3DReadOnly orientation)
+   {
+      if (orientation instanceof RotationMatrixReadOnly)
+         return (RotationMatrixReadOnly) orientation;
+      else
+         return new RotationMatrix(orientation);
+   }
+
+   private static void packMatrix(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22, double tx,
+                                  double ty, double tz, float[] matrixToPack)
+   {
+      matrixToPack[0] = (float) m00;
+      matrixToPack[1] = (float) m01;
+      matrixToPack[2] = (float) m02;
+      matrixToPack[3] = (float) tx;
+      matrixToPack[4] = (float) m10;
+      matrixToPack[5] = (float) m11;
+      matrixToPack[6] = (float) m12;
+      matrixToPack[7] = (float) ty;
+      matrixToPack[8] = (float) m20;
+      matrixToPack[9] = (float) m21;
+      matrixToPack[10] = (float) m22;
+      matrixToPack[11] = (float) tz;
+   }
+
+   /**
+    * Computes the matrix to use for transforming normals, i.e. the inverse-transpose of the linear
+    * part of the given matrix, up to a scale factor.
+    * <p>
+    * The cofactor matrix is used, it is defined even when the matrix is singular and differs from the
+    * inverse-transpose only by the determinant. Its sign is accounted for here, its magnitude is
+    * removed when normalizing the normals. For a rigid-body transform, it is equal to the rotation
+    * matrix.
+    * </p>
+    *
+    * @param matrix             the packed transform. Not modified.
+    * @param normalMatrixToPack the packed normal matrix, its translation part is set to zero.
+    *                           Modified.
+    */
+   public static void computeNormalMatrix(float[] matrix, float[] normalMatrixToPack)
+   {
+      float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2];
+      float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6];
+      float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10];
+
+      float c00 = m11 * m22 - m12 * m21, c01 = m12 * m20 - m10 * m22, c02 = m10 * m21 - m11 * m20;
+      float c10 = m02 * m21 - m01 * m22, c11 = m00 * m22 - m02 * m20, c12 = m01 * m20 - m00 * m21;
+      float c20 = m01 * m12 - m02 * m11, c21 = m02 * m10 - m00 * m12, c22 = m00 * m11 - m01 * m10;
+      // A negative determinant, i.e. a mirroring, flips the cofactor matrix with respect to the inverse-transpose.
+      float sign = m00 * c00 + m01 * c01 + m02 * c02 < 0.0f ? -1.0f : 1.0f;
+
+      normalMatrixToPack[0] = sign * c00;
+      normalMatrixToPack[1] = sign * c01;
+      normalMatrixToPack[2] = sign * c02;
+      normalMatrixToPack[3] = 0.0f;
+      normalMatrixToPack[4] = sign * c10;
+      normalMatrixToPack[5] = sign * c11;
+      normalMatrixToPack[6] = sign * c12;
+      normalMatrixToPack[7] = 0.0f;
+      normalMatrixToPack[8] = sign * c20;
+      normalMatrixToPack[9] = sign * c21;
+      normalMatrixToPack[10] = sign * c22;
+      normalMatrixToPack[11] = 0.0f;
+   }
+
+   /**
+    * Transforms packed points, i.e. applies the linear part and the translation.
+    *
+    * @param matrix           the packed transform. Not modified.
+    * @param source           the packed coordinates to transform. Not modified unless same as
+    *                         {@code destination}.
+    * @param destination      the packed transformed coordinates. Modified.
+    * @param numberOfElements the number of points to transform.
+    */
+   public static void transformPoints(float[] matrix, float[] source, float[] destination, int numberOfElements)
+   {
+      float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2], tx = matrix[3];
+      float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6], ty = matrix[7];
+      float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10], tz = matrix[11];
+
+      for (int i = 0, end = 3 * numberOfElements; i < end; i += 3)
+      {
+         float x = source[i], y = source[i + 1], z = source[i + 2];
+         destination[i] = m00 * x + m01 * y + m02 * z + tx;
+         destination[i + 1] = m10 * x + m11 * y + m12 * z + ty;
+         destination[i + 2] = m20 * x + m21 * y + m22 * z + tz;
+      }
+   }
+
+   /**
+    * Transforms packed vectors, i.e. applies only the linear part.
+    *
+    * @param matrix           the packed transform. Not modified.
+    * @param source           the packed coordinates to transform. Not modified unless same as
+    *                         {@code destination}.
+    * @param destination      the packed transformed coordinates. Modified.
+    * @param numberOfElements the number of vectors to transform.
+    */
+   public static void transformVectors(float[] matrix, float[] source, float[] destination, int numberOfElements)
+   {
+      float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2];
+      float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6];
+      float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10];
+
+      for (int i = 0, end = 3 * numberOfElements; i < end; i += 3)
+      {
+         float x = source[i], y = source[i + 1], z = source[i + 2];
+         destination[i] = m00 * x + m01 * y + m02 * z;
+         destination[i + 1] = m10 * x + m11 * y + m12 * z;
+         destination[i + 2] = m20 * x + m21 * y + m22 * z;
+      }
+   }
+
+   /**
+    * Transforms packed normals with the given normal matrix and normalizes the result.
+    *
+    * @param normalMatrix     the packed normal matrix as computed with
+    *                         {@link #computeNormalMatrix(float[], float[])}. Not modified.
+    * @param source           the packed normals to transform. Not modified unless same as
+    *                         {@code destination}.
+    * @param destination      the packed transformed normals. Modified.
+    * @param numberOfElements the number of normals to transform.
+    */
+   public static void transformNormals(float[] normalMatrix, float[] source, float[] destination, int numberOfElements)
+   {
+      float m00 = normalMatrix[0], m01 = normalMatrix[1], m02 = normalMatrix[2];
+      float m10 = normalMatrix[4], m11 = normalMatrix[5], m12 = normalMatrix[6];
+      float m20 = normalMatrix[8], m21 = normalMatrix[9], m22 = normalMatrix[10];
+
+      for (int i = 0, end = 3 * numberOfElements; i < end; i += 3)
+      {
+         float x = source[i], y = source[i + 1], z = source[i + 2];
+         float nx = m00 * x + m01 * y + m02 * z;
+         float ny = m10 * x + m11 * y + m12 * z;
+         float nz = m20 * x + m21 * y + m22 * z;
+         float lengthSquared = nx * nx + ny * ny + nz * nz;
+
+         if (lengthSquared > 0.0f)
+         {
+            float inverseLength = (float) (1.0 / Math.sqrt(lengthSquared));
+            nx *= inverseLength;
+            ny *= inverseLength;
+            nz *= inverseLength;
+         }
+
+         destination[i] = nx;
+         destination[i + 1] = ny;
+         destination[i + 2] = nz;
+      }
+   }
+
+   /**
+    * Transforms points in place, i.e. applies the linear part and the translation.
+    *
+    * @param matrix the packed transform. Not modified.
+    * @param points the points to transform. Modified.
+    */
+   public static void transformPoints(float[] matrix, Point3D32[] points)
+   {
+      float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2], tx = matrix[3];
+      float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6], ty = matrix[7];
+      float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10], tz = matrix[11];
+
+      for (Point3D32 point : points)
+      {
+         float x = point.getX32(), y = point.getY32(), z = point.getZ32();
+         point.setX(m00 * x + m01 * y + m02 * z + tx);
+         point.setY(m10 * x + m11 * y + m12 * z + ty);
+         point.setZ(m20 * x + m21 * y + m22 * z + tz);
+      }
+   }
+
+   /**
+    * Transforms vectors in place, i.e. applies only the linear part.
+    *
+    * @param matrix  the packed transform. Not modified.
+    * @param vectors the vectors to transform. Modified.
+    */
+   public static void transformVectors(float[] matrix, Vector3D32[] vectors)
+   {
+      float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2];
+      float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6];
+      float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10];
+
+      for (Vector3D32 vector : vectors)
+      {
+         float x = vector.getX32(), y = vector.getY32(), z = vector.getZ32();
+         vector.setX(m00 * x + m01 * y + m02 * z);
+         vector.setY(m10 * x + m11 * y + m12 * z);
+         vector.setZ(m20 * x + m21 * y + m22 * z);
+      }
+   }
+}
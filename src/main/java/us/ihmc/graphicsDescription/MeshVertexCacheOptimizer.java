@@ -0,0 +1,431 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.Arrays;
+
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+/**
+ * Reorders the triangles of a mesh to improve the reuse of the post-transform vertex cache of the
+ * GPU, using Tom Forsyth's linear-speed vertex cache optimization.
+ * <p>
+ * The triangles are greedily emitted by picking, among the triangles using the vertices of a
+ * simulated LRU cache, the one with the highest score. The score of a vertex favors the vertices
+ * that were recently used and the vertices with few remaining triangles, such that the fans around
+ * a vertex are completed before it is evicted from the cache. The optimization runs in time linear
+ * in the number of triangles.
+ * </p>
+ * <p>
+ * Optionally, the vertices are then reordered by first use, which improves the locality of the
+ * vertex fetches. The average cache miss ratio (ACMR), i.e. the number of vertex transformations
+ * per triangle, is measured before and after the optimization with a FIFO cache which size can be
+ * configured.
+ * </p>
+ * <p>
+ * This class is not thread-safe, a separate instance should be used per thread.
+ * </p>
+ */
+public class MeshVertexCacheOptimizer
+{
+   /** Default size of the FIFO cache used to compute the ACMR. */
+   public static final int DEFAULT_ACMR_CACHE_SIZE = 16;
+
+   private static final int MAX_CACHE_SIZE = 32;
+   private static final double CACHE_DECAY_POWER = 1.5;
+   private static final double LAST_TRIANGLE_SCORE = 0.75;
+   private static final double VALENCE_BOOST_SCALE = 2.0;
+   private static final double VALENCE_BOOST_POWER = 0.5;
+   private static final int VALENCE_BOOST_TABLE_SIZE = 64;
+
+   private static final double[] CACHE_POSITION_SCORES = new double[MAX_CACHE_SIZE];
+   private static final double[] VALENCE_BOOST_SCORES = new double[VALENCE_BOOST_TABLE_SIZE];
+
+   static
+   {
+      for (int cachePosition = 0; cachePosition < MAX_CACHE_SIZE; cachePosition++)
+      {
+         if (cachePosition < 3)
+         { // The vertices of the last triangle get a fixed score to avoid favoring strips going back and forth.
+            CACHE_POSITION_SCORES[cachePosition] = LAST_TRIANGLE_SCORE;
+         }
+         else
+         {
+            double scaler = 1.0 / (MAX_CACHE_SIZE - 3);
+            CACHE_POSITION_SCORES[cachePosition] = Math.pow(1.0 - (cachePosition - 3) * scaler, CACHE_DECAY_POWER);
+         }
+      }
+
+      for (int valence = 1; valence < VALENCE_BOOST_TABLE_SIZE; valence++)
+         VALENCE_BOOST_SCORES[valence] = computeValenceBoost(valence);
+   }
+
+   private boolean optimizeVertexFetch = true;
+   private int acmrCacheSize = DEFAULT_ACMR_CACHE_SIZE;
+
+   private double acmrBefore = Double.NaN;
+   private double acmrAfter = Double.NaN;
+
+   private int[] triangleOffsets = new int[0];
+   private int[] vertexTriangles = new int[0];
+   private int[] remainingTriangles = new int[0];
+   private int[] cachePositions = new int[0];
+   private double[] vertexScores = new double[0];
+   private double[] triangleScores = new double[0];
+   private boolean[] triangleEmitted = new boolean[0];
+   private final int[] cache = new int[MAX_CACHE_SIZE + 3];
+   private final int[] newCache = new int[MAX_CACHE_SIZE + 3];
+
+   public MeshVertexCacheOptimizer()
+   {
+   }
+
+   /**
+    * Sets whether the vertices should also be reordered by first use after reordering the
+    * triangles. Default value is {@code true}.
+    *
+    * @param optimizeVertexFetch whether to reorder the vertices.
+    */
+   public void setOptimizeVertexFetch(boolean optimizeVertexFetch)
+   {
+      this.optimizeVertexFetch = optimizeVertexFetch;
+   }
+
+   /**
+    * Sets the size of the FIFO cache used to compute the ACMR before and after the optimization.
+    * Default value is {@value #DEFAULT_ACMR_CACHE_SIZE}.
+    *
+    * @param acmrCacheSize the number of vertices in the cache.
+    */
+   public void setACMRCacheSize(int acmrCacheSize)
+   {
+      this.acmrCacheSize = acmrCacheSize;
+   }
+
+   /**
+    * Creates a copy of the given mesh with its triangles, and optionally its vertices, reordered.
+    *
+    * @param input the mesh to optimize. Not modified.
+    * @return the optimized mesh.
+    */
+   public MeshDataHolder optimize(MeshDataHolder input)
+   {
+      int numberOfVertices = input.getVertices().length;
+      int[] triangleIndices = input.getTriangleIndices().clone();
+      optimizeTriangleOrder(triangleIndices, numberOfVertices);
+
+      Point3D32[] vertices = new Point3D32[numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+      Vector3D32[] vertexNormals = new Vector3D32[numberOfVertices];
+      int[] newToOldVertex = optimizeVertexFetch ? computeVertexFetchOrder(triangleIndices, numberOfVertices) : null;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         int oldIndex = newToOldVertex == null ? i : newToOldVertex[i];
+         vertices[i] = new Point3D32(input.getVertices()[oldIndex]);
+         texturePoints[i] = new TexCoord2f(input.getTexturePoints()[oldIndex]);
+         vertexNormals[i] = new Vector3D32(input.getVertexNormals()[oldIndex]);
+      }
+
+      MeshDataHolder output = new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Reorders in place the triangles, and optionally the vertices, of the given packed mesh.
+    *
+    * @param mesh the mesh to optimize. Modified.
+    */
+   public void optimize(PackedMeshDataHolder mesh)
+   {
+      int numberOfVertices = mesh.getNumberOfVertices();
+      int[] triangleIndices = mesh.getTriangleIndices();
+      optimizeTriangleOrder(triangleIndices, numberOfVertices);
+
+      if (!optimizeVertexFetch)
+         return;
+
+      int[] newToOldVertex = computeVertexFetchOrder(triangleIndices, numberOfVertices);
+      permute(mesh.getVertexCoordinates(), newToOldVertex, 3);
+      permute(mesh.getVertexNormalCoordinates(), newToOldVertex, 3);
+      permute(mesh.getTexturePointCoordinates(), newToOldVertex, 2);
+   }
+
+   private static void permute(float[] values, int[] newToOldVertex, int stride)
+   {
+      float[] original = values.clone();
+      for (int i = 0; i < newToOldVertex.length; i++)
+         System.arraycopy(original, stride * newToOldVertex[i], values, stride * i, stride);
+   }
+
+   /**
+    * Reorders the vertices by first use in the given triangles, and remaps the triangle indices
+    * accordingly. Vertices that are not used by any triangle are moved to the end.
+    *
+    * @param triangleIndices  the triangle indices to remap. Modified.
+    * @param numberOfVertices the number of vertices of the mesh.
+    * @return the new vertex order: the element {@code i} is the former index of the vertex now at the
+    *         index {@code i}.
+    */
+   public static int[] computeVertexFetchOrder(int[] triangleIndices, int numberOfVertices)
+   {
+      int[] oldToNewVertex = new int[numberOfVertices];
+      int[] newToOldVertex = new int[numberOfVertices];
+      Arrays.fill(oldToNewVertex, -1);
+      int numberOfUsedVertices = 0;
+
+      for (int i = 0; i < triangleIndices.length; i++)
+      {
+         int oldIndex = triangleIndices[i];
+
+         if (oldToNewVertex[oldIndex] == -1)
+         {
+            oldToNewVertex[oldIndex] = numberOfUsedVertices;
+            newToOldVertex[numberOfUsedVertices] = oldIndex;
+            numberOfUsedVertices++;
+         }
+         triangleIndices[i] = oldToNewVertex[oldIndex];
+      }
+
+      for (int oldIndex = 0; oldIndex < numberOfVertices; oldIndex++)
+      {
+         if (oldToNewVertex[oldIndex] == -1)
+            newToOldVertex[numberOfUsedVertices++] = oldIndex;
+      }
+
+      return newToOldVertex;
+   }
+
+   /**
+    * Reorders in place the triangles described by the given indices. The vertices are not modified.
+    *
+    * @param triangleIndices  the triangle indices to reorder. Modified.
+    * @param numberOfVertices the number of vertices of the mesh.
+    */
+   public void optimizeTriangleOrder(int[] triangleIndices, int numberOfVertices)
+   {
+      int numberOfTriangles = triangleIndices.length / 3;
+      acmrBefore = computeACMR(triangleIndices, numberOfVertices, acmrCacheSize);
+
+      if (numberOfTriangles == 0)
+      {
+         acmrAfter = acmrBefore;
+         return;
+      }
+
+      buildAdjacency(triangleIndices, numberOfVertices, numberOfTriangles);
+
+      int[] output = new int[3 * numberOfTriangles];
+      int cacheSize = 0;
+      int nextTriangleToScan = 0;
+      int bestTriangle = -1;
+
+      for (int emitted = 0; emitted < numberOfTriangles; emitted++)
+      {
+         if (bestTriangle == -1)
+         { // The cache does not give any candidate, taking the next triangle in input order.
+            while (triangleEmitted[nextTriangleToScan])
+               nextTriangleToScan++;
+            bestTriangle = nextTriangleToScan;
+         }
+
+         int triangle = bestTriangle;
+         triangleEmitted[triangle] = true;
+         System.arraycopy(triangleIndices, 3 * triangle, output, 3 * emitted, 3);
+
+         // The vertices of the emitted triangle move to the front of the LRU cache.
+         int newCacheSize = 0;
+         for (int j = 0; j < 3; j++)
+         {
+            int vertex = triangleIndices[3 * triangle + j];
+            if (!contains(newCache, newCacheSize, vertex))
+               newCache[newCacheSize++] = vertex;
+            removeTriangleFromVertex(vertex, triangle);
+         }
+         for (int i = 0; i < cacheSize; i++)
+         {
+            if (!contains(newCache, newCacheSize, cache[i]))
+               newCache[newCacheSize++] = cache[i];
+         }
+
+         for (int i = 0; i < newCacheSize; i++)
+         {
+            cache[i] = newCache[i];
+            cachePositions[newCache[i]] = i < MAX_CACHE_SIZE ? i : -1;
+         }
+         cacheSize = Math.min(newCacheSize, MAX_CACHE_SIZE);
+
+         // Updates the scores of the vertices in the cache, including the ones just evicted, and finds the next best triangle.
+         bestTriangle = -1;
+         double bestScore = -1.0;
+
+         for (int i = 0; i < newCacheSize; i++)
+         {
+            int vertex = cache[i];
+            double newScore = computeVertexScore(cachePositions[vertex], remainingTriangles[vertex]);
+            double scoreChange = newScore - vertexScores[vertex];
+            vertexScores[vertex] = newScore;
+
+            for (int k = triangleOffsets[vertex]; k < triangleOffsets[vertex] + remainingTriangles[vertex]; k++)
+            {
+               int adjacentTriangle = vertexTriangles[k];
+               triangleScores[adjacentTriangle] += scoreChange;
+
+               if (i < cacheSize && triangleScores[adjacentTriangle] > bestScore)
+               {
+                  bestScore = triangleScores[adjacentTriangle];
+                  bestTriangle = adjacentTriangle;
+               }
+            }
+         }
+      }
+
+      System.arraycopy(output, 0, triangleIndices, 0, output.length);
+      acmrAfter = computeACMR(triangleIndices, numberOfVertices, acmrCacheSize);
+   }
+
+   private void buildAdjacency(int[] triangleIndices, int numberOfVertices, int numberOfTriangles)
+   {
+      if (remainingTriangles.length < numberOfVertices)
+      {
+         triangleOffsets = new int[numberOfVertices + 1];
+         remainingTriangles = new int[numberOfVertices];
+         cachePositions = new int[numberOfVertices];
+         vertexScores = new double[numberOfVertices];
+      }
+      if (triangleEmitted.length < numberOfTriangles)
+      {
+         vertexTriangles = new int[3 * numberOfTriangles];
+         triangleScores = new double[numberOfTriangles];
+         triangleEmitted = new boolean[numberOfTriangles];
+      }
+
+      Arrays.fill(remainingTriangles, 0, numberOfVertices, 0);
+      Arrays.fill(cachePositions, 0, numberOfVertices, -1);
+      Arrays.fill(triangleEmitted, 0, numberOfTriangles, false);
+
+      for (int i = 0; i < 3 * numberOfTriangles; i++)
+         remainingTriangles[triangleIndices[i]]++;
+
+      triangleOffsets[0] = 0;
+      for (int vertex = 0; vertex < numberOfVertices; vertex++)
+         triangleOffsets[vertex + 1] = triangleOffsets[vertex] + remainingTriangles[vertex];
+
+      Arrays.fill(remainingTriangles, 0, numberOfVertices, 0);
+      for (int triangle = 0; triangle < numberOfTriangles; triangle++)
+      {
+         for (int j = 0; j < 3; j++)
+         {
+            int vertex = triangleIndices[3 * triangle + j];
+            vertexTriangles[triangleOffsets[vertex] + remainingTriangles[vertex]++] = triangle;
+         }
+      }
+
+      for (int vertex = 0; vertex < numberOfVertices; vertex++)
+         vertexScores[vertex] = computeVertexScore(-1, remainingTriangles[vertex]);
+
+      for (int triangle = 0; triangle < numberOfTriangles; triangle++)
+      {
+         triangleScores[triangle] = vertexScores[triangleIndices[3 * triangle]] + vertexScores[triangleIndices[3 * triangle + 1]]
+               + vertexScores[triangleIndices[3 * triangle + 2]];
+      }
+   }
+
+   private void removeTriangleFromVertex(int vertex, int triangle)
+   {
+      int start = triangleOffsets[vertex];
+      int end = start + remainingTriangles[vertex];
+
+      for (int k = start; k < end; k++)
+      {
+         if (vertexTriangles[k] == triangle)
+         {
+            vertexTriangles[k] = vertexTriangles[end - 1];
+            vertexTriangles[end - 1] = triangle;
+            remainingTriangles[vertex]--;
+            return;
+         }
+      }
+   }
+
+   private static boolean contains(int[] array, int size, int value)
+   {
+      for (int i = 0; i < size; i++)
+      {
+         if (array[i] == value)
+            return true;
+      }
+      return false;
+   }
+
+   private static double computeVertexScore(int cachePosition, int numberOfRemainingTriangles)
+   {
+      if (numberOfRemainingTriangles == 0)
+         return -1.0;
+
+      double score = cachePosition >= 0 ? CACHE_POSITION_SCORES[cachePosition] : 0.0;
+
+      if (numberOfRemainingTriangles < VALENCE_BOOST_TABLE_SIZE)
+         score += VALENCE_BOOST_SCORES[numberOfRemainingTriangles];
+      else
+         score += computeValenceBoost(numberOfRemainingTriangles);
+      return score;
+   }
+
+   private static double computeValenceBoost(int numberOfRemainingTriangles)
+   {
+      // Boosts the vertices with few remaining triangles to get rid of them.
+      return VALENCE_BOOST_SCALE * Math.pow(numberOfRemainingTriangles, -VALENCE_BOOST_POWER);
+   }
+
+   /**
+    * Computes the average cache miss ratio of the given triangles, i.e. the average number of vertex
+    * transformations per triangle, using a FIFO cache simulation. The values range from 0.5 for an
+    * ideal grid to 3 when no vertex is ever reused.
+    *
+    * @param triangleIndices  the triangle indices. Not modified.
+    * @param numberOfVertices the number of vertices of the mesh.
+    * @param cacheSize        the number of vertices in the cache.
+    * @return the ACMR, or {@code 0} if there is no triangle.
+    */
+   public static double computeACMR(int[] triangleIndices, int numberOfVertices, int cacheSize)
+   {
+      int numberOfTriangles = triangleIndices.length / 3;
+      if (numberOfTriangles == 0)
+         return 0.0;
+
+      // Each vertex stores the time it entered the cache, it is still in the cache if less than cacheSize misses happened since.
+      int[] timestamps = new int[numberOfVertices];
+      Arrays.fill(timestamps, Integer.MIN_VALUE);
+      int misses = 0;
+
+      for (int i = 0; i < 3 * numberOfTriangles; i++)
+      {
+         int vertex = triangleIndices[i];
+
+         if (timestamps[vertex] == Integer.MIN_VALUE || misses - timestamps[vertex] >= cacheSize)
+         {
+            timestamps[vertex] = misses;
+            misses++;
+         }
+      }
+
+      return (double) misses / numberOfTriangles;
+   }
+
+   /**
+    * @return the ACMR of the triangles before the last optimization.
+    */
+   public double getACMRBefore()
+   {
+      return acmrBefore;
+   }
+
+   /**
+    * @return the ACMR of the triangles after the last optimization.
+    */
+   public double getACMRAfter()
+   {
+      return acmrAfter;
+   }
+}
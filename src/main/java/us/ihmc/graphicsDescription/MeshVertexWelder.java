@@ -0,0 +1,296 @@
+package us.ihmc.graphicsDescription;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/**
+ * Merges the coincident vertices of a mesh, such as the ones duplicated along the seams of meshes
+ * combined with {@link MeshDataBuilder} or {@link MeshDataHolder#combine}.
+ * <p>
+ * Two vertices are merged when their positions, normals, and texture coordinates are all equal
+ * within their respective tolerance. The vertices are bucketed in a spatial hash grid which cell
+ * size is the position tolerance, such that a vertex only has to be compared against the vertices
+ * of the 27 neighboring cells and the operation runs in expected linear time. The merge is greedy:
+ * each vertex is compared to the vertices kept so far, in order, and is merged with the first one
+ * that matches.
+ * </p>
+ * <p>
+ * The triangle indices are remapped to the welded vertices and, optionally, the triangles that
+ * collapse because two of their vertices are merged are removed.
+ * </p>
+ * <p>
+ * This class is not thread-safe, a separate instance should be used per thread.
+ * </p>
+ */
+public class MeshVertexWelder
+{
+   /** Default maximum distance between two vertices to be merged. */
+   public static final double DEFAULT_POSITION_TOLERANCE = 1.0e-5;
+   /** Default maximum distance between the normals of two vertices to be merged. */
+   public static final double DEFAULT_NORMAL_TOLERANCE = 1.0e-3;
+   /** Default maximum difference between the texture coordinates of two vertices to be merged. */
+   public static final double DEFAULT_TEXTURE_TOLERANCE = 1.0e-4;
+
+   /** Cell size used when the position tolerance is zero, only exact matches are merged then. */
+   private static final double MINIMUM_CELL_SIZE = 1.0e-6;
+
+   private final double positionTolerance;
+   private final double normalTolerance;
+   private final double textureTolerance;
+   private final double invCellSize;
+   private boolean removeDegenerateTriangles = true;
+
+   private final TLongIntHashMap cellToFirstVertex = new TLongIntHashMap();
+   private int[] nextVertexInCell = new int[0];
+   private int[] weldedToInputVertex = new int[0];
+   private int[] inputToWeldedVertex = new int[0];
+
+   private int numberOfInputVertices = 0;
+   private int numberOfWeldedVertices = 0;
+   private int numberOfInputTriangles = 0;
+   private int numberOfWeldedTriangles = 0;
+
+   /**
+    * Creates a new welder using the default tolerances.
+    */
+   public MeshVertexWelder()
+   {
+      this(DEFAULT_POSITION_TOLERANCE, DEFAULT_NORMAL_TOLERANCE, DEFAULT_TEXTURE_TOLERANCE);
+   }
+
+   /**
+    * Creates a new welder.
+    *
+    * @param positionTolerance the maximum distance between two vertices to be merged.
+    * @param normalTolerance   the maximum distance between the normals of two vertices to be merged.
+    *                          Use {@link Double#POSITIVE_INFINITY} to ignore the normals.
+    * @param textureTolerance  the maximum difference on each texture coordinate of two vertices to be
+    *                          merged. Use {@link Double#POSITIVE_INFINITY} to ignore the texture
+    *                          coordinates.
+    * @throws IllegalArgumentException if any of the tolerances is negative.
+    */
+   public MeshVertexWelder(double positionTolerance, double normalTolerance, double textureTolerance)
+   {
+      if (positionTolerance < 0.0 || normalTolerance < 0.0 || textureTolerance < 0.0)
+         throw new IllegalArgumentException("The tolerances have to be positive, position: " + positionTolerance + ", normal: " + normalTolerance
+               + ", texture: " + textureTolerance);
+
+      this.positionTolerance = positionTolerance;
+      this.normalTolerance = normalTolerance;
+      this.textureTolerance = textureTolerance;
+      invCellSize = 1.0 / Math.max(positionTolerance, MINIMUM_CELL_SIZE);
+   }
+
+   /**
+    * Sets whether the triangles that have at least two identical vertices after welding should be
+    * removed. Default value is {@code true}.
+    *
+    * @param removeDegenerateTriangles whether to remove the collapsed triangles.
+    */
+   public void setRemoveDegenerateTriangles(boolean removeDegenerateTriangles)
+   {
+      this.removeDegenerateTriangles = removeDegenerateTriangles;
+   }
+
+   /**
+    * Welds the vertices of the given mesh.
+    *
+    * @param input the mesh to weld. Not modified.
+    * @return the new welded mesh.
+    */
+   public MeshDataHolder weld(MeshDataHolder input)
+   {
+      return weld(PackedMeshDataHolder.pack(input)).toMeshDataHolder();
+   }
+
+   /**
+    * Welds the vertices of the given packed mesh.
+    *
+    * @param input the mesh to weld. Not modified.
+    * @return the new welded mesh.
+    */
+   public PackedMeshDataHolder weld(PackedMeshDataHolder input)
+   {
+      float[] vertexCoordinates = input.getVertexCoordinates();
+      float[] vertexNormalCoordinates = input.getVertexNormalCoordinates();
+      float[] texturePointCoordinates = input.getTexturePointCoordinates();
+      int[] triangleIndices = input.getTriangleIndices();
+
+      computeVertexMapping(vertexCoordinates, vertexNormalCoordinates, texturePointCoordinates, input.getNumberOfVertices());
+
+      int[] weldedTriangleIndices = remapTriangleIndices(triangleIndices);
+      PackedMeshDataHolder output = new PackedMeshDataHolder(numberOfWeldedVertices, weldedTriangleIndices.length);
+
+      for (int weldedIndex = 0; weldedIndex < numberOfWeldedVertices; weldedIndex++)
+      {
+         int inputIndex = weldedToInputVertex[weldedIndex];
+         System.arraycopy(vertexCoordinates, 3 * inputIndex, output.getVertexCoordinates(), 3 * weldedIndex, 3);
+         System.arraycopy(vertexNormalCoordinates, 3 * inputIndex, output.getVertexNormalCoordinates(), 3 * weldedIndex, 3);
+         System.arraycopy(texturePointCoordinates, 2 * inputIndex, output.getTexturePointCoordinates(), 2 * weldedIndex, 2);
+      }
+      System.arraycopy(weldedTriangleIndices, 0, output.getTriangleIndices(), 0, weldedTriangleIndices.length);
+      output.setName(input.getName());
+      return output;
+   }
+
+   private void computeVertexMapping(float[] vertexCoordinates, float[] vertexNormalCoordinates, float[] texturePointCoordinates, int numberOfVertices)
+   {
+      if (inputToWeldedVertex.length < numberOfVertices)
+      {
+         inputToWeldedVertex = new int[numberOfVertices];
+         weldedToInputVertex = new int[numberOfVertices];
+         nextVertexInCell = new int[numberOfVertices];
+      }
+
+      cellToFirstVertex.clear();
+      cellToFirstVertex.ensureCapacity(numberOfVertices);
+      numberOfInputVertices = numberOfVertices;
+      numberOfWeldedVertices = 0;
+
+      for (int inputIndex = 0; inputIndex < numberOfVertices; inputIndex++)
+      {
+         long cellX = (long) Math.floor(vertexCoordinates[3 * inputIndex] * invCellSize);
+         long cellY = (long) Math.floor(vertexCoordinates[3 * inputIndex + 1] * invCellSize);
+         long cellZ = (long) Math.floor(vertexCoordinates[3 * inputIndex + 2] * invCellSize);
+
+         int match = -1;
+
+         search:
+         for (long x = cellX - 1; x <= cellX + 1; x++)
+         {
+            for (long y = cellY - 1; y <= cellY + 1; y++)
+            {
+               for (long z = cellZ - 1; z <= cellZ + 1; z++)
+               {
+                  long key = cellKey(x, y, z);
+                  if (!cellToFirstVertex.containsKey(key))
+                     continue;
+
+                  for (int weldedIndex = cellToFirstVertex.get(key); weldedIndex != -1; weldedIndex = nextVertexInCell[weldedIndex])
+                  {
+                     if (matches(vertexCoordinates, vertexNormalCoordinates, texturePointCoordinates, weldedToInputVertex[weldedIndex], inputIndex))
+                     {
+                        match = weldedIndex;
+                        break search;
+                     }
+                  }
+               }
+            }
+         }
+
+         if (match == -1)
+         {
+            match = numberOfWeldedVertices++;
+            weldedToInputVertex[match] = inputIndex;
+
+            long key = cellKey(cellX, cellY, cellZ);
+            nextVertexInCell[match] = cellToFirstVertex.containsKey(key) ? cellToFirstVertex.get(key) : -1;
+            cellToFirstVertex.put(key, match);
+         }
+
+         inputToWeldedVertex[inputIndex] = match;
+      }
+   }
+
+   private int[] remapTriangleIndices(int[] triangleIndices)
+   {
+      int[] weldedTriangleIndices = new int[triangleIndices.length];
+      int size = 0;
+
+      for (int i = 0; i + 2 < triangleIndices.length; i += 3)
+      {
+         int v0 = inputToWeldedVertex[triangleIndices[i]];
+         int v1 = inputToWeldedVertex[triangleIndices[i + 1]];
+         int v2 = inputToWeldedVertex[triangleIndices[i + 2]];
+
+         if (removeDegenerateTriangles && (v0 == v1 || v1 == v2 || v2 == v0))
+            continue;
+
+         weldedTriangleIndices[size++] = v0;
+         weldedTriangleIndices[size++] = v1;
+         weldedTriangleIndices[size++] = v2;
+      }
+
+      numberOfInputTriangles = triangleIndices.length / 3;
+      numberOfWeldedTriangles = size / 3;
+
+      if (size == weldedTriangleIndices.length)
+         return weldedTriangleIndices;
+
+      int[] trimmed = new int[size];
+      System.arraycopy(weldedTriangleIndices, 0, trimmed, 0, size);
+      return trimmed;
+   }
+
+   private boolean matches(float[] vertexCoordinates, float[] vertexNormalCoordinates, float[] texturePointCoordinates, int first, int second)
+   {
+      if (distanceSquared(vertexCoordinates, first, second) > positionTolerance * positionTolerance)
+         return false;
+      if (normalTolerance != Double.POSITIVE_INFINITY && distanceSquared(vertexNormalCoordinates, first, second) > normalTolerance * normalTolerance)
+         return false;
+      if (Math.abs(texturePointCoordinates[2 * first] - texturePointCoordinates[2 * second]) > textureTolerance)
+         return false;
+      if (Math.abs(texturePointCoordinates[2 * first + 1] - texturePointCoordinates[2 * second + 1]) > textureTolerance)
+         return false;
+      return true;
+   }
+
+   private static double distanceSquared(float[] coordinates, int first, int second)
+   {
+      double dx = coordinates[3 * first] - coordinates[3 * second];
+      double dy = coordinates[3 * first + 1] - coordinates[3 * second + 1];
+      double dz = coordinates[3 * first + 2] - coordinates[3 * second + 2];
+      return dx * dx + dy * dy + dz * dz;
+   }
+
+   private static long cellKey(long x, long y, long z)
+   {
+      // Collisions only merge chains of candidates, they do not affect the result.
+      return x * 73856093L ^ y * 19349663L ^ z * 83492791L;
+   }
+
+   /**
+    * @return the number of vertices of the mesh passed to the last call to {@code weld}.
+    */
+   public int getNumberOfInputVertices()
+   {
+      return numberOfInputVertices;
+   }
+
+   /**
+    * @return the number of vertices of the mesh resulting from the last call to {@code weld}.
+    */
+   public int getNumberOfWeldedVertices()
+   {
+      return numberOfWeldedVertices;
+   }
+
+   /**
+    * @return the number of triangles of the mesh passed to the last call to {@code weld}.
+    */
+   public int getNumberOfInputTriangles()
+   {
+      return numberOfInputTriangles;
+   }
+
+   /**
+    * @return the number of triangles of the mesh resulting from the last call to {@code weld}.
+    */
+   public int getNumberOfWeldedTriangles()
+   {
+      return numberOfWeldedTriangles;
+   }
+
+   /**
+    * Gets the compaction ratio achieved by the last call to {@code weld}, i.e. the number of input
+    * vertices divided by the number of welded vertices. A value of 2 means the vertex buffer is half
+    * the size it was.
+    *
+    * @return the compaction ratio, or 1 if the last mesh welded was empty.
+    */
+   public double getCompactionRatio()
+   {
+      if (numberOfWeldedVertices == 0)
+         return 1.0;
+      return (double) numberOfInputVertices / numberOfWeldedVertices;
+   }
+}
@@ -51,6 +51,50 @@ public class ModifiableMeshDataHolder
       return new MeshDataHolder(vertexArray, texturePointArray, triangleIndexArray, vertexNormalArray);
    }
 
+   /**
+    * Creates a packed mesh data holder that can be used by a mesh data interpreter. The data
+    * contained in this is copied directly into the packed arrays, no intermediate object is created.
+    * 
+    * @return the packed mesh data holder.
+    */
+   public PackedMeshDataHolder createPackedMeshDataHolder()
+   {
+      PackedMeshDataHolder packedMeshDataHolder = new PackedMeshDataHolder(vertices.size(), triangleIndices.size());
+
+      for (int i = 0; i < vertices.size(); i++)
+      {
+         packedMeshDataHolder.setVertex(i, vertices.get(i));
+         TexCoord2f texturePoint = texturePoints.get(i);
+         packedMeshDataHolder.setTexturePoint(i, texturePoint.x, texturePoint.y);
+         packedMeshDataHolder.setVertexNormal(i, vertexNormals.get(i));
+      }
+      triangleIndices.toArray(packedMeshDataHolder.getTriangleIndices(), 0, triangleIndices.size());
+      return packedMeshDataHolder;
+   }
+
+   /**
+    * Creates an off-heap mesh data holder that an engine adapter can upload without copying. The data
+    * contained in this is written directly into the direct buffers, no intermediate array is created.
+    * 
+    * @param layout the memory layout to use for the vertex data.
+    * @return the off-heap mesh data holder.
+    */
+   public DirectBufferMeshDataHolder createDirectBufferMeshDataHolder(DirectBufferMeshDataHolder.Layout layout)
+   {
+      DirectBufferMeshDataHolder directMeshDataHolder = new DirectBufferMeshDataHolder(vertices.size(), triangleIndices.size(), layout);
+
+      for (int i = 0; i < vertices.size(); i++)
+      {
+         directMeshDataHolder.setVertex(i, vertices.get(i));
+         TexCoord2f texturePoint = texturePoints.get(i);
+         directMeshDataHolder.setTexturePoint(i, texturePoint.x, texturePoint.y);
+         directMeshDataHolder.setVertexNormal(i, vertexNormals.get(i));
+      }
+      for (int i = 0; i < triangleIndices.size(); i++)
+         directMeshDataHolder.setTriangleIndex(i, triangleIndices.get(i));
+      return directMeshDataHolder;
+   }
+
    /**
     * Append a mesh to this.
     * 
@@ -0,0 +1,569 @@
+package us.ihmc.graphicsDescription;
+
+import us.ihmc.euclid.interfaces.EuclidGeometry;
+import us.ihmc.euclid.interfaces.Transformable;
+import us.ihmc.euclid.transform.interfaces.AffineTransformReadOnly;
+import us.ihmc.euclid.transform.interfaces.RigidBodyTransformReadOnly;
+import us.ihmc.euclid.transform.interfaces.Transform;
+import us.ihmc.euclid.tuple2D.interfaces.Tuple2DBasics;
+import us.ihmc.euclid.tuple2D.interfaces.Tuple2DReadOnly;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DBasics;
+
+/**
+ * This class provides a packed data structure for 3D graphic mesh that is independent from the
+ * graphics engine to be used. It holds the same data as {@link MeshDataHolder}, but stores it in
+ * contiguous primitive arrays instead of one object per vertex:
+ * <ul>
+ * <li>{@code vertexCoordinates = [x0, y0, z0, x1, y1, z1, ...]},
+ * <li>{@code vertexNormalCoordinates = [nx0, ny0, nz0, nx1, ny1, nz1, ...]},
+ * <li>{@code texturePointCoordinates = [u0, v0, u1, v1, ...]},
+ * <li>{@code triangleIndices} as for {@link MeshDataHolder#getTriangleIndices()}.
+ * </ul>
+ * <p>
+ * A mesh data interpreter can read these arrays directly. Flyweight views are available to access
+ * a single vertex through the usual Euclid interfaces without allocating, and the conversion
+ * methods {@link #pack(MeshDataHolder)} and {@link #toMeshDataHolder()} allow to go back and forth
+ * with the object based representation.
+ * </p>
+ */
+public class PackedMeshDataHolder implements Transformable
+{
+   private final float[] vertexCoordinates;
+   private final float[] texturePointCoordinates;
+   private final int[] triangleIndices;
+   private final float[] vertexNormalCoordinates;
+   private String name = "PackedMeshDataHolder";
+
+   private final Point3D32 tempVertex = new Point3D32();
+   private final Vector3D32 tempNormal = new Vector3D32();
+
+   /**
+    * Creates a new mesh with the given number of vertices and triangle indices. All the values are
+    * initialized to zero.
+    *
+    * @param numberOfVertices        the number of vertices of the mesh.
+    * @param numberOfTriangleIndices the number of triangle indices, i.e. 3 times the number of
+    *                                triangles.
+    */
+   public PackedMeshDataHolder(int numberOfVertices, int numberOfTriangleIndices)
+   {
+      this(new float[3 * numberOfVertices], new float[2 * numberOfVertices], new int[numberOfTriangleIndices], new float[3 * numberOfVertices]);
+   }
+
+   /**
+    * Default construct to create a packed mesh data. The arrays are not copied.
+    *
+    * @param vertexCoordinates       the 3D coordinates of the mesh vertices packed as
+    *                                {@code [x0, y0, z0, x1, y1, z1, ...]}.
+    * @param texturePointCoordinates the 2D texture coordinates to be used for each vertex of the mesh
+    *                                packed as {@code [u0, v0, u1, v1, ...]}.
+    * @param triangleIndices         a list of triplet indices. Each triplet describes the three
+    *                                indices used to pick the three vertex coordinates, texture
+    *                                coordinates, and normal coordinates to render a 3D triangle.
+    * @param vertexNormalCoordinates the 3D normal coordinates to be used for each vertex of the mesh
+    *                                packed as {@code [nx0, ny0, nz0, nx1, ny1, nz1, ...]}.
+    * @throws IllegalArgumentException if the array sizes are inconsistent with each other.
+    */
+   public PackedMeshDataHolder(float[] vertexCoordinates, float[] texturePointCoordinates, int[] triangleIndices, float[] vertexNormalCoordinates)
+   {
+      if (vertexCoordinates.length % 3 != 0)
+         throw new IllegalArgumentException("The length of vertexCoordinates has to be a multiple of 3, was: " + vertexCoordinates.length);
+      int numberOfVertices = vertexCoordinates.length / 3;
+      if (texturePointCoordinates.length != 2 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected array size. Expected: " + 2 * numberOfVertices + ", but was: " + texturePointCoordinates.length);
+      if (vertexNormalCoordinates.length != 3 * numberOfVertices)
+         throw new IllegalArgumentException("Unexpected array size. Expected: " + 3 * numberOfVertices + ", but was: " + vertexNormalCoordinates.length);
+
+      this.vertexCoordinates = vertexCoordinates;
+      this.texturePointCoordinates = texturePointCoordinates;
+      this.triangleIndices = triangleIndices;
+      this.vertexNormalCoordinates = vertexNormalCoordinates;
+   }
+
+   /**
+    * Creates a packed copy of the given mesh.
+    *
+    * @param input the mesh to pack. Not modified.
+    * @return the packed mesh.
+    */
+   public static PackedMeshDataHolder pack(MeshDataHolder input)
+   {
+      Point3D32[] vertices = input.getVertices();
+      TexCoord2f[] texturePoints = input.getTexturePoints();
+      Vector3D32[] vertexNormals = input.getVertexNormals();
+      int[] triangleIndices = input.getTriangleIndices();
+
+      PackedMeshDataHolder output = new PackedMeshDataHolder(vertices.length, triangleIndices.length);
+
+      for (int i = 0; i < vertices.length; i++)
+      {
+         output.setVertex(i, vertices[i]);
+         output.setTexturePoint(i, texturePoints[i].x, texturePoints[i].y);
+         output.setVertexNormal(i, vertexNormals[i]);
+      }
+      System.arraycopy(triangleIndices, 0, output.triangleIndices, 0, triangleIndices.length);
+      output.setName(input.getName());
+      return output;
+   }
+
+   /**
+    * Creates an object based copy of this mesh that can be used wherever a {@link MeshDataHolder} is
+    * expected.
+    *
+    * @return the new mesh.
+    */
+   public MeshDataHolder toMeshDataHolder()
+   {
+      int numberOfVertices = getNumberOfVertices();
+      Point3D32[] vertices = new Point3D32[numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+      Vector3D32[] vertexNormals = new Vector3D32[numberOfVertices];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         vertices[i] = new Point3D32(vertexCoordinates[3 * i], vertexCoordinates[3 * i + 1], vertexCoordinates[3 * i + 2]);
+         texturePoints[i] = new TexCoord2f(texturePointCoordinates[2 * i], texturePointCoordinates[2 * i + 1]);
+         vertexNormals[i] = new Vector3D32(vertexNormalCoordinates[3 * i], vertexNormalCoordinates[3 * i + 1], vertexNormalCoordinates[3 * i + 2]);
+      }
+
+      MeshDataHolder output = new MeshDataHolder(vertices, texturePoints, triangleIndices.clone(), vertexNormals);
+      output.setName(name);
+      return output;
+   }
+
+   public boolean containsNaN()
+   {
+      return containsNaN(vertexCoordinates) || containsNaN(texturePointCoordinates) || containsNaN(vertexNormalCoordinates);
+   }
+
+   private static boolean containsNaN(float[] array)
+   {
+      for (float value : array)
+      {
+         if (Float.isNaN(value))
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * @return the number of vertices of this mesh.
+    */
+   public int getNumberOfVertices()
+   {
+      return vertexCoordinates.length / 3;
+   }
+
+   /**
+    * @return the number of triangles of this mesh.
+    */
+   public int getNumberOfTriangles()
+   {
+      return triangleIndices.length / 3;
+   }
+
+   /**
+    * @return the 3D coordinates of the mesh vertices packed as {@code [x0, y0, z0, x1, y1, z1, ...]}.
+    */
+   public float[] getVertexCoordinates()
+   {
+      return vertexCoordinates;
+   }
+
+   /**
+    * @return the 2D texture coordinates to be used for each vertex of the mesh packed as
+    *         {@code [u0, v0, u1, v1, ...]}.
+    */
+   public float[] getTexturePointCoordinates()
+   {
+      return texturePointCoordinates;
+   }
+
+   /**
+    * @return a list of triplet indices. Each triplet describes the three indices used to pick the
+    *         three vertex coordinates, texture coordinates, and normal coordinates to render a 3D
+    *         triangle.
+    */
+   public int[] getTriangleIndices()
+   {
+      return triangleIndices;
+   }
+
+   /**
+    * @return the 3D normal coordinates to be used for each vertex of the mesh packed as
+    *         {@code [nx0, ny0, nz0, nx1, ny1, nz1, ...]}.
+    */
+   public float[] getVertexNormalCoordinates()
+   {
+      return vertexNormalCoordinates;
+   }
+
+   public void getVertex(int vertexIndex, Tuple3DBasics vertexToPack)
+   {
+      vertexToPack.set(vertexCoordinates[3 * vertexIndex], vertexCoordinates[3 * vertexIndex + 1], vertexCoordinates[3 * vertexIndex + 2]);
+   }
+
+   public void getVertexNormal(int vertexIndex, Tuple3DBasics normalToPack)
+   {
+      normalToPack.set(vertexNormalCoordinates[3 * vertexIndex], vertexNormalCoordinates[3 * vertexIndex + 1], vertexNormalCoordinates[3 * vertexIndex + 2]);
+   }
+
+   public void getTexturePoint(int vertexIndex, Tuple2DBasics texturePointToPack)
+   {
+      texturePointToPack.set(texturePointCoordinates[2 * vertexIndex], texturePointCoordinates[2 * vertexIndex + 1]);
+   }
+
+   public void setVertex(int vertexIndex, Tuple3DReadOnly vertex)
+   {
+      setVertex(vertexIndex, vertex.getX32(), vertex.getY32(), vertex.getZ32());
+   }
+
+   public void setVertex(int vertexIndex, float x, float y, float z)
+   {
+      vertexCoordinates[3 * vertexIndex] = x;
+      vertexCoordinates[3 * vertexIndex + 1] = y;
+      vertexCoordinates[3 * vertexIndex + 2] = z;
+   }
+
+   public void setVertexNormal(int vertexIndex, Tuple3DReadOnly normal)
+   {
+      setVertexNormal(vertexIndex, normal.getX32(), normal.getY32(), normal.getZ32());
+   }
+
+   public void setVertexNormal(int vertexIndex, float x, float y, float z)
+   {
+      vertexNormalCoordinates[3 * vertexIndex] = x;
+      vertexNormalCoordinates[3 * vertexIndex + 1] = y;
+      vertexNormalCoordinates[3 * vertexIndex + 2] = z;
+   }
+
+   public void setTexturePoint(int vertexIndex, Tuple2DReadOnly texturePoint)
+   {
+      setTexturePoint(vertexIndex, texturePoint.getX32(), texturePoint.getY32());
+   }
+
+   public void setTexturePoint(int vertexIndex, float u, float v)
+   {
+      texturePointCoordinates[2 * vertexIndex] = u;
+      texturePointCoordinates[2 * vertexIndex + 1] = v;
+   }
+
+   /**
+    * Creates a flyweight view of the vertices of this mesh. The view initially points to the first
+    * vertex and can be moved to any other vertex using {@link PackedPoint3D#setIndex(int)}. Writing
+    * to the view writes directly in this mesh.
+    *
+    * @return the new view.
+    */
+   public PackedPoint3D createVertexView()
+   {
+      return new PackedPoint3D(vertexCoordinates);
+   }
+
+   /**
+    * Creates a flyweight view of the vertex normals of this mesh. The view initially points to the
+    * first normal and can be moved to any other normal using {@link PackedVector3D#setIndex(int)}.
+    * Writing to the view writes directly in this mesh.
+    *
+    * @return the new view.
+    */
+   public PackedVector3D createVertexNormalView()
+   {
+      return new PackedVector3D(vertexNormalCoordinates);
+   }
+
+   /**
+    * Creates a flyweight view of the texture coordinates of this mesh. The view initially points to
+    * the first texture point and can be moved to any other texture point using
+    * {@link PackedTexCoord2f#setIndex(int)}. Writing to the view writes directly in this mesh.
+    *
+    * @return the new view.
+    */
+   public PackedTexCoord2f createTexturePointView()
+   {
+      return new PackedTexCoord2f(texturePointCoordinates);
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String name)
+   {
+      this.name = name;
+   }
+
+   @Override
+   public void applyTransform(Transform transform)
+   {
+      int numberOfVertices = getNumberOfVertices();
+
+      if (transform instanceof RigidBodyTransformReadOnly || transform instanceof AffineTransformReadOnly)
+      { // Fast path: the transform is packed once and applied directly on the arrays.
+         float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+         if (transform instanceof RigidBodyTransformReadOnly)
+            MeshTransforms.packMatrix((RigidBodyTransformReadOnly) transform, matrix);
+         else
+            MeshTransforms.packMatrix((AffineTransformReadOnly) transform, matrix);
+         MeshTransforms.transformPoints(matrix, vertexCoordinates, vertexCoordinates, numberOfVertices);
+         MeshTransforms.transformVectors(matrix, vertexNormalCoordinates, vertexNormalCoordinates, numberOfVertices);
+         return;
+      }
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         getVertex(i, tempVertex);
+         tempVertex.applyTransform(transform);
+         setVertex(i, tempVertex);
+
+         getVertexNormal(i, tempNormal);
+         tempNormal.applyTransform(transform);
+         setVertexNormal(i, tempNormal);
+      }
+   }
+
+   @Override
+   public void applyInverseTransform(Transform transform)
+   {
+      int numberOfVertices = getNumberOfVertices();
+
+      if (transform instanceof RigidBodyTransformReadOnly)
+      {
+         float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+         MeshTransforms.packInverseMatrix((RigidBodyTransformReadOnly) transform, matrix);
+         MeshTransforms.transformPoints(matrix, vertexCoordinates, vertexCoordinates, numberOfVertices);
+         MeshTransforms.transformVectors(matrix, vertexNormalCoordinates, vertexNormalCoordinates, numberOfVertices);
+         return;
+      }
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         getVertex(i, tempVertex);
+         tempVertex.applyInverseTransform(transform);
+         setVertex(i, tempVertex);
+
+         getVertexNormal(i, tempNormal);
+         tempNormal.applyInverseTransform(transform);
+         setVertexNormal(i, tempNormal);
+      }
+   }
+
+   /**
+    * Flyweight point backed by a packed array of 3D coordinates.
+    */
+   public static class PackedPoint3D implements Point3DBasics
+   {
+      private final float[] coordinates;
+      private int offset = 0;
+
+      private PackedPoint3D(float[] coordinates)
+      {
+         this.coordinates = coordinates;
+      }
+
+      /**
+       * Moves this view to the vertex at the given index.
+       *
+       * @param index the index of the vertex to view.
+       */
+      public void setIndex(int index)
+      {
+         offset = 3 * index;
+      }
+
+      public int getIndex()
+      {
+         return offset / 3;
+      }
+
+      @Override
+      public double getX()
+      {
+         return coordinates[offset];
+      }
+
+      @Override
+      public double getY()
+      {
+         return coordinates[offset + 1];
+      }
+
+      @Override
+      public double getZ()
+      {
+         return coordinates[offset + 2];
+      }
+
+      @Override
+      public void setX(double x)
+      {
+         coordinates[offset] = (float) x;
+      }
+
+      @Override
+      public void setY(double y)
+      {
+         coordinates[offset + 1] = (float) y;
+      }
+
+      @Override
+      public void setZ(double z)
+      {
+         coordinates[offset + 2] = (float) z;
+      }
+
+      @Override
+      public boolean geometricallyEquals(EuclidGeometry geometry, double epsilon)
+      {
+         return epsilonEquals(geometry, epsilon);
+      }
+   }
+
+   /**
+    * Flyweight vector backed by a packed array of 3D coordinates.
+    */
+   public static class PackedVector3D implements Vector3DBasics
+   {
+      private final float[] coordinates;
+      private int offset = 0;
+
+      private PackedVector3D(float[] coordinates)
+      {
+         this.coordinates = coordinates;
+      }
+
+      /**
+       * Moves this view to the normal at the given index.
+       *
+       * @param index the index of the normal to view.
+       */
+      public void setIndex(int index)
+      {
+         offset = 3 * index;
+      }
+
+      public int getIndex()
+      {
+         return offset / 3;
+      }
+
+      @Override
+      public double getX()
+      {
+         return coordinates[offset];
+      }
+
+      @Override
+      public double getY()
+      {
+         return coordinates[offset + 1];
+      }
+
+      @Override
+      public double getZ()
+      {
+         return coordinates[offset + 2];
+      }
+
+      @Override
+      public void setX(double x)
+      {
+         coordinates[offset] = (float) x;
+      }
+
+      @Override
+      public void setY(double y)
+      {
+         coordinates[offset + 1] = (float) y;
+      }
+
+      @Override
+      public void setZ(double z)
+      {
+         coordinates[offset + 2] = (float) z;
+      }
+
+      @Override
+      public boolean geometricallyEquals(EuclidGeometry geometry, double epsilon)
+      {
+         return epsilonEquals(geometry, epsilon);
+      }
+   }
+
+   /**
+    * Flyweight texture coordinate backed by a packed array of 2D coordinates.
+    */
+   public static class PackedTexCoord2f implements Tuple2DBasics
+   {
+      private final float[] coordinates;
+      private int offset = 0;
+
+      private PackedTexCoord2f(float[] coordinates)
+      {
+         this.coordinates = coordinates;
+      }
+
+      /**
+       * Moves this view to the texture point at the given index.
+       *
+       * @param index the index of the texture point to view.
+       */
+      public void setIndex(int index)
+      {
+         offset = 2 * index;
+      }
+
+      public int getIndex()
+      {
+         return offset / 2;
+      }
+
+      @Override
+      public double getX()
+      {
+         return coordinates[offset];
+      }
+
+      @Override
+      public double getY()
+      {
+         return coordinates[offset + 1];
+      }
+
+      @Override
+      public void setX(double x)
+      {
+         coordinates[offset] = (float) x;
+      }
+
+      @Override
+      public void setY(double y)
+      {
+         coordinates[offset + 1] = (float) y;
+      }
+
+      @Override
+      public void applyTransform(Transform transform, boolean checkIfTransformInXYplane)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void applyInverseTransform(Transform transform, boolean checkIfTransformInXYplane)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean geometricallyEquals(EuclidGeometry geometry, double epsilon)
+      {
+         return epsilonEquals(geometry, epsilon);
+      }
+   }
+}
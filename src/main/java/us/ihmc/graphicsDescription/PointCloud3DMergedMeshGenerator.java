@@ -0,0 +1,422 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.Arrays;
+
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Mesh generator for large point clouds, such as LIDAR scans, that represents each point with a
+ * small primitive and merges all of them into a single mesh.
+ * <p>
+ * Unlike {@link PointCloud3DMeshGenerator} which creates a sphere mesh per point, this generator
+ * uses a primitive with only a few vertices per point and stores the output in a single
+ * {@link PackedMeshDataHolder} allocated once for the maximum number of points. The triangle
+ * indices, and the normals and texture coordinates when they do not depend on the camera, are set
+ * at construction such that the compute methods only have to update the vertex positions in place.
+ * The colors are stored once per point, graphics engines are expected to apply the color of a point
+ * to its {@link PointShape#getNumberOfVertices()} vertices, for instance with an instance divisor or
+ * by indexing the colors with the vertex index divided by the number of vertices per point.
+ * </p>
+ * <p>
+ * The output is to be added to a {@link Graphics3DObject} with
+ * {@link Graphics3DObject#addPointCloud(PointCloud3DMergedMeshGenerator, us.ihmc.graphicsDescription.appearance.AppearanceDefinition)}
+ * such that graphics engines are notified of the updates.
+ * </p>
+ * <p>
+ * When fewer points than the capacity are computed, the unused vertices are collapsed at the
+ * origin such that their triangles are degenerate. Graphics engines can also use
+ * {@link #getNumberOfTriangleIndices()} to only draw the used part of the mesh.
+ * </p>
+ */
+public class PointCloud3DMergedMeshGenerator
+{
+   /** The primitive used to represent each point. */
+   public enum PointShape
+   {
+      /** A square facing the camera, 4 vertices and 2 triangles per point. */
+      QUAD(4, new int[] {0, 1, 2, 0, 2, 3}),
+      /** A regular tetrahedron, 4 vertices and 4 triangles per point. */
+      TETRAHEDRON(4, new int[] {0, 1, 2, 0, 3, 1, 0, 2, 3, 1, 3, 2}),
+      /** A regular octahedron, 6 vertices and 8 triangles per point. */
+      OCTAHEDRON(6, new int[] {0, 2, 4, 2, 1, 4, 1, 3, 4, 3, 0, 4, 2, 0, 5, 1, 2, 5, 3, 1, 5, 0, 3, 5});
+
+      private final int numberOfVertices;
+      private final int[] triangleIndices;
+
+      private PointShape(int numberOfVertices, int[] triangleIndices)
+      {
+         this.numberOfVertices = numberOfVertices;
+         this.triangleIndices = triangleIndices;
+      }
+
+      /**
+       * @return the number of vertices used for each point.
+       */
+      public int getNumberOfVertices()
+      {
+         return numberOfVertices;
+      }
+
+      /**
+       * @return the number of triangle indices used for each point.
+       */
+      public int getNumberOfTriangleIndices()
+      {
+         return triangleIndices.length;
+      }
+   }
+
+   private static final float ONE_OVER_SQRT_3 = (float) (1.0 / Math.sqrt(3.0));
+
+   private final PointShape pointShape;
+   private final int maxNumberOfPoints;
+   private final PackedMeshDataHolder meshDataHolder;
+   private final float[] pointColors;
+
+   /** Unit offsets of the vertices of a point with respect to its center. */
+   private final float[] unitOffsets;
+   /** Offsets of the vertices of a point with respect to its center, scaled by the radius. */
+   private final float[] offsets;
+
+   private double pointRadius;
+   private int numberOfPoints = 0;
+
+   private final Vector3D cameraRight = new Vector3D(1.0, 0.0, 0.0);
+   private final Vector3D cameraUp = new Vector3D(0.0, 1.0, 0.0);
+
+   /**
+    * Creates a new mesh generator and allocates the output mesh.
+    *
+    * @param maxNumberOfPoints the maximum number of points this generator can represent.
+    * @param pointShape        the primitive used to represent each point.
+    * @param pointRadius       the radius of the primitive.
+    * @param hasColors         whether the points are colored individually, in which case the colors
+    *                          are available per point with {@link #getPointColors()}.
+    */
+   public PointCloud3DMergedMeshGenerator(int maxNumberOfPoints, PointShape pointShape, double pointRadius, boolean hasColors)
+   {
+      this.maxNumberOfPoints = maxNumberOfPoints;
+      this.pointShape = pointShape;
+      this.pointRadius = pointRadius;
+
+      int verticesPerPoint = pointShape.getNumberOfVertices();
+      int indicesPerPoint = pointShape.getNumberOfTriangleIndices();
+      meshDataHolder = new PackedMeshDataHolder(maxNumberOfPoints * verticesPerPoint, maxNumberOfPoints * indicesPerPoint);
+      meshDataHolder.setName("PointCloud");
+      pointColors = hasColors ? new float[4 * maxNumberOfPoints] : null;
+
+      unitOffsets = new float[3 * verticesPerPoint];
+      offsets = new float[3 * verticesPerPoint];
+
+      int[] triangleIndices = meshDataHolder.getTriangleIndices();
+      for (int point = 0; point < maxNumberOfPoints; point++)
+      {
+         for (int i = 0; i < indicesPerPoint; i++)
+            triangleIndices[point * indicesPerPoint + i] = point * verticesPerPoint + pointShape.triangleIndices[i];
+      }
+
+      if (pointShape == PointShape.QUAD)
+      {
+         float[] texturePointCoordinates = meshDataHolder.getTexturePointCoordinates();
+         float[] quadTexturePoints = {0.0f, 1.0f, 1.0f, 1.0f, 1.0f, 0.0f, 0.0f, 0.0f};
+         for (int point = 0; point < maxNumberOfPoints; point++)
+            System.arraycopy(quadTexturePoints, 0, texturePointCoordinates, 8 * point, 8);
+
+         updateQuadOffsetsAndNormals();
+      }
+      else
+      {
+         if (pointShape == PointShape.TETRAHEDRON)
+         {
+            float s = ONE_OVER_SQRT_3;
+            float[] vertices = {s, s, s, s, -s, -s, -s, s, -s, -s, -s, s};
+            System.arraycopy(vertices, 0, unitOffsets, 0, vertices.length);
+         }
+         else
+         {
+            float[] vertices = {1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1};
+            System.arraycopy(vertices, 0, unitOffsets, 0, vertices.length);
+         }
+
+         // The vertices are on the unit sphere, they are also the smooth normals.
+         float[] normals = meshDataHolder.getVertexNormalCoordinates();
+         for (int point = 0; point < maxNumberOfPoints; point++)
+            System.arraycopy(unitOffsets, 0, normals, point * unitOffsets.length, unitOffsets.length);
+
+         updateOffsets();
+      }
+   }
+
+   /**
+    * Sets the orientation of the camera used to orient the quads. Only used with
+    * {@link PointShape#QUAD}, the quads are spanned by the two given axes and face the camera.
+    * <p>
+    * The default camera looks down the z-axis with the x-axis pointing right and the y-axis up. One
+    * of the compute methods has to be called before the change is effective on the vertices.
+    * </p>
+    *
+    * @param right the direction pointing right in the camera view. Not modified.
+    * @param up    the direction pointing up in the camera view. Not modified.
+    */
+   public void setCameraAxes(Vector3DReadOnly right, Vector3DReadOnly up)
+   {
+      cameraRight.setAndNormalize(right);
+      cameraUp.setAndNormalize(up);
+
+      if (pointShape == PointShape.QUAD)
+         updateQuadOffsetsAndNormals();
+   }
+
+   /**
+    * Changes the radius of the primitives. One of the compute methods has to be called before the
+    * change is effective on the vertices.
+    *
+    * @param pointRadius the new radius.
+    */
+   public void setPointRadius(double pointRadius)
+   {
+      this.pointRadius = pointRadius;
+      updateOffsets();
+   }
+
+   private void updateQuadOffsetsAndNormals()
+   {
+      float[] corners = {-1.0f, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, -1.0f, 1.0f};
+
+      for (int i = 0; i < 4; i++)
+      {
+         double right = corners[2 * i];
+         double up = corners[2 * i + 1];
+         unitOffsets[3 * i] = (float) (right * cameraRight.getX() + up * cameraUp.getX());
+         unitOffsets[3 * i + 1] = (float) (right * cameraRight.getY() + up * cameraUp.getY());
+         unitOffsets[3 * i + 2] = (float) (right * cameraRight.getZ() + up * cameraUp.getZ());
+      }
+
+      Vector3D normal = new Vector3D();
+      normal.cross(cameraRight, cameraUp);
+      normal.normalize();
+      float nx = normal.getX32(), ny = normal.getY32(), nz = normal.getZ32();
+
+      float[] normals = meshDataHolder.getVertexNormalCoordinates();
+      for (int i = 0; i < normals.length; i += 3)
+      {
+         normals[i] = nx;
+         normals[i + 1] = ny;
+         normals[i + 2] = nz;
+      }
+
+      updateOffsets();
+   }
+
+   private void updateOffsets()
+   {
+      float radius = (float) pointRadius;
+      for (int i = 0; i < offsets.length; i++)
+         offsets[i] = radius * unitOffsets[i];
+   }
+
+   /**
+    * Updates the output mesh to represent the given points.
+    *
+    * @param pointLocations the positions of the points. Not modified.
+    * @throws IllegalArgumentException if there are more points than {@link #getMaxNumberOfPoints()}.
+    */
+   public void compute(Point3DReadOnly[] pointLocations)
+   {
+      checkNumberOfPoints(pointLocations.length);
+
+      float[] vertexCoordinates = meshDataHolder.getVertexCoordinates();
+      int verticesPerPoint = pointShape.getNumberOfVertices();
+
+      for (int point = 0; point < pointLocations.length; point++)
+      {
+         Point3DReadOnly location = pointLocations[point];
+         writePoint(vertexCoordinates, 3 * verticesPerPoint * point, location.getX32(), location.getY32(), location.getZ32());
+      }
+
+      clearUnusedPoints(pointLocations.length);
+   }
+
+   /**
+    * Updates the output mesh to represent the given points.
+    *
+    * @param pointCoordinates the positions of the points packed as {@code [x0, y0, z0, x1, ...]}. Not
+    *                         modified.
+    * @param numberOfPoints   the number of points to read from {@code pointCoordinates}.
+    * @throws IllegalArgumentException if there are more points than {@link #getMaxNumberOfPoints()}.
+    */
+   public void compute(float[] pointCoordinates, int numberOfPoints)
+   {
+      compute(pointCoordinates, null, numberOfPoints);
+   }
+
+   /**
+    * Updates the output mesh to represent the given points with the given colors.
+    *
+    * @param pointCoordinates the positions of the points packed as {@code [x0, y0, z0, x1, ...]}. Not
+    *                         modified.
+    * @param pointColors      the colors of the points packed as {@code [r0, g0, b0, a0, r1, ...]}, or
+    *                         {@code null} to leave the colors unchanged. Not modified.
+    * @param numberOfPoints   the number of points to read from the arrays.
+    * @throws IllegalArgumentException if there are more points than {@link #getMaxNumberOfPoints()}.
+    * @throws IllegalStateException    if colors are given but this generator was created without
+    *                                  colors.
+    */
+   public void compute(float[] pointCoordinates, float[] pointColors, int numberOfPoints)
+   {
+      checkNumberOfPoints(numberOfPoints);
+      if (pointColors != null && this.pointColors == null)
+         throw new IllegalStateException("This generator was created without colors.");
+
+      float[] vertexCoordinates = meshDataHolder.getVertexCoordinates();
+
+      if (pointShape.getNumberOfVertices() == 4)
+      {
+         writeFourVertexPoints(pointCoordinates, vertexCoordinates, numberOfPoints);
+      }
+      else
+      {
+         int verticesPerPoint = pointShape.getNumberOfVertices();
+
+         for (int point = 0; point < numberOfPoints; point++)
+         {
+            int inputIndex = 3 * point;
+            writePoint(vertexCoordinates,
+                       3 * verticesPerPoint * point,
+                       pointCoordinates[inputIndex],
+                       pointCoordinates[inputIndex + 1],
+                       pointCoordinates[inputIndex + 2]);
+         }
+      }
+
+      if (pointColors != null)
+         System.arraycopy(pointColors, 0, this.pointColors, 0, 4 * numberOfPoints);
+
+      clearUnusedPoints(numberOfPoints);
+   }
+
+   /**
+    * Same as {@link #writePoint(float[], int, float, float, float)} for all the points of a shape with
+    * 4 vertices. The offsets are held in local variables which roughly halves the time spent writing
+    * the positions of large clouds.
+    */
+   private void writeFourVertexPoints(float[] pointCoordinates, float[] vertexCoordinates, int numberOfPoints)
+   {
+      float o0x = offsets[0], o0y = offsets[1], o0z = offsets[2];
+      float o1x = offsets[3], o1y = offsets[4], o1z = offsets[5];
+      float o2x = offsets[6], o2y = offsets[7], o2z = offsets[8];
+      float o3x = offsets[9], o3y = offsets[10], o3z = offsets[11];
+
+      for (int point = 0, inputIndex = 0, outputIndex = 0; point < numberOfPoints; point++, inputIndex += 3, outputIndex += 12)
+      {
+         float x = pointCoordinates[inputIndex];
+         float y = pointCoordinates[inputIndex + 1];
+         float z = pointCoordinates[inputIndex + 2];
+
+         vertexCoordinates[outputIndex] = x + o0x;
+         vertexCoordinates[outputIndex + 1] = y + o0y;
+         vertexCoordinates[outputIndex + 2] = z + o0z;
+         vertexCoordinates[outputIndex + 3] = x + o1x;
+         vertexCoordinates[outputIndex + 4] = y + o1y;
+         vertexCoordinates[outputIndex + 5] = z + o1z;
+         vertexCoordinates[outputIndex + 6] = x + o2x;
+         vertexCoordinates[outputIndex + 7] = y + o2y;
+         vertexCoordinates[outputIndex + 8] = z + o2z;
+         vertexCoordinates[outputIndex + 9] = x + o3x;
+         vertexCoordinates[outputIndex + 10] = y + o3y;
+         vertexCoordinates[outputIndex + 11] = z + o3z;
+      }
+   }
+
+   private void writePoint(float[] vertexCoordinates, int outputIndex, float x, float y, float z)
+   {
+      for (int i = 0; i < offsets.length; i += 3)
+      {
+         vertexCoordinates[outputIndex++] = x + offsets[i];
+         vertexCoordinates[outputIndex++] = y + offsets[i + 1];
+         vertexCoordinates[outputIndex++] = z + offsets[i + 2];
+      }
+   }
+
+   private void checkNumberOfPoints(int numberOfPoints)
+   {
+      if (numberOfPoints > maxNumberOfPoints)
+         throw new IllegalArgumentException("Too many points. Expected at most: " + maxNumberOfPoints + ", but was: " + numberOfPoints);
+   }
+
+   /**
+    * Collapses the vertices of the points that were used by the previous computation but are not
+    * used anymore.
+    */
+   private void clearUnusedPoints(int newNumberOfPoints)
+   {
+      if (newNumberOfPoints < numberOfPoints)
+      {
+         int floatsPerPoint = 3 * pointShape.getNumberOfVertices();
+         Arrays.fill(meshDataHolder.getVertexCoordinates(), floatsPerPoint * newNumberOfPoints, floatsPerPoint * numberOfPoints, 0.0f);
+      }
+      numberOfPoints = newNumberOfPoints;
+   }
+
+   /**
+    * Gets the reference to the output mesh of this generator.
+    * <p>
+    * WARNING: the mesh is part of the internal memory of this generator and is updated when calling
+    * one of the compute methods.
+    * </p>
+    *
+    * @return the reference to the output mesh.
+    */
+   public PackedMeshDataHolder getMeshDataHolder()
+   {
+      return meshDataHolder;
+   }
+
+   /**
+    * Gets the reference to the output colors of this generator, packed per point as
+    * {@code [r0, g0, b0, a0, r1, ...]}. The color of a point applies to all its vertices.
+    *
+    * @return the reference to the point colors, or {@code null} if this generator was created without
+    *         colors.
+    */
+   public float[] getPointColors()
+   {
+      return pointColors;
+   }
+
+   /**
+    * Gets the number of triangle indices used by the points of the last computation, such that only
+    * the first part of the mesh has to be drawn.
+    *
+    * @return the number of triangle indices to draw.
+    */
+   public int getNumberOfTriangleIndices()
+   {
+      return numberOfPoints * pointShape.getNumberOfTriangleIndices();
+   }
+
+   /**
+    * @return the number of points of the last computation.
+    */
+   public int getNumberOfPoints()
+   {
+      return numberOfPoints;
+   }
+
+   public int getMaxNumberOfPoints()
+   {
+      return maxNumberOfPoints;
+   }
+
+   public PointShape getPointShape()
+   {
+      return pointShape;
+   }
+
+   public double getPointRadius()
+   {
+      return pointRadius;
+   }
+}
@@ -9,6 +9,10 @@ import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
  * <p>
  * It works as the {@link SegmentedLine3DMeshDataGenerator}.
  * </p>
+ * <p>
+ * The cost of this generator grows with the number of points times the sphere resolution, for large
+ * point clouds use {@link PointCloud3DMergedMeshGenerator} instead.
+ * </p>
  *
  * @author Sylvain Bertrand
  */
@@ -88,6 +92,8 @@ public class PointCloud3DMeshGenerator
          {
             pointVertices[vertexIndex].add(templateVertices[vertexIndex], center);
          }
+
+         meshDataHolders[i].invalidateBounds();
       }
    }
 
@@ -0,0 +1,386 @@
+package us.ihmc.graphicsDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Triangulates 2D regions bounded by simple closed contours that may contain holes, such as the
+ * outlines of font glyphs.
+ * <p>
+ * The contours are classified by nesting: a contour enclosed by an even number of other contours is
+ * an outer boundary, a contour enclosed by an odd number is a hole of the smallest outer boundary
+ * enclosing it. Each outer boundary is then merged with its holes by bridging each hole to a visible
+ * vertex of the boundary, and the resulting polygon is triangulated by ear clipping.
+ * </p>
+ * <p>
+ * The contours are given as {@code [x0, y0, x1, y1, ...]} without repeating the first point and
+ * in any orientation. {@link #orientContours(List)} reorients them such that the region lies on
+ * their left, i.e. the outer boundaries are counter-clockwise and the holes are clockwise.
+ * </p>
+ */
+class PolygonWithHolesTriangulator
+{
+   private PolygonWithHolesTriangulator()
+   {
+      // Prevent an object being generated.
+   }
+
+   /**
+    * The result of a triangulation: the vertices of the merged polygons and the triangles indexing
+    * them, counter-clockwise.
+    */
+   static class Triangulation
+   {
+      final float[] vertices;
+      final int[] triangleIndices;
+
+      Triangulation(float[] vertices, int[] triangleIndices)
+      {
+         this.vertices = vertices;
+         this.triangleIndices = triangleIndices;
+      }
+   }
+
+   /**
+    * Reverses in place the contours that are not oriented such that the region lies on their left.
+    *
+    * @param contours the closed contours to orient. Modified.
+    * @return the nesting depth of each contour, i.e. the number of other contours enclosing it.
+    */
+   static int[] orientContours(List<float[]> contours)
+   {
+      int numberOfContours = contours.size();
+      int[] depths = new int[numberOfContours];
+
+      for (int i = 0; i < numberOfContours; i++)
+      {
+         float[] contour = contours.get(i);
+
+         for (int j = 0; j < numberOfContours; j++)
+         {
+            if (j != i && contains(contours.get(j), contour[0], contour[1]))
+               depths[i]++;
+         }
+      }
+
+      for (int i = 0; i < numberOfContours; i++)
+      {
+         boolean isHole = depths[i] % 2 == 1;
+         if (isHole == signedArea(contours.get(i)) > 0.0)
+            reverse(contours.get(i));
+      }
+
+      return depths;
+   }
+
+   /**
+    * Triangulates the region bounded by the given contours.
+    *
+    * @param contours the closed contours, in any orientation. Not modified.
+    * @return the triangulation.
+    */
+   static Triangulation triangulate(List<float[]> contours)
+   {
+      int numberOfContours = contours.size();
+      List<float[]> orientedContours = new ArrayList<>(numberOfContours);
+      for (float[] contour : contours)
+         orientedContours.add(contour.clone());
+      int[] depths = orientContours(orientedContours);
+      contours = orientedContours;
+
+      double[] areas = new double[numberOfContours];
+      for (int i = 0; i < numberOfContours; i++)
+         areas[i] = signedArea(contours.get(i));
+
+      TFloatArrayList vertices = new TFloatArrayList();
+      TIntArrayList triangleIndices = new TIntArrayList();
+
+      for (int outer = 0; outer < numberOfContours; outer++)
+      {
+         if (depths[outer] % 2 == 1)
+            continue;
+
+         List<float[]> holes = new ArrayList<>();
+
+         for (int hole = 0; hole < numberOfContours; hole++)
+         {
+            if (depths[hole] != depths[outer] + 1)
+               continue;
+            float[] holeContour = contours.get(hole);
+            if (findParent(contours, areas, depths, hole) == outer)
+               holes.add(holeContour);
+         }
+
+         // The holes are bridged from right to left, such that a bridge never crosses a hole that is
+         // not merged yet.
+         holes.sort((a, b) -> Float.compare(maxX(b), maxX(a)));
+
+         float[] polygon = contours.get(outer);
+         for (float[] hole : holes)
+            polygon = bridge(polygon, hole);
+
+         earClip(polygon, vertices.size() / 2, triangleIndices);
+         vertices.add(polygon);
+      }
+
+      return new Triangulation(vertices.toArray(), triangleIndices.toArray());
+   }
+
+   private static int findParent(List<float[]> contours, double[] areas, int[] depths, int hole)
+   {
+      float[] holeContour = contours.get(hole);
+      int parent = -1;
+
+      for (int outer = 0; outer < contours.size(); outer++)
+      {
+         if (depths[outer] != depths[hole] - 1 || !contains(contours.get(outer), holeContour[0], holeContour[1]))
+            continue;
+         if (parent == -1 || Math.abs(areas[outer]) < Math.abs(areas[parent]))
+            parent = outer;
+      }
+
+      return parent;
+   }
+
+   /**
+    * Merges a clockwise hole into a counter-clockwise polygon by connecting the rightmost vertex of
+    * the hole to a vertex of the polygon visible from it with two coincident edges.
+    */
+   private static float[] bridge(float[] polygon, float[] hole)
+   {
+      int m = 0;
+      for (int i = 2; i < hole.length; i += 2)
+      {
+         if (hole[i] > hole[m])
+            m = i;
+      }
+      float mx = hole[m], my = hole[m + 1];
+
+      // Finds the closest edge hit by the ray going from M towards +x.
+      int n = polygon.length;
+      double closestX = Double.POSITIVE_INFINITY;
+      int p = -1;
+
+      for (int a = 0; a < n; a += 2)
+      {
+         int b = (a + 2) % n;
+         float ay = polygon[a + 1], by = polygon[b + 1];
+
+         if (ay > my || by <= my)
+            continue; // Only the upward edges face the inside of the polygon.
+
+         double x = polygon[a] + (my - ay) * (polygon[b] - polygon[a]) / (by - ay);
+         if (x < mx || x >= closestX)
+            continue;
+
+         closestX = x;
+         if (ay == my && polygon[a] == x)
+            p = a;
+         else
+            p = polygon[a] > polygon[b] ? a : b;
+      }
+
+      if (p == -1)
+         return polygon; // The hole is not inside the polygon, cannot be bridged.
+
+      if (polygon[p] != closestX || polygon[p + 1] != my)
+      {
+         // Another vertex inside the triangle (M, I, P) may hide P, the one with the smallest angle
+         // to the ray is then visible.
+         float px = polygon[p], py = polygon[p + 1];
+         double bestCos = -2.0, bestDistance = Double.POSITIVE_INFINITY;
+         int candidate = p;
+
+         for (int r = 0; r < n; r += 2)
+         {
+            float rx = polygon[r], ry = polygon[r + 1];
+            if (r == p || !isReflex(polygon, r) || !isInTriangle(rx, ry, mx, my, (float) closestX, my, px, py))
+               continue;
+
+            double dx = rx - mx, dy = ry - my;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            double cos = distance > 0.0 ? dx / distance : 1.0;
+
+            if (cos > bestCos || cos == bestCos && distance < bestDistance)
+            {
+               bestCos = cos;
+               bestDistance = distance;
+               candidate = r;
+            }
+         }
+
+         if (bestCos > -2.0)
+            p = candidate;
+      }
+
+      // polygon[0..P], hole[M..] + hole[..M], M, P, polygon[P + 1..]
+      float[] merged = new float[n + hole.length + 4];
+      int index = 0;
+      System.arraycopy(polygon, 0, merged, index, p + 2);
+      index += p + 2;
+      System.arraycopy(hole, m, merged, index, hole.length - m);
+      index += hole.length - m;
+      System.arraycopy(hole, 0, merged, index, m + 2);
+      index += m + 2;
+      merged[index++] = polygon[p];
+      merged[index++] = polygon[p + 1];
+      System.arraycopy(polygon, p + 2, merged, index, n - p - 2);
+      return merged;
+   }
+
+   /**
+    * Triangulates a counter-clockwise polygon that may touch itself along the bridges, appending the
+    * triangles to {@code triangleIndices} with the indices offset by {@code indexOffset}.
+    */
+   private static void earClip(float[] polygon, int indexOffset, TIntArrayList triangleIndices)
+   {
+      int n = polygon.length / 2;
+      int[] previous = new int[n];
+      int[] next = new int[n];
+      for (int i = 0; i < n; i++)
+      {
+         previous[i] = (i + n - 1) % n;
+         next[i] = (i + 1) % n;
+      }
+
+      int remaining = n;
+      int current = 0;
+      int attempts = 0;
+
+      while (remaining > 2)
+      {
+         int a = previous[current], c = next[current];
+         double cross = cross(polygon, a, current, c);
+         boolean isClipped;
+
+         if (cross == 0.0)
+         { // Degenerate vertex, removed without triangle.
+            isClipped = true;
+         }
+         else if (cross > 0.0 && (attempts >= remaining || isEar(polygon, a, current, c, next)))
+         { // When no ear is found because of numerical issues, a convex vertex is clipped regardless.
+            triangleIndices.add(indexOffset + a);
+            triangleIndices.add(indexOffset + current);
+            triangleIndices.add(indexOffset + c);
+            isClipped = true;
+         }
+         else if (attempts >= 2 * remaining)
+         { // No convex vertex is left, the remaining polygon is degenerate: dropped without triangle.
+            isClipped = true;
+         }
+         else
+         {
+            isClipped = false;
+         }
+
+         if (isClipped)
+         {
+            next[a] = c;
+            previous[c] = a;
+            remaining--;
+            attempts = 0;
+            current = c;
+         }
+         else
+         {
+            attempts++;
+            current = c;
+         }
+      }
+   }
+
+   private static boolean isEar(float[] polygon, int a, int b, int c, int[] next)
+   {
+      float ax = polygon[2 * a], ay = polygon[2 * a + 1];
+      float bx = polygon[2 * b], by = polygon[2 * b + 1];
+      float cx = polygon[2 * c], cy = polygon[2 * c + 1];
+
+      for (int i = next[c]; i != a; i = next[i])
+      {
+         float x = polygon[2 * i], y = polygon[2 * i + 1];
+         // The duplicated vertices of the bridges do not prevent the ear.
+         if (x == ax && y == ay || x == bx && y == by || x == cx && y == cy)
+            continue;
+         if (isInTriangle(x, y, ax, ay, bx, by, cx, cy))
+            return false;
+      }
+
+      return true;
+   }
+
+   private static boolean isReflex(float[] polygon, int vertex)
+   {
+      int n = polygon.length / 2;
+      int i = vertex / 2;
+      return cross(polygon, (i + n - 1) % n, i, (i + 1) % n) <= 0.0;
+   }
+
+   private static double cross(float[] polygon, int a, int b, int c)
+   {
+      double abx = polygon[2 * b] - polygon[2 * a], aby = polygon[2 * b + 1] - polygon[2 * a + 1];
+      double bcx = polygon[2 * c] - polygon[2 * b], bcy = polygon[2 * c + 1] - polygon[2 * b + 1];
+      return abx * bcy - aby * bcx;
+   }
+
+   /** Tests whether the point is inside or on the triangle, regardless of its orientation. */
+   private static boolean isInTriangle(float x, float y, float ax, float ay, float bx, float by, float cx, float cy)
+   {
+      double d1 = (bx - ax) * (double) (y - ay) - (by - ay) * (double) (x - ax);
+      double d2 = (cx - bx) * (double) (y - by) - (cy - by) * (double) (x - bx);
+      double d3 = (ax - cx) * (double) (y - cy) - (ay - cy) * (double) (x - cx);
+      boolean hasNegative = d1 < 0.0 || d2 < 0.0 || d3 < 0.0;
+      boolean hasPositive = d1 > 0.0 || d2 > 0.0 || d3 > 0.0;
+      return !(hasNegative && hasPositive);
+   }
+
+   static double signedArea(float[] contour)
+   {
+      double area = 0.0;
+      int n = contour.length;
+      for (int a = 0; a < n; a += 2)
+      {
+         int b = (a + 2) % n;
+         area += (double) contour[a] * contour[b + 1] - (double) contour[b] * contour[a + 1];
+      }
+      return 0.5 * area;
+   }
+
+   /** Even-odd point in polygon test. */
+   private static boolean contains(float[] contour, float x, float y)
+   {
+      boolean isInside = false;
+      int n = contour.length;
+
+      for (int a = 0, b = n - 2; a < n; b = a, a += 2)
+      {
+         float ay = contour[a + 1], by = contour[b + 1];
+         if (ay > y != by > y && x < contour[a] + (y - ay) * (contour[b] - contour[a]) / (by - ay))
+            isInside = !isInside;
+      }
+
+      return isInside;
+   }
+
+   private static void reverse(float[] contour)
+   {
+      for (int i = 0, j = contour.length - 2; i < j; i += 2, j -= 2)
+      {
+         float x = contour[i], y = contour[i + 1];
+         contour[i] = contour[j];
+         contour[i + 1] = contour[j + 1];
+         contour[j] = x;
+         contour[j + 1] = y;
+      }
+   }
+
+   private static float maxX(float[] contour)
+   {
+      float max = Float.NEGATIVE_INFINITY;
+      for (int i = 0; i < contour.length; i += 2)
+         max = Math.max(max, contour[i]);
+      return max;
+   }
+}
@@ -20,6 +20,18 @@ import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
  * It was originally implemented to enabled elegant representation of 3D trajectories.
  * </p>
  * <p>
+ * Two outputs are available and updated by the same compute methods:
+ * <ul>
+ * <li>{@link #getMeshDataHolders()}: one mesh per segment, such that each segment can have its own
+ * appearance.
+ * <li>{@link #getMergedMeshDataHolder()}: a single mesh for the whole line in which consecutive
+ * segments share their ring of vertices, with optional end caps. It has about half the vertices and
+ * only requires one draw call.
+ * </ul>
+ * Both outputs share the vertex instances of the rings, such that updating the merged mesh comes at
+ * no extra cost except for the end caps.
+ * </p>
+ * <p>
  * It has been optimized using YourKit for reducing computation time while guaranteeing free
  * allocation, i.e. no garbage generation such that it does not show up when tracking down garbage
  * generation in the controller.
@@ -39,6 +51,17 @@ public final class SegmentedLine3DMeshDataGenerator
     */
    private final CircleVertices circleTemplate;
    private final CircleVertices[] circles;
+   /**
+    * The single mesh for the whole line, its ring vertices are shared with {@link #circles}.
+    */
+   private final MeshDataHolder mergedMeshDataHolder;
+   /**
+    * The rings used for the end caps, they are copies of the first and last rings with the normals
+    * set to the line direction. {@code null} when the end caps are disabled.
+    */
+   private final CircleVertices startCap, endCap;
+   private final Point3D32 startCapCenter, endCapCenter;
+   private final Vector3D32 startCapNormal, endCapNormal;
 
    /**
     * Create a new mesh generator given the properties necessary to initialize the meshes.
@@ -70,6 +93,24 @@ public final class SegmentedLine3DMeshDataGenerator
     * @param radius            the radius used when rendering the 3D line.
     */
    public SegmentedLine3DMeshDataGenerator(int numberOfWaypoints, int radialResolution, double radius)
+   {
+      this(numberOfWaypoints, radialResolution, radius, false);
+   }
+
+   /**
+    * Create a new mesh generator given the properties necessary to initialize the meshes and the
+    * radius to use for the line.
+    *
+    * @param numberOfWaypoints the number of waypoints this segmented line will have to go through.
+    *                          Necessary to evaluate the number of meshes necessary.
+    * @param radialResolution  refers to the quality of the cylinder rendering of the line section. A
+    *                          high value will result in a smooth circle section, while a low value
+    *                          result in a polygonized section.
+    * @param radius            the radius used when rendering the 3D line.
+    * @param endCaps           whether the merged mesh should be closed with a disk at each end of the
+    *                          line.
+    */
+   public SegmentedLine3DMeshDataGenerator(int numberOfWaypoints, int radialResolution, double radius, boolean endCaps)
    {
       circleTemplate = new CircleVertices(radialResolution);
       circleTemplate.setRadius(radius);
@@ -78,6 +119,27 @@ public final class SegmentedLine3DMeshDataGenerator
          circles[i] = new CircleVertices(radialResolution);
 
       meshDataHolders = createMeshDataHolders(circles);
+
+      if (endCaps)
+      {
+         startCap = new CircleVertices(radialResolution);
+         endCap = new CircleVertices(radialResolution);
+         startCapCenter = new Point3D32();
+         endCapCenter = new Point3D32();
+         startCapNormal = new Vector3D32();
+         endCapNormal = new Vector3D32();
+      }
+      else
+      {
+         startCap = null;
+         endCap = null;
+         startCapCenter = null;
+         endCapCenter = null;
+         startCapNormal = null;
+         endCapNormal = null;
+      }
+
+      mergedMeshDataHolder = createMergedMeshDataHolder();
    }
 
    private final Vector3D previousDirection = new Vector3D();
@@ -144,6 +206,29 @@ public final class SegmentedLine3DMeshDataGenerator
          currentCircle.rotate(rotation);
          currentCircle.translate(waypointPositions[sectionIndex]); // Translation has to be done after the rotation of the vertices.
          previousRotation.set(rotation);
+
+         if (startCap != null && sectionIndex == 0)
+            updateCap(currentCircle, waypointPositions[sectionIndex], sectionDirection, -1.0, startCap, startCapCenter, startCapNormal);
+         if (endCap != null && sectionIndex == circles.length - 1)
+            updateCap(currentCircle, waypointPositions[sectionIndex], sectionDirection, 1.0, endCap, endCapCenter, endCapNormal);
+      }
+
+      // The vertices are modified in place, the cached bounds are outdated.
+      for (MeshDataHolder meshDataHolder : meshDataHolders)
+         meshDataHolder.invalidateBounds();
+      mergedMeshDataHolder.invalidateBounds();
+   }
+
+   private static void updateCap(CircleVertices circle, Point3DReadOnly center, Vector3DReadOnly sectionDirection, double sign, CircleVertices cap,
+                                 Point3D32 capCenter, Vector3D32 capNormal)
+   {
+      capCenter.set(center);
+      capNormal.setAndScale(sign, sectionDirection);
+
+      for (int i = 0; i < cap.getNumberOfVertices(); i++)
+      {
+         cap.vertices[i].set(circle.vertices[i]);
+         cap.normals[i].set(capNormal);
       }
    }
 
@@ -185,6 +270,21 @@ public final class SegmentedLine3DMeshDataGenerator
       return meshDataHolders;
    }
 
+   /**
+    * Gets the reference to the merged output mesh of this generator, which represents the whole line
+    * with consecutive segments sharing their ring of vertices.
+    * <p>
+    * WARNING: the mesh is part of the internal memory of this generator and is updated when calling
+    * one of the compute methods.
+    * </p>
+    *
+    * @return the reference to the merged output mesh of this generator.
+    */
+   public MeshDataHolder getMergedMeshDataHolder()
+   {
+      return mergedMeshDataHolder;
+   }
+
    /**
     * Gets the line radius currently used by this generator.
     *
@@ -269,6 +369,108 @@ public final class SegmentedLine3DMeshDataGenerator
       return meshDataHolders;
    }
 
+   /**
+    * Creates the merged output {@code MeshDataHolder}.
+    * <p>
+    * As for {@link #createMeshDataHolders(CircleVertices[])}, the vertices and normals of the rings
+    * are the instances of the circles such that updating the circles updates the mesh. The vertices of
+    * the end caps are appended after the rings: the ring of the start cap, its center, the ring of the
+    * end cap, and its center.
+    * </p>
+    *
+    * @return the merged mesh that this generator will update.
+    */
+   private MeshDataHolder createMergedMeshDataHolder()
+   {
+      int numberOfWaypoints = circles.length;
+      int radialResolution = circleTemplate.getNumberOfVertices();
+      boolean hasEndCaps = startCap != null;
+
+      int numberOfVertices = numberOfWaypoints * radialResolution;
+      int numberOfTriangleIndices = 6 * radialResolution * (numberOfWaypoints - 1);
+      if (hasEndCaps)
+      {
+         numberOfVertices += 2 * (radialResolution + 1);
+         numberOfTriangleIndices += 2 * 3 * radialResolution;
+      }
+
+      Point3D32[] vertices = new Point3D32[numberOfVertices];
+      Vector3D32[] vertexNormals = new Vector3D32[numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+      int[] triangleIndices = new int[numberOfTriangleIndices];
+
+      int vertexIndex = 0;
+      for (CircleVertices circle : circles)
+      {
+         for (int i = 0; i < radialResolution; i++, vertexIndex++)
+         {
+            vertices[vertexIndex] = circle.vertices[i];
+            vertexNormals[vertexIndex] = circle.normals[i];
+         }
+      }
+
+      int index = 0;
+
+      for (int waypointIndex = 0; waypointIndex < numberOfWaypoints - 1; waypointIndex++)
+      {
+         int offset = waypointIndex * radialResolution;
+
+         for (int i = 0; i < radialResolution; i++)
+         { // Same triangles as the meshes of each segment.
+            int current = offset + i;
+            int next = offset + (i + 1) % radialResolution;
+            triangleIndices[index++] = current;
+            triangleIndices[index++] = next;
+            triangleIndices[index++] = current + radialResolution;
+            triangleIndices[index++] = next;
+            triangleIndices[index++] = next + radialResolution;
+            triangleIndices[index++] = current + radialResolution;
+         }
+      }
+
+      if (hasEndCaps)
+      {
+         int startCapOffset = vertexIndex;
+         vertexIndex = addCapVertices(startCap, startCapCenter, startCapNormal, vertices, vertexNormals, vertexIndex);
+         int endCapOffset = vertexIndex;
+         vertexIndex = addCapVertices(endCap, endCapCenter, endCapNormal, vertices, vertexNormals, vertexIndex);
+
+         int startCenterIndex = startCapOffset + radialResolution;
+         int endCenterIndex = endCapOffset + radialResolution;
+
+         for (int i = 0; i < radialResolution; i++)
+         {
+            int next = (i + 1) % radialResolution;
+            // The start cap faces backward.
+            triangleIndices[index++] = startCenterIndex;
+            triangleIndices[index++] = startCapOffset + next;
+            triangleIndices[index++] = startCapOffset + i;
+            // The end cap faces forward.
+            triangleIndices[index++] = endCenterIndex;
+            triangleIndices[index++] = endCapOffset + i;
+            triangleIndices[index++] = endCapOffset + next;
+         }
+      }
+
+      for (int i = 0; i < numberOfVertices; i++)
+         texturePoints[i] = new TexCoord2f();
+
+      return new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
+   }
+
+   private static int addCapVertices(CircleVertices cap, Point3D32 capCenter, Vector3D32 capNormal, Point3D32[] vertices, Vector3D32[] vertexNormals,
+                                     int vertexIndex)
+   {
+      for (int i = 0; i < cap.getNumberOfVertices(); i++, vertexIndex++)
+      {
+         vertices[vertexIndex] = cap.vertices[i];
+         vertexNormals[vertexIndex] = cap.normals[i];
+      }
+      vertices[vertexIndex] = capCenter;
+      vertexNormals[vertexIndex] = capNormal;
+      return vertexIndex + 1;
+   }
+
    /**
     * Computes the rotation of current section with respect to zUp and which is the closest rotation
     * from the previous section.
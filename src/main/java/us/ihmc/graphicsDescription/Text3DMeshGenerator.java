@@ -0,0 +1,208 @@
+package us.ihmc.graphicsDescription;
+
+import java.awt.Font;
+import java.awt.font.TextAttribute;
+import java.util.Arrays;
+import java.util.Collections;
+
+import us.ihmc.graphicsDescription.GlyphMeshCache.Glyph;
+
+/**
+ * Mesh generator for 3D text assembled from the glyph meshes of a {@link GlyphMeshCache}.
+ * <p>
+ * The glyphs are placed one after the other along the x-axis, each glyph being offset by the
+ * advances and kerning of the previous ones. The output mesh is in the units of the font size, see
+ * {@link GlyphMeshCache}, with the origin on the baseline at the start of the text.
+ * </p>
+ * <p>
+ * Similarly to {@link PointCloud3DMergedMeshGenerator}, the output mesh is reused from one text to
+ * the next: when the text uses fewer vertices than the mesh capacity, the unused vertices are
+ * collapsed at the origin and the unused triangles are degenerate, {@link #getNumberOfVertices()}
+ * and {@link #getNumberOfTriangleIndices()} give the part of the mesh in use. A new mesh is only
+ * allocated when a text requires more vertices than the current capacity, such that once the glyphs
+ * are cached and the capacity is reached, computing a new text does not generate garbage.
+ * </p>
+ * <p>
+ * This class is not thread-safe, the glyph cache can however be shared between generators used in
+ * different threads.
+ * </p>
+ */
+public class Text3DMeshGenerator
+{
+   /** Default font used for 3D text. */
+   public static final Font DEFAULT_FONT = new Font("Lucida Sans", Font.PLAIN, 40);
+
+   private final GlyphMeshCache glyphMeshCache;
+   private final Font font;
+   private double thickness;
+
+   private PackedMeshDataHolder meshDataHolder = new PackedMeshDataHolder(0, 0);
+   private int numberOfVertices = 0;
+   private int numberOfTriangleIndices = 0;
+   private float width = 0.0f;
+
+   /**
+    * Creates a new generator using the {@link #DEFAULT_FONT} and the shared glyph cache.
+    *
+    * @param thickness the extrusion thickness of the text.
+    */
+   public Text3DMeshGenerator(double thickness)
+   {
+      this(GlyphMeshCache.getSharedCache(), DEFAULT_FONT, thickness);
+   }
+
+   /**
+    * Creates a new generator.
+    *
+    * @param glyphMeshCache the cache providing the glyph meshes.
+    * @param font           the font of the text. Kerning is enabled on this font.
+    * @param thickness      the extrusion thickness of the text.
+    */
+   public Text3DMeshGenerator(GlyphMeshCache glyphMeshCache, Font font, double thickness)
+   {
+      this.glyphMeshCache = glyphMeshCache;
+      this.font = font.deriveFont(Collections.singletonMap(TextAttribute.KERNING, TextAttribute.KERNING_ON));
+      this.thickness = thickness;
+   }
+
+   /**
+    * Changes the extrusion thickness of the text. The next call to {@link #compute(CharSequence)} is
+    * effective with the new thickness.
+    *
+    * @param thickness the extrusion thickness of the text.
+    */
+   public void setThickness(double thickness)
+   {
+      this.thickness = thickness;
+   }
+
+   /**
+    * Updates the output mesh to represent the given text.
+    *
+    * @param text the text to generate the mesh of. Not modified.
+    */
+   public void compute(CharSequence text)
+   {
+      int newNumberOfVertices = 0;
+      int newNumberOfTriangleIndices = 0;
+
+      for (int i = 0; i < text.length(); i += Character.charCount(Character.codePointAt(text, i)))
+      {
+         PackedMeshDataHolder glyphMesh = glyphMeshCache.getGlyph(font, Character.codePointAt(text, i), thickness).getMeshDataHolder();
+         newNumberOfVertices += glyphMesh.getNumberOfVertices();
+         newNumberOfTriangleIndices += glyphMesh.getTriangleIndices().length;
+      }
+
+      if (newNumberOfVertices > meshDataHolder.getNumberOfVertices() || newNumberOfTriangleIndices > meshDataHolder.getTriangleIndices().length)
+      {
+         int vertexCapacity = Math.max(newNumberOfVertices, 2 * meshDataHolder.getNumberOfVertices());
+         int triangleIndexCapacity = Math.max(newNumberOfTriangleIndices, 2 * meshDataHolder.getTriangleIndices().length);
+         meshDataHolder = new PackedMeshDataHolder(vertexCapacity, triangleIndexCapacity);
+         meshDataHolder.setName("Text3D");
+         numberOfVertices = 0;
+         numberOfTriangleIndices = 0;
+      }
+
+      float[] vertices = meshDataHolder.getVertexCoordinates();
+      float[] normals = meshDataHolder.getVertexNormalCoordinates();
+      float[] texturePoints = meshDataHolder.getTexturePointCoordinates();
+      int[] triangleIndices = meshDataHolder.getTriangleIndices();
+
+      int vertexOffset = 0;
+      int indexOffset = 0;
+      float penX = 0.0f;
+      int previousCodePoint = -1;
+
+      for (int i = 0; i < text.length(); i += Character.charCount(Character.codePointAt(text, i)))
+      {
+         int codePoint = Character.codePointAt(text, i);
+         if (previousCodePoint != -1)
+            penX += glyphMeshCache.getKerning(font, previousCodePoint, codePoint);
+
+         Glyph glyph = glyphMeshCache.getGlyph(font, codePoint, thickness);
+         PackedMeshDataHolder glyphMesh = glyph.getMeshDataHolder();
+         int glyphNumberOfVertices = glyphMesh.getNumberOfVertices();
+         float[] glyphVertices = glyphMesh.getVertexCoordinates();
+
+         for (int j = 0; j < 3 * glyphNumberOfVertices; j += 3)
+         {
+            vertices[3 * vertexOffset + j] = glyphVertices[j] + penX;
+            vertices[3 * vertexOffset + j + 1] = glyphVertices[j + 1];
+            vertices[3 * vertexOffset + j + 2] = glyphVertices[j + 2];
+         }
+         System.arraycopy(glyphMesh.getVertexNormalCoordinates(), 0, normals, 3 * vertexOffset, 3 * glyphNumberOfVertices);
+         System.arraycopy(glyphMesh.getTexturePointCoordinates(), 0, texturePoints, 2 * vertexOffset, 2 * glyphNumberOfVertices);
+
+         int[] glyphTriangleIndices = glyphMesh.getTriangleIndices();
+         for (int j = 0; j < glyphTriangleIndices.length; j++)
+            triangleIndices[indexOffset + j] = glyphTriangleIndices[j] + vertexOffset;
+
+         vertexOffset += glyphNumberOfVertices;
+         indexOffset += glyphTriangleIndices.length;
+         penX += glyph.getAdvance();
+         previousCodePoint = codePoint;
+      }
+
+      // Collapses the part of the mesh that was used by the previous text.
+      if (vertexOffset < numberOfVertices)
+         Arrays.fill(vertices, 3 * vertexOffset, 3 * numberOfVertices, 0.0f);
+      if (indexOffset < numberOfTriangleIndices)
+         Arrays.fill(triangleIndices, indexOffset, numberOfTriangleIndices, 0);
+
+      numberOfVertices = vertexOffset;
+      numberOfTriangleIndices = indexOffset;
+      width = penX;
+   }
+
+   /**
+    * Gets the reference to the output mesh of this generator.
+    * <p>
+    * WARNING: the mesh is part of the internal memory of this generator and is updated when calling
+    * {@link #compute(CharSequence)}. A new instance is created when the text requires more memory
+    * than the current mesh.
+    * </p>
+    *
+    * @return the reference to the output mesh.
+    */
+   public PackedMeshDataHolder getMeshDataHolder()
+   {
+      return meshDataHolder;
+   }
+
+   /**
+    * @return the number of vertices used by the last text.
+    */
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   /**
+    * Gets the number of triangle indices used by the last text, such that only the first part of the
+    * mesh has to be drawn.
+    *
+    * @return the number of triangle indices to draw.
+    */
+   public int getNumberOfTriangleIndices()
+   {
+      return numberOfTriangleIndices;
+   }
+
+   /**
+    * @return the total advance of the last text along the x-axis.
+    */
+   public float getWidth()
+   {
+      return width;
+   }
+
+   public Font getFont()
+   {
+      return font;
+   }
+
+   public double getThickness()
+   {
+      return thickness;
+   }
+}
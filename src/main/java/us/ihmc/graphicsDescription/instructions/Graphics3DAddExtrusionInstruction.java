@@ -3,38 +3,46 @@ package us.ihmc.graphicsDescription.instructions;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 
+import us.ihmc.graphicsDescription.Text3DMeshGenerator;
 import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
 import us.ihmc.graphicsDescription.instructions.listeners.ExtrusionChangedListener;
 
 public class Graphics3DAddExtrusionInstruction extends Graphics3DInstruction
 {
+   /** Same context as the one of a {@link BufferedImage}, used to measure the text. */
+   private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+
    private BufferedImage bufferedImageToExtrude;
    private double thickness;
 
    private ExtrusionChangedListener extrusionChangedListener;
 
    // Text3D stuff
-   private final Font font = new Font("Lucida Sans", Font.PLAIN, 40);
-
-   private final FontRenderContext fontRenderContext;
-
-   private Graphics3DAddExtrusionInstruction()
-   {
-      super();
-      BufferedImage measurementImage = new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR);
-      Graphics2D measurementGraphics = measurementImage.createGraphics();
-      fontRenderContext = measurementGraphics.getFontRenderContext();
-
-   }
+   private final Font font = Text3DMeshGenerator.DEFAULT_FONT;
+   /** The text to extrude, {@code null} when extruding an image. */
+   private String text;
+   private boolean isImageUpToDate = false;
+   private Text3DMeshGenerator textMeshGenerator;
+   private boolean isTextMeshUpToDate = false;
 
+   /**
+    * Create an extrusion of a text.
+    * <p>
+    * The text is only rendered into an image when requested with {@link #getBufferedImage()}. Graphics
+    * engines supporting it can instead render the text mesh assembled from cached glyphs, see
+    * {@link #getTextMeshGenerator()}.
+    * </p>
+    *
+    * @param text       the text to extrude.
+    * @param thickness  thickness of the extrusion.
+    * @param appearance appearance of the text.
+    */
    public Graphics3DAddExtrusionInstruction(String text, double thickness, AppearanceDefinition appearance)
    {
-      this();
       this.thickness = thickness;
       setText(text);
       setAppearance(appearance);
@@ -51,7 +59,6 @@ public class Graphics3DAddExtrusionInstruction extends Graphics3DInstruction
     */
    public Graphics3DAddExtrusionInstruction(BufferedImage bufferedImageToExtrude, double thickness, AppearanceDefinition appearance)
    {
-      this();
       this.thickness = thickness;
       setBufferedImage(bufferedImageToExtrude);
       setAppearance(appearance);
@@ -59,30 +66,50 @@ public class Graphics3DAddExtrusionInstruction extends Graphics3DInstruction
 
    public BufferedImage getBufferedImage()
    {
+      if (text != null && !isImageUpToDate)
+      {
+         bufferedImageToExtrude = renderText(text);
+         isImageUpToDate = true;
+      }
+
       return bufferedImageToExtrude;
    }
 
    public void setBufferedImage(BufferedImage newImage)
    {
       bufferedImageToExtrude = newImage;
+      text = null;
       notifyChangedListener();
    }
 
    public void setHeight(double height)
    {
       thickness = height;
+      isTextMeshUpToDate = false;
       notifyChangedListener();
    }
 
    public void setText(String text)
    {
-      Rectangle2D bounds = font.getStringBounds(text, fontRenderContext);
+      if (text.equals(this.text))
+         return;
+
+      this.text = text;
+      isImageUpToDate = false;
+      isTextMeshUpToDate = false;
+
+      notifyChangedListener();
+   }
+
+   private BufferedImage renderText(String text)
+   {
+      Rectangle2D bounds = font.getStringBounds(text, FONT_RENDER_CONTEXT);
 
       int width = (int) bounds.getWidth();
       int height = (int) bounds.getHeight();
 
-      bufferedImageToExtrude = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-      Graphics g = bufferedImageToExtrude.getGraphics();
+      BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+      Graphics g = image.getGraphics();
 
       g.setColor(Color.white);
       g.fillRect(0, 0, width, height);
@@ -91,14 +118,50 @@ public class Graphics3DAddExtrusionInstruction extends Graphics3DInstruction
       g.drawString(text, 0, (int) (height + bounds.getCenterY()));
       g.dispose();
 
-      notifyChangedListener();
+      return image;
+   }
+
+   /**
+    * @return the extruded text, or {@code null} if this instruction extrudes an image.
+    */
+   public String getText()
+   {
+      return text;
+   }
+
+   /**
+    * Gets the generator holding the mesh of the extruded text, assembled from the glyphs of the
+    * shared {@link us.ihmc.graphicsDescription.GlyphMeshCache}. The mesh is in the same units as the
+    * pixels of {@link #getBufferedImage()}, with the origin on the baseline of the text.
+    *
+    * @return the text mesh generator, or {@code null} if this instruction extrudes an image.
+    */
+   public Text3DMeshGenerator getTextMeshGenerator()
+   {
+      if (text == null)
+         return null;
+
+      if (textMeshGenerator == null)
+         textMeshGenerator = new Text3DMeshGenerator(thickness);
+
+      if (!isTextMeshUpToDate)
+      {
+         textMeshGenerator.setThickness(thickness);
+         textMeshGenerator.compute(text);
+         isTextMeshUpToDate = true;
+      }
+
+      return textMeshGenerator;
    }
 
    private void notifyChangedListener()
    {
       if (extrusionChangedListener != null)
       {
-         extrusionChangedListener.extrusionChanged(bufferedImageToExtrude, thickness);
+         if (text != null && extrusionChangedListener.isTextMeshSupported())
+            extrusionChangedListener.textMeshChanged(getTextMeshGenerator());
+         else
+            extrusionChangedListener.extrusionChanged(getBufferedImage(), thickness);
       }
    }
 
@@ -1,18 +1,45 @@
 package us.ihmc.graphicsDescription.instructions;
 
+import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.graphicsDescription.HeightMap;
+import us.ihmc.graphicsDescription.HeightMapTileMesher;
 import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
+import us.ihmc.graphicsDescription.instructions.listeners.HeightMapChangedListener;
 
 public class Graphics3DAddHeightMapInstruction extends Graphics3DInstruction
 {
    private final HeightMap heightMap;
    private final int xPointsPerSide, yPointsPerSide;
+   private final HeightMapTileMesher tileMesher;
+   private HeightMapChangedListener heightMapChangedListener;
 
    public Graphics3DAddHeightMapInstruction(HeightMap heightMap, int xPointsPerSide, int yPointsPerSide, AppearanceDefinition appearance)
    {
       this.heightMap = heightMap;
       this.xPointsPerSide = xPointsPerSide;
       this.yPointsPerSide = yPointsPerSide;
+      this.tileMesher = null;
+
+      setAppearance(appearance);
+   }
+
+   /**
+    * Creates an instruction for a terrain meshed as tiles with multiple levels of detail.
+    * <p>
+    * Executors supporting tiled terrains can get the tile meshes from {@link #getTileMesher()}. The
+    * number of points per side is set to the resolution of the finest level over the entire height
+    * map, such that other executors can still mesh the terrain as a single grid.
+    * </p>
+    *
+    * @param tileMesher the mesher providing the tile meshes.
+    * @param appearance the appearance of the terrain.
+    */
+   public Graphics3DAddHeightMapInstruction(HeightMapTileMesher tileMesher, AppearanceDefinition appearance)
+   {
+      this.heightMap = tileMesher.getHeightMap();
+      this.xPointsPerSide = tileMesher.getNumberOfTilesX() * tileMesher.getTileResolution() + 1;
+      this.yPointsPerSide = tileMesher.getNumberOfTilesY() * tileMesher.getTileResolution() + 1;
+      this.tileMesher = tileMesher;
 
       setAppearance(appearance);
    }
@@ -32,4 +59,57 @@ public class Graphics3DAddHeightMapInstruction extends Graphics3DInstruction
       return yPointsPerSide;
    }
 
+   /**
+    * Gets the mesher providing the meshes of the terrain tiles.
+    *
+    * @return the tile mesher, or {@code null} if the terrain is to be meshed as a single grid.
+    */
+   public HeightMapTileMesher getTileMesher()
+   {
+      return tileMesher;
+   }
+
+   public void setHeightMapChangedListener(HeightMapChangedListener heightMapChangedListener)
+   {
+      this.heightMapChangedListener = heightMapChangedListener;
+   }
+
+   /**
+    * Notifies that the heights of the height map have changed within the given rectangle, such that
+    * only the corresponding part of the terrain mesh is updated.
+    * <p>
+    * When this instruction has a tile mesher, the tiles overlapping the rectangle are updated in
+    * place first, see
+    * {@link HeightMapTileMesher#updateRegion(double, double, double, double, HeightMapChangedListener)},
+    * and the listener is notified of each updated tile. The listener is then notified of the
+    * rectangle. The listener is called from the thread calling this method.
+    * </p>
+    *
+    * @param minX the lower x-coordinate of the modified rectangle.
+    * @param minY the lower y-coordinate of the modified rectangle.
+    * @param maxX the upper x-coordinate of the modified rectangle.
+    * @param maxY the upper y-coordinate of the modified rectangle.
+    */
+   public void notifyHeightMapChanged(double minX, double minY, double maxX, double maxY)
+   {
+      incrementGeometryVersion();
+
+      if (tileMesher != null)
+         tileMesher.updateRegion(minX, minY, maxX, maxY, heightMapChangedListener);
+
+      if (heightMapChangedListener != null)
+      {
+         heightMapChangedListener.heightMapChanged(minX, minY, maxX, maxY);
+      }
+   }
+
+   /**
+    * Notifies that the heights of the entire height map may have changed.
+    */
+   public void notifyHeightMapChanged()
+   {
+      BoundingBox3D boundingBox = heightMap.getBoundingBox();
+      notifyHeightMapChanged(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMaxX(), boundingBox.getMaxY());
+   }
+
 }
@@ -0,0 +1,370 @@
+package us.ihmc.graphicsDescription.instructions;
+
+import us.ihmc.euclid.matrix.RotationMatrix;
+import us.ihmc.euclid.transform.interfaces.RigidBodyTransformReadOnly;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.MeshTransforms;
+import us.ihmc.graphicsDescription.TexCoord2f;
+import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
+import us.ihmc.graphicsDescription.instructions.listeners.InstancesChangedListener;
+
+/**
+ * Instruction for rendering many copies of a single mesh, each copy being placed with its own
+ * transform and optionally its own color.
+ * <p>
+ * The per-instance data is packed in arrays allocated once for the maximum number of instances,
+ * such that updating the instances never reallocates:
+ * <ul>
+ * <li>the transforms use {@value #TRANSFORM_STRIDE} floats per instance, storing the 3-by-4 affine
+ * matrix row by row: {@code [m00, m01, m02, tx, m10, m11, m12, ty, m20, m21, m22, tz]}. The 3-by-3
+ * part is the rotation multiplied by the scale.
+ * <li>the colors, if enabled, use {@value #COLOR_STRIDE} floats per instance: {@code [r, g, b, a]}
+ * in [0, 1].
+ * </ul>
+ * </p>
+ * <p>
+ * The range of instances modified since the last notification is tracked such that the graphics
+ * engine only has to upload this range when {@link #notifyInstancesChanged()} is called.
+ * </p>
+ */
+public class Graphics3DAddInstancedMeshInstruction extends Graphics3DInstruction
+{
+   /** Number of floats used to store the transform of an instance. */
+   public static final int TRANSFORM_STRIDE = 12;
+   /** Number of floats used to store the color of an instance. */
+   public static final int COLOR_STRIDE = 4;
+
+   private final MeshDataHolder meshData;
+   private final int maxNumberOfInstances;
+   private int numberOfInstances = 0;
+
+   private final float[] instanceTransforms;
+   private final float[] instanceColors;
+
+   private int dirtyFromInstance = Integer.MAX_VALUE;
+   private int dirtyToInstance = 0;
+   private InstancesChangedListener instancesChangedListener;
+
+   private final RotationMatrix rotation = new RotationMatrix();
+
+   /**
+    * Creates a new instruction with no instance.
+    *
+    * @param meshData             the mesh to be rendered for each instance.
+    * @param maxNumberOfInstances the capacity of this instruction.
+    * @param hasInstanceColors    whether each instance has its own color, otherwise all the instances
+    *                             use the appearance of this instruction.
+    * @param appearance           the appearance of the mesh.
+    */
+   public Graphics3DAddInstancedMeshInstruction(MeshDataHolder meshData, int maxNumberOfInstances, boolean hasInstanceColors,
+                                                AppearanceDefinition appearance)
+   {
+      this.meshData = meshData;
+      this.maxNumberOfInstances = maxNumberOfInstances;
+      instanceTransforms = new float[TRANSFORM_STRIDE * maxNumberOfInstances];
+      instanceColors = hasInstanceColors ? new float[COLOR_STRIDE * maxNumberOfInstances] : null;
+      setAppearance(appearance);
+
+      for (int i = 0; i < maxNumberOfInstances; i++)
+      {
+         setInstancePosition(i, 0.0, 0.0, 0.0);
+         if (hasInstanceColors)
+            setInstanceColor(i, 1.0f, 1.0f, 1.0f, 1.0f);
+      }
+      dirtyFromInstance = Integer.MAX_VALUE;
+      dirtyToInstance = 0;
+   }
+
+   /**
+    * @return the mesh rendered for each instance.
+    */
+   public MeshDataHolder getMeshData()
+   {
+      return meshData;
+   }
+
+   /**
+    * Sets the number of instances to be rendered, which are the first instances of the packed
+    * arrays.
+    *
+    * @param numberOfInstances the new number of instances.
+    * @throws IllegalArgumentException if {@code numberOfInstances} is negative or greater than
+    *                                  {@link #getMaxNumberOfInstances()}.
+    */
+   public void setNumberOfInstances(int numberOfInstances)
+   {
+      if (numberOfInstances < 0 || numberOfInstances > maxNumberOfInstances)
+         throw new IllegalArgumentException("Unexpected number of instances. Expected in [0, " + maxNumberOfInstances + "], but was: " + numberOfInstances);
+
+      // The instances added or removed are reported as modified, such that the listener is notified.
+      if (numberOfInstances != this.numberOfInstances)
+         markDirty(Math.min(numberOfInstances, this.numberOfInstances), Math.max(numberOfInstances, this.numberOfInstances));
+      this.numberOfInstances = numberOfInstances;
+   }
+
+   /**
+    * Places an instance with the given transform.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param transform     the transform of the instance. Not modified.
+    */
+   public void setInstance(int instanceIndex, RigidBodyTransformReadOnly transform)
+   {
+      setInstance(instanceIndex, transform, 1.0, 1.0, 1.0);
+   }
+
+   /**
+    * Places an instance with the given transform and scales it uniformly.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param transform     the transform of the instance. Not modified.
+    * @param scale         the scale factor of the instance.
+    */
+   public void setInstance(int instanceIndex, RigidBodyTransformReadOnly transform, double scale)
+   {
+      setInstance(instanceIndex, transform, scale, scale, scale);
+   }
+
+   /**
+    * Places an instance with the given transform and scales it along each of its local axes.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param transform     the transform of the instance. Not modified.
+    * @param scale         the scale factors of the instance. Not modified.
+    */
+   public void setInstance(int instanceIndex, RigidBodyTransformReadOnly transform, Tuple3DReadOnly scale)
+   {
+      setInstance(instanceIndex, transform, scale.getX(), scale.getY(), scale.getZ());
+   }
+
+   private void setInstance(int instanceIndex, RigidBodyTransformReadOnly transform, double scaleX, double scaleY, double scaleZ)
+   {
+      rotation.set(transform.getRotation());
+      int offset = TRANSFORM_STRIDE * instanceIndex;
+
+      instanceTransforms[offset] = (float) (rotation.getM00() * scaleX);
+      instanceTransforms[offset + 1] = (float) (rotation.getM01() * scaleY);
+      instanceTransforms[offset + 2] = (float) (rotation.getM02() * scaleZ);
+      instanceTransforms[offset + 3] = (float) transform.getTranslationX();
+      instanceTransforms[offset + 4] = (float) (rotation.getM10() * scaleX);
+      instanceTransforms[offset + 5] = (float) (rotation.getM11() * scaleY);
+      instanceTransforms[offset + 6] = (float) (rotation.getM12() * scaleZ);
+      instanceTransforms[offset + 7] = (float) transform.getTranslationY();
+      instanceTransforms[offset + 8] = (float) (rotation.getM20() * scaleX);
+      instanceTransforms[offset + 9] = (float) (rotation.getM21() * scaleY);
+      instanceTransforms[offset + 10] = (float) (rotation.getM22() * scaleZ);
+      instanceTransforms[offset + 11] = (float) transform.getTranslationZ();
+      markDirty(instanceIndex, instanceIndex + 1);
+   }
+
+   /**
+    * Places an instance at the given position with no rotation and no scale.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param x             the x-coordinate of the instance.
+    * @param y             the y-coordinate of the instance.
+    * @param z             the z-coordinate of the instance.
+    */
+   public void setInstancePosition(int instanceIndex, double x, double y, double z)
+   {
+      setInstancePosition(instanceIndex, x, y, z, 1.0);
+   }
+
+   /**
+    * Places an instance at the given position with no rotation and scales it uniformly.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param x             the x-coordinate of the instance.
+    * @param y             the y-coordinate of the instance.
+    * @param z             the z-coordinate of the instance.
+    * @param scale         the scale factor of the instance.
+    */
+   public void setInstancePosition(int instanceIndex, double x, double y, double z, double scale)
+   {
+      int offset = TRANSFORM_STRIDE * instanceIndex;
+      float s = (float) scale;
+
+      instanceTransforms[offset] = s;
+      instanceTransforms[offset + 1] = 0.0f;
+      instanceTransforms[offset + 2] = 0.0f;
+      instanceTransforms[offset + 3] = (float) x;
+      instanceTransforms[offset + 4] = 0.0f;
+      instanceTransforms[offset + 5] = s;
+      instanceTransforms[offset + 6] = 0.0f;
+      instanceTransforms[offset + 7] = (float) y;
+      instanceTransforms[offset + 8] = 0.0f;
+      instanceTransforms[offset + 9] = 0.0f;
+      instanceTransforms[offset + 10] = s;
+      instanceTransforms[offset + 11] = (float) z;
+      markDirty(instanceIndex, instanceIndex + 1);
+   }
+
+   /**
+    * Sets the color of an instance.
+    *
+    * @param instanceIndex the index of the instance.
+    * @param red           the red component in [0, 1].
+    * @param green         the green component in [0, 1].
+    * @param blue          the blue component in [0, 1].
+    * @param alpha         the alpha component in [0, 1].
+    * @throws IllegalStateException if this instruction was created without instance colors.
+    */
+   public void setInstanceColor(int instanceIndex, float red, float green, float blue, float alpha)
+   {
+      if (instanceColors == null)
+         throw new IllegalStateException("This instruction does not have instance colors.");
+
+      int offset = COLOR_STRIDE * instanceIndex;
+      instanceColors[offset] = red;
+      instanceColors[offset + 1] = green;
+      instanceColors[offset + 2] = blue;
+      instanceColors[offset + 3] = alpha;
+      markDirty(instanceIndex, instanceIndex + 1);
+   }
+
+   private void markDirty(int fromInstance, int toInstance)
+   {
+      dirtyFromInstance = Math.min(dirtyFromInstance, fromInstance);
+      dirtyToInstance = Math.max(dirtyToInstance, toInstance);
+      incrementGeometryVersion();
+   }
+
+   /**
+    * Notifies the listener of the range of instances modified since the last notification. This is
+    * to be called once after a batch of updates.
+    */
+   public void notifyInstancesChanged()
+   {
+      if (dirtyFromInstance >= dirtyToInstance)
+         return;
+
+      if (instancesChangedListener != null)
+         instancesChangedListener.instancesChanged(dirtyFromInstance, dirtyToInstance);
+
+      dirtyFromInstance = Integer.MAX_VALUE;
+      dirtyToInstance = 0;
+   }
+
+   public void setInstancesChangedListener(InstancesChangedListener instancesChangedListener)
+   {
+      this.instancesChangedListener = instancesChangedListener;
+   }
+
+   /**
+    * Gets the reference to the packed transforms of the instances, see the class documentation for
+    * the layout.
+    * <p>
+    * WARNING: the array is part of the internal memory of this instruction, it is allocated for
+    * {@link #getMaxNumberOfInstances()} but only the first {@link #getNumberOfInstances()} are to be
+    * rendered.
+    * </p>
+    *
+    * @return the packed transforms.
+    */
+   public float[] getInstanceTransforms()
+   {
+      return instanceTransforms;
+   }
+
+   /**
+    * Gets the reference to the packed colors of the instances, see the class documentation for the
+    * layout.
+    *
+    * @return the packed colors, or {@code null} if this instruction does not have instance colors.
+    */
+   public float[] getInstanceColors()
+   {
+      return instanceColors;
+   }
+
+   public boolean hasInstanceColors()
+   {
+      return instanceColors != null;
+   }
+
+   public int getNumberOfInstances()
+   {
+      return numberOfInstances;
+   }
+
+   public int getMaxNumberOfInstances()
+   {
+      return maxNumberOfInstances;
+   }
+
+   /**
+    * Creates a single mesh made of a copy of the mesh of this instruction for each instance. This is
+    * meant for graphics engines that do not support instancing, the instance colors are ignored.
+    *
+    * @return the combined mesh.
+    */
+   public MeshDataHolder toMeshDataHolder()
+   {
+      Point3D32[] meshVertices = meshData.getVertices();
+      Vector3D32[] meshNormals = meshData.getVertexNormals();
+      TexCoord2f[] meshTexturePoints = meshData.getTexturePoints();
+      int[] meshTriangleIndices = meshData.getTriangleIndices();
+      int numberOfVertices = meshVertices.length;
+
+      Point3D32[] vertices = new Point3D32[numberOfInstances * numberOfVertices];
+      Vector3D32[] normals = new Vector3D32[numberOfInstances * numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfInstances * numberOfVertices];
+      int[] triangleIndices = new int[numberOfInstances * meshTriangleIndices.length];
+
+      float[] instanceMatrix = new float[MeshTransforms.MATRIX_SIZE];
+      float[] normalMatrix = new float[MeshTransforms.MATRIX_SIZE];
+
+      for (int instance = 0; instance < numberOfInstances; instance++)
+      {
+         System.arraycopy(instanceTransforms, TRANSFORM_STRIDE * instance, instanceMatrix, 0, TRANSFORM_STRIDE);
+         float m00 = instanceMatrix[0], m01 = instanceMatrix[1], m02 = instanceMatrix[2], tx = instanceMatrix[3];
+         float m10 = instanceMatrix[4], m11 = instanceMatrix[5], m12 = instanceMatrix[6], ty = instanceMatrix[7];
+         float m20 = instanceMatrix[8], m21 = instanceMatrix[9], m22 = instanceMatrix[10], tz = instanceMatrix[11];
+
+         MeshTransforms.computeNormalMatrix(instanceMatrix, normalMatrix);
+         float n00 = normalMatrix[0], n01 = normalMatrix[1], n02 = normalMatrix[2];
+         float n10 = normalMatrix[4], n11 = normalMatrix[5], n12 = normalMatrix[6];
+         float n20 = normalMatrix[8], n21 = normalMatrix[9], n22 = normalMatrix[10];
+         // A mirrored instance has to have its triangles reversed to remain facing outward.
+         boolean isMirrored = m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20) < 0.0f;
+
+         int vertexOffset = instance * numberOfVertices;
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            Point3D32 v = meshVertices[i];
+            Vector3D32 n = meshNormals[i];
+            vertices[vertexOffset + i] = new Point3D32(m00 * v.getX32() + m01 * v.getY32() + m02 * v.getZ32() + tx,
+                                                       m10 * v.getX32() + m11 * v.getY32() + m12 * v.getZ32() + ty,
+                                                       m20 * v.getX32() + m21 * v.getY32() + m22 * v.getZ32() + tz);
+            Vector3D32 normal = new Vector3D32(n00 * n.getX32() + n01 * n.getY32() + n02 * n.getZ32(),
+                                               n10 * n.getX32() + n11 * n.getY32() + n12 * n.getZ32(),
+                                               n20 * n.getX32() + n21 * n.getY32() + n22 * n.getZ32());
+            normal.normalize();
+            normals[vertexOffset + i] = normal;
+            texturePoints[vertexOffset + i] = meshTexturePoints[i];
+         }
+
+         int indexOffset = instance * meshTriangleIndices.length;
+         for (int i = 0; i < meshTriangleIndices.length; i += 3)
+         {
+            triangleIndices[indexOffset + i] = meshTriangleIndices[i] + vertexOffset;
+            triangleIndices[indexOffset + i + 1] = meshTriangleIndices[isMirrored ? i + 2 : i + 1] + vertexOffset;
+            triangleIndices[indexOffset + i + 2] = meshTriangleIndices[isMirrored ? i + 1 : i + 2] + vertexOffset;
+         }
+      }
+
+      MeshDataHolder combined = new MeshDataHolder(vertices, texturePoints, triangleIndices, normals);
+      combined.setName(meshData.getName());
+      return combined;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "\t\t\t<InstancedMeshInstruction@" + hashCode() + ">\n";
+   }
+}
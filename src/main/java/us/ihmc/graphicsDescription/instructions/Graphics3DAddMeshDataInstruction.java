@@ -1,12 +1,28 @@
 package us.ihmc.graphicsDescription.instructions;
 
+import java.util.function.Supplier;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox3DReadOnly;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
 import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.MeshLODChain;
+import us.ihmc.graphicsDescription.TexCoord2f;
 import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
 import us.ihmc.graphicsDescription.instructions.listeners.MeshChangedListener;
 
 public class Graphics3DAddMeshDataInstruction extends Graphics3DInstruction
 {
-   private MeshDataHolder meshData;
+   private volatile MeshDataHolder meshData;
+   private MeshLODChain lodChain;
+   /** When not {@code null}, the mesh is generated on demand and can be released. */
+   private Supplier<MeshDataHolder> meshSupplier;
+   /**
+    * The bounding box of the mesh last generated by the supplier, kept when the mesh is released such
+    * that its bounds remain known without generating it again.
+    */
+   private volatile BoundingBox3D meshBoundingBox;
    private MeshChangedListener meshChangedListener;
 
    public Graphics3DAddMeshDataInstruction(MeshDataHolder meshData, AppearanceDefinition appearance)
@@ -15,11 +31,181 @@ public class Graphics3DAddMeshDataInstruction extends Graphics3DInstruction
       setAppearance(appearance);
    }
 
+   /**
+    * Creates an instruction for a mesh that is generated on first access.
+    * <p>
+    * The mesh is generated by the supplier the first time {@link #getMeshData()} is called. It can
+    * then be released with {@link #releaseMeshData()}, which is done by
+    * {@link Graphics3DInstructionExecutor} once the mesh has been added to the scene, and is
+    * regenerated the next time it is accessed. This avoids keeping large generated meshes in memory
+    * for graphics that are not shown or that are already held by the graphics engine.
+    * </p>
+    *
+    * @param meshSupplier the function used to generate the mesh, it should always return the same
+    *                     mesh.
+    * @param appearance   the appearance of the mesh.
+    */
+   public Graphics3DAddMeshDataInstruction(Supplier<MeshDataHolder> meshSupplier, AppearanceDefinition appearance)
+   {
+      this.meshSupplier = meshSupplier;
+      setAppearance(appearance);
+   }
+
+   /**
+    * Creates an instruction for a mesh with several levels of detail. {@link #getMeshData()} returns
+    * the full resolution level, executors supporting levels of detail can use {@link #getLODChain()}
+    * to pick the level to render from the screen size of the mesh.
+    *
+    * @param lodChain   the levels of detail of the mesh.
+    * @param appearance the appearance of the mesh.
+    */
+   public Graphics3DAddMeshDataInstruction(MeshLODChain lodChain, AppearanceDefinition appearance)
+   {
+      this(lodChain.getLevel(0), appearance);
+      this.lodChain = lodChain;
+   }
+
+   /**
+    * Gets the mesh of this instruction, generating it first if this instruction is supplier-backed and
+    * the mesh is not currently held.
+    *
+    * @return the mesh.
+    */
    public MeshDataHolder getMeshData()
    {
+      MeshDataHolder localMeshData = meshData;
+      if (localMeshData == null && meshSupplier != null)
+         localMeshData = realizeMeshData();
+      return localMeshData;
+   }
+
+   private synchronized MeshDataHolder realizeMeshData()
+   {
+      if (meshData == null)
+         meshData = generateMeshData();
       return meshData;
    }
 
+   private MeshDataHolder generateMeshData()
+   {
+      MeshDataHolder generated = meshSupplier.get();
+
+      if (generated == null)
+      { // The subsequent classes do not accept null, just create an empty mesh in that case
+         generated = new MeshDataHolder(new Point3D32[0], new TexCoord2f[0], new int[0], new Vector3D32[0]);
+         generated.setName("nullMesh");
+      }
+      meshBoundingBox = new BoundingBox3D(generated.getBoundingBox());
+      return generated;
+   }
+
+   /**
+    * @return whether the mesh of this instruction is generated on demand.
+    */
+   public boolean isSupplierBacked()
+   {
+      return meshSupplier != null;
+   }
+
+   /**
+    * @return whether the mesh is currently held by this instruction, this is always {@code true} when
+    *         this instruction is not supplier-backed.
+    */
+   public boolean isMeshDataLoaded()
+   {
+      return meshData != null;
+   }
+
+   /**
+    * Releases the mesh of a supplier-backed instruction, such that it can be garbage collected. It will
+    * be regenerated the next time it is accessed. This has no effect on an instruction that is not
+    * supplier-backed.
+    */
+   public synchronized void releaseMeshData()
+   {
+      if (meshSupplier != null && meshData != null)
+      { // The mesh may have been modified in place since it was generated.
+         meshBoundingBox = new BoundingBox3D(meshData.getBoundingBox());
+         meshData = null;
+      }
+   }
+
+   /**
+    * Gets the bounding box of the mesh of this instruction.
+    * <p>
+    * For a supplier-backed instruction whose mesh has been released, this is the bounding box of the
+    * mesh when it was last held, such that the mesh does not have to be generated again. If the mesh
+    * has never been generated, it is generated once to compute its bounds and released.
+    * </p>
+    *
+    * @return the bounding box of the mesh, or {@code null} if this instruction has no mesh.
+    */
+   public BoundingBox3DReadOnly getBoundingBox()
+   {
+      MeshDataHolder localMeshData = meshData;
+      if (localMeshData != null)
+         return localMeshData.getBoundingBox();
+
+      synchronized (this)
+      {
+         if (meshSupplier == null)
+            return meshData == null ? null : meshData.getBoundingBox();
+
+         if (meshData == null && meshBoundingBox == null)
+            generateMeshData();
+         return meshData == null ? meshBoundingBox : meshData.getBoundingBox();
+      }
+   }
+
+   /**
+    * Generates the mesh again from the supplier and notifies the listener. This is to be called when
+    * the source data of a supplier-backed instruction has changed. This has no effect on an
+    * instruction that is not supplier-backed.
+    */
+   public void regenerateMeshData()
+   {
+      if (meshSupplier == null)
+         return;
+
+      MeshDataHolder newMesh;
+
+      synchronized (this)
+      {
+         newMesh = generateMeshData();
+         meshData = newMesh;
+      }
+
+      incrementGeometryVersion();
+
+      if (meshChangedListener != null)
+      {
+         meshChangedListener.meshChanged(newMesh);
+      }
+   }
+
+   /**
+    * @return the levels of detail of the mesh, or {@code null} if this instruction only has a single
+    *         level.
+    */
+   public MeshLODChain getLODChain()
+   {
+      return lodChain;
+   }
+
+   /**
+    * Gets the mesh to render for the given screen size. When no levels of detail are available, this
+    * is the same as {@link #getMeshData()}.
+    *
+    * @param screenSize the ratio of the projected size of the mesh over the viewport height.
+    * @return the mesh to render.
+    */
+   public MeshDataHolder getMeshData(double screenSize)
+   {
+      if (lodChain == null)
+         return getMeshData();
+      return lodChain.getMeshData(screenSize);
+   }
+
    @Override
    public String toString()
    {
@@ -31,12 +217,152 @@ public class Graphics3DAddMeshDataInstruction extends Graphics3DInstruction
       this.meshChangedListener = meshChangedListener;
    }
 
+   /**
+    * Replaces the mesh of this instruction. Any previous levels of detail or mesh supplier are
+    * discarded.
+    *
+    * @param newMesh the new mesh.
+    */
    public void setMesh(MeshDataHolder newMesh)
    {
       meshData = newMesh;
+      lodChain = null;
+      meshSupplier = null;
+      meshBoundingBox = null; // The mesh is now always held, its bounds are read from it.
+      incrementGeometryVersion();
       if (meshChangedListener != null)
       {
          meshChangedListener.meshChanged(newMesh);
       }
    }
+
+   /**
+    * Replaces the mesh of this instruction, notifying the listener only of the data that differs from
+    * the current mesh.
+    * <p>
+    * When the new mesh has the same number of vertices and triangle indices as the current one, the
+    * two are compared and the listener is notified of the modified ranges with
+    * {@link MeshChangedListener#meshRegionChanged}, or not notified at all when nothing changed. When
+    * the new mesh is the same instance as the current one, it cannot be compared and all its vertices
+    * and triangle indices are reported as modified. Otherwise, this is equivalent to {@link #setMesh(MeshDataHolder)}.
+    * </p>
+    *
+    * @param newMesh the new mesh.
+    */
+   public void updateMesh(MeshDataHolder newMesh)
+   {
+      MeshDataHolder oldMesh = meshData;
+
+      if (newMesh == null || oldMesh == null || lodChain != null || meshSupplier != null
+            || newMesh.getVertices().length != oldMesh.getVertices().length
+            || newMesh.getTriangleIndices().length != oldMesh.getTriangleIndices().length)
+      {
+         setMesh(newMesh);
+         return;
+      }
+
+      meshData = newMesh;
+
+      if (newMesh == oldMesh)
+      {
+         notifyMeshRegionChanged(0, newMesh.getVertices().length, 0, newMesh.getTriangleIndices().length);
+         return;
+      }
+
+      int numberOfVertices = newMesh.getVertices().length;
+      int fromVertex = 0;
+      while (fromVertex < numberOfVertices && isVertexEqual(oldMesh, newMesh, fromVertex))
+         fromVertex++;
+      int toVertex = numberOfVertices;
+      while (toVertex > fromVertex && isVertexEqual(oldMesh, newMesh, toVertex - 1))
+         toVertex--;
+
+      int[] oldTriangleIndices = oldMesh.getTriangleIndices();
+      int[] newTriangleIndices = newMesh.getTriangleIndices();
+      int fromTriangleIndex = 0;
+      while (fromTriangleIndex < newTriangleIndices.length && oldTriangleIndices[fromTriangleIndex] == newTriangleIndices[fromTriangleIndex])
+         fromTriangleIndex++;
+      int toTriangleIndex = newTriangleIndices.length;
+      while (toTriangleIndex > fromTriangleIndex && oldTriangleIndices[toTriangleIndex - 1] == newTriangleIndices[toTriangleIndex - 1])
+         toTriangleIndex--;
+
+      if (fromVertex == toVertex)
+         fromVertex = toVertex = 0;
+      if (fromTriangleIndex == toTriangleIndex)
+         fromTriangleIndex = toTriangleIndex = 0;
+
+      if (fromVertex < toVertex || fromTriangleIndex < toTriangleIndex)
+         notifyMeshRegionChanged(fromVertex, toVertex, fromTriangleIndex, toTriangleIndex);
+   }
+
+   private static boolean isVertexEqual(MeshDataHolder a, MeshDataHolder b, int index)
+   {
+      Point3D32 vertexA = a.getVertices()[index], vertexB = b.getVertices()[index];
+      if (vertexA.getX32() != vertexB.getX32() || vertexA.getY32() != vertexB.getY32() || vertexA.getZ32() != vertexB.getZ32())
+         return false;
+
+      Vector3D32 normalA = a.getVertexNormals()[index], normalB = b.getVertexNormals()[index];
+      if (normalA.getX32() != normalB.getX32() || normalA.getY32() != normalB.getY32() || normalA.getZ32() != normalB.getZ32())
+         return false;
+
+      TexCoord2f texturePointA = a.getTexturePoints()[index], texturePointB = b.getTexturePoints()[index];
+      return texturePointA.x == texturePointB.x && texturePointA.y == texturePointB.y;
+   }
+
+   /**
+    * Notifies the listener that the vertices in the range [{@code fromVertex}, {@code toVertex}) of
+    * the current mesh have been modified in place. The triangle indices are unchanged.
+    *
+    * @param fromVertex the index of the first modified vertex, inclusive.
+    * @param toVertex   the index of the last modified vertex, exclusive.
+    */
+   public void notifyVerticesChanged(int fromVertex, int toVertex)
+   {
+      notifyMeshRegionChanged(fromVertex, toVertex, 0, 0);
+   }
+
+   /**
+    * Notifies the listener that the given ranges of the current mesh have been modified in place
+    * without changing the number of vertices or triangle indices.
+    *
+    * @param fromVertex        the index of the first modified vertex, inclusive.
+    * @param toVertex          the index of the last modified vertex, exclusive.
+    * @param fromTriangleIndex the index of the first modified triangle index, inclusive.
+    * @param toTriangleIndex   the index of the last modified triangle index, exclusive.
+    */
+   public void notifyMeshRegionChanged(int fromVertex, int toVertex, int fromTriangleIndex, int toTriangleIndex)
+   {
+      MeshDataHolder currentMesh = meshData;
+
+      if (fromVertex < toVertex)
+      {
+         if (currentMesh != null)
+            currentMesh.invalidateBounds();
+         incrementGeometryVersion();
+      }
+
+      if (meshChangedListener != null)
+      {
+         meshChangedListener.meshRegionChanged(currentMesh, fromVertex, toVertex, fromTriangleIndex, toTriangleIndex);
+      }
+   }
+
+   /**
+    * Replaces the mesh of this instruction with a mesh that has several levels of detail. The
+    * listener is notified with the full resolution level.
+    *
+    * @param newLODChain the levels of detail of the new mesh.
+    */
+   public void setLODChain(MeshLODChain newLODChain)
+   {
+      meshData = newLODChain.getLevel(0);
+      lodChain = newLODChain;
+      meshSupplier = null;
+      meshBoundingBox = null;
+      incrementGeometryVersion();
+      if (meshChangedListener != null)
+      {
+         meshChangedListener.meshChanged(meshData);
+      }
+   }
 }
@@ -1,5 +1,7 @@
 package us.ihmc.graphicsDescription.instructions;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
 import us.ihmc.graphicsDescription.instructions.listeners.AppearanceChangedListener;
 
@@ -9,6 +11,9 @@ public abstract class Graphics3DInstruction implements Graphics3DPrimitiveInstru
 
    private AppearanceChangedListener appearanceChangedListener = null;
 
+   /** Incremented by the thread modifying the geometry, read by the thread computing the bounds. */
+   private final AtomicLong geometryVersion = new AtomicLong();
+
    public AppearanceDefinition getAppearance()
    {
       return appearance;
@@ -28,4 +33,18 @@ public abstract class Graphics3DInstruction implements Graphics3DPrimitiveInstru
       this.appearanceChangedListener = appearanceChangedListener;
    }
 
+   @Override
+   public long getGeometryVersion()
+   {
+      return geometryVersion.get();
+   }
+
+   /**
+    * To be called by the instructions whenever the geometry they describe is modified.
+    */
+   protected void incrementGeometryVersion()
+   {
+      geometryVersion.incrementAndGet();
+   }
+
 }
@@ -2,6 +2,7 @@ package us.ihmc.graphicsDescription.instructions;
 
 import java.util.List;
 
+import us.ihmc.graphicsDescription.MeshDataHolder;
 import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DIdentityInstruction;
 import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
 import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
@@ -28,6 +29,13 @@ public abstract class Graphics3DInstructionExecutor
          {
             Graphics3DAddMeshDataInstruction meshDataInstruction = (Graphics3DAddMeshDataInstruction) instruction;
             doAddMeshDataInstruction(meshDataInstruction);
+            // The graphics engine now holds its own copy, a supplier-backed mesh can be regenerated if needed.
+            meshDataInstruction.releaseMeshData();
+         }
+         else if (instruction instanceof Graphics3DAddInstancedMeshInstruction)
+         {
+            Graphics3DAddInstancedMeshInstruction instancedMeshInstruction = (Graphics3DAddInstancedMeshInstruction) instruction;
+            doAddInstancedMeshInstruction(instancedMeshInstruction);
          }
          else if (instruction instanceof PrimitiveGraphics3DInstruction)
          {
@@ -75,8 +83,38 @@ public abstract class Graphics3DInstructionExecutor
 
    protected abstract void doAddPrimitiveInstruction(PrimitiveGraphics3DInstruction primitiveInstruction);
 
+   /**
+    * Adds a mesh.
+    * <p>
+    * When the instruction is supplier-backed, see
+    * {@link Graphics3DAddMeshDataInstruction#isSupplierBacked()}, its mesh is released after this
+    * method returns. Implementations should not keep a reference to the {@code MeshDataHolder} but
+    * to the instruction, calling {@link Graphics3DAddMeshDataInstruction#getMeshData()} when the mesh
+    * is needed again.
+    * </p>
+    *
+    * @param graphics3DAddMeshData the instruction to execute.
+    */
    protected abstract void doAddMeshDataInstruction(Graphics3DAddMeshDataInstruction graphics3DAddMeshData);
 
+   /**
+    * Adds many copies of a mesh. Graphics engines supporting hardware instancing should override this
+    * method and upload the packed instance data, see
+    * {@link Graphics3DAddInstancedMeshInstruction#getInstanceTransforms()}.
+    * <p>
+    * The default implementation combines all the instances into a single mesh which is added with
+    * {@link #doAddMeshDataInstruction(Graphics3DAddMeshDataInstruction)}. The instance colors and
+    * later updates of the instances are ignored.
+    * </p>
+    *
+    * @param graphics3DAddInstancedMesh the instruction to execute.
+    */
+   protected void doAddInstancedMeshInstruction(Graphics3DAddInstancedMeshInstruction graphics3DAddInstancedMesh)
+   {
+      MeshDataHolder combinedMesh = graphics3DAddInstancedMesh.toMeshDataHolder();
+      doAddMeshDataInstruction(new Graphics3DAddMeshDataInstruction(combinedMesh, graphics3DAddInstancedMesh.getAppearance()));
+   }
+
    protected abstract void doAddHeightMapInstruction(Graphics3DAddHeightMapInstruction graphics3DAddHeightMap);
 
    protected abstract void doAddExtrusionInstruction(Graphics3DAddExtrusionInstruction graphics3DAddText);
@@ -2,5 +2,14 @@ package us.ihmc.graphicsDescription.instructions;
 
 public interface Graphics3DPrimitiveInstruction
 {
-
+   /**
+    * Gets a counter incremented every time the geometry described by this instruction is modified,
+    * such that bounds computed from it can be cached until it changes.
+    *
+    * @return the geometry version of this instruction, always {@code 0} for immutable instructions.
+    */
+   public default long getGeometryVersion()
+   {
+      return 0;
+   }
 }
@@ -2,7 +2,37 @@ package us.ihmc.graphicsDescription.instructions.listeners;
 
 import java.awt.image.BufferedImage;
 
+import us.ihmc.graphicsDescription.Text3DMeshGenerator;
+
 public interface ExtrusionChangedListener
 {
    public void extrusionChanged(BufferedImage bufferedImageToExtrude, double height);
+
+   /**
+    * Whether this listener renders the text extrusions with the meshes assembled from cached glyphs,
+    * in which case it is notified of text changes with {@link #textMeshChanged(Text3DMeshGenerator)}
+    * instead of {@link #extrusionChanged(BufferedImage, double)}, and the text is not rendered into
+    * an image.
+    * <p>
+    * The default implementation returns {@code false}.
+    * </p>
+    *
+    * @return whether text changes are to be notified with the text mesh.
+    */
+   public default boolean isTextMeshSupported()
+   {
+      return false;
+   }
+
+   /**
+    * Called when the text or thickness of a text extrusion has changed, only if
+    * {@link #isTextMeshSupported()} returns {@code true}.
+    *
+    * @param textMeshGenerator the generator holding the updated text mesh, see
+    *                          {@link Text3DMeshGenerator#getMeshDataHolder()} and
+    *                          {@link Text3DMeshGenerator#getNumberOfTriangleIndices()}.
+    */
+   public default void textMeshChanged(Text3DMeshGenerator textMeshGenerator)
+   {
+   }
 }
@@ -0,0 +1,41 @@
+package us.ihmc.graphicsDescription.instructions.listeners;
+
+import us.ihmc.graphicsDescription.PackedMeshDataHolder;
+
+public interface HeightMapChangedListener
+{
+   /**
+    * Called when the heights of the height map have changed within the given rectangle. Graphics
+    * engines meshing the height map themselves should only update the part of their mesh covering
+    * this rectangle.
+    *
+    * @param minX the lower x-coordinate of the modified rectangle.
+    * @param minY the lower y-coordinate of the modified rectangle.
+    * @param maxX the upper x-coordinate of the modified rectangle.
+    * @param maxY the upper y-coordinate of the modified rectangle.
+    */
+   public void heightMapChanged(double minX, double minY, double maxX, double maxY);
+
+   /**
+    * Called for each tile mesh of a {@link us.ihmc.graphicsDescription.HeightMapTileMesher} that has
+    * been updated in place after the heights have changed. The vertices in the range
+    * [{@code fromVertex}, {@code toVertex}) may have changed, the rest of the mesh, including the
+    * triangle indices, is untouched. The vertex range applies to the vertices, normals, and texture
+    * coordinates.
+    * <p>
+    * The default implementation does nothing, in which case the graphics engine has to rely on
+    * {@link #heightMapChanged(double, double, double, double)} which is called after all the tiles
+    * have been updated.
+    * </p>
+    *
+    * @param mesh       the updated tile mesh.
+    * @param tileX      the index of the tile along the x-axis.
+    * @param tileY      the index of the tile along the y-axis.
+    * @param level      the level of detail of the mesh.
+    * @param fromVertex the index of the first modified vertex, inclusive.
+    * @param toVertex   the index of the last modified vertex, exclusive.
+    */
+   public default void tileMeshChanged(PackedMeshDataHolder mesh, int tileX, int tileY, int level, int fromVertex, int toVertex)
+   {
+   }
+}
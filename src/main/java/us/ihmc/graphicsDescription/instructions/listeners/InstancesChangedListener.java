@@ -0,0 +1,13 @@
+package us.ihmc.graphicsDescription.instructions.listeners;
+
+public interface InstancesChangedListener
+{
+   /**
+    * Called when the data of the instances in the range [{@code fromInstance}, {@code toInstance})
+    * or the number of instances has changed.
+    *
+    * @param fromInstance the index of the first modified instance, inclusive.
+    * @param toInstance   the index of the last modified instance, exclusive.
+    */
+   public void instancesChanged(int fromInstance, int toInstance);
+}
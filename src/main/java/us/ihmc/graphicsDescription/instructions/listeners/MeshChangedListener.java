@@ -5,4 +5,29 @@ import us.ihmc.graphicsDescription.MeshDataHolder;
 public interface MeshChangedListener
 {
    public void meshChanged(MeshDataHolder newMesh);
+
+   /**
+    * Called when only part of the mesh has changed while its topology, i.e. its number of vertices and
+    * number of triangle indices, is unchanged. Graphics engines can then update the given ranges of
+    * their existing buffers instead of rebuilding them.
+    * <p>
+    * The ranges are half-open, an empty range, i.e. {@code from == to}, means that the corresponding
+    * data has not changed. The vertex range applies to the vertices, normals, and texture
+    * coordinates.
+    * </p>
+    * <p>
+    * The default implementation rebuilds the whole mesh with {@link #meshChanged(MeshDataHolder)}.
+    * </p>
+    *
+    * @param mesh              the mesh, which may be the same instance as previously or a new instance
+    *                          with the same topology.
+    * @param fromVertex        the index of the first modified vertex, inclusive.
+    * @param toVertex          the index of the last modified vertex, exclusive.
+    * @param fromTriangleIndex the index of the first modified triangle index, inclusive.
+    * @param toTriangleIndex   the index of the last modified triangle index, exclusive.
+    */
+   public default void meshRegionChanged(MeshDataHolder mesh, int fromVertex, int toVertex, int fromTriangleIndex, int toTriangleIndex)
+   {
+      meshChanged(mesh);
+   }
 }
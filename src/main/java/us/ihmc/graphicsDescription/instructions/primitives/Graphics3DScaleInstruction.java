@@ -1,5 +1,7 @@
 package us.ihmc.graphicsDescription.instructions.primitives;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import us.ihmc.euclid.tuple3D.Vector3D;
 import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
 import us.ihmc.graphicsDescription.instructions.Graphics3DPrimitiveInstruction;
@@ -9,6 +11,7 @@ public class Graphics3DScaleInstruction implements Graphics3DPrimitiveInstructio
 {
    private final Vector3D scaleFactor = new Vector3D();
    private ScaleChangedListener scaleChangedListener = null;
+   private final AtomicLong geometryVersion = new AtomicLong();
 
    public Graphics3DScaleInstruction(double scale)
    {
@@ -23,6 +26,7 @@ public class Graphics3DScaleInstruction implements Graphics3DPrimitiveInstructio
    public void setScale(Vector3DReadOnly scale)
    {
       scaleFactor.set(scale);
+      geometryVersion.incrementAndGet();
       if (scaleChangedListener != null)
       {
          scaleChangedListener.setScale(scale);
@@ -39,6 +43,12 @@ public class Graphics3DScaleInstruction implements Graphics3DPrimitiveInstructio
       return scaleFactor;
    }
 
+   @Override
+   public long getGeometryVersion()
+   {
+      return geometryVersion.get();
+   }
+
    @Override
    public String toString()
    {
@@ -189,7 +189,7 @@ public class YoGraphicPolygon extends YoGraphicAbstractShape implements RemoteYo
          verticesToDisplay.add(yoFrameConvexPolygon2d.getVertexUnsafe(i));
       }
 
-      instruction.setMesh(MeshDataGenerator.ExtrudedPolygon(verticesToDisplay, height));
+      instruction.updateMesh(MeshDataGenerator.ExtrudedPolygon(verticesToDisplay, height));
    }
 
    public void updateAppearance(AppearanceDefinition appearance)
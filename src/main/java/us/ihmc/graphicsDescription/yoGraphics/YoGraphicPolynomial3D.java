@@ -15,8 +15,11 @@ import us.ihmc.euclid.transform.AffineTransform;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
 import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
 import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+import us.ihmc.graphicsDescription.AdaptiveTrajectorySampler;
+import us.ihmc.graphicsDescription.AdaptiveTrajectorySampler.TrajectoryFunction;
 import us.ihmc.graphicsDescription.Graphics3DObject;
 import us.ihmc.graphicsDescription.GraphicsUpdatable;
 import us.ihmc.graphicsDescription.PointCloud3DMeshGenerator;
@@ -131,6 +134,10 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
    private final Point3D[] intermediatePositions;
    private final Vector3D[] intermediateVelocities;
    private final Vector3D[] intermediateAccelerations;
+   /** Used to place the trajectory samples where the trajectory bends when enabled. */
+   private final AdaptiveTrajectorySampler adaptiveSampler;
+   private final TrajectoryFunction trajectoryFunction = this::computePosition;
+   private boolean useAdaptiveSampling = false;
 
    private final boolean hasPoseDefined;
    private final YoFramePose3D poseToWorldFrame;
@@ -411,6 +418,7 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
 
       segmentedLine3DMeshGenerator = new SegmentedLine3DMeshDataGenerator(resolution, radialResolution, radius);
       pointCloud3DMeshGenerator = new PointCloud3DMeshGenerator(resolution, radialResolution, radius);
+      adaptiveSampler = new AdaptiveTrajectorySampler(resolution);
       graphics3DAddMeshDataInstructions = new Graphics3DAddMeshDataInstruction[resolution - 1];
 
       graphics3dObject.setChangeable(true);
@@ -511,6 +519,7 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
 
       segmentedLine3DMeshGenerator = new SegmentedLine3DMeshDataGenerator(resolution, radialResolution, radius);
       pointCloud3DMeshGenerator = new PointCloud3DMeshGenerator(resolution, radialResolution);
+      adaptiveSampler = new AdaptiveTrajectorySampler(resolution);
       graphics3DAddMeshDataInstructions = new Graphics3DAddMeshDataInstruction[resolution - 1];
 
       graphics3dObject.setChangeable(true);
@@ -569,6 +578,25 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
       setCurrentColorType(colorType);
    }
 
+   /**
+    * Sets whether the trajectory samples should be placed uniformly in time, which is the default, or
+    * placed where the trajectory bends using {@link AdaptiveTrajectorySampler}.
+    * <p>
+    * The number of samples remains equal to the resolution, adaptive sampling improves the rendering
+    * of tight turns such that a lower resolution can be used.
+    * </p>
+    *
+    * @param useAdaptiveSampling whether the samples should be placed adaptively.
+    */
+   public void setAdaptiveSampling(boolean useAdaptiveSampling)
+   {
+      if (this.useAdaptiveSampling == useAdaptiveSampling)
+         return;
+
+      this.useAdaptiveSampling = useAdaptiveSampling;
+      dirtyGraphic.set(true);
+   }
+
    /**
     * Enables display for this YoGraphic, the trajectory will be displayed as a 3D line.
     * <p>
@@ -669,12 +697,15 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
       double maxVelocity = 0.0;
       double maxAcceleration = 0.0;
 
+      if (useAdaptiveSampling)
+         adaptiveSampler.compute(0.0, trajectoryTime, trajectoryFunction);
+
       for (int i = 0; i < resolution; i++)
       {
-         double t = i / (resolution - 1.0) * trajectoryTime;
+         double t = useAdaptiveSampling ? adaptiveSampler.getSampleTimes()[i] : i / (resolution - 1.0) * trajectoryTime;
 
-         while (t > waypointTimes[polynomialIndex].getDoubleValue())
-            polynomialIndex++;
+         // The sample times are increasing, the search resumes from the previous segment.
+         polynomialIndex = findPolynomialIndex(t, polynomialIndex);
 
          Polynomial3DVariables activePolynomial3D = yoPolynomial3Ds[polynomialIndex];
          activePolynomial3D.compute(t);
@@ -723,7 +754,7 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
                segmentedLine3DMeshGenerator.setLineRadius(radius * globalScaleProvider.getValue());
             segmentedLine3DMeshGenerator.compute(intermediatePositions, intermediateVelocities);
             for (int i = 0; i < resolution - 1; i++)
-               graphics3DAddMeshDataInstructions[i].setMesh(segmentedLine3DMeshGenerator.getMeshDataHolders()[i]);
+               graphics3DAddMeshDataInstructions[i].updateMesh(segmentedLine3DMeshGenerator.getMeshDataHolders()[i]);
             break;
 
          case SHOW_AS_POINTS:
@@ -731,7 +762,7 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
                pointCloud3DMeshGenerator.setPointRadius(radius * globalScaleProvider.getValue());
             pointCloud3DMeshGenerator.compute(intermediatePositions);
             for (int i = 0; i < resolution - 1; i++)
-               graphics3DAddMeshDataInstructions[i].setMesh(pointCloud3DMeshGenerator.getMeshDataHolders()[i]);
+               graphics3DAddMeshDataInstructions[i].updateMesh(pointCloud3DMeshGenerator.getMeshDataHolders()[i]);
             break;
          default:
             throw new RuntimeException("Unexpected state: " + getCurrentGraphicType());
@@ -740,6 +771,23 @@ public class YoGraphicPolynomial3D extends YoGraphic implements RemoteYoGraphic,
       dirtyGraphic.set(false);
    }
 
+   private void computePosition(double t, Point3DBasics positionToPack)
+   {
+      Polynomial3DVariables activePolynomial3D = yoPolynomial3Ds[findPolynomialIndex(t, 0)];
+      activePolynomial3D.compute(t);
+      positionToPack.set(activePolynomial3D.getPosition());
+   }
+
+   private int findPolynomialIndex(double t, int startIndex)
+   {
+      int polynomialIndex = startIndex;
+
+      while (t > waypointTimes[polynomialIndex].getDoubleValue())
+         polynomialIndex++;
+
+      return polynomialIndex;
+   }
+
    private void setCurrentGraphicType(TrajectoryGraphicType graphicType)
    {
       currentGraphicType.set(graphicType.ordinal());
@@ -88,7 +88,7 @@ public class YoGraphicTriangle extends YoGraphic implements RemoteYoGraphic, Gra
       {
          if (!pointOne.containsNaN() && !pointTwo.containsNaN() && !pointThree.containsNaN())
          {
-            instruction.setMesh(MeshDataGenerator.Polygon(pointOne, pointTwo, pointThree));
+            instruction.updateMesh(MeshDataGenerator.Polygon(pointOne, pointTwo, pointThree));
          }
          else
          {
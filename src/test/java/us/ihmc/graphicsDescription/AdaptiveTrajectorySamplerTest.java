@@ -0,0 +1,99 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.tools.EuclidGeometryTools;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+public class AdaptiveTrajectorySamplerTest
+{
+   private static final double EPSILON = 1.0e-12;
+
+   @Test
+   public void testStraightLine()
+   {
+      int numberOfSamples = 11;
+      AdaptiveTrajectorySampler sampler = new AdaptiveTrajectorySampler(numberOfSamples, 101);
+      sampler.compute(0.0, 2.0, (t, position) -> position.set(t, 2.0 * t, 0.0));
+
+      // The samples are spread along the line.
+      double[] sampleTimes = sampler.getSampleTimes();
+      assertEquals(0.0, sampleTimes[0], EPSILON);
+      assertEquals(2.0, sampleTimes[numberOfSamples - 1], EPSILON);
+
+      for (int i = 1; i < numberOfSamples; i++)
+      {
+         assertTrue(sampleTimes[i] > sampleTimes[i - 1]);
+         assertTrue(sampleTimes[i] - sampleTimes[i - 1] <= 0.5 + EPSILON);
+         assertEquals(sampleTimes[i], sampler.getSamplePositions()[i].getX(), EPSILON);
+      }
+   }
+
+   @Test
+   public void testSharpTurn()
+   {
+      int numberOfSamples = 20;
+      AdaptiveTrajectorySampler sampler = new AdaptiveTrajectorySampler(numberOfSamples);
+      // Straight, tight half-circle, straight.
+      AdaptiveTrajectorySampler.TrajectoryFunction trajectory = (t, position) ->
+      {
+         if (t < 1.0)
+            position.set(t, 0.0, 0.0);
+         else if (t < 2.0)
+            position.set(1.0 + 0.1 * Math.sin(Math.PI * (t - 1.0)), 0.1 - 0.1 * Math.cos(Math.PI * (t - 1.0)), 0.0);
+         else
+            position.set(1.0 - (t - 2.0), 0.2, 0.0);
+      };
+      sampler.compute(0.0, 3.0, trajectory);
+
+      double[] sampleTimes = sampler.getSampleTimes();
+      assertEquals(0.0, sampleTimes[0], EPSILON);
+      assertEquals(3.0, sampleTimes[numberOfSamples - 1], EPSILON);
+
+      int numberOfSamplesInTurn = 0;
+      for (int i = 0; i < numberOfSamples; i++)
+      {
+         if (i > 0)
+            assertTrue(sampleTimes[i] > sampleTimes[i - 1]);
+         if (sampleTimes[i] > 1.0 && sampleTimes[i] < 2.0)
+            numberOfSamplesInTurn++;
+      }
+      // The turn is a third of the time but gets most of the samples.
+      assertTrue(numberOfSamplesInTurn > numberOfSamples / 2);
+
+      // The chord error is much lower than with a uniform sampling.
+      assertTrue(computeMaxChordError(sampleTimes, trajectory) < 0.25 * computeMaxChordError(uniformTimes(0.0, 3.0, numberOfSamples), trajectory));
+   }
+
+   private static double[] uniformTimes(double startTime, double endTime, int numberOfSamples)
+   {
+      double[] times = new double[numberOfSamples];
+      for (int i = 0; i < numberOfSamples; i++)
+         times[i] = startTime + i / (numberOfSamples - 1.0) * (endTime - startTime);
+      return times;
+   }
+
+   private static double computeMaxChordError(double[] sampleTimes, AdaptiveTrajectorySampler.TrajectoryFunction trajectory)
+   {
+      double maxError = 0.0;
+      Point3D start = new Point3D();
+      Point3D end = new Point3D();
+      Point3D query = new Point3D();
+
+      for (int i = 0; i < sampleTimes.length - 1; i++)
+      {
+         trajectory.compute(sampleTimes[i], start);
+         trajectory.compute(sampleTimes[i + 1], end);
+
+         for (int j = 1; j < 100; j++)
+         {
+            trajectory.compute(sampleTimes[i] + j / 100.0 * (sampleTimes[i + 1] - sampleTimes[i]), query);
+            maxError = Math.max(maxError, EuclidGeometryTools.distanceFromPoint3DToLineSegment3D(query, start, end));
+         }
+      }
+      return maxError;
+   }
+}
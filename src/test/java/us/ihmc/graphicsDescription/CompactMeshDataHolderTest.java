@@ -0,0 +1,139 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.graphicsDescription.CompactMeshDataHolder.NormalEncoding;
+
+public class CompactMeshDataHolderTest
+{
+   @Test
+   public void testEncodeDecode()
+   {
+      Random random = new Random(9813L);
+      int numberOfVertices = 5000;
+      PackedMeshDataHolder input = new PackedMeshDataHolder(numberOfVertices, 30);
+      input.setName("random");
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         input.setVertex(i, (float) EuclidCoreRandomTools.nextDouble(random, 10.0), (float) EuclidCoreRandomTools.nextDouble(random, 0.1), random.nextFloat());
+         input.setVertexNormal(i, new Vector3D32(EuclidCoreRandomTools.nextVector3DWithFixedLength(random, 1.0)));
+         input.setTexturePoint(i, random.nextFloat(), 2.0f * random.nextFloat());
+      }
+      // Normals along the axes, on the folds of the octahedral mapping.
+      input.setVertexNormal(0, 0.0f, 0.0f, -1.0f);
+      input.setVertexNormal(1, 1.0f, 0.0f, 0.0f);
+      input.setVertexNormal(2, 0.0f, -1.0f, 0.0f);
+      for (int i = 0; i < 30; i++)
+         input.getTriangleIndices()[i] = random.nextInt(numberOfVertices);
+
+      for (NormalEncoding normalEncoding : NormalEncoding.values)
+      {
+         CompactMeshDataHolder compact = CompactMeshDataHolder.encode(input, normalEncoding);
+         PackedMeshDataHolder output = compact.decode();
+
+         assertEquals("random", output.getName());
+         assertArrayEquals(input.getTriangleIndices(), output.getTriangleIndices());
+
+         double positionErrorBound = compact.getPositionErrorBound();
+         double normalErrorBound = compact.getNormalErrorBound();
+         double texturePointErrorBound = compact.getTexturePointErrorBound();
+         assertTrue(positionErrorBound < 1.0e-3);
+         assertTrue(normalErrorBound < (normalEncoding == NormalEncoding.OCTAHEDRAL_8 ? 0.02 : 1.0e-4));
+         assertTrue(texturePointErrorBound <= 0.5 / 1024.0);
+
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            assertTrue(distance(input.getVertexCoordinates(), output.getVertexCoordinates(), 3 * i, 3) <= positionErrorBound);
+            assertTrue(distance(input.getVertexNormalCoordinates(), output.getVertexNormalCoordinates(), 3 * i, 3) <= normalErrorBound);
+            assertEquals(1.0, Math.sqrt(squared(output.getVertexNormalCoordinates(), 3 * i)), 1.0e-6);
+            assertEquals(input.getTexturePointCoordinates()[2 * i], output.getTexturePointCoordinates()[2 * i], texturePointErrorBound);
+            assertEquals(input.getTexturePointCoordinates()[2 * i + 1], output.getTexturePointCoordinates()[2 * i + 1], texturePointErrorBound);
+         }
+
+         int bytesPerVertex = normalEncoding == NormalEncoding.OCTAHEDRAL_8 ? 12 : 14;
+         assertEquals(bytesPerVertex * numberOfVertices + 4 * 30 + 2 + 6 + 1 + 8 + 24, compact.getSizeInBytes());
+      }
+   }
+
+   @Test
+   public void testWriteRead()
+   {
+      MeshDataHolder mesh = MeshDataGenerator.Sphere(0.5, 16, 16);
+      mesh.setName("sphere");
+      CompactMeshDataHolder compact = CompactMeshDataHolder.encode(mesh, NormalEncoding.OCTAHEDRAL_16);
+
+      ByteBuffer buffer = ByteBuffer.allocate(compact.getSizeInBytes() + 3);
+      buffer.put((byte) 1);
+      compact.write(buffer);
+      assertEquals(compact.getSizeInBytes() + 1, buffer.position());
+
+      buffer.position(1);
+      CompactMeshDataHolder read = CompactMeshDataHolder.read(buffer);
+      assertEquals(compact.getSizeInBytes() + 1, buffer.position());
+      assertEquals("sphere", read.getName());
+      assertEquals(NormalEncoding.OCTAHEDRAL_16, read.getNormalEncoding());
+
+      PackedMeshDataHolder expected = compact.decode();
+      PackedMeshDataHolder actual = read.decode();
+      assertArrayEquals(expected.getVertexCoordinates(), actual.getVertexCoordinates(), 0.0f);
+      assertArrayEquals(expected.getVertexNormalCoordinates(), actual.getVertexNormalCoordinates(), 0.0f);
+      assertArrayEquals(expected.getTexturePointCoordinates(), actual.getTexturePointCoordinates(), 0.0f);
+      assertArrayEquals(expected.getTriangleIndices(), actual.getTriangleIndices());
+
+      // A null name is written empty.
+      mesh.setName(null);
+      compact = CompactMeshDataHolder.encode(mesh, NormalEncoding.OCTAHEDRAL_16);
+      buffer = ByteBuffer.allocate(compact.getSizeInBytes());
+      compact.write(buffer);
+      assertEquals(compact.getSizeInBytes(), buffer.position());
+      buffer.flip();
+      assertEquals("", CompactMeshDataHolder.read(buffer).getName());
+   }
+
+   @Test
+   public void testHalfFloat()
+   {
+      float[] exactValues = {0.0f, -0.0f, 1.0f, -2.0f, 0.5f, 65504.0f, 0x1.0p-14f, 0x1.0p-24f, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+      for (float value : exactValues)
+         assertEquals(Float.floatToIntBits(value), Float.floatToIntBits(CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(value))));
+
+      assertTrue(Float.isNaN(CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(Float.NaN))));
+      assertEquals(Float.POSITIVE_INFINITY, CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(1.0e6f)), 0.0);
+      assertEquals(0.0f, CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(1.0e-9f)), 0.0);
+
+      // Round to nearest even: 1 + 2^-11 is halfway between 1 and 1 + 2^-10.
+      assertEquals(1.0f, CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(1.0f + 0x1.0p-11f)), 0.0);
+      assertEquals(1.0f + 0x1.0p-9f, CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(1.0f + 0x1.8p-10f)), 0.0);
+
+      Random random = new Random(2351L);
+      for (int i = 0; i < 10000; i++)
+      {
+         float value = (float) EuclidCoreRandomTools.nextDouble(random, 100.0);
+         float decoded = CompactMeshDataHolder.halfToFloat(CompactMeshDataHolder.floatToHalf(value));
+         assertEquals(value, decoded, Math.abs(value) * 0x1.0p-11);
+      }
+   }
+
+   private static double distance(float[] a, float[] b, int offset, int length)
+   {
+      double distanceSquared = 0.0;
+      for (int i = offset; i < offset + length; i++)
+         distanceSquared += (a[i] - b[i]) * (a[i] - b[i]);
+      return Math.sqrt(distanceSquared);
+   }
+
+   private static double squared(float[] a, int offset)
+   {
+      return a[offset] * a[offset] + a[offset + 1] * a[offset + 1] + a[offset + 2] * a[offset + 2];
+   }
+}
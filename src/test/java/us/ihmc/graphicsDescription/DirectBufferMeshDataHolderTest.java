@@ -0,0 +1,178 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.IndexType;
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.Layout;
+
+public class DirectBufferMeshDataHolderTest
+{
+   @Test
+   public void testRoundTripFromMeshDataHolder()
+   {
+      MeshDataHolder mesh = MeshDataGenerator.Sphere(1.0, 8, 12);
+      mesh.setName("sphere");
+
+      for (Layout layout : Layout.values())
+      {
+         DirectBufferMeshDataHolder direct = DirectBufferMeshDataHolder.create(mesh, layout);
+         assertEquals(layout, direct.getLayout());
+         assertEquals(mesh.getVertices().length, direct.getNumberOfVertices());
+         assertEquals(mesh.getTriangleIndices().length, direct.getNumberOfTriangleIndices());
+         assertEquals("sphere", direct.getName());
+
+         assertMeshEquals(mesh, direct.toMeshDataHolder());
+      }
+   }
+
+   @Test
+   public void testRoundTripFromPackedMeshDataHolder()
+   {
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(MeshDataGenerator.Cylinder(0.5, 2.0, 16));
+
+      for (Layout layout : Layout.values())
+      {
+         DirectBufferMeshDataHolder direct = DirectBufferMeshDataHolder.create(packed, layout);
+         assertEquals(packed.getNumberOfVertices(), direct.getNumberOfVertices());
+         assertMeshEquals(packed.toMeshDataHolder(), direct.toMeshDataHolder());
+      }
+   }
+
+   @Test
+   public void testStrideAndOffsets()
+   {
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(MeshDataGenerator.Sphere(1.0, 6, 6));
+      float[] vertices = packed.getVertexCoordinates();
+      float[] normals = packed.getVertexNormalCoordinates();
+      float[] texturePoints = packed.getTexturePointCoordinates();
+      int numberOfVertices = packed.getNumberOfVertices();
+
+      DirectBufferMeshDataHolder interleaved = DirectBufferMeshDataHolder.create(packed, Layout.INTERLEAVED);
+      FloatBuffer buffer = interleaved.getInterleavedBuffer();
+      assertTrue(buffer.isDirect());
+      assertEquals(ByteOrder.nativeOrder(), buffer.order());
+      assertEquals(DirectBufferMeshDataHolder.INTERLEAVED_STRIDE * numberOfVertices, buffer.capacity());
+      assertEquals(0, buffer.position());
+      assertTrue(interleaved.getVertexBuffer() == null && interleaved.getVertexNormalBuffer() == null && interleaved.getTexturePointBuffer() == null);
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         int start = DirectBufferMeshDataHolder.INTERLEAVED_STRIDE * i;
+
+         for (int k = 0; k < 3; k++)
+         {
+            assertEquals(vertices[3 * i + k], buffer.get(start + DirectBufferMeshDataHolder.INTERLEAVED_POSITION_OFFSET + k), 0.0f);
+            assertEquals(normals[3 * i + k], buffer.get(start + DirectBufferMeshDataHolder.INTERLEAVED_NORMAL_OFFSET + k), 0.0f);
+         }
+         for (int k = 0; k < 2; k++)
+            assertEquals(texturePoints[2 * i + k], buffer.get(start + DirectBufferMeshDataHolder.INTERLEAVED_TEXTURE_OFFSET + k), 0.0f);
+      }
+
+      DirectBufferMeshDataHolder planar = DirectBufferMeshDataHolder.create(packed, Layout.PLANAR);
+      assertTrue(planar.getInterleavedBuffer() == null);
+      assertEquals(3 * numberOfVertices, planar.getVertexBuffer().capacity());
+      assertEquals(3 * numberOfVertices, planar.getVertexNormalBuffer().capacity());
+      assertEquals(2 * numberOfVertices, planar.getTexturePointBuffer().capacity());
+      assertEquals(0, planar.getVertexBuffer().position());
+
+      for (int i = 0; i < 3 * numberOfVertices; i++)
+      {
+         assertEquals(vertices[i], planar.getVertexBuffer().get(i), 0.0f);
+         assertEquals(normals[i], planar.getVertexNormalBuffer().get(i), 0.0f);
+      }
+      for (int i = 0; i < 2 * numberOfVertices; i++)
+         assertEquals(texturePoints[i], planar.getTexturePointBuffer().get(i), 0.0f);
+
+      // Writing through the accessors lands at the same places.
+      interleaved.setVertex(2, 1.0f, 2.0f, 3.0f);
+      assertEquals(3.0f, buffer.get(DirectBufferMeshDataHolder.INTERLEAVED_STRIDE * 2 + DirectBufferMeshDataHolder.INTERLEAVED_POSITION_OFFSET + 2), 0.0f);
+      interleaved.setTexturePoint(2, 0.25f, 0.75f);
+      assertEquals(0.75f, buffer.get(DirectBufferMeshDataHolder.INTERLEAVED_STRIDE * 2 + DirectBufferMeshDataHolder.INTERLEAVED_TEXTURE_OFFSET + 1), 0.0f);
+      planar.setVertexNormal(2, 0.0f, 1.0f, 0.0f);
+      assertEquals(1.0f, planar.getVertexNormalBuffer().get(3 * 2 + 1), 0.0f);
+   }
+
+   @Test
+   public void testFreezeModifiableMeshDataHolder()
+   {
+      ModifiableMeshDataHolder modifiable = new ModifiableMeshDataHolder();
+      modifiable.add(MeshDataGenerator.Cube(1.0, 2.0, 3.0, true, null), true);
+      modifiable.add(MeshDataGenerator.Sphere(0.5, 8, 8), true);
+      MeshDataHolder expected = modifiable.createMeshDataHolder();
+
+      for (Layout layout : Layout.values())
+      {
+         DirectBufferMeshDataHolder direct = modifiable.createDirectBufferMeshDataHolder(layout);
+         assertEquals(layout, direct.getLayout());
+         assertMeshEquals(expected, direct.toMeshDataHolder());
+      }
+   }
+
+   @Test
+   public void testIndexTypeSelection()
+   {
+      int maxNumberOfVertices = DirectBufferMeshDataHolder.MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES;
+      assertEquals(65536, maxNumberOfVertices);
+      assertEquals(IndexType.UNSIGNED_SHORT, DirectBufferMeshDataHolder.selectIndexType(maxNumberOfVertices));
+      assertEquals(IndexType.UNSIGNED_INT, DirectBufferMeshDataHolder.selectIndexType(maxNumberOfVertices + 1));
+
+      DirectBufferMeshDataHolder shortMesh = new DirectBufferMeshDataHolder(maxNumberOfVertices, 6, Layout.PLANAR);
+      assertEquals(IndexType.UNSIGNED_SHORT, shortMesh.getIndexType());
+      assertTrue(shortMesh.getTriangleIndexBuffer() == null);
+      assertEquals(6, shortMesh.getShortTriangleIndexBuffer().capacity());
+      assertEquals(6, shortMesh.getNumberOfTriangleIndices());
+
+      // Indices above Short.MAX_VALUE are stored as negative shorts and read back unsigned.
+      int[] indices = {0, 32767, 32768, 40000, 65534, 65535};
+      for (int i = 0; i < indices.length; i++)
+         shortMesh.setTriangleIndex(i, indices[i]);
+      for (int i = 0; i < indices.length; i++)
+         assertEquals(indices[i], shortMesh.getTriangleIndex(i));
+      assertEquals((short) 65535, shortMesh.getShortTriangleIndexBuffer().get(5));
+      assertEquals(65535, shortMesh.toMeshDataHolder().getTriangleIndices()[5]);
+
+      DirectBufferMeshDataHolder intMesh = new DirectBufferMeshDataHolder(maxNumberOfVertices + 1, 3, Layout.INTERLEAVED);
+      assertEquals(IndexType.UNSIGNED_INT, intMesh.getIndexType());
+      assertTrue(intMesh.getShortTriangleIndexBuffer() == null);
+      assertEquals(3, intMesh.getTriangleIndexBuffer().capacity());
+      intMesh.setTriangleIndex(2, maxNumberOfVertices);
+      assertEquals(maxNumberOfVertices, intMesh.getTriangleIndex(2));
+      assertEquals(maxNumberOfVertices, intMesh.getTriangleIndexBuffer().get(2));
+
+      // The copy from a regular mesh also goes through the short buffer.
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 8, 8);
+      DirectBufferMeshDataHolder direct = DirectBufferMeshDataHolder.create(sphere, Layout.PLANAR);
+      assertEquals(IndexType.UNSIGNED_SHORT, direct.getIndexType());
+      assertTrue(direct.getTriangleIndexBuffer() == null);
+      for (int i = 0; i < sphere.getTriangleIndices().length; i++)
+         assertEquals(sphere.getTriangleIndices()[i], Short.toUnsignedInt(direct.getShortTriangleIndexBuffer().get(i)));
+   }
+
+   private static void assertMeshEquals(MeshDataHolder expected, MeshDataHolder actual)
+   {
+      Point3D32[] expectedVertices = expected.getVertices();
+      Vector3D32[] expectedNormals = expected.getVertexNormals();
+      TexCoord2f[] expectedTexturePoints = expected.getTexturePoints();
+      assertEquals(expectedVertices.length, actual.getVertices().length);
+
+      for (int i = 0; i < expectedVertices.length; i++)
+      {
+         assertTrue(expectedVertices[i].equals(actual.getVertices()[i]));
+         assertTrue(expectedNormals[i].equals(actual.getVertexNormals()[i]));
+         assertEquals(expectedTexturePoints[i].getX(), actual.getTexturePoints()[i].getX(), 0.0);
+         assertEquals(expectedTexturePoints[i].getY(), actual.getTexturePoints()[i].getY(), 0.0);
+      }
+
+      assertEquals(expected.getTriangleIndices().length, actual.getTriangleIndices().length);
+      for (int i = 0; i < expected.getTriangleIndices().length; i++)
+         assertEquals(expected.getTriangleIndices()[i], actual.getTriangleIndices()[i]);
+   }
+}
@@ -0,0 +1,201 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertFalse;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.graphicsDescription.GlyphMeshCache.Glyph;
+import us.ihmc.graphicsDescription.PolygonWithHolesTriangulator.Triangulation;
+
+public class GlyphMeshCacheTest
+{
+   private static final Font FONT = new Font("Lucida Sans", Font.PLAIN, 40);
+   private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
+
+   @Test
+   public void testGlyphMeshes()
+   {
+      GlyphMeshCache cache = new GlyphMeshCache();
+      double thickness = 5.0;
+
+      for (char character : "AoB8%@gW".toCharArray())
+      {
+         Glyph glyph = cache.getGlyph(FONT, character, thickness);
+         PackedMeshDataHolder mesh = glyph.getMeshDataHolder();
+         float[] vertices = mesh.getVertexCoordinates();
+         float[] normals = mesh.getVertexNormalCoordinates();
+         int[] triangleIndices = mesh.getTriangleIndices();
+
+         GlyphVector glyphVector = FONT.layoutGlyphVector(FONT_RENDER_CONTEXT, new char[] {character}, 0, 1, Font.LAYOUT_LEFT_TO_RIGHT);
+         assertEquals(glyphVector.getGlyphMetrics(0).getAdvanceX(), glyph.getAdvance(), 1.0e-5);
+
+         for (int i = 0; i < mesh.getNumberOfVertices(); i++)
+         {
+            double norm = Math.sqrt(normals[3 * i] * normals[3 * i] + normals[3 * i + 1] * normals[3 * i + 1] + normals[3 * i + 2] * normals[3 * i + 2]);
+            assertEquals(1.0, norm, 1.0e-5);
+            assertTrue(vertices[3 * i + 2] == 0.0f || vertices[3 * i + 2] == (float) thickness);
+         }
+
+         double frontArea = 0.0;
+
+         for (int i = 0; i < triangleIndices.length; i += 3)
+         {
+            int a = triangleIndices[i], b = triangleIndices[i + 1], c = triangleIndices[i + 2];
+            assertTrue(a < mesh.getNumberOfVertices() && b < mesh.getNumberOfVertices() && c < mesh.getNumberOfVertices());
+
+            if (normals[3 * a + 2] != 1.0f)
+               continue;
+
+            // The front triangles are counter-clockwise, they cannot overlap if their total area is the
+            // area of the glyph.
+            double area = 0.5 * ((vertices[3 * b] - vertices[3 * a]) * (vertices[3 * c + 1] - vertices[3 * a + 1])
+                  - (vertices[3 * b + 1] - vertices[3 * a + 1]) * (vertices[3 * c] - vertices[3 * a]));
+            assertTrue(area >= -1.0e-3);
+            frontArea += area;
+         }
+
+         double expectedArea = computeArea(glyphVector.getGlyphOutline(0));
+         assertEquals("Unexpected area for " + character, expectedArea, frontArea, 0.02 * expectedArea);
+      }
+   }
+
+   @Test
+   public void testCaching()
+   {
+      GlyphMeshCache cache = new GlyphMeshCache();
+
+      Glyph glyph = cache.getGlyph(FONT, 'a', 2.0);
+      assertEquals(0, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+      assertTrue(glyph == cache.getGlyph(FONT, 'a', 2.0));
+      assertTrue(glyph == cache.getGlyph(new Font("Lucida Sans", Font.PLAIN, 40), 'a', 2.0));
+      assertEquals(2, cache.getHitCount());
+
+      assertFalse(glyph == cache.getGlyph(FONT, 'a', 3.0));
+      assertFalse(glyph == cache.getGlyph(FONT.deriveFont(20.0f), 'a', 2.0));
+      assertFalse(glyph == cache.getGlyph(FONT, 'b', 2.0));
+      assertEquals(4, cache.getMissCount());
+
+      // A space has no geometry.
+      assertEquals(0, cache.getGlyph(FONT, ' ', 2.0).getMeshDataHolder().getNumberOfVertices());
+
+      cache.clear();
+      assertFalse(glyph == cache.getGlyph(FONT, 'a', 2.0));
+   }
+
+   @Test
+   public void testTriangulationOfMisorientedContours()
+   {
+      // Clockwise outer boundary with a counter-clockwise hole.
+      float[] outer = {0.0f, 0.0f, 0.0f, 4.0f, 4.0f, 4.0f, 4.0f, 0.0f};
+      float[] hole = {1.0f, 1.0f, 3.0f, 1.0f, 3.0f, 3.0f, 1.0f, 3.0f};
+      List<float[]> contours = new ArrayList<>(Arrays.asList(outer.clone(), hole.clone()));
+
+      Triangulation triangulation = PolygonWithHolesTriangulator.triangulate(contours);
+      assertTrue(Arrays.equals(outer, contours.get(0)));
+      assertTrue(Arrays.equals(hole, contours.get(1)));
+
+      float[] vertices = triangulation.vertices;
+      int[] triangleIndices = triangulation.triangleIndices;
+      double area = 0.0;
+
+      for (int i = 0; i < triangleIndices.length; i += 3)
+      {
+         int a = 2 * triangleIndices[i], b = 2 * triangleIndices[i + 1], c = 2 * triangleIndices[i + 2];
+         double triangleArea = 0.5 * ((vertices[b] - vertices[a]) * (vertices[c + 1] - vertices[a + 1])
+               - (vertices[b + 1] - vertices[a + 1]) * (vertices[c] - vertices[a]));
+         assertTrue(triangleArea >= 0.0);
+         area += triangleArea;
+      }
+
+      assertEquals(12.0, area, 1.0e-6);
+
+      PolygonWithHolesTriangulator.orientContours(contours);
+      assertTrue(PolygonWithHolesTriangulator.signedArea(contours.get(0)) > 0.0);
+      assertTrue(PolygonWithHolesTriangulator.signedArea(contours.get(1)) < 0.0);
+   }
+
+   @Test
+   public void testText3DMeshGenerator()
+   {
+      GlyphMeshCache cache = new GlyphMeshCache();
+      Text3DMeshGenerator generator = new Text3DMeshGenerator(cache, FONT, 4.0);
+      Font font = generator.getFont();
+
+      String text = "AVA To, 42!";
+      generator.compute(text);
+      PackedMeshDataHolder mesh = generator.getMeshDataHolder();
+
+      GlyphVector glyphVector = font.layoutGlyphVector(FONT_RENDER_CONTEXT, text.toCharArray(), 0, text.length(), Font.LAYOUT_LEFT_TO_RIGHT);
+      assertEquals(glyphVector.getGlyphPosition(text.length()).getX(), generator.getWidth(), 1.0e-3);
+
+      int vertexOffset = 0;
+      int indexOffset = 0;
+
+      for (int i = 0; i < text.length(); i++)
+      {
+         PackedMeshDataHolder glyphMesh = cache.getGlyph(font, text.charAt(i), 4.0).getMeshDataHolder();
+         double glyphX = glyphVector.getGlyphPosition(i).getX();
+
+         for (int vertex = 0; vertex < glyphMesh.getNumberOfVertices(); vertex++)
+         {
+            int textVertex = vertexOffset + vertex;
+            assertEquals(glyphMesh.getVertexCoordinates()[3 * vertex] + glyphX, mesh.getVertexCoordinates()[3 * textVertex], 1.0e-3);
+            assertEquals(glyphMesh.getVertexCoordinates()[3 * vertex + 1], mesh.getVertexCoordinates()[3 * textVertex + 1], 0.0);
+            assertEquals(glyphMesh.getVertexCoordinates()[3 * vertex + 2], mesh.getVertexCoordinates()[3 * textVertex + 2], 0.0);
+         }
+
+         for (int j = 0; j < glyphMesh.getTriangleIndices().length; j++)
+            assertEquals(glyphMesh.getTriangleIndices()[j] + vertexOffset, mesh.getTriangleIndices()[indexOffset + j]);
+
+         vertexOffset += glyphMesh.getNumberOfVertices();
+         indexOffset += glyphMesh.getTriangleIndices().length;
+      }
+
+      assertEquals(vertexOffset, generator.getNumberOfVertices());
+      assertEquals(indexOffset, generator.getNumberOfTriangleIndices());
+
+      // A shorter text reuses the mesh, the rest of it is collapsed.
+      long missCount = cache.getMissCount();
+      generator.compute("42");
+      assertTrue(mesh == generator.getMeshDataHolder());
+      assertEquals(missCount, cache.getMissCount());
+      for (int i = generator.getNumberOfTriangleIndices(); i < indexOffset; i++)
+         assertEquals(0, mesh.getTriangleIndices()[i]);
+      for (int i = 3 * generator.getNumberOfVertices(); i < 3 * vertexOffset; i++)
+         assertEquals(0.0f, mesh.getVertexCoordinates()[i], 0.0f);
+
+      generator.compute("");
+      assertEquals(0, generator.getNumberOfTriangleIndices());
+      assertEquals(0.0f, generator.getWidth(), 0.0f);
+   }
+
+   private static double computeArea(Shape shape)
+   {
+      Rectangle2D bounds = shape.getBounds2D();
+      double step = 0.05;
+      int count = 0;
+
+      for (double x = bounds.getMinX() + 0.5 * step; x < bounds.getMaxX(); x += step)
+      {
+         for (double y = bounds.getMinY() + 0.5 * step; y < bounds.getMaxY(); y += step)
+         {
+            if (shape.contains(x, y))
+               count++;
+         }
+      }
+
+      return count * step * step;
+   }
+}
@@ -0,0 +1,110 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.matrix.RotationMatrix;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.graphicsDescription.instructions.ArcTorusGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CapsuleGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CylinderGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DPrimitiveInstruction;
+import us.ihmc.graphicsDescription.instructions.HemiEllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PrimitiveGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PyramidCubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.TruncatedConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.WedgeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DIdentityInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DTranslateInstruction;
+
+public class Graphics3DBoundsCalculatorTest
+{
+   private static final double EPSILON = 1.0e-6;
+
+   @Test
+   public void testComputeBoundingBox()
+   {
+      List<Graphics3DPrimitiveInstruction> instructions = new ArrayList<>();
+      assertTrue(Graphics3DBoundsCalculator.computeBoundingBox(instructions).containsNaN());
+
+      // Unit cube centered at (10, 0, 0), scaled by 2 along x, and rotated by 90 degrees around z.
+      instructions.add(new Graphics3DTranslateInstruction(10.0, 0.0, 0.0));
+      RotationMatrix rotation = new RotationMatrix();
+      rotation.setToYawOrientation(0.5 * Math.PI);
+      instructions.add(new Graphics3DRotateInstruction(rotation));
+      instructions.add(new Graphics3DScaleInstruction(new Vector3D(2.0, 1.0, 1.0)));
+      instructions.add(new CubeGraphics3DInstruction(1.0, 1.0, 1.0, true));
+
+      BoundingBox3D boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(instructions);
+      assertEquals(9.5, boundingBox.getMinX(), EPSILON);
+      assertEquals(10.5, boundingBox.getMaxX(), EPSILON);
+      assertEquals(-1.0, boundingBox.getMinY(), EPSILON);
+      assertEquals(1.0, boundingBox.getMaxY(), EPSILON);
+      assertEquals(-0.5, boundingBox.getMinZ(), EPSILON);
+      assertEquals(0.5, boundingBox.getMaxZ(), EPSILON);
+
+      // The identity instruction resets the transform.
+      instructions.add(new Graphics3DIdentityInstruction());
+      instructions.add(new Graphics3DAddMeshDataInstruction(MeshDataGenerator.Sphere(1.0, 8, 8), null));
+
+      boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(instructions);
+      assertEquals(-1.0, boundingBox.getMinX(), EPSILON);
+      assertEquals(10.5, boundingBox.getMaxX(), EPSILON);
+      assertEquals(-1.0, boundingBox.getMinZ(), EPSILON);
+      assertEquals(1.0, boundingBox.getMaxZ(), EPSILON);
+   }
+
+   @Test
+   public void testPrimitiveBoundsMatchGeneratedMeshes()
+   {
+      List<PrimitiveGraphics3DInstruction> primitives = new ArrayList<>();
+      primitives.add(new SphereGraphics3DInstruction(0.7, 16));
+      primitives.add(new EllipsoidGraphics3DInstruction(0.3, 0.5, 0.9, 16));
+      primitives.add(new HemiEllipsoidGraphics3DInstruction(0.3, 0.5, 0.9, 16));
+      primitives.add(new CylinderGraphics3DInstruction(0.4, 1.3, 16));
+      primitives.add(new ConeGraphics3DInstruction(1.1, 0.6, 16));
+      primitives.add(new TruncatedConeGraphics3DInstruction(0.8, 0.5, 0.4, 0.2, 0.6, 16));
+      primitives.add(new ArcTorusGraphics3DInstruction(0.2, 2.0, 1.0, 0.1, 16));
+      primitives.add(new ArcTorusGraphics3DInstruction(0.0, 2.0 * Math.PI, 1.0, 0.1, 16));
+      primitives.add(new CapsuleGraphics3DInstruction(1.0, 0.2, 0.3, 0.4, 16));
+      primitives.add(new CubeGraphics3DInstruction(1.0, 2.0, 3.0, true));
+      primitives.add(new CubeGraphics3DInstruction(1.0, 2.0, 3.0, false));
+      primitives.add(new WedgeGraphics3DInstruction(1.0, 2.0, 3.0));
+      primitives.add(new PyramidCubeGraphics3DInstruction(1.0, 2.0, 3.0, 0.5));
+
+      MeshDataGeneratorCache meshCache = new MeshDataGeneratorCache();
+
+      for (PrimitiveGraphics3DInstruction primitive : primitives)
+      {
+         BoundingBox3D boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(Collections.singletonList(primitive));
+         BoundingBox3D meshBoundingBox = meshCache.getMeshData(primitive).getBoundingBox();
+
+         // The vertices lie on the surface, so the mesh can only be inside the shape bounds.
+         String message = primitive.getClass().getSimpleName();
+         assertTrue(message, boundingBox.getMinX() <= meshBoundingBox.getMinX() + EPSILON);
+         assertTrue(message, boundingBox.getMinY() <= meshBoundingBox.getMinY() + EPSILON);
+         assertTrue(message, boundingBox.getMinZ() <= meshBoundingBox.getMinZ() + EPSILON);
+         assertTrue(message, boundingBox.getMaxX() >= meshBoundingBox.getMaxX() - EPSILON);
+         assertTrue(message, boundingBox.getMaxY() >= meshBoundingBox.getMaxY() - EPSILON);
+         assertTrue(message, boundingBox.getMaxZ() >= meshBoundingBox.getMaxZ() - EPSILON);
+         // With a resolution multiple of 4, the extremes are sampled by the meshes. The arc torus bounds are
+         // grown by the minor radius in every direction, so they are only close to the mesh bounds.
+         assertTrue(message, boundingBox.getMinPoint().epsilonEquals(meshBoundingBox.getMinPoint(), 0.1));
+         assertTrue(message, boundingBox.getMaxPoint().epsilonEquals(meshBoundingBox.getMaxPoint(), 0.1));
+      }
+   }
+}
@@ -1,10 +1,14 @@
 package us.ihmc.graphicsDescription;
 
 import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
 
 public class Graphics3DObjectTest
 {
@@ -20,4 +24,37 @@ public class Graphics3DObjectTest
 
       assertEquals(2, cubeGraphics.getGraphics3DInstructions().size());
    }
+
+   @Test
+   public void testBoundingBoxFollowsInstructionChanges()
+   {
+      Graphics3DObject graphics = new Graphics3DObject();
+      assertTrue(graphics.computeBoundingBox().containsNaN());
+
+      Graphics3DScaleInstruction scale = graphics.scale(1.0);
+      graphics.addCube(CUBE_SIDE, CUBE_SIDE, CUBE_SIDE);
+      BoundingBox3D boundingBox = graphics.computeBoundingBox();
+      assertEquals(0.5 * CUBE_SIDE, boundingBox.getMaxX(), 1.0e-12);
+
+      // The returned box is a copy of the cached one.
+      boundingBox.setToNaN();
+      assertEquals(0.5 * CUBE_SIDE, graphics.computeBoundingBox().getMaxX(), 1.0e-12);
+
+      scale.setScale(2.0);
+      assertEquals(CUBE_SIDE, graphics.computeBoundingBox().getMaxX(), 1.0e-12);
+
+      graphics.identity();
+      graphics.translate(CUBE_X, 0.0, 0.0);
+      Graphics3DAddMeshDataInstruction meshInstruction = graphics.addMeshData(MeshDataGenerator.Sphere(1.0, 8, 8), null);
+      assertEquals(CUBE_X + 1.0, graphics.computeBoundingBox().getMaxX(), 1.0e-6);
+
+      meshInstruction.setMesh(MeshDataGenerator.Sphere(2.0, 8, 8));
+      assertEquals(CUBE_X + 2.0, graphics.computeBoundingBox().getMaxX(), 1.0e-6);
+
+      // Modified in place and notified through the instruction.
+      MeshDataHolder mesh = meshInstruction.getMeshData();
+      mesh.getVertices()[0].addX(10.0);
+      meshInstruction.notifyVerticesChanged(0, 1);
+      assertTrue(graphics.computeBoundingBox().getMaxX() > CUBE_X + 2.0 + 1.0e-3);
+   }
 }
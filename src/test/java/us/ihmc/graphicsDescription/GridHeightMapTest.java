@@ -0,0 +1,199 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertFalse;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.graphicsDescription.GridHeightMap.Interpolation;
+
+public class GridHeightMapTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testInterpolation()
+   {
+      // Sampling a quadratic, which both interpolations reproduce exactly at the grid points and the
+      // bicubic interpolation also reproduces in between away from the borders.
+      int numberOfPointsX = 20, numberOfPointsY = 15;
+      double originX = -1.0, originY = 2.0, resolution = 0.1;
+      GridHeightMap heightMap = createHeightMap(numberOfPointsX, numberOfPointsY, originX, originY, resolution, (x, y) -> 0.5 * x * x - x * y + 0.2 * y);
+      Random random = new Random(4362);
+
+      for (Interpolation interpolation : Interpolation.values)
+      {
+         heightMap.setInterpolation(interpolation);
+
+         for (int j = 0; j < numberOfPointsY; j++)
+         {
+            for (int i = 0; i < numberOfPointsX; i++)
+            {
+               double x = originX + i * resolution;
+               double y = originY + j * resolution;
+               assertEquals(heightMap.getHeight(i, j), heightMap.heightAt(x, y, 0.0), EPSILON);
+            }
+         }
+      }
+
+      heightMap.setInterpolation(Interpolation.BICUBIC);
+
+      for (int k = 0; k < 100; k++)
+      {
+         double x = originX + resolution * (1.0 + random.nextDouble() * (numberOfPointsX - 3));
+         double y = originY + resolution * (1.0 + random.nextDouble() * (numberOfPointsY - 3));
+         assertEquals(0.5 * x * x - x * y + 0.2 * y, heightMap.heightAt(x, y, 0.0), EPSILON);
+      }
+
+      heightMap.setInterpolation(Interpolation.BILINEAR);
+
+      for (int k = 0; k < 100; k++)
+      { // Bilinear interpolation is bounded by the 4 surrounding points.
+         double u = random.nextDouble() * (numberOfPointsX - 1);
+         double v = random.nextDouble() * (numberOfPointsY - 1);
+         int i = Math.min((int) u, numberOfPointsX - 2);
+         int j = Math.min((int) v, numberOfPointsY - 2);
+         double height = heightMap.heightAt(originX + u * resolution, originY + v * resolution, 0.0);
+         double min = Math.min(Math.min(heightMap.getHeight(i, j), heightMap.getHeight(i + 1, j)),
+                               Math.min(heightMap.getHeight(i, j + 1), heightMap.getHeight(i + 1, j + 1)));
+         double max = Math.max(Math.max(heightMap.getHeight(i, j), heightMap.getHeight(i + 1, j)),
+                               Math.max(heightMap.getHeight(i, j + 1), heightMap.getHeight(i + 1, j + 1)));
+         assertTrue(height >= min - EPSILON && height <= max + EPSILON);
+      }
+
+      // Outside the grid the border is extended.
+      assertEquals(heightMap.getHeight(0, 0), heightMap.heightAt(originX - 5.0, originY - 5.0, 0.0), EPSILON);
+      assertEquals(heightMap.getHeight(numberOfPointsX - 1, 3), heightMap.heightAt(originX + 100.0, originY + 3 * resolution, 0.0), EPSILON);
+   }
+
+   @Test
+   public void testBatchSampling()
+   {
+      GridHeightMap heightMap = createHeightMap(30, 40, 0.0, 0.0, 0.25, (x, y) -> Math.sin(x) * Math.cos(y));
+      Random random = new Random(786);
+      double[] xs = new double[50];
+      double[] ys = new double[40];
+      for (int i = 0; i < xs.length; i++)
+         xs[i] = -1.0 + 10.0 * random.nextDouble();
+      for (int i = 0; i < ys.length; i++)
+         ys[i] = -1.0 + 12.0 * random.nextDouble();
+
+      for (Interpolation interpolation : Interpolation.values)
+      {
+         heightMap.setInterpolation(interpolation);
+
+         double[] heights = new double[ys.length];
+         heightMap.heightsAt(xs, ys, heights, ys.length);
+         for (int i = 0; i < ys.length; i++)
+            assertEquals(heightMap.heightAt(xs[i], ys[i], 0.0), heights[i], 0.0);
+
+         double[] gridHeights = new double[xs.length * ys.length];
+         heightMap.heightsOnGrid(xs, ys, gridHeights);
+         for (int j = 0; j < ys.length; j++)
+         {
+            for (int i = 0; i < xs.length; i++)
+               assertEquals(heightMap.heightAt(xs[i], ys[j], 0.0), gridHeights[j * xs.length + i], 0.0);
+         }
+      }
+   }
+
+   @Test
+   public void testBoundingBox()
+   {
+      GridHeightMap heightMap = createHeightMap(11, 21, 1.0, -2.0, 0.5, (x, y) -> x - y);
+      BoundingBox3D boundingBox = heightMap.getBoundingBox();
+
+      assertEquals(1.0, boundingBox.getMinX(), EPSILON);
+      assertEquals(-2.0, boundingBox.getMinY(), EPSILON);
+      assertEquals(6.0, boundingBox.getMaxX(), EPSILON);
+      assertEquals(8.0, boundingBox.getMaxY(), EPSILON);
+      assertEquals(1.0 - 8.0, boundingBox.getMinZ(), EPSILON);
+      assertEquals(6.0 + 2.0, boundingBox.getMaxZ(), EPSILON);
+      assertEquals(boundingBox, heightMap.getBoundingBox());
+
+      // The returned box is a copy, modifying it does not affect the height map.
+      boundingBox.setToNaN();
+      assertEquals(1.0 - 8.0, heightMap.getBoundingBox().getMinZ(), EPSILON);
+   }
+
+   @Test
+   public void testMappedFile() throws IOException
+   {
+      GridHeightMap heightMap = createHeightMap(17, 9, -3.0, 4.0, 0.3, (x, y) -> Math.exp(-x * x) + y);
+      Path path = Files.createTempFile("GridHeightMapTest", ".bin");
+
+      try
+      {
+         heightMap.write(path);
+         assertEquals(Float.BYTES * 17 * 9, Files.size(path));
+
+         GridHeightMap mapped = GridHeightMap.map(path, 0, 17, 9, -3.0, 4.0, 0.3);
+         assertTrue(mapped.isMapped());
+         assertFalse(heightMap.isMapped());
+
+         for (int j = 0; j < 9; j++)
+         {
+            for (int i = 0; i < 17; i++)
+               assertEquals(heightMap.getHeight(i, j), mapped.getHeight(i, j), 0.0);
+         }
+
+         for (Interpolation interpolation : Interpolation.values)
+         {
+            heightMap.setInterpolation(interpolation);
+            mapped.setInterpolation(interpolation);
+            for (double x = -4.0; x < 3.0; x += 0.37)
+               assertEquals(heightMap.heightAt(x, 5.1, 0.0), mapped.heightAt(x, 5.1, 0.0), 0.0);
+         }
+
+         assertEquals(heightMap.getBoundingBox(), mapped.getBoundingBox());
+
+         // With the height range known, the file is not read to compute the bounding box.
+         GridHeightMap mappedWithRange = GridHeightMap.map(path, 0, 17, 9, -3.0, 4.0, 0.3, -10.0, 20.0);
+         BoundingBox3D boundingBox = mappedWithRange.getBoundingBox();
+         assertEquals(heightMap.getBoundingBox().getMinX(), boundingBox.getMinX(), EPSILON);
+         assertEquals(heightMap.getBoundingBox().getMaxY(), boundingBox.getMaxY(), EPSILON);
+         assertEquals(-10.0, boundingBox.getMinZ(), 0.0);
+         assertEquals(20.0, boundingBox.getMaxZ(), 0.0);
+
+         try
+         {
+            GridHeightMap.map(path, 0, 17, 10, -3.0, 4.0, 0.3);
+            throw new AssertionError("The file is too small for the grid.");
+         }
+         catch (IOException e)
+         {
+            // Expected.
+         }
+      }
+      finally
+      {
+         Files.delete(path);
+      }
+   }
+
+   private static interface HeightFunction
+   {
+      double height(double x, double y);
+   }
+
+   private static GridHeightMap createHeightMap(int numberOfPointsX, int numberOfPointsY, double originX, double originY, double resolution,
+                                                HeightFunction function)
+   {
+      float[] heights = new float[numberOfPointsX * numberOfPointsY];
+
+      for (int j = 0; j < numberOfPointsY; j++)
+      {
+         for (int i = 0; i < numberOfPointsX; i++)
+            heights[j * numberOfPointsX + i] = (float) function.height(originX + i * resolution, originY + j * resolution);
+      }
+
+      return new GridHeightMap(heights, numberOfPointsX, numberOfPointsY, originX, originY, resolution);
+   }
+}
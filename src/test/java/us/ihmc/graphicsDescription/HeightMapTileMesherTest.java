@@ -0,0 +1,287 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.graphicsDescription.instructions.listeners.HeightMapChangedListener;
+
+public class HeightMapTileMesherTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testTileMeshesOfPlane()
+   {
+      HeightMap plane = createHeightMap((x, y) -> 0.1 * x - 0.2 * y + 1.0, -2.0, -1.0, 2.0, 1.0);
+      HeightMapTileMesher mesher = new HeightMapTileMesher(plane, 4, 2, 8, 3);
+      double normalNorm = Math.sqrt(0.1 * 0.1 + 0.2 * 0.2 + 1.0);
+
+      for (int level = 0; level < 3; level++)
+      {
+         int n = mesher.getNumberOfQuadsPerSide(level);
+         assertEquals(8 >> level, n);
+
+         for (int tileX = 0; tileX < 4; tileX++)
+         {
+            for (int tileY = 0; tileY < 2; tileY++)
+            {
+               PackedMeshDataHolder mesh = mesher.getTileMesh(tileX, tileY, level);
+               int numberOfGridVertices = (n + 1) * (n + 1);
+               assertEquals(numberOfGridVertices + 4 * n, mesh.getNumberOfVertices());
+               assertEquals(6 * n * (n + 4), mesh.getTriangleIndices().length);
+
+               float[] vertices = mesh.getVertexCoordinates();
+               float[] normals = mesh.getVertexNormalCoordinates();
+               float[] texturePoints = mesh.getTexturePointCoordinates();
+
+               for (int vertex = 0; vertex < mesh.getNumberOfVertices(); vertex++)
+               {
+                  double x = vertices[3 * vertex];
+                  double y = vertices[3 * vertex + 1];
+                  assertTrue(x >= -2.0 && x <= 2.0 && y >= -1.0 && y <= 1.0);
+                  assertTrue(x >= -2.0 + tileX - EPSILON && x <= -1.0 + tileX + EPSILON);
+                  assertTrue(y >= -1.0 + tileY - EPSILON && y <= tileY + EPSILON);
+                  double skirtOffset = vertex < numberOfGridVertices ? 0.0 : mesher.getSkirtDepth();
+                  assertEquals(0.1 * x - 0.2 * y + 1.0 - skirtOffset, vertices[3 * vertex + 2], EPSILON);
+                  assertEquals(-0.1 / normalNorm, normals[3 * vertex], EPSILON);
+                  assertEquals(0.2 / normalNorm, normals[3 * vertex + 1], EPSILON);
+                  assertEquals(1.0 / normalNorm, normals[3 * vertex + 2], EPSILON);
+                  assertEquals((x + 2.0) / 4.0, texturePoints[2 * vertex], EPSILON);
+                  assertEquals((y + 1.0) / 2.0, texturePoints[2 * vertex + 1], EPSILON);
+               }
+
+               int[] triangleIndices = mesh.getTriangleIndices();
+               for (int i = 0; i < triangleIndices.length; i += 3)
+               {
+                  assertTrue(triangleIndices[i] < mesh.getNumberOfVertices());
+                  if (i < 6 * n * n)
+                  { // The grid triangles are facing up.
+                     float[] a = vertex(vertices, triangleIndices[i]);
+                     float[] b = vertex(vertices, triangleIndices[i + 1]);
+                     float[] c = vertex(vertices, triangleIndices[i + 2]);
+                     double crossZ = (b[0] - a[0]) * (c[1] - a[1]) - (b[1] - a[1]) * (c[0] - a[0]);
+                     assertTrue(crossZ > 0.0);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testSeamsBetweenTiles()
+   {
+      HeightMap waves = createHeightMap((x, y) -> Math.sin(3.0 * x) * Math.cos(2.0 * y), 0.0, 0.0, 3.0, 3.0);
+      HeightMapTileMesher mesher = new HeightMapTileMesher(waves, 3, 3, 12, 3);
+
+      for (int level = 0; level < 3; level++)
+      {
+         int n = mesher.getNumberOfQuadsPerSide(level);
+         PackedMeshDataHolder left = mesher.getTileMesh(0, 1, level);
+         PackedMeshDataHolder right = mesher.getTileMesh(1, 1, level);
+
+         for (int j = 0; j <= n; j++)
+         {
+            int leftVertex = j * (n + 1) + n;
+            int rightVertex = j * (n + 1);
+            assertArrayEquals(vertex(left.getVertexCoordinates(), leftVertex), vertex(right.getVertexCoordinates(), rightVertex), 0.0f);
+            assertArrayEquals(vertex(left.getVertexNormalCoordinates(), leftVertex), vertex(right.getVertexNormalCoordinates(), rightVertex), 0.0f);
+         }
+      }
+
+      // The vertices of a coarser level are exactly a subset of the finer level.
+      PackedMeshDataHolder fine = mesher.getTileMesh(2, 0, 0);
+      PackedMeshDataHolder coarse = mesher.getTileMesh(2, 0, 1);
+
+      for (int j = 0; j <= 6; j++)
+      {
+         for (int i = 0; i <= 6; i++)
+            assertArrayEquals(vertex(fine.getVertexCoordinates(), 2 * j * 13 + 2 * i), vertex(coarse.getVertexCoordinates(), j * 7 + i), 0.0f);
+      }
+   }
+
+   @Test
+   public void testParallelGenerationAndRegeneration()
+   {
+      double[] offset = {0.0};
+      HeightMap heightMap = createHeightMap((x, y) -> x * y + offset[0], -1.0, -1.0, 1.0, 1.0);
+      HeightMapTileMesher sequential = new HeightMapTileMesher(heightMap, 4, 4, 16, 2);
+      HeightMapTileMesher parallel = new HeightMapTileMesher(heightMap, 4, 4, 16, 2, ForkJoinPool.commonPool());
+
+      parallel.generateLevel(0);
+      for (int tileX = 0; tileX < 4; tileX++)
+      {
+         for (int tileY = 0; tileY < 4; tileY++)
+            assertMeshEquals(sequential.getTileMesh(tileX, tileY, 0), parallel.getTileMesh(tileX, tileY, 0));
+      }
+
+      PackedMeshDataHolder regenerated = parallel.getTileMesh(1, 2, 0);
+      PackedMeshDataHolder untouched = parallel.getTileMesh(2, 2, 0);
+      float[] untouchedVertices = untouched.getVertexCoordinates().clone();
+      offset[0] = 0.5;
+      parallel.regenerateTile(1, 2);
+
+      assertTrue(regenerated == parallel.getTileMesh(1, 2, 0));
+      assertArrayEquals(untouchedVertices, untouched.getVertexCoordinates(), 0.0f);
+      float[] vertices = regenerated.getVertexCoordinates();
+      for (int vertex = 0; vertex < 17 * 17; vertex++)
+         assertEquals(vertices[3 * vertex] * vertices[3 * vertex + 1] + 0.5, vertices[3 * vertex + 2], EPSILON);
+
+      parallel.regenerate();
+      sequential.regenerate();
+      assertMeshEquals(sequential.getTileMesh(2, 2, 0), untouched);
+   }
+
+   @Test
+   public void testGridHeightMap()
+   {
+      float[] heights = new float[33 * 33];
+      for (int i = 0; i < heights.length; i++)
+         heights[i] = (float) Math.sin(0.1 * i);
+      GridHeightMap gridHeightMap = new GridHeightMap(heights, 33, 33, -1.0, -1.0, 1.0 / 16.0);
+      // Hides the grid implementation such that the heights are sampled one point at a time.
+      HeightMap pointwiseHeightMap = createHeightMap((x, y) -> gridHeightMap.heightAt(x, y, 0.0), -1.0, -1.0, 1.0, 1.0);
+
+      HeightMapTileMesher gridMesher = new HeightMapTileMesher(gridHeightMap, 2, 2, 16, 2);
+      HeightMapTileMesher pointwiseMesher = new HeightMapTileMesher(pointwiseHeightMap, 2, 2, 16, 2);
+      pointwiseMesher.setSkirtDepth(gridMesher.getSkirtDepth());
+
+      for (int level = 0; level < 2; level++)
+         assertMeshEquals(pointwiseMesher.getTileMesh(1, 0, level), gridMesher.getTileMesh(1, 0, level));
+   }
+
+   @Test
+   public void testUpdateRegion()
+   {
+      int numberOfPoints = 65;
+      double resolution = 1.0 / 16.0;
+      float[] heights = new float[numberOfPoints * numberOfPoints];
+      for (int i = 0; i < heights.length; i++)
+         heights[i] = (float) Math.cos(0.05 * i);
+      GridHeightMap heightMap = new GridHeightMap(heights, numberOfPoints, numberOfPoints, 0.0, 0.0, resolution);
+      HeightMapTileMesher mesher = new HeightMapTileMesher(heightMap, 4, 4, 16, 3, ForkJoinPool.commonPool());
+      mesher.generateLevel(0);
+      mesher.generateLevel(1);
+
+      PackedMeshDataHolder[][] meshes = new PackedMeshDataHolder[2][16];
+      float[][][] previousVertices = new float[2][16][];
+      for (int level = 0; level < 2; level++)
+      {
+         for (int tile = 0; tile < 16; tile++)
+         {
+            meshes[level][tile] = mesher.getTileMesh(tile % 4, tile / 4, level);
+            previousVertices[level][tile] = meshes[level][tile].getVertexCoordinates().clone();
+         }
+      }
+
+      // Modifies a few points at the corner of 4 tiles, (32, 32) is at (2.0, 2.0).
+      for (int j = 30; j <= 33; j++)
+      {
+         for (int i = 31; i <= 32; i++)
+            heightMap.setHeight(i, j, 0.5f * heightMap.getHeight(i, j) + 0.25f);
+      }
+
+      int[][] updatedRanges = new int[2 * 16][];
+      int numberOfUpdatedMeshes = mesher.updateRegion(30 * resolution, 29 * resolution, 33 * resolution, 34 * resolution, new HeightMapChangedListener()
+      {
+         @Override
+         public void tileMeshChanged(PackedMeshDataHolder mesh, int tileX, int tileY, int level, int fromVertex, int toVertex)
+         {
+            assertTrue(mesh == meshes[level][tileY * 4 + tileX]);
+            updatedRanges[level * 16 + tileY * 4 + tileX] = new int[] {fromVertex, toVertex};
+         }
+
+         @Override
+         public void heightMapChanged(double minX, double minY, double maxX, double maxY)
+         {
+         }
+      });
+
+      assertEquals(8, numberOfUpdatedMeshes);
+
+      HeightMapTileMesher expectedMesher = new HeightMapTileMesher(heightMap, 4, 4, 16, 3);
+      expectedMesher.setSkirtDepth(mesher.getSkirtDepth());
+
+      for (int level = 0; level < 2; level++)
+      {
+         for (int tile = 0; tile < 16; tile++)
+         {
+            PackedMeshDataHolder mesh = meshes[level][tile];
+            assertTrue(mesh == mesher.getTileMesh(tile % 4, tile / 4, level));
+            assertMeshEquals(expectedMesher.getTileMesh(tile % 4, tile / 4, level), mesh);
+
+            int[] range = updatedRanges[level * 16 + tile];
+            float[] vertices = mesh.getVertexCoordinates();
+
+            for (int vertex = 0; vertex < mesh.getNumberOfVertices(); vertex++)
+            {
+               if (range != null && vertex >= range[0] && vertex < range[1])
+                  continue;
+               // Outside of the notified range, the vertices are untouched.
+               assertArrayEquals(vertex(previousVertices[level][tile], vertex), vertex(vertices, vertex), 0.0f);
+            }
+         }
+      }
+
+      assertTrue(updatedRanges[1 * 4 + 1] != null && updatedRanges[2 * 4 + 2] != null);
+      assertTrue(updatedRanges[0] == null);
+   }
+
+   @Test
+   public void testComputeLevel()
+   {
+      HeightMap flat = createHeightMap((x, y) -> 0.0, 0.0, 0.0, 8.0, 8.0);
+      HeightMapTileMesher mesher = new HeightMapTileMesher(flat, 8, 8, 4, 3);
+      mesher.setLODDistance(1.0);
+
+      assertEquals(0, mesher.computeLevel(0, 0, new Point3D(0.5, 0.5, 0.0)));
+      assertEquals(1, mesher.computeLevel(1, 0, new Point3D(0.5, 0.5, 0.0)));
+      assertEquals(2, mesher.computeLevel(3, 0, new Point3D(0.5, 0.5, 0.0)));
+      assertEquals(2, mesher.computeLevel(7, 7, new Point3D(0.5, 0.5, 0.0)));
+   }
+
+   private static void assertMeshEquals(PackedMeshDataHolder expected, PackedMeshDataHolder actual)
+   {
+      assertArrayEquals(expected.getVertexCoordinates(), actual.getVertexCoordinates(), 0.0f);
+      assertArrayEquals(expected.getVertexNormalCoordinates(), actual.getVertexNormalCoordinates(), 0.0f);
+      assertArrayEquals(expected.getTexturePointCoordinates(), actual.getTexturePointCoordinates(), 0.0f);
+      assertArrayEquals(expected.getTriangleIndices(), actual.getTriangleIndices());
+   }
+
+   private static float[] vertex(float[] coordinates, int vertex)
+   {
+      return new float[] {coordinates[3 * vertex], coordinates[3 * vertex + 1], coordinates[3 * vertex + 2]};
+   }
+
+   private static interface HeightFunction
+   {
+      double height(double x, double y);
+   }
+
+   private static HeightMap createHeightMap(HeightFunction function, double minX, double minY, double maxX, double maxY)
+   {
+      BoundingBox3D boundingBox = new BoundingBox3D(minX, minY, -1.0, maxX, maxY, 2.0);
+
+      return new HeightMap()
+      {
+         @Override
+         public double heightAt(double x, double y, double z)
+         {
+            return function.height(x, y);
+         }
+
+         @Override
+         public BoundingBox3D getBoundingBox()
+         {
+            return boundingBox;
+         }
+      };
+   }
+}
@@ -0,0 +1,242 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertFalse;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.graphicsDescription.MeshBoundingVolumeHierarchy.QueryResult;
+
+public class MeshBoundingVolumeHierarchyTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testClosestHitOnSphere()
+   {
+      Random random = new Random(4325L);
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 32, 32);
+
+      for (MeshBoundingVolumeHierarchy bvh : new MeshBoundingVolumeHierarchy[] {new MeshBoundingVolumeHierarchy(sphere),
+            new MeshBoundingVolumeHierarchy(sphere, new ForkJoinPool(4))})
+      {
+         assertEquals(sphere.getTriangleIndices().length / 3, bvh.getNumberOfTriangles());
+         QueryResult result = new QueryResult();
+
+         for (int i = 0; i < 1000; i++)
+         {
+            Vector3D direction = EuclidCoreRandomTools.nextVector3DWithFixedLength(random, 1.0);
+            Point3D origin = new Point3D(direction);
+            origin.scale(-5.0);
+
+            // Rays shot toward the center of the sphere hit it at a distance of about 4.
+            assertTrue(bvh.closestHit(origin, direction, result));
+            assertEquals(4.0, result.getDistance(), 0.01);
+            assertEquals(0.0, result.getPoint().distanceFromOrigin() - 1.0, 0.01);
+            assertTrue(bvh.anyHit(origin, direction, 5.0));
+            assertFalse(bvh.anyHit(origin, direction, 3.9));
+
+            direction.negate();
+            assertFalse(bvh.closestHit(origin, direction, result));
+         }
+      }
+   }
+
+   @Test
+   public void testAgainstBruteForce()
+   {
+      Random random = new Random(2356L);
+      MeshDataHolder mesh = MeshDataHolder.combineAll(Arrays.asList(MeshDataGenerator.Sphere(0.5, 16, 16),
+                                                                     MeshDataGenerator.Cube(1.0, 0.5, 0.2, false),
+                                                                     MeshDataGenerator.Cylinder(0.3, 1.0, 24)));
+      MeshBoundingVolumeHierarchy bvh = new MeshBoundingVolumeHierarchy(mesh);
+      QueryResult result = new QueryResult();
+
+      for (int i = 0; i < 500; i++)
+      {
+         Point3D origin = EuclidCoreRandomTools.nextPoint3D(random, 2.0);
+         Vector3D direction = EuclidCoreRandomTools.nextVector3D(random);
+
+         double expectedDistance = bruteForceRayCast(mesh, origin, direction);
+         if (Double.isInfinite(expectedDistance))
+         {
+            assertFalse(bvh.closestHit(origin, direction, result));
+         }
+         else
+         {
+            assertTrue(bvh.closestHit(origin, direction, result));
+            assertEquals(expectedDistance, result.getDistance(), EPSILON);
+         }
+
+         Point3D query = EuclidCoreRandomTools.nextPoint3D(random, 2.0);
+         assertTrue(bvh.nearestPoint(query, result));
+         assertEquals(bruteForceNearestDistance(mesh, query), result.getDistance(), EPSILON);
+         assertEquals(result.getDistance(), query.distance(result.getPoint()), EPSILON);
+      }
+
+      MeshBoundingVolumeHierarchy empty = new MeshBoundingVolumeHierarchy(new float[0], new int[0], null);
+      assertFalse(empty.closestHit(new Point3D(), new Vector3D(1.0, 0.0, 0.0), result));
+      assertFalse(empty.nearestPoint(new Point3D(), result));
+   }
+
+   @Test
+   public void testTraversalOrder()
+   {
+      // A row of cubes along the x-axis, the rays going along the row in either direction must visit
+      // the nearest child first whether it is the left or the right one, pruning the rest of the row.
+      int numberOfCubes = 256;
+      List<MeshDataHolder> cubes = new ArrayList<>();
+      for (int i = 0; i < numberOfCubes; i++)
+      {
+         MeshDataHolder cube = MeshDataGenerator.Cube(0.5, 0.5, 0.5, true);
+         cubes.add(MeshDataHolder.translate(cube, 2.0f * i, 0.0f, 0.0f));
+      }
+      MeshBoundingVolumeHierarchy bvh = new MeshBoundingVolumeHierarchy(MeshDataHolder.combineAll(cubes));
+      QueryResult result = new QueryResult();
+
+      assertTrue(bvh.closestHit(new Point3D(-10.0, 0.1, 0.1), new Vector3D(1.0, 0.0, 0.0), result));
+      assertEquals(10.0 - 0.25, result.getDistance(), EPSILON);
+      int numberOfVisitedNodesForward = result.getNumberOfVisitedNodes();
+
+      assertTrue(bvh.closestHit(new Point3D(2.0 * numberOfCubes + 10.0, 0.1, 0.1), new Vector3D(-1.0, 0.0, 0.0), result));
+      assertEquals(12.0 - 0.25, result.getDistance(), EPSILON);
+      int numberOfVisitedNodesBackward = result.getNumberOfVisitedNodes();
+
+      // Visiting the farthest child first would go through most of the hierarchy.
+      assertTrue(numberOfVisitedNodesForward < bvh.getNumberOfNodes() / 10);
+      assertTrue(numberOfVisitedNodesBackward < bvh.getNumberOfNodes() / 10);
+   }
+
+   @Test
+   public void testParallelBuild()
+   {
+      Random random = new Random(7457L);
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 200, 200);
+      MeshBoundingVolumeHierarchy sequential = new MeshBoundingVolumeHierarchy(sphere);
+      MeshBoundingVolumeHierarchy parallel = new MeshBoundingVolumeHierarchy(sphere, new ForkJoinPool(4));
+      QueryResult sequentialResult = new QueryResult();
+      QueryResult parallelResult = new QueryResult();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Point3D query = EuclidCoreRandomTools.nextPoint3D(random, 2.0);
+         assertTrue(sequential.nearestPoint(query, sequentialResult));
+         assertTrue(parallel.nearestPoint(query, parallelResult));
+         assertEquals(sequentialResult.getDistance(), parallelResult.getDistance(), EPSILON);
+         assertEquals(0.0, sequentialResult.getPoint().distance(parallelResult.getPoint()), EPSILON);
+      }
+   }
+
+   private static double bruteForceRayCast(MeshDataHolder mesh, Point3DReadOnly origin, Vector3D direction)
+   {
+      Vector3D unitDirection = new Vector3D(direction);
+      unitDirection.normalize();
+      int[] triangleIndices = mesh.getTriangleIndices();
+      double closest = Double.POSITIVE_INFINITY;
+
+      for (int i = 0; i < triangleIndices.length; i += 3)
+      {
+         Point3D a = new Point3D(mesh.getVertices()[triangleIndices[i]]);
+         Vector3D e1 = new Vector3D();
+         Vector3D e2 = new Vector3D();
+         e1.sub(mesh.getVertices()[triangleIndices[i + 1]], a);
+         e2.sub(mesh.getVertices()[triangleIndices[i + 2]], a);
+         Vector3D p = new Vector3D();
+         p.cross(unitDirection, e2);
+         double determinant = e1.dot(p);
+         if (Math.abs(determinant) < 1.0e-12)
+            continue;
+         Vector3D s = new Vector3D();
+         s.sub(origin, a);
+         double u = s.dot(p) / determinant;
+         Vector3D q = new Vector3D();
+         q.cross(s, e1);
+         double v = unitDirection.dot(q) / determinant;
+         double t = e2.dot(q) / determinant;
+         if (u >= 0.0 && v >= 0.0 && u + v <= 1.0 && t >= 0.0)
+            closest = Math.min(closest, t);
+      }
+      return closest;
+   }
+
+   private static double bruteForceNearestDistance(MeshDataHolder mesh, Point3DReadOnly query)
+   {
+      int[] triangleIndices = mesh.getTriangleIndices();
+      double closest = Double.POSITIVE_INFINITY;
+
+      for (int i = 0; i < triangleIndices.length; i += 3)
+      {
+         Point3DReadOnly a = mesh.getVertices()[triangleIndices[i]];
+         Point3DReadOnly b = mesh.getVertices()[triangleIndices[i + 1]];
+         Point3DReadOnly c = mesh.getVertices()[triangleIndices[i + 2]];
+         closest = Math.min(closest, distanceToTriangle(query, a, b, c));
+      }
+      return closest;
+   }
+
+   private static double distanceToTriangle(Point3DReadOnly query, Point3DReadOnly a, Point3DReadOnly b, Point3DReadOnly c)
+   {
+      Vector3D ab = new Vector3D();
+      Vector3D ac = new Vector3D();
+      ab.sub(b, a);
+      ac.sub(c, a);
+      Vector3D normal = new Vector3D();
+      normal.cross(ab, ac);
+
+      if (normal.normSquared() > 1.0e-20)
+      {
+         normal.normalize();
+         Vector3D aq = new Vector3D();
+         aq.sub(query, a);
+         double height = aq.dot(normal);
+         Point3D projection = new Point3D();
+         projection.scaleAdd(-height, normal, query);
+
+         if (isInside(projection, a, b, c, normal))
+            return Math.abs(height);
+      }
+
+      return Math.min(distanceToSegment(query, a, b), Math.min(distanceToSegment(query, b, c), distanceToSegment(query, c, a)));
+   }
+
+   private static boolean isInside(Point3DReadOnly point, Point3DReadOnly a, Point3DReadOnly b, Point3DReadOnly c, Vector3D normal)
+   {
+      Point3DReadOnly[] vertices = {a, b, c};
+      for (int i = 0; i < 3; i++)
+      {
+         Vector3D edge = new Vector3D();
+         Vector3D toPoint = new Vector3D();
+         edge.sub(vertices[(i + 1) % 3], vertices[i]);
+         toPoint.sub(point, vertices[i]);
+         Vector3D cross = new Vector3D();
+         cross.cross(edge, toPoint);
+         if (cross.dot(normal) < 0.0)
+            return false;
+      }
+      return true;
+   }
+
+   private static double distanceToSegment(Point3DReadOnly query, Point3DReadOnly a, Point3DReadOnly b)
+   {
+      Vector3D ab = new Vector3D();
+      Vector3D aq = new Vector3D();
+      ab.sub(b, a);
+      aq.sub(query, a);
+      double lengthSquared = ab.normSquared();
+      double alpha = lengthSquared > 0.0 ? Math.max(0.0, Math.min(1.0, aq.dot(ab) / lengthSquared)) : 0.0;
+      Point3D closest = new Point3D();
+      closest.scaleAdd(alpha, ab, a);
+      return closest.distance(query);
+   }
+}
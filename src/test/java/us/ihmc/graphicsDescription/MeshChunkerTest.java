@@ -0,0 +1,68 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.IndexType;
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.Layout;
+
+public class MeshChunkerTest
+{
+   @Test
+   public void testSplit()
+   {
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 32, 32);
+      int maxNumberOfVertices = 100;
+      List<MeshDataHolder> chunks = MeshChunker.split(sphere, maxNumberOfVertices);
+
+      assertTrue(chunks.size() > 1);
+
+      int numberOfTriangleIndices = 0;
+      int triangleIndex = 0;
+
+      for (MeshDataHolder chunk : chunks)
+      {
+         assertTrue(chunk.getVertices().length <= maxNumberOfVertices);
+         numberOfTriangleIndices += chunk.getTriangleIndices().length;
+
+         // The triangles are kept in order and reference the same vertices as the original mesh.
+         for (int i = 0; i < chunk.getTriangleIndices().length; i++)
+         {
+            int expectedIndex = sphere.getTriangleIndices()[triangleIndex++];
+            assertEquals(sphere.getVertices()[expectedIndex], chunk.getVertices()[chunk.getTriangleIndices()[i]]);
+            assertEquals(sphere.getVertexNormals()[expectedIndex], chunk.getVertexNormals()[chunk.getTriangleIndices()[i]]);
+         }
+      }
+
+      assertEquals(sphere.getTriangleIndices().length, numberOfTriangleIndices);
+      assertTrue(MeshChunker.splitForShortIndices(sphere).get(0) == sphere);
+   }
+
+   @Test
+   public void testIndexTypeSelection()
+   {
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 16, 16);
+      DirectBufferMeshDataHolder direct = DirectBufferMeshDataHolder.create(sphere, Layout.INTERLEAVED);
+
+      assertEquals(IndexType.UNSIGNED_SHORT, direct.getIndexType());
+      assertTrue(direct.getTriangleIndexBuffer() == null);
+
+      for (int i = 0; i < sphere.getTriangleIndices().length; i++)
+         assertEquals(sphere.getTriangleIndices()[i], direct.getTriangleIndex(i));
+
+      assertEquals(IndexType.UNSIGNED_SHORT, DirectBufferMeshDataHolder.selectIndexType(DirectBufferMeshDataHolder.MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES));
+      assertEquals(IndexType.UNSIGNED_INT, DirectBufferMeshDataHolder.selectIndexType(DirectBufferMeshDataHolder.MAX_NUMBER_OF_VERTICES_FOR_SHORT_INDICES + 1));
+
+      DirectBufferMeshDataHolder large = new DirectBufferMeshDataHolder(70000, 3, Layout.PLANAR);
+      large.setTriangleIndex(0, 69999);
+      assertEquals(69999, large.getTriangleIndex(0));
+
+      DirectBufferMeshDataHolder limit = new DirectBufferMeshDataHolder(65536, 3, Layout.PLANAR);
+      limit.setTriangleIndex(0, 65535);
+      assertEquals(65535, limit.getTriangleIndex(0));
+   }
+}
@@ -0,0 +1,188 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.graphicsDescription.DirectBufferMeshDataHolder.IndexType;
+import us.ihmc.graphicsDescription.MeshDataBinaryFormat.MeshEntry;
+
+public class MeshDataBinaryFormatTest
+{
+   @Test
+   public void testWriteAndRead() throws IOException
+   {
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(0.5, 16, 16);
+      sphere.setName("sphere");
+      MeshDataHolder largeSphere = MeshDataGenerator.Sphere(1.0, 300, 300);
+      largeSphere.setName("large sphere");
+      Path path = Files.createTempFile("meshes", ".bin");
+
+      try
+      {
+         MeshDataBinaryFormat.writeMeshes(path, Arrays.asList(sphere, largeSphere));
+
+         List<MeshEntry> entries = MeshDataBinaryFormat.probe(path);
+         assertEquals(2, entries.size());
+         assertEquals("sphere", entries.get(0).getName());
+         assertEquals(sphere.getVertices().length, entries.get(0).getNumberOfVertices());
+         assertEquals(2, entries.get(0).getIndexSize());
+         assertEquals("large sphere", entries.get(1).getName());
+         assertEquals(4, entries.get(1).getIndexSize());
+
+         List<MeshDataHolder> meshes = MeshDataBinaryFormat.readMeshes(path, true);
+         assertMeshEquals(sphere, meshes.get(0));
+         assertMeshEquals(largeSphere, meshes.get(1));
+
+         List<DirectBufferMeshDataHolder> directMeshes = MeshDataBinaryFormat.mapDirectBufferMeshes(path, true);
+         assertEquals(IndexType.UNSIGNED_SHORT, directMeshes.get(0).getIndexType());
+         assertEquals(IndexType.UNSIGNED_INT, directMeshes.get(1).getIndexType());
+         assertMeshEquals(sphere, directMeshes.get(0).toMeshDataHolder());
+         assertMeshEquals(largeSphere, directMeshes.get(1).toMeshDataHolder());
+
+         // The mapped meshes are read-only views of the file.
+         boolean thrown = false;
+         try
+         {
+            directMeshes.get(0).setVertex(0, 10.0f, 10.0f, 10.0f);
+         }
+         catch (ReadOnlyBufferException e)
+         {
+            thrown = true;
+         }
+         assertTrue(thrown);
+      }
+      finally
+      {
+         Files.deleteIfExists(path);
+      }
+   }
+
+   @Test
+   public void testCorruptedData() throws IOException
+   {
+      MeshDataHolder cube = MeshDataGenerator.Cube(1.0, 1.0, 1.0, true, null);
+      Path path = Files.createTempFile("meshes", ".bin");
+
+      try
+      {
+         MeshDataBinaryFormat.writeMeshes(path, Arrays.asList(cube));
+         MeshEntry entry = MeshDataBinaryFormat.probe(path).get(0);
+
+         try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+         {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), entry.getDataOffset() + 5);
+         }
+
+         // The header is intact, the corruption is only detected when verifying the data.
+         MeshDataBinaryFormat.readMeshes(path, false);
+
+         boolean thrown = false;
+         try
+         {
+            MeshDataBinaryFormat.readMeshes(path, true);
+         }
+         catch (IOException e)
+         {
+            thrown = true;
+         }
+         assertTrue(thrown);
+      }
+      finally
+      {
+         Files.deleteIfExists(path);
+      }
+   }
+
+   @Test
+   public void testInvalidEntries() throws IOException
+   {
+      MeshDataHolder cube = MeshDataGenerator.Cube(1.0, 1.0, 1.0, true, null);
+      Path path = Files.createTempFile("meshes", ".bin");
+
+      try
+      {
+         char[] longName = new char[0x10000];
+         Arrays.fill(longName, 'a');
+         cube.setName(new String(longName));
+         boolean thrown = false;
+         try
+         {
+            MeshDataBinaryFormat.writeMeshes(path, Arrays.asList(cube));
+         }
+         catch (IllegalArgumentException e)
+         {
+            thrown = true;
+         }
+         assertTrue(thrown);
+
+         cube.setName("cube");
+         MeshDataBinaryFormat.writeMeshes(path, Arrays.asList(cube));
+         MeshEntry entry = MeshDataBinaryFormat.probe(path).get(0);
+
+         // Changes the data length of the entry and updates the header checksum to match.
+         int headerLength = (int) entry.getDataOffset();
+         ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+         try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+         {
+            channel.read(header, 0);
+            headerLength = header.getInt(12);
+            int dataLengthPosition = 16 + Short.BYTES + "cube".length() + 2 * Integer.BYTES + 1 + Long.BYTES;
+            assertEquals(entry.getDataLength(), header.getLong(dataLengthPosition));
+            header.putLong(dataLengthPosition, entry.getDataLength() - 4);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, headerLength - Integer.BYTES);
+            header.putInt(headerLength - Integer.BYTES, (int) crc.getValue());
+            header.position(0);
+            header.limit(headerLength);
+            channel.write(header, 0);
+         }
+
+         thrown = false;
+         try
+         {
+            MeshDataBinaryFormat.probe(path);
+         }
+         catch (IOException e)
+         {
+            thrown = true;
+         }
+         assertTrue(thrown);
+      }
+      finally
+      {
+         Files.deleteIfExists(path);
+      }
+   }
+
+   private static void assertMeshEquals(MeshDataHolder expected, MeshDataHolder actual)
+   {
+      assertEquals(expected.getName(), actual.getName());
+      assertArrayEquals(expected.getTriangleIndices(), actual.getTriangleIndices());
+      assertEquals(expected.getVertices().length, actual.getVertices().length);
+
+      for (int i = 0; i < expected.getVertices().length; i++)
+      {
+         Point3D32 vertex = expected.getVertices()[i];
+         assertEquals(vertex, actual.getVertices()[i]);
+         assertEquals(expected.getVertexNormals()[i], actual.getVertexNormals()[i]);
+         assertEquals(expected.getTexturePoints()[i].x, actual.getTexturePoints()[i].x, 0.0);
+         assertEquals(expected.getTexturePoints()[i].y, actual.getTexturePoints()[i].y, 0.0);
+      }
+   }
+}
@@ -0,0 +1,185 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertFalse;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+
+public class MeshDataGeneratorCacheTest
+{
+   @Test
+   public void testHitsAndMisses()
+   {
+      MeshDataGeneratorCache cache = new MeshDataGeneratorCache(MeshDataGeneratorCache.DEFAULT_MEMORY_BUDGET, false);
+
+      MeshDataHolder sphere = cache.Sphere(1.0, 8, 8);
+      assertEquals(0, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+      assertTrue(sphere == cache.Sphere(1.0, 8, 8));
+      assertTrue(sphere == cache.getMeshData(new SphereGraphics3DInstruction(1.0, 8)));
+      assertEquals(2, cache.getHitCount());
+
+      // Any parameter, or the generator, changes the mesh.
+      assertFalse(sphere == cache.Sphere(1.0, 8, 9));
+      assertFalse(sphere == cache.Sphere(2.0, 8, 8));
+      assertFalse(sphere == cache.Ellipsoid(1.0, 1.0, 1.0, 8, 8));
+      assertEquals(4, cache.getMissCount());
+      assertEquals(4, cache.getNumberOfCachedMeshes());
+      assertEquals(0, cache.getEvictionCount());
+
+      // Texture face arrays with the same faces set but different lengths are different keys.
+      boolean[] sixFaces = {true, true, true, true, true, true};
+      boolean[] sevenFaces = {true, true, true, true, true, true, false};
+      MeshDataHolder cube = cache.Cube(1.0, 1.0, 1.0, true, sixFaces);
+      assertFalse(cube == cache.Cube(1.0, 1.0, 1.0, true, sevenFaces));
+      assertFalse(cube == cache.Cube(1.0, 1.0, 1.0, true, null));
+      assertTrue(cube == cache.Cube(1.0, 1.0, 1.0, true, sixFaces.clone()));
+      assertEquals(7, cache.getMissCount());
+
+      cache.resetStatistics();
+      assertEquals(0, cache.getHitCount());
+      assertEquals(0, cache.getMissCount());
+
+      cache.clear();
+      assertEquals(0, cache.getNumberOfCachedMeshes());
+      assertEquals(0, cache.getMemoryUsage());
+      assertFalse(sphere == cache.Sphere(1.0, 8, 8));
+   }
+
+   @Test
+   public void testCopyOnAccess()
+   {
+      MeshDataGeneratorCache cache = new MeshDataGeneratorCache();
+      MeshDataHolder expected = MeshDataGenerator.Sphere(1.0, 8, 8);
+
+      MeshDataHolder first = cache.Sphere(1.0, 8, 8);
+      MeshDataHolder second = cache.Sphere(1.0, 8, 8);
+      assertFalse(first == second);
+      assertEquals(1, cache.getHitCount());
+      assertFalse(first.getVertices()[0] == second.getVertices()[0]);
+      assertFalse(first.getTriangleIndices() == second.getTriangleIndices());
+
+      // Modifying a copy does not affect the cached mesh.
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.getTranslation().set(1.0, 2.0, 3.0);
+      first.applyTransform(transform);
+      first.getTriangleIndices()[0] = -1;
+
+      MeshDataHolder third = cache.Sphere(1.0, 8, 8);
+      for (int i = 0; i < expected.getVertices().length; i++)
+      {
+         assertTrue(expected.getVertices()[i].equals(second.getVertices()[i]));
+         assertTrue(expected.getVertices()[i].equals(third.getVertices()[i]));
+         assertTrue(expected.getVertexNormals()[i].equals(third.getVertexNormals()[i]));
+      }
+      assertEquals(expected.getTriangleIndices()[0], third.getTriangleIndices()[0]);
+   }
+
+   @Test
+   public void testLeastRecentlyUsedEviction()
+   {
+      long sphereMemory = MeshDataGeneratorCache.estimateMemoryUsage(MeshDataGenerator.Sphere(1.0, 8, 8));
+      // Room for two spheres but not three.
+      MeshDataGeneratorCache cache = new MeshDataGeneratorCache(2 * sphereMemory + sphereMemory / 2, false);
+
+      MeshDataHolder a = cache.Sphere(1.0, 8, 8);
+      MeshDataHolder b = cache.Sphere(2.0, 8, 8);
+      assertEquals(2 * sphereMemory, cache.getMemoryUsage());
+      assertTrue(a == cache.Sphere(1.0, 8, 8)); // a is now the most recently used.
+
+      MeshDataHolder c = cache.Sphere(3.0, 8, 8);
+      assertEquals(1, cache.getEvictionCount());
+      assertEquals(2, cache.getNumberOfCachedMeshes());
+      assertEquals(2 * sphereMemory, cache.getMemoryUsage());
+      assertTrue(cache.getMemoryUsage() <= cache.getMemoryBudget());
+
+      cache.resetStatistics();
+      assertTrue(a == cache.Sphere(1.0, 8, 8));
+      assertTrue(c == cache.Sphere(3.0, 8, 8));
+      assertEquals(2, cache.getHitCount());
+      assertFalse(b == cache.Sphere(2.0, 8, 8)); // b was evicted.
+      assertEquals(1, cache.getMissCount());
+      assertEquals(1, cache.getEvictionCount()); // a, the least recently used, is evicted in turn.
+      assertFalse(a == cache.Sphere(1.0, 8, 8));
+
+      // A mesh over the budget on its own is still cached.
+      MeshDataGeneratorCache tinyCache = new MeshDataGeneratorCache(1, false);
+      MeshDataHolder sphere = tinyCache.Sphere(1.0, 8, 8);
+      assertTrue(sphere == tinyCache.Sphere(1.0, 8, 8));
+      tinyCache.Sphere(2.0, 8, 8);
+      assertEquals(1, tinyCache.getNumberOfCachedMeshes());
+      assertEquals(1, tinyCache.getEvictionCount());
+   }
+
+   @Test
+   public void testConcurrentAccess() throws Exception
+   {
+      MeshDataGeneratorCache cache = new MeshDataGeneratorCache(MeshDataGeneratorCache.DEFAULT_MEMORY_BUDGET, false);
+      int numberOfThreads = 8;
+      int numberOfCalls = 200;
+      int numberOfMeshes = 10;
+      AtomicInteger numberOfGenerations = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+
+      try
+      {
+         List<Future<MeshDataHolder[]>> futures = new ArrayList<>();
+
+         for (int thread = 0; thread < numberOfThreads; thread++)
+         {
+            int offset = thread;
+            futures.add(executor.submit(() ->
+            {
+               MeshDataHolder[] meshes = new MeshDataHolder[numberOfMeshes];
+
+               for (int i = 0; i < numberOfCalls; i++)
+               {
+                  int mesh = (i + offset) % numberOfMeshes;
+                  MeshDataHolder meshDataHolder = cache.get("Sphere", () ->
+                  {
+                     numberOfGenerations.incrementAndGet();
+                     return MeshDataGenerator.Sphere(1.0 + mesh, 8, 8);
+                  }, 1.0 + mesh);
+
+                  if (meshes[mesh] == null)
+                     meshes[mesh] = meshDataHolder;
+                  else if (meshes[mesh] != meshDataHolder)
+                     throw new AssertionError("Different instances returned for the same mesh.");
+               }
+               return meshes;
+            }));
+         }
+
+         MeshDataHolder[] firstMeshes = futures.get(0).get();
+         for (Future<MeshDataHolder[]> future : futures)
+         {
+            MeshDataHolder[] meshes = future.get();
+            for (int i = 0; i < numberOfMeshes; i++)
+               assertTrue(firstMeshes[i] == meshes[i]);
+         }
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+
+      assertEquals(numberOfThreads * numberOfCalls, cache.getHitCount() + cache.getMissCount());
+      // Concurrent misses on the same mesh may generate it more than once, but only one is kept.
+      assertEquals(numberOfGenerations.get(), cache.getMissCount());
+      assertTrue(cache.getMissCount() >= numberOfMeshes);
+      assertEquals(numberOfMeshes, cache.getNumberOfCachedMeshes());
+      long sphereMemory = MeshDataGeneratorCache.estimateMemoryUsage(MeshDataGenerator.Sphere(1.0, 8, 8));
+      assertEquals(numberOfMeshes * sphereMemory, cache.getMemoryUsage());
+   }
+}
@@ -0,0 +1,137 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox3DReadOnly;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class MeshDataHolderTest
+{
+   private static final double EPSILON = 1.0e-6;
+
+   @Test
+   public void testCombineAll()
+   {
+      List<MeshDataHolder> meshes = new ArrayList<>();
+      meshes.add(MeshDataGenerator.Sphere(0.5, 8, 8));
+      meshes.add(emptyMesh());
+      meshes.add(MeshDataGenerator.Cylinder(0.2, 0.5, 12));
+      meshes.add(MeshDataGenerator.Cube(0.3, 0.3, 0.3, true));
+
+      MeshDataHolder expected = meshes.get(0);
+      for (int i = 1; i < meshes.size(); i++)
+         expected = MeshDataHolder.combine(expected, meshes.get(i), true);
+
+      for (boolean parallel : new boolean[] {false, true})
+      {
+         MeshDataHolder actual = MeshDataHolder.combineAll(meshes, parallel);
+         assertArrayEquals(expected.getVertices(), actual.getVertices());
+         assertArrayEquals(expected.getVertexNormals(), actual.getVertexNormals());
+         assertArrayEquals(expected.getTexturePoints(), actual.getTexturePoints());
+         assertArrayEquals(expected.getTriangleIndices(), actual.getTriangleIndices());
+      }
+
+      assertEquals(0, MeshDataHolder.combineAll(new ArrayList<>()).getVertices().length);
+      assertEquals(0, MeshDataHolder.combine(emptyMesh(), emptyMesh(), true).getVertices().length);
+   }
+
+   @Test
+   public void testCombineAllTransformed()
+   {
+      Random random = new Random(3452L);
+      List<MeshDataHolder> meshes = new ArrayList<>();
+      List<RigidBodyTransform> transforms = new ArrayList<>();
+
+      for (int i = 0; i < 20; i++)
+      {
+         meshes.add(MeshDataGenerator.Cone(0.5, 0.1, 8));
+         transforms.add(EuclidCoreRandomTools.nextRigidBodyTransform(random));
+      }
+
+      MeshDataHolder actual = MeshDataHolder.combineAll(meshes, transforms, true);
+      int offset = 0;
+
+      for (int i = 0; i < meshes.size(); i++)
+      {
+         MeshDataHolder expected = new MeshDataHolder(meshes.get(i));
+         expected.applyTransform(transforms.get(i));
+
+         for (int j = 0; j < expected.getVertices().length; j++)
+         {
+            Point3D32 vertex = actual.getVertices()[offset + j];
+            Vector3D32 normal = actual.getVertexNormals()[offset + j];
+            assertEquals(0.0, expected.getVertices()[j].distance(vertex), EPSILON);
+            assertEquals(0.0, expected.getVertexNormals()[j].differenceNorm(normal), EPSILON);
+         }
+         offset += expected.getVertices().length;
+      }
+
+      // The input meshes are not modified.
+      assertArrayEquals(MeshDataGenerator.Cone(0.5, 0.1, 8).getVertices(), meshes.get(0).getVertices());
+   }
+
+   @Test
+   public void testBounds()
+   {
+      MeshDataHolder cube = MeshDataGenerator.Cube(1.0, 2.0, 3.0, true, null);
+      BoundingBox3DReadOnly boundingBox = cube.getBoundingBox();
+      assertEquals(-0.5, boundingBox.getMinX(), EPSILON);
+      assertEquals(-1.0, boundingBox.getMinY(), EPSILON);
+      assertEquals(-1.5, boundingBox.getMinZ(), EPSILON);
+      assertEquals(0.5, boundingBox.getMaxX(), EPSILON);
+      assertEquals(1.0, boundingBox.getMaxY(), EPSILON);
+      assertEquals(1.5, boundingBox.getMaxZ(), EPSILON);
+      assertEquals(0.0, cube.getBoundingSphereCenter().distanceFromOrigin(), EPSILON);
+      assertEquals(0.5 * Math.sqrt(1.0 + 4.0 + 9.0), cube.getBoundingSphereRadius(), EPSILON);
+      // The bounds are cached.
+      assertTrue(boundingBox == cube.getBoundingBox());
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.getTranslation().set(1.0, 2.0, 3.0);
+      cube.applyTransform(transform);
+      assertEquals(0.5, cube.getBoundingBox().getMinX(), EPSILON);
+      assertEquals(4.5, cube.getBoundingBox().getMaxZ(), EPSILON);
+      assertEquals(0.0, cube.getBoundingSphereCenter().distance(new Point3D32(1.0f, 2.0f, 3.0f)), EPSILON);
+
+      cube.getVertices()[0].set(10.0, 0.0, 0.0);
+      cube.invalidateBounds();
+      assertEquals(10.0, cube.getBoundingBox().getMaxX(), EPSILON);
+
+      assertTrue(emptyMesh().getBoundingBox().containsNaN());
+      assertTrue(Double.isNaN(emptyMesh().getBoundingSphereRadius()));
+   }
+
+   @Test
+   public void testBoundsOfMeshesUpdatedInPlace()
+   {
+      PointCloud3DMeshGenerator pointCloudGenerator = new PointCloud3DMeshGenerator(2, 8, 0.1);
+      pointCloudGenerator.compute(new Point3D[] {new Point3D(), new Point3D(1.0, 0.0, 0.0)});
+      assertEquals(1.1, pointCloudGenerator.getMeshDataHolders()[1].getBoundingBox().getMaxX(), EPSILON);
+      pointCloudGenerator.compute(new Point3D[] {new Point3D(), new Point3D(3.0, 0.0, 0.0)});
+      assertEquals(3.1, pointCloudGenerator.getMeshDataHolders()[1].getBoundingBox().getMaxX(), EPSILON);
+      assertEquals(2.9, pointCloudGenerator.getMeshDataHolders()[1].getBoundingBox().getMinX(), EPSILON);
+
+      SegmentedLine3DMeshDataGenerator lineGenerator = new SegmentedLine3DMeshDataGenerator(3, 8, 0.1);
+      lineGenerator.compute(new Point3D[] {new Point3D(), new Point3D(1.0, 0.0, 0.0), new Point3D(2.0, 0.0, 0.0)});
+      assertEquals(2.0, lineGenerator.getMeshDataHolders()[1].getBoundingBox().getMaxX(), EPSILON);
+      lineGenerator.compute(new Point3D[] {new Point3D(), new Point3D(1.0, 0.0, 0.0), new Point3D(5.0, 0.0, 0.0)});
+      assertEquals(5.0, lineGenerator.getMeshDataHolders()[1].getBoundingBox().getMaxX(), EPSILON);
+   }
+
+   private static MeshDataHolder emptyMesh()
+   {
+      return new MeshDataHolder(new Point3D32[0], new TexCoord2f[0], new int[0], new Vector3D32[0]);
+   }
+}
@@ -0,0 +1,258 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.graphicsDescription.MeshNormalCalculator.Weighting;
+
+public class MeshNormalCalculatorTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testUniformWeightingMatchesFaceAverage()
+   {
+      Random random = new Random(2354L);
+
+      for (int iteration = 0; iteration < 20; iteration++)
+      {
+         int numberOfVertices = 3 + random.nextInt(50);
+         Point3D32[] vertices = new Point3D32[numberOfVertices];
+         for (int i = 0; i < numberOfVertices; i++)
+            vertices[i] = new Point3D32(EuclidCoreRandomTools.nextPoint3D(random, 1.0));
+
+         int[] triangleIndices = new int[3 * (1 + random.nextInt(100))];
+         for (int i = 0; i < triangleIndices.length; i += 3)
+         { // Make sure all the triangles are non-degenerate.
+            triangleIndices[i] = random.nextInt(numberOfVertices);
+            triangleIndices[i + 1] = (triangleIndices[i] + 1 + random.nextInt(numberOfVertices - 2)) % numberOfVertices;
+            do
+               triangleIndices[i + 2] = random.nextInt(numberOfVertices);
+            while (triangleIndices[i + 2] == triangleIndices[i] || triangleIndices[i + 2] == triangleIndices[i + 1]);
+         }
+
+         Vector3D32[] expected = computeFaceAverageNormals(triangleIndices, vertices);
+         Vector3D32[] actual = MeshDataGenerator.findNormalsPerVertex(triangleIndices, vertices);
+
+         for (int i = 0; i < numberOfVertices; i++)
+            assertEquals(expected[i], actual[i]);
+      }
+   }
+
+   @Test
+   public void testWeightingsOnFlatMesh()
+   {
+      MeshDataHolder rectangle = MeshDataGenerator.FlatRectangle(-1.0, -2.0, 3.0, 1.0, 0.5);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(rectangle);
+      float[] normals = new float[packed.getVertexCoordinates().length];
+      MeshNormalCalculator calculator = new MeshNormalCalculator();
+
+      for (Weighting weighting : Weighting.values())
+      {
+         calculator.computeVertexNormals(packed.getTriangleIndices(), packed.getVertexCoordinates(), weighting, normals);
+
+         for (int i = 0; i < packed.getNumberOfVertices(); i++)
+         {
+            assertEquals(0.0, normals[3 * i], EPSILON);
+            assertEquals(0.0, normals[3 * i + 1], EPSILON);
+            assertEquals(1.0, Math.abs(normals[3 * i + 2]), EPSILON);
+         }
+      }
+   }
+
+   @Test
+   public void testWeightedNormalsOnSphere()
+   {
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 32, 32);
+      Vector3D32[] normals = new Vector3D32[sphere.getVertices().length];
+      for (int i = 0; i < normals.length; i++)
+         normals[i] = new Vector3D32();
+      MeshNormalCalculator calculator = new MeshNormalCalculator();
+
+      for (Weighting weighting : new Weighting[] {Weighting.AREA, Weighting.ANGLE})
+      {
+         calculator.computeVertexNormals(sphere.getTriangleIndices(), sphere.getVertices(), weighting, normals);
+
+         for (int i = 0; i < normals.length; i++)
+         {
+            assertEquals(1.0, normals[i].norm(), EPSILON);
+            // Outward or inward depending on the winding, but always aligned with the radial direction.
+            assertEquals(1.0, Math.abs(normals[i].dot(sphere.getVertexNormals()[i])), 1.0e-2);
+         }
+      }
+   }
+
+   @Test
+   public void testParallelMatchesSequential()
+   {
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 64, 64);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(sphere);
+      int[] triangleIndices = packed.getTriangleIndices();
+      float[] vertexCoordinates = packed.getVertexCoordinates();
+      float[] sequentialNormals = new float[vertexCoordinates.length];
+      float[] parallelNormals = new float[vertexCoordinates.length];
+      float[] sequentialTangents = new float[4 * packed.getNumberOfVertices()];
+      float[] parallelTangents = new float[4 * packed.getNumberOfVertices()];
+
+      MeshNormalCalculator sequential = new MeshNormalCalculator();
+      ForkJoinPool pool = new ForkJoinPool(4);
+      MeshNormalCalculator parallel = new MeshNormalCalculator(pool, 1);
+
+      try
+      {
+         for (Weighting weighting : Weighting.values())
+         {
+            sequential.computeVertexNormals(triangleIndices, vertexCoordinates, weighting, sequentialNormals);
+            parallel.computeVertexNormals(triangleIndices, vertexCoordinates, weighting, parallelNormals);
+
+            for (int i = 0; i < vertexCoordinates.length; i++)
+               assertEquals(sequentialNormals[i], parallelNormals[i], EPSILON);
+         }
+
+         sequential.computeVertexTangents(triangleIndices, vertexCoordinates, packed.getTexturePointCoordinates(), sequentialNormals, sequentialTangents);
+         parallel.computeVertexTangents(triangleIndices, vertexCoordinates, packed.getTexturePointCoordinates(), sequentialNormals, parallelTangents);
+
+         for (int i = 0; i < sequentialTangents.length; i++)
+            assertEquals(sequentialTangents[i], parallelTangents[i], 1.0e-4);
+      }
+      finally
+      {
+         pool.shutdown();
+      }
+   }
+
+   @Test
+   public void testParallelMatchesSequentialOnLargeGrid()
+   {
+      // A terrain-like grid above the default threshold, such that the triangles are split between workers.
+      int gridSize = 300;
+      int numberOfVertices = gridSize * gridSize;
+      float[] vertexCoordinates = new float[3 * numberOfVertices];
+      float[] texturePointCoordinates = new float[2 * numberOfVertices];
+      int[] triangleIndices = new int[6 * (gridSize - 1) * (gridSize - 1)];
+
+      for (int i = 0; i < gridSize; i++)
+      {
+         for (int j = 0; j < gridSize; j++)
+         {
+            int vertexIndex = i * gridSize + j;
+            vertexCoordinates[3 * vertexIndex] = 0.01f * i;
+            vertexCoordinates[3 * vertexIndex + 1] = 0.01f * j;
+            vertexCoordinates[3 * vertexIndex + 2] = (float) (0.1 * Math.sin(0.05 * i) * Math.cos(0.03 * j));
+            texturePointCoordinates[2 * vertexIndex] = (float) i / (gridSize - 1);
+            texturePointCoordinates[2 * vertexIndex + 1] = (float) j / (gridSize - 1);
+         }
+      }
+
+      int index = 0;
+      for (int i = 0; i < gridSize - 1; i++)
+      {
+         for (int j = 0; j < gridSize - 1; j++)
+         {
+            int vertexIndex = i * gridSize + j;
+            triangleIndices[index++] = vertexIndex;
+            triangleIndices[index++] = vertexIndex + gridSize;
+            triangleIndices[index++] = vertexIndex + 1;
+            triangleIndices[index++] = vertexIndex + 1;
+            triangleIndices[index++] = vertexIndex + gridSize;
+            triangleIndices[index++] = vertexIndex + gridSize + 1;
+         }
+      }
+      assertTrue(triangleIndices.length / 3 > MeshNormalCalculator.DEFAULT_PARALLEL_THRESHOLD);
+
+      float[] sequentialNormals = new float[3 * numberOfVertices];
+      float[] parallelNormals = new float[3 * numberOfVertices];
+      float[] sequentialTangents = new float[4 * numberOfVertices];
+      float[] parallelTangents = new float[4 * numberOfVertices];
+
+      MeshNormalCalculator sequential = new MeshNormalCalculator();
+      ForkJoinPool pool = new ForkJoinPool(4);
+      MeshNormalCalculator parallel = new MeshNormalCalculator(pool, MeshNormalCalculator.DEFAULT_PARALLEL_THRESHOLD);
+
+      try
+      {
+         for (Weighting weighting : Weighting.values())
+         {
+            sequential.computeVertexNormals(triangleIndices, vertexCoordinates, weighting, sequentialNormals);
+            parallel.computeVertexNormals(triangleIndices, vertexCoordinates, weighting, parallelNormals);
+
+            for (int i = 0; i < sequentialNormals.length; i++)
+               assertEquals(sequentialNormals[i], parallelNormals[i], EPSILON);
+         }
+
+         sequential.computeVertexTangents(triangleIndices, vertexCoordinates, texturePointCoordinates, sequentialNormals, sequentialTangents);
+         parallel.computeVertexTangents(triangleIndices, vertexCoordinates, texturePointCoordinates, sequentialNormals, parallelTangents);
+
+         for (int i = 0; i < sequentialTangents.length; i++)
+            assertEquals(sequentialTangents[i], parallelTangents[i], 1.0e-4);
+      }
+      finally
+      {
+         pool.shutdown();
+      }
+   }
+
+   @Test
+   public void testTangentsOnFlatMesh()
+   {
+      MeshDataHolder rectangle = MeshDataGenerator.FlatRectangle(-1.0, -2.0, 3.0, 1.0, 0.5);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(rectangle);
+      float[] normals = new float[packed.getVertexCoordinates().length];
+      float[] tangents = new float[4 * packed.getNumberOfVertices()];
+      MeshNormalCalculator calculator = new MeshNormalCalculator();
+
+      calculator.computeVertexNormals(packed.getTriangleIndices(), packed.getVertexCoordinates(), Weighting.AREA, normals);
+      calculator.computeVertexTangents(packed.getTriangleIndices(), packed.getVertexCoordinates(), packed.getTexturePointCoordinates(), normals, tangents);
+
+      for (int i = 0; i < packed.getNumberOfVertices(); i++)
+      {
+         // Unit, orthogonal to the normal, and in the plane of the rectangle.
+         float tx = tangents[4 * i], ty = tangents[4 * i + 1], tz = tangents[4 * i + 2];
+         assertEquals(1.0, Math.sqrt(tx * tx + ty * ty + tz * tz), EPSILON);
+         assertEquals(0.0, tx * normals[3 * i] + ty * normals[3 * i + 1] + tz * normals[3 * i + 2], EPSILON);
+         assertEquals(0.0, tz, EPSILON);
+         assertEquals(1.0, Math.abs(tangents[4 * i + 3]), 0.0);
+      }
+   }
+
+   private static Vector3D32[] computeFaceAverageNormals(int[] triangleIndices, Point3D32[] vertices)
+   {
+      Vector3D32[] sums = new Vector3D32[vertices.length];
+      int[] counts = new int[vertices.length];
+      for (int i = 0; i < vertices.length; i++)
+         sums[i] = new Vector3D32();
+
+      Vector3D32 first = new Vector3D32();
+      Vector3D32 second = new Vector3D32();
+      Vector3D32 faceNormal = new Vector3D32();
+
+      for (int i = 0; i < triangleIndices.length; i += 3)
+      {
+         first.sub(vertices[triangleIndices[i + 2]], vertices[triangleIndices[i]]);
+         second.sub(vertices[triangleIndices[i + 2]], vertices[triangleIndices[i + 1]]);
+         faceNormal.cross(first, second);
+         faceNormal.normalize();
+
+         for (int j = 0; j < 3; j++)
+         {
+            sums[triangleIndices[i + j]].add(faceNormal);
+            counts[triangleIndices[i + j]]++;
+         }
+      }
+
+      for (int i = 0; i < vertices.length; i++)
+      {
+         if (counts[i] > 0)
+            sums[i].scale(1.0f / counts[i]);
+      }
+      return sums;
+   }
+}
@@ -0,0 +1,174 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class MeshSimplifierTest
+{
+   @Test
+   public void testSimplifyFlatGrid()
+   {
+      int size = 20;
+      MeshDataHolder grid = createGrid(size);
+      MeshDataHolder simplified = MeshSimplifier.simplify(grid, 0.1);
+
+      int numberOfTriangles = simplified.getTriangleIndices().length / 3;
+      assertTrue(numberOfTriangles < grid.getTriangleIndices().length / 3 / 2);
+
+      // A flat mesh remains flat, and the border vertices are all kept.
+      int numberOfBorderVertices = 0;
+      for (Point3D32 vertex : simplified.getVertices())
+      {
+         assertEquals(0.0, vertex.getZ(), 0.0);
+         if (vertex.getX() == 0.0f || vertex.getY() == 0.0f || vertex.getX() == size || vertex.getY() == size)
+            numberOfBorderVertices++;
+      }
+      assertEquals(4 * size, numberOfBorderVertices);
+
+      // No triangle is flipped.
+      for (int i = 0; i < simplified.getTriangleIndices().length; i += 3)
+      {
+         Point3D32 p0 = simplified.getVertices()[simplified.getTriangleIndices()[i]];
+         Point3D32 p1 = simplified.getVertices()[simplified.getTriangleIndices()[i + 1]];
+         Point3D32 p2 = simplified.getVertices()[simplified.getTriangleIndices()[i + 2]];
+         double normalZ = (p1.getX() - p0.getX()) * (p2.getY() - p0.getY()) - (p1.getY() - p0.getY()) * (p2.getX() - p0.getX());
+         assertTrue(normalZ > 0.0);
+      }
+   }
+
+   @Test
+   public void testLODChain()
+   {
+      MeshDataHolder grid = createGrid(30);
+      MeshLODChain chain = MeshSimplifier.generateLODChain(grid, 0.5, 0.25);
+
+      assertEquals(3, chain.getNumberOfLevels());
+      assertTrue(chain.getLevel(0) == grid);
+      assertTrue(chain.getLevel(1).getTriangleIndices().length < grid.getTriangleIndices().length);
+      assertTrue(chain.getLevel(2).getTriangleIndices().length < chain.getLevel(1).getTriangleIndices().length);
+
+      assertEquals(0, chain.selectLevel(1.0));
+      assertEquals(1, chain.selectLevel(MeshLODChain.computeDefaultMinimumScreenSize(0.5)));
+      assertEquals(2, chain.selectLevel(0.0));
+   }
+
+   @Test
+   public void testSimplifyDuplicatedVertices()
+   {
+      // Each triangle has its own copies of its vertices, with identical attributes: there is no seam.
+      MeshDataHolder grid = createGrid(20);
+      int[] gridIndices = grid.getTriangleIndices();
+      Point3D32[] vertices = new Point3D32[gridIndices.length];
+      TexCoord2f[] texturePoints = new TexCoord2f[gridIndices.length];
+      Vector3D32[] normals = new Vector3D32[gridIndices.length];
+      int[] triangleIndices = new int[gridIndices.length];
+
+      for (int i = 0; i < gridIndices.length; i++)
+      {
+         vertices[i] = new Point3D32(grid.getVertices()[gridIndices[i]]);
+         texturePoints[i] = new TexCoord2f(grid.getTexturePoints()[gridIndices[i]]);
+         normals[i] = new Vector3D32(grid.getVertexNormals()[gridIndices[i]]);
+         triangleIndices[i] = i;
+      }
+
+      MeshDataHolder unwelded = new MeshDataHolder(vertices, texturePoints, triangleIndices, normals);
+      MeshDataHolder simplified = MeshSimplifier.simplify(unwelded, 0.1);
+      assertTrue(simplified.getTriangleIndices().length < gridIndices.length / 2);
+   }
+
+   @Test
+   public void testCollapsesKeepClosedMeshManifold()
+   {
+      Point3D32[] vertices = {new Point3D32(1.0f, 0.0f, 0.0f), new Point3D32(-1.0f, 0.0f, 0.0f), new Point3D32(0.0f, 1.0f, 0.0f),
+            new Point3D32(0.0f, -1.0f, 0.0f), new Point3D32(0.0f, 0.0f, 1.0f), new Point3D32(0.0f, 0.0f, -1.0f)};
+      TexCoord2f[] texturePoints = new TexCoord2f[vertices.length];
+      Vector3D32[] normals = new Vector3D32[vertices.length];
+      for (int i = 0; i < vertices.length; i++)
+      {
+         texturePoints[i] = new TexCoord2f();
+         normals[i] = new Vector3D32(vertices[i]);
+      }
+
+      // Octahedron, one counter-clockwise face per octant.
+      int[] triangleIndices = new int[24];
+      int index = 0;
+      for (int octant = 0; octant < 8; octant++)
+      {
+         int x = octant & 1, y = 2 + (octant >> 1 & 1), z = 4 + (octant >> 2 & 1);
+         boolean isCounterClockwise = Integer.bitCount(octant) % 2 == 0;
+         triangleIndices[index++] = x;
+         triangleIndices[index++] = isCounterClockwise ? y : z;
+         triangleIndices[index++] = isCounterClockwise ? z : y;
+      }
+
+      MeshDataHolder simplified = MeshSimplifier.simplify(new MeshDataHolder(vertices, texturePoints, triangleIndices, normals), 0.0);
+      int[] simplifiedIndices = simplified.getTriangleIndices();
+
+      // The smallest closed manifold is a tetrahedron, further collapses would create duplicate triangles.
+      assertEquals(12, simplifiedIndices.length);
+
+      // Each edge is shared by exactly two triangles, and no two triangles use the same vertices.
+      TLongIntHashMap edgeCount = new TLongIntHashMap();
+      Set<Long> triangleKeys = new HashSet<>();
+      for (int i = 0; i < simplifiedIndices.length; i += 3)
+      {
+         int[] triangle = {simplifiedIndices[i], simplifiedIndices[i + 1], simplifiedIndices[i + 2]};
+         for (int j = 0; j < 3; j++)
+         {
+            int a = triangle[j], b = triangle[(j + 1) % 3];
+            edgeCount.adjustOrPutValue(Math.min(a, b) * 1000L + Math.max(a, b), 1, 1);
+         }
+         Arrays.sort(triangle);
+         assertTrue(triangleKeys.add((triangle[0] * 1000L + triangle[1]) * 1000L + triangle[2]));
+      }
+      for (int count : edgeCount.values())
+         assertEquals(2, count);
+   }
+
+   private static MeshDataHolder createGrid(int size)
+   {
+      int numberOfVertices = (size + 1) * (size + 1);
+      Point3D32[] vertices = new Point3D32[numberOfVertices];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfVertices];
+      Vector3D32[] normals = new Vector3D32[numberOfVertices];
+      int[] triangleIndices = new int[6 * size * size];
+
+      for (int i = 0; i <= size; i++)
+      {
+         for (int j = 0; j <= size; j++)
+         {
+            int index = i * (size + 1) + j;
+            vertices[index] = new Point3D32(i, j, 0.0f);
+            texturePoints[index] = new TexCoord2f((float) i / size, (float) j / size);
+            normals[index] = new Vector3D32(0.0f, 0.0f, 1.0f);
+         }
+      }
+
+      int index = 0;
+      for (int i = 0; i < size; i++)
+      {
+         for (int j = 0; j < size; j++)
+         {
+            int v = i * (size + 1) + j;
+            triangleIndices[index++] = v;
+            triangleIndices[index++] = v + size + 1;
+            triangleIndices[index++] = v + 1;
+            triangleIndices[index++] = v + 1;
+            triangleIndices[index++] = v + size + 1;
+            triangleIndices[index++] = v + size + 2;
+         }
+      }
+
+      return new MeshDataHolder(vertices, texturePoints, triangleIndices, normals);
+   }
+}
@@ -0,0 +1,154 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.matrix.Matrix3D;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.AffineTransform;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class MeshTransformsTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testRigidBodyTransform()
+   {
+      Random random = new Random(4367L);
+      int numberOfElements = 100;
+      float[] packed = nextPacked(random, numberOfElements);
+      float[] transformed = new float[packed.length];
+      float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+
+      for (int iteration = 0; iteration < 10; iteration++)
+      {
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+
+         MeshTransforms.packMatrix(transform, matrix);
+         MeshTransforms.transformPoints(matrix, packed, transformed, numberOfElements);
+         for (int i = 0; i < numberOfElements; i++)
+         {
+            Point3D32 expected = new Point3D32(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]);
+            expected.applyTransform(transform);
+            assertTupleEquals(expected.getX(), expected.getY(), expected.getZ(), transformed, i);
+         }
+
+         MeshTransforms.transformVectors(matrix, packed, transformed, numberOfElements);
+         for (int i = 0; i < numberOfElements; i++)
+         {
+            Vector3D32 expected = new Vector3D32(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]);
+            expected.applyTransform(transform);
+            assertTupleEquals(expected.getX(), expected.getY(), expected.getZ(), transformed, i);
+         }
+
+         MeshTransforms.packInverseMatrix(transform, matrix);
+         MeshTransforms.transformPoints(matrix, packed, transformed, numberOfElements);
+         for (int i = 0; i < numberOfElements; i++)
+         {
+            Point3D32 expected = new Point3D32(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]);
+            expected.applyInverseTransform(transform);
+            assertTupleEquals(expected.getX(), expected.getY(), expected.getZ(), transformed, i);
+         }
+      }
+   }
+
+   @Test
+   public void testAffineTransformAndNormals()
+   {
+      Random random = new Random(8723L);
+      int numberOfElements = 100;
+      float[] packed = nextPacked(random, numberOfElements);
+      float[] transformed = new float[packed.length];
+      float[] matrix = new float[MeshTransforms.MATRIX_SIZE];
+      float[] normalMatrix = new float[MeshTransforms.MATRIX_SIZE];
+
+      for (int iteration = 0; iteration < 10; iteration++)
+      {
+         AffineTransform transform = EuclidCoreRandomTools.nextAffineTransform(random);
+
+         MeshTransforms.packMatrix(transform, matrix);
+         MeshTransforms.transformPoints(matrix, packed, transformed, numberOfElements);
+         for (int i = 0; i < numberOfElements; i++)
+         {
+            Point3D32 expected = new Point3D32(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]);
+            expected.applyTransform(transform);
+            assertTupleEquals(expected.getX(), expected.getY(), expected.getZ(), transformed, i);
+         }
+
+         // The normals are transformed with the inverse-transpose and normalized.
+         Matrix3D inverseTranspose = new Matrix3D(transform.getLinearTransform());
+         inverseTranspose.invert();
+         inverseTranspose.transpose();
+
+         MeshTransforms.computeNormalMatrix(matrix, normalMatrix);
+         MeshTransforms.transformNormals(normalMatrix, packed, transformed, numberOfElements);
+         for (int i = 0; i < numberOfElements; i++)
+         {
+            Vector3D expected = new Vector3D(packed[3 * i], packed[3 * i + 1], packed[3 * i + 2]);
+            inverseTranspose.transform(expected);
+            expected.normalize();
+            assertTupleEquals(expected.getX(), expected.getY(), expected.getZ(), transformed, i);
+         }
+      }
+   }
+
+   @Test
+   public void testMeshDataHolderApplyTransform()
+   {
+      Random random = new Random(2376L);
+      RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      MeshDataHolder expected = MeshDataGenerator.Sphere(0.3, 8, 8);
+      MeshDataHolder actual = new MeshDataHolder(expected);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(expected);
+
+      for (Point3D32 vertex : expected.getVertices())
+         vertex.applyTransform(transform);
+      for (Vector3D32 normal : expected.getVertexNormals())
+         normal.applyTransform(transform);
+
+      actual.applyTransform(transform);
+      packed.applyTransform(transform);
+
+      for (int i = 0; i < expected.getVertices().length; i++)
+      {
+         assertEquals(0.0, expected.getVertices()[i].distance(actual.getVertices()[i]), EPSILON);
+         assertEquals(0.0, expected.getVertexNormals()[i].differenceNorm(actual.getVertexNormals()[i]), EPSILON);
+         assertTupleEquals(expected.getVertices()[i].getX(), expected.getVertices()[i].getY(), expected.getVertices()[i].getZ(),
+                           packed.getVertexCoordinates(), i);
+      }
+
+      actual.applyInverseTransform(transform);
+      packed.applyInverseTransform(transform);
+      MeshDataHolder original = MeshDataGenerator.Sphere(0.3, 8, 8);
+
+      for (int i = 0; i < original.getVertices().length; i++)
+      {
+         assertEquals(0.0, original.getVertices()[i].distance(actual.getVertices()[i]), EPSILON);
+         assertTupleEquals(original.getVertexNormals()[i].getX(), original.getVertexNormals()[i].getY(), original.getVertexNormals()[i].getZ(),
+                           packed.getVertexNormalCoordinates(), i);
+      }
+   }
+
+   private static float[] nextPacked(Random random, int numberOfElements)
+   {
+      float[] packed = new float[3 * numberOfElements];
+      for (int i = 0; i < packed.length; i++)
+         packed[i] = (float) EuclidCoreRandomTools.nextDouble(random, 2.0);
+      return packed;
+   }
+
+   private static void assertTupleEquals(double x, double y, double z, float[] packed, int index)
+   {
+      double scale = Math.max(1.0, Math.abs(x) + Math.abs(y) + Math.abs(z));
+      assertEquals(x, packed[3 * index], EPSILON * scale);
+      assertEquals(y, packed[3 * index + 1], EPSILON * scale);
+      assertEquals(z, packed[3 * index + 2], EPSILON * scale);
+   }
+}
@@ -0,0 +1,70 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class MeshVertexCacheOptimizerTest
+{
+   @Test
+   public void testOptimizeShuffledSphere()
+   {
+      Random random = new Random(1235L);
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(1.0, 64, 64);
+      int[] triangleIndices = sphere.getTriangleIndices();
+
+      // Shuffle the triangles to start from a bad order.
+      int numberOfTriangles = triangleIndices.length / 3;
+      for (int i = numberOfTriangles - 1; i > 0; i--)
+      {
+         int j = random.nextInt(i + 1);
+         for (int k = 0; k < 3; k++)
+         {
+            int temp = triangleIndices[3 * i + k];
+            triangleIndices[3 * i + k] = triangleIndices[3 * j + k];
+            triangleIndices[3 * j + k] = temp;
+         }
+      }
+
+      MeshVertexCacheOptimizer optimizer = new MeshVertexCacheOptimizer();
+      MeshDataHolder optimized = optimizer.optimize(sphere);
+
+      assertTrue(optimizer.getACMRBefore() > 2.0);
+      assertTrue(optimizer.getACMRAfter() < 1.0);
+      assertEquals(optimizer.getACMRAfter(),
+                   MeshVertexCacheOptimizer.computeACMR(optimized.getTriangleIndices(),
+                                                        optimized.getVertices().length,
+                                                        MeshVertexCacheOptimizer.DEFAULT_ACMR_CACHE_SIZE),
+                   1.0e-12);
+
+      // Same triangles, expressed with the same vertices.
+      assertEquals(sphere.getTriangleIndices().length, optimized.getTriangleIndices().length);
+      assertTrue(Arrays.equals(sortedTriangles(sphere), sortedTriangles(optimized)));
+
+      // The vertices are ordered by first use.
+      int maxIndex = -1;
+      for (int index : optimized.getTriangleIndices())
+      {
+         assertTrue(index <= maxIndex + 1);
+         maxIndex = Math.max(maxIndex, index);
+      }
+   }
+
+   private static String[] sortedTriangles(MeshDataHolder mesh)
+   {
+      int[] triangleIndices = mesh.getTriangleIndices();
+      String[] triangles = new String[triangleIndices.length / 3];
+
+      for (int i = 0; i < triangles.length; i++)
+      {
+         triangles[i] = mesh.getVertices()[triangleIndices[3 * i]] + " " + mesh.getVertices()[triangleIndices[3 * i + 1]] + " "
+               + mesh.getVertices()[triangleIndices[3 * i + 2]];
+      }
+      Arrays.sort(triangles);
+      return triangles;
+   }
+}
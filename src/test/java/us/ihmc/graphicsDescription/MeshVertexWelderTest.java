@@ -0,0 +1,62 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class MeshVertexWelderTest
+{
+   @Test
+   public void testWeldAdjacentBoxes()
+   {
+      MeshDataBuilder builder = new MeshDataBuilder();
+      builder.addBox(1.0f, 1.0f, 1.0f, new Point3D());
+      builder.addBox(1.0f, 1.0f, 1.0f, new Point3D());
+
+      MeshDataHolder raw = builder.generateMeshDataHolder();
+      MeshVertexWelder welder = new MeshVertexWelder();
+      MeshDataHolder welded = builder.generateMeshDataHolder(welder);
+
+      // The second box is identical to the first one, all its vertices are merged.
+      assertEquals(raw.getVertices().length, welder.getNumberOfInputVertices());
+      assertEquals(raw.getVertices().length / 2, welded.getVertices().length);
+      assertEquals(2.0, welder.getCompactionRatio(), 1.0e-12);
+      assertEquals(raw.getTriangleIndices().length, welded.getTriangleIndices().length);
+
+      for (int index : welded.getTriangleIndices())
+         assertTrue(index < welded.getVertices().length);
+
+      // With the normals ignored, the 3 copies of each corner of a box are merged.
+      MeshDataHolder positionOnly = new MeshVertexWelder(1.0e-5, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY).weld(raw);
+      assertEquals(8, positionOnly.getVertices().length);
+   }
+
+   @Test
+   public void testWeldWithinTolerance()
+   {
+      Point3D32[] vertices = {new Point3D32(0.0f, 0.0f, 0.0f), new Point3D32(1.0f, 0.0f, 0.0f), new Point3D32(0.0f, 1.0f, 0.0f),
+            new Point3D32(1.0e-4f, 0.0f, 0.0f), new Point3D32(1.0f, 1.0f, 0.0f), new Point3D32(0.0f, 1.0f + 1.0e-4f, 0.0f)};
+      TexCoord2f[] texturePoints = new TexCoord2f[vertices.length];
+      Vector3D32[] normals = new Vector3D32[vertices.length];
+      for (int i = 0; i < vertices.length; i++)
+      {
+         texturePoints[i] = new TexCoord2f();
+         normals[i] = new Vector3D32(0.0f, 0.0f, 1.0f);
+      }
+      MeshDataHolder mesh = new MeshDataHolder(vertices, texturePoints, new int[] {0, 1, 2, 3, 4, 5}, normals);
+
+      assertEquals(6, new MeshVertexWelder().weld(mesh).getVertices().length);
+
+      MeshVertexWelder welder = new MeshVertexWelder(1.0e-3, 1.0e-3, 1.0e-3);
+      MeshDataHolder welded = welder.weld(mesh);
+      assertEquals(4, welded.getVertices().length);
+      assertEquals(6, welded.getTriangleIndices().length);
+      assertEquals(welded.getTriangleIndices()[0], welded.getTriangleIndices()[3]);
+      assertEquals(welded.getTriangleIndices()[2], welded.getTriangleIndices()[5]);
+   }
+}
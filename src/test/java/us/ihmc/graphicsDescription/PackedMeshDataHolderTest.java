@@ -0,0 +1,92 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class PackedMeshDataHolderTest
+{
+   private static final double EPSILON = 1.0e-6;
+
+   @Test
+   public void testPackAndUnpack()
+   {
+      MeshDataHolder original = MeshDataGenerator.Sphere(0.3, 8, 8);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(original);
+      MeshDataHolder unpacked = packed.toMeshDataHolder();
+
+      assertEquals(original.getVertices().length, packed.getNumberOfVertices());
+      assertArrayEquals(original.getTriangleIndices(), unpacked.getTriangleIndices());
+
+      PackedMeshDataHolder.PackedPoint3D vertexView = packed.createVertexView();
+
+      for (int i = 0; i < original.getVertices().length; i++)
+      {
+         vertexView.setIndex(i);
+         assertEquals(0.0, original.getVertices()[i].distance(vertexView), EPSILON);
+         assertEquals(0.0, original.getVertices()[i].distance(unpacked.getVertices()[i]), EPSILON);
+         assertEquals(0.0, original.getVertexNormals()[i].differenceNorm(unpacked.getVertexNormals()[i]), EPSILON);
+         assertEquals(original.getTexturePoints()[i].x, unpacked.getTexturePoints()[i].x, EPSILON);
+         assertEquals(original.getTexturePoints()[i].y, unpacked.getTexturePoints()[i].y, EPSILON);
+      }
+   }
+
+   @Test
+   public void testApplyTransform()
+   {
+      Random random = new Random(4532L);
+      MeshDataHolder original = MeshDataGenerator.Cylinder(0.2, 0.5, 16);
+      PackedMeshDataHolder packed = PackedMeshDataHolder.pack(original);
+      RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+
+      original.applyTransform(transform);
+      packed.applyTransform(transform);
+
+      Point3D32 vertex = new Point3D32();
+      Vector3D32 normal = new Vector3D32();
+
+      for (int i = 0; i < packed.getNumberOfVertices(); i++)
+      {
+         packed.getVertex(i, vertex);
+         packed.getVertexNormal(i, normal);
+         assertEquals(0.0, original.getVertices()[i].distance(vertex), EPSILON);
+         assertEquals(0.0, original.getVertexNormals()[i].differenceNorm(normal), EPSILON);
+      }
+   }
+
+   @Test
+   public void testCreatePackedFromVerticesAndStripCounts()
+   {
+      Random random = new Random(87L);
+      int[] polygonStripCounts = {3, 4, 5, 6};
+      Point3D32[] vertices = new Point3D32[18];
+      float[] vertexCoordinates = new float[3 * vertices.length];
+
+      for (int i = 0; i < vertices.length; i++)
+      {
+         vertices[i] = new Point3D32(EuclidCoreRandomTools.nextPoint3D(random, 1.0));
+         vertices[i].get(3 * i, vertexCoordinates);
+      }
+
+      MeshDataHolder expected = MeshDataGenerator.createFromVerticesAndStripCounts(vertices, polygonStripCounts);
+      PackedMeshDataHolder actual = MeshDataGenerator.createPackedFromVerticesAndStripCounts(vertexCoordinates, polygonStripCounts);
+
+      assertArrayEquals(expected.getTriangleIndices(), actual.getTriangleIndices());
+
+      Vector3D32 normal = new Vector3D32();
+
+      for (int i = 0; i < vertices.length; i++)
+      {
+         actual.getVertexNormal(i, normal);
+         assertEquals(expected.getVertexNormals()[i], normal);
+      }
+   }
+}
@@ -0,0 +1,123 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.graphicsDescription.PointCloud3DMergedMeshGenerator.PointShape;
+
+public class PointCloud3DMergedMeshGeneratorTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testCompute()
+   {
+      Random random = new Random(3465L);
+      int maxNumberOfPoints = 100;
+      double radius = 0.05;
+
+      for (PointShape pointShape : PointShape.values())
+      {
+         PointCloud3DMergedMeshGenerator generator = new PointCloud3DMergedMeshGenerator(maxNumberOfPoints, pointShape, radius, true);
+         PackedMeshDataHolder mesh = generator.getMeshDataHolder();
+         assertEquals(maxNumberOfPoints * pointShape.getNumberOfVertices(), mesh.getNumberOfVertices());
+
+         float[] pointCoordinates = new float[3 * maxNumberOfPoints];
+         float[] pointColors = new float[4 * maxNumberOfPoints];
+         for (int i = 0; i < pointCoordinates.length; i++)
+            pointCoordinates[i] = (float) EuclidCoreRandomTools.nextDouble(random, 10.0);
+         for (int i = 0; i < pointColors.length; i++)
+            pointColors[i] = random.nextFloat();
+
+         generator.compute(pointCoordinates, pointColors, maxNumberOfPoints);
+         assertEquals(maxNumberOfPoints * pointShape.getNumberOfTriangleIndices(), generator.getNumberOfTriangleIndices());
+
+         Point3D vertex = new Point3D();
+         Vector3D normal = new Vector3D();
+
+         for (int point = 0; point < maxNumberOfPoints; point++)
+         {
+            Point3D center = new Point3D(pointCoordinates[3 * point], pointCoordinates[3 * point + 1], pointCoordinates[3 * point + 2]);
+
+            for (int i = 0; i < pointShape.getNumberOfVertices(); i++)
+            {
+               int vertexIndex = point * pointShape.getNumberOfVertices() + i;
+               mesh.getVertex(vertexIndex, vertex);
+               mesh.getVertexNormal(vertexIndex, normal);
+               double expectedDistance = pointShape == PointShape.QUAD ? Math.sqrt(2.0) * radius : radius;
+               assertEquals(expectedDistance, vertex.distance(center), EPSILON);
+               assertEquals(1.0, normal.norm(), EPSILON);
+               assertEquals(pointColors[4 * point + 3], generator.getPointColors()[4 * point + 3], 0.0);
+            }
+         }
+
+         // The triangles face outward, or toward the camera for the quads.
+         int[] triangleIndices = mesh.getTriangleIndices();
+         Point3D a = new Point3D(), b = new Point3D(), c = new Point3D();
+         for (int i = 0; i < triangleIndices.length; i += 3)
+         {
+            mesh.getVertex(triangleIndices[i], a);
+            mesh.getVertex(triangleIndices[i + 1], b);
+            mesh.getVertex(triangleIndices[i + 2], c);
+            mesh.getVertexNormal(triangleIndices[i], normal);
+            Vector3D ab = new Vector3D(), ac = new Vector3D(), faceNormal = new Vector3D();
+            ab.sub(b, a);
+            ac.sub(c, a);
+            faceNormal.cross(ab, ac);
+            assertTrue(faceNormal.dot(normal) > 0.0);
+         }
+
+         // Fewer points: the unused vertices are collapsed.
+         generator.compute(pointCoordinates, 10);
+         assertEquals(10, generator.getNumberOfPoints());
+         mesh.getVertex(10 * pointShape.getNumberOfVertices(), vertex);
+         assertEquals(0.0, vertex.distanceFromOrigin(), 0.0);
+      }
+   }
+
+   @Test
+   public void testLargePointCloudUpdatedInPlace()
+   {
+      Random random = new Random(3466L);
+      int numberOfPoints = 1000000;
+      PointCloud3DMergedMeshGenerator generator = new PointCloud3DMergedMeshGenerator(numberOfPoints, PointShape.QUAD, 0.01, true);
+      PackedMeshDataHolder mesh = generator.getMeshDataHolder();
+      float[] vertexCoordinates = mesh.getVertexCoordinates();
+      float[] pointColors = generator.getPointColors();
+      assertEquals(4 * numberOfPoints, mesh.getNumberOfVertices());
+
+      float[] pointCoordinates = new float[3 * numberOfPoints];
+      float[] newPointColors = new float[4 * numberOfPoints];
+      for (int i = 0; i < pointCoordinates.length; i++)
+         pointCoordinates[i] = 20.0f * random.nextFloat() - 10.0f;
+      for (int i = 0; i < newPointColors.length; i++)
+         newPointColors[i] = random.nextFloat();
+
+      for (int update = 0; update < 2; update++)
+      {
+         pointCoordinates[0] = update;
+         newPointColors[newPointColors.length - 1] = 0.25f * update;
+         generator.compute(pointCoordinates, newPointColors, numberOfPoints);
+
+         // The mesh and the colors are rewritten in place, nothing is reallocated between updates.
+         assertTrue(mesh == generator.getMeshDataHolder());
+         assertTrue(vertexCoordinates == mesh.getVertexCoordinates());
+         assertTrue(pointColors == generator.getPointColors());
+         assertEquals(numberOfPoints, generator.getNumberOfPoints());
+         assertEquals(6 * numberOfPoints, generator.getNumberOfTriangleIndices());
+         assertEquals(0.25f * update, pointColors[pointColors.length - 1], 0.0f);
+
+         double centerX = 0.0;
+         for (int i = 0; i < 4; i++)
+            centerX += 0.25 * vertexCoordinates[3 * i];
+         assertEquals(update, centerX, EPSILON);
+      }
+   }
+}
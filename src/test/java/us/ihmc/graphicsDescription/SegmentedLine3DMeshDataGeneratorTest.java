@@ -0,0 +1,131 @@
+package us.ihmc.graphicsDescription;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class SegmentedLine3DMeshDataGeneratorTest
+{
+   private static final double EPSILON = 1.0e-6;
+
+   @Test
+   public void testMergedMeshDataHolder()
+   {
+      Random random = new Random(6541L);
+      int numberOfWaypoints = 20;
+      int radialResolution = 12;
+
+      SegmentedLine3DMeshDataGenerator generator = new SegmentedLine3DMeshDataGenerator(numberOfWaypoints, radialResolution, 0.05);
+      Point3D[] waypoints = new Point3D[numberOfWaypoints];
+      for (int i = 0; i < numberOfWaypoints; i++)
+         waypoints[i] = EuclidCoreRandomTools.nextPoint3D(random, 1.0);
+      generator.compute(waypoints);
+
+      MeshDataHolder merged = generator.getMergedMeshDataHolder();
+      assertEquals(numberOfWaypoints * radialResolution, merged.getVertices().length);
+      assertEquals(6 * radialResolution * (numberOfWaypoints - 1), merged.getTriangleIndices().length);
+
+      // Each triangle of the merged mesh matches the corresponding triangle of the segment meshes.
+      MeshDataHolder[] segments = generator.getMeshDataHolders();
+      int index = 0;
+
+      for (MeshDataHolder segment : segments)
+      {
+         int[] segmentIndices = segment.getTriangleIndices();
+
+         for (int i = 0; i < segmentIndices.length; i++, index++)
+         {
+            Point3D32 expected = segment.getVertices()[segmentIndices[i]];
+            Point3D32 actual = merged.getVertices()[merged.getTriangleIndices()[index]];
+            assertEquals(0.0, expected.distance(actual), EPSILON);
+         }
+      }
+
+      // The merged mesh is updated in place.
+      Point3D32 firstVertex = merged.getVertices()[0];
+      waypoints[0].add(1.0, 0.0, 0.0);
+      generator.compute(waypoints);
+      assertTrue(firstVertex == merged.getVertices()[0]);
+      assertEquals(0.0, firstVertex.distance(segments[0].getVertices()[0]), EPSILON);
+   }
+
+   @Test
+   public void testMergedMeshBounds()
+   {
+      int numberOfWaypoints = 4;
+      double radius = 0.1;
+      SegmentedLine3DMeshDataGenerator generator = new SegmentedLine3DMeshDataGenerator(numberOfWaypoints, 16, radius, true);
+      MeshDataHolder merged = generator.getMergedMeshDataHolder();
+      Point3D[] waypoints = new Point3D[numberOfWaypoints];
+
+      for (int i = 0; i < numberOfWaypoints; i++)
+         waypoints[i] = new Point3D(i, 0.0, 0.0);
+      generator.compute(waypoints);
+      assertEquals(0.0, merged.getBoundingBox().getMinX(), EPSILON);
+      assertEquals(3.0, merged.getBoundingBox().getMaxX(), EPSILON);
+      assertEquals(radius, merged.getBoundingBox().getMaxY(), EPSILON);
+      assertEquals(1.5, merged.getBoundingSphereCenter().getX(), EPSILON);
+
+      for (int i = 0; i < numberOfWaypoints; i++)
+         waypoints[i].set(0.0, 0.0, -2.0 * i);
+      generator.compute(waypoints);
+      assertEquals(-6.0, merged.getBoundingBox().getMinZ(), EPSILON);
+      assertEquals(0.0, merged.getBoundingBox().getMaxZ(), EPSILON);
+      assertEquals(radius, merged.getBoundingBox().getMaxX(), EPSILON);
+      assertEquals(-3.0, merged.getBoundingSphereCenter().getZ(), EPSILON);
+      assertEquals(Math.sqrt(9.0 + radius * radius), merged.getBoundingSphereRadius(), 1.0e-5);
+   }
+
+   @Test
+   public void testEndCaps()
+   {
+      int numberOfWaypoints = 5;
+      int radialResolution = 8;
+      double radius = 0.1;
+
+      SegmentedLine3DMeshDataGenerator generator = new SegmentedLine3DMeshDataGenerator(numberOfWaypoints, radialResolution, radius, true);
+      Point3D[] waypoints = new Point3D[numberOfWaypoints];
+      for (int i = 0; i < numberOfWaypoints; i++)
+         waypoints[i] = new Point3D(i, 0.0, 0.0);
+      generator.compute(waypoints);
+
+      MeshDataHolder merged = generator.getMergedMeshDataHolder();
+      assertEquals((numberOfWaypoints + 2) * radialResolution + 2, merged.getVertices().length);
+      assertEquals(6 * radialResolution * (numberOfWaypoints - 1) + 6 * radialResolution, merged.getTriangleIndices().length);
+
+      int tubeIndices = 6 * radialResolution * (numberOfWaypoints - 1);
+      int[] triangleIndices = merged.getTriangleIndices();
+      Point3D32[] vertices = merged.getVertices();
+      Vector3D32[] normals = merged.getVertexNormals();
+
+      for (int i = 0; i < 2 * radialResolution; i++)
+      {
+         int offset = tubeIndices + 3 * i;
+         Point3D32 a = vertices[triangleIndices[offset]];
+         Point3D32 b = vertices[triangleIndices[offset + 1]];
+         Point3D32 c = vertices[triangleIndices[offset + 2]];
+         Vector3D triangleNormal = new Vector3D();
+         triangleNormal.cross(new Vector3D(b.getX() - a.getX(), b.getY() - a.getY(), b.getZ() - a.getZ()),
+                              new Vector3D(c.getX() - a.getX(), c.getY() - a.getY(), c.getZ() - a.getZ()));
+         triangleNormal.normalize();
+
+         // The start cap faces backward and the end cap forward, consistently with the vertex normals.
+         double expectedX = i % 2 == 0 ? -1.0 : 1.0;
+         assertEquals(expectedX, triangleNormal.getX(), EPSILON);
+         assertEquals(expectedX, normals[triangleIndices[offset]].getX(), EPSILON);
+         assertEquals(expectedX, normals[triangleIndices[offset + 1]].getX(), EPSILON);
+         // The fans are centered on the end waypoints.
+         assertEquals(i % 2 == 0 ? 0.0 : numberOfWaypoints - 1.0, a.getX(), EPSILON);
+         assertEquals(radius, a.distance(b), EPSILON);
+      }
+   }
+}
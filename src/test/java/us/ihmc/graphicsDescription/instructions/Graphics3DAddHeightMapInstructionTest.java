@@ -0,0 +1,61 @@
+package us.ihmc.graphicsDescription.instructions;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertNull;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.graphicsDescription.GridHeightMap;
+import us.ihmc.graphicsDescription.HeightMapTileMesher;
+import us.ihmc.graphicsDescription.PackedMeshDataHolder;
+import us.ihmc.graphicsDescription.instructions.listeners.HeightMapChangedListener;
+
+public class Graphics3DAddHeightMapInstructionTest
+{
+   @Test
+   public void testNotifyHeightMapChanged()
+   {
+      GridHeightMap heightMap = new GridHeightMap(new float[17 * 9], 17, 9, 0.0, 0.0, 0.25);
+      HeightMapTileMesher tileMesher = new HeightMapTileMesher(heightMap, 4, 2, 4, 2);
+      Graphics3DAddHeightMapInstruction instruction = new Graphics3DAddHeightMapInstruction(tileMesher, null);
+      assertTrue(instruction.getTileMesher() == tileMesher);
+      assertEquals(17, instruction.getXPointsPerSide());
+      assertEquals(9, instruction.getYPointsPerSide());
+      assertNull(new Graphics3DAddHeightMapInstruction(heightMap, 17, 9, null).getTileMesher());
+
+      PackedMeshDataHolder mesh = tileMesher.getTileMesh(3, 1, 0);
+      List<String> notifications = new ArrayList<>();
+      instruction.setHeightMapChangedListener(new HeightMapChangedListener()
+      {
+         @Override
+         public void tileMeshChanged(PackedMeshDataHolder mesh, int tileX, int tileY, int level, int fromVertex, int toVertex)
+         {
+            notifications.add("tile " + tileX + " " + tileY + " " + level);
+         }
+
+         @Override
+         public void heightMapChanged(double minX, double minY, double maxX, double maxY)
+         {
+            notifications.add("region " + minX + " " + minY + " " + maxX + " " + maxY);
+         }
+      });
+
+      heightMap.setHeight(16, 8, 1.0f);
+      instruction.notifyHeightMapChanged(3.75, 1.75, 4.0, 2.0);
+
+      // Only the generated tile is updated, then the region is notified.
+      assertEquals(2, notifications.size());
+      assertEquals("tile 3 1 0", notifications.get(0));
+      assertEquals("region 3.75 1.75 4.0 2.0", notifications.get(1));
+      assertEquals(1.0f, mesh.getVertexCoordinates()[3 * 24 + 2], 0.0f);
+
+      notifications.clear();
+      instruction.notifyHeightMapChanged();
+      assertEquals(2, notifications.size());
+      assertEquals("region 0.0 0.0 4.0 2.0", notifications.get(1));
+   }
+}
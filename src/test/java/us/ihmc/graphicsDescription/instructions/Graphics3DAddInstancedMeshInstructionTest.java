@@ -0,0 +1,154 @@
+package us.ihmc.graphicsDescription.instructions;
+
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertNull;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.graphicsDescription.Graphics3DBoundsCalculator;
+import us.ihmc.graphicsDescription.MeshDataGenerator;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+
+public class Graphics3DAddInstancedMeshInstructionTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @Test
+   public void testInstances()
+   {
+      Random random = new Random(6734L);
+      MeshDataHolder cone = MeshDataGenerator.Cone(0.5, 0.1, 8);
+      Graphics3DAddInstancedMeshInstruction instruction = new Graphics3DAddInstancedMeshInstruction(cone, 50, true, null);
+      float[] instanceTransforms = instruction.getInstanceTransforms();
+      float[] instanceColors = instruction.getInstanceColors();
+
+      List<int[]> notifications = new ArrayList<>();
+      instruction.setInstancesChangedListener((from, to) -> notifications.add(new int[] {from, to}));
+      instruction.notifyInstancesChanged();
+      assertEquals(0, notifications.size());
+
+      List<RigidBodyTransform> transforms = new ArrayList<>();
+      instruction.setNumberOfInstances(20);
+      for (int i = 0; i < 20; i++)
+      {
+         RigidBodyTransform transform = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         transforms.add(transform);
+         instruction.setInstance(i, transform);
+      }
+      instruction.setInstanceColor(3, 1.0f, 0.0f, 0.0f, 0.5f);
+      instruction.notifyInstancesChanged();
+
+      assertEquals(1, notifications.size());
+      assertEquals(0, notifications.get(0)[0]);
+      assertEquals(20, notifications.get(0)[1]);
+
+      // Only the modified range is reported and the packed arrays are updated in place.
+      instruction.setInstancePosition(7, 1.0, 2.0, 3.0, 2.0);
+      instruction.setInstancePosition(9, 1.0, 2.0, 3.0);
+      instruction.notifyInstancesChanged();
+      assertEquals(7, notifications.get(1)[0]);
+      assertEquals(10, notifications.get(1)[1]);
+      assertEquals(2.0f, instanceTransforms[7 * Graphics3DAddInstancedMeshInstruction.TRANSFORM_STRIDE], 0.0);
+      assertEquals(3.0f, instanceTransforms[7 * Graphics3DAddInstancedMeshInstruction.TRANSFORM_STRIDE + 11], 0.0);
+      assertEquals(0.5f, instanceColors[3 * Graphics3DAddInstancedMeshInstruction.COLOR_STRIDE + 3], 0.0);
+      assertEquals(instanceTransforms, instruction.getInstanceTransforms());
+
+      transforms.set(7, new RigidBodyTransform());
+      transforms.get(7).getTranslation().set(1.0, 2.0, 3.0);
+      transforms.set(9, transforms.get(7));
+      instruction.setInstance(7, transforms.get(7));
+
+      MeshDataHolder expected = MeshDataHolder.combineAll(Collections.nCopies(20, cone), transforms, false);
+      MeshDataHolder actual = instruction.toMeshDataHolder();
+      assertEquals(expected.getVertices().length, actual.getVertices().length);
+      for (int i = 0; i < expected.getVertices().length; i++)
+      {
+         assertEquals(0.0, expected.getVertices()[i].distance(actual.getVertices()[i]), EPSILON);
+         assertEquals(0.0, expected.getVertexNormals()[i].differenceNorm(actual.getVertexNormals()[i]), EPSILON);
+      }
+      for (int i = 0; i < expected.getTriangleIndices().length; i++)
+         assertEquals(expected.getTriangleIndices()[i], actual.getTriangleIndices()[i]);
+
+      List<Graphics3DPrimitiveInstruction> instructions = new ArrayList<>();
+      instructions.add(instruction);
+      BoundingBox3D boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(instructions);
+      // The transformed local boxes are not tight but have to contain all the instances.
+      for (int i = 0; i < expected.getVertices().length; i++)
+         assertTrue(boundingBox.isInsideEpsilon(expected.getVertices()[i], EPSILON));
+
+      assertNull(new Graphics3DAddInstancedMeshInstruction(cone, 10, false, null).getInstanceColors());
+   }
+
+   @Test
+   public void testReducingNumberOfInstancesNotifiesListener()
+   {
+      Graphics3DAddInstancedMeshInstruction instruction = new Graphics3DAddInstancedMeshInstruction(MeshDataGenerator.Cube(1.0, 1.0, 1.0, true), 10, false, null);
+      List<int[]> notifications = new ArrayList<>();
+      instruction.setInstancesChangedListener((from, to) -> notifications.add(new int[] {from, to}));
+
+      instruction.setNumberOfInstances(8);
+      instruction.notifyInstancesChanged();
+      assertEquals(1, notifications.size());
+
+      instruction.setNumberOfInstances(3);
+      instruction.notifyInstancesChanged();
+      assertEquals(2, notifications.size());
+      assertEquals(3, notifications.get(1)[0]);
+      assertEquals(8, notifications.get(1)[1]);
+      assertEquals(3, instruction.getNumberOfInstances());
+
+      // Setting the same number of instances is not a change.
+      instruction.setNumberOfInstances(3);
+      instruction.notifyInstancesChanged();
+      assertEquals(2, notifications.size());
+   }
+
+   @Test
+   public void testMirroredInstanceFacesOutward()
+   {
+      Graphics3DAddInstancedMeshInstruction instruction = new Graphics3DAddInstancedMeshInstruction(MeshDataGenerator.Cube(1.0, 2.0, 3.0, true), 2, false, null);
+      instruction.setNumberOfInstances(2);
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.getTranslation().set(5.0, 0.0, 0.0);
+      instruction.setInstance(0, transform, new Vector3D(-1.0, 1.0, 1.0));
+      instruction.setInstance(1, new RigidBodyTransform(), new Vector3D(2.0, -0.5, 1.0));
+
+      MeshDataHolder mesh = instruction.toMeshDataHolder();
+      Point3D32[] vertices = mesh.getVertices();
+      Vector3D32[] normals = mesh.getVertexNormals();
+      int[] triangleIndices = mesh.getTriangleIndices();
+      int verticesPerInstance = vertices.length / 2;
+      Vector3D faceNormal = new Vector3D();
+      Vector3D edge1 = new Vector3D();
+      Vector3D edge2 = new Vector3D();
+      Vector3D outward = new Vector3D();
+
+      for (int i = 0; i < triangleIndices.length; i += 3)
+      {
+         Point3D32 v0 = vertices[triangleIndices[i]];
+         edge1.sub(vertices[triangleIndices[i + 1]], v0);
+         edge2.sub(vertices[triangleIndices[i + 2]], v0);
+         faceNormal.cross(edge1, edge2);
+
+         // The winding, the vertex normal, and the direction away from the instance center all agree.
+         Vector3D32 normal = normals[triangleIndices[i]];
+         assertTrue(faceNormal.dot(normal) > 0.0);
+         outward.set(v0);
+         if (triangleIndices[i] < verticesPerInstance)
+            outward.subX(5.0);
+         assertTrue(outward.dot(normal) > 0.0);
+      }
+   }
+}
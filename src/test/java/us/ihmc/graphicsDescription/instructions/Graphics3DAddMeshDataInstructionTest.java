@@ -0,0 +1,264 @@
+package us.ihmc.graphicsDescription.instructions;
+
+import static us.ihmc.robotics.Assert.assertArrayEquals;
+import static us.ihmc.robotics.Assert.assertEquals;
+import static us.ihmc.robotics.Assert.assertFalse;
+import static us.ihmc.robotics.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.graphicsDescription.Graphics3DBoundsCalculator;
+import us.ihmc.graphicsDescription.MeshDataGenerator;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.instructions.listeners.MeshChangedListener;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DTranslateInstruction;
+
+public class Graphics3DAddMeshDataInstructionTest
+{
+   private static final double EPSILON = 1.0e-6;
+
+   @Test
+   public void testSupplierBackedMesh()
+   {
+      AtomicInteger numberOfGenerations = new AtomicInteger();
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(() ->
+      {
+         numberOfGenerations.incrementAndGet();
+         return MeshDataGenerator.Cube(1.0, 1.0, 1.0, true, null);
+      }, null);
+
+      // Nothing is generated until needed.
+      assertTrue(instruction.isSupplierBacked());
+      assertFalse(instruction.isMeshDataLoaded());
+      assertEquals(0, numberOfGenerations.get());
+
+      MeshDataHolder meshData = instruction.getMeshData();
+      assertTrue(meshData == instruction.getMeshData());
+      assertTrue(instruction.isMeshDataLoaded());
+      assertEquals(1, numberOfGenerations.get());
+
+      // The executor releases the mesh once it has consumed it.
+      List<MeshDataHolder> executedMeshes = new ArrayList<>();
+      new RecordingExecutor(executedMeshes).setUpGraphicsFromDefinition(Collections.singletonList(instruction));
+      assertEquals(1, executedMeshes.size());
+      assertTrue(meshData == executedMeshes.get(0));
+      assertFalse(instruction.isMeshDataLoaded());
+
+      // The mesh is regenerated when needed again.
+      assertEquals(24, instruction.getMeshData().getVertices().length);
+      assertEquals(2, numberOfGenerations.get());
+
+      List<MeshDataHolder> changedMeshes = new ArrayList<>();
+      instruction.setMeshChangedListener(changedMeshes::add);
+      instruction.regenerateMeshData();
+      assertEquals(3, numberOfGenerations.get());
+      assertEquals(1, changedMeshes.size());
+      assertTrue(changedMeshes.get(0) == instruction.getMeshData());
+
+      // Setting a mesh turns the instruction into a regular one.
+      instruction.setMesh(meshData);
+      instruction.releaseMeshData();
+      assertFalse(instruction.isSupplierBacked());
+      assertTrue(meshData == instruction.getMeshData());
+   }
+
+   @Test
+   public void testBoundsDoNotRetainMesh()
+   {
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(() -> MeshDataGenerator.Cube(1.0, 2.0, 3.0, true, null), null);
+      BoundingBox3D boundingBox = Graphics3DBoundsCalculator.computeBoundingBox(Collections.singletonList(instruction));
+      assertEquals(1.5, boundingBox.getMaxZ(), EPSILON);
+      assertFalse(instruction.isMeshDataLoaded());
+
+      instruction.getMeshData();
+      Graphics3DBoundsCalculator.computeBoundingBox(Collections.singletonList(instruction));
+      assertTrue(instruction.isMeshDataLoaded());
+
+      Graphics3DAddMeshDataInstruction nullInstruction = new Graphics3DAddMeshDataInstruction(() -> null, null);
+      assertEquals(0, nullInstruction.getMeshData().getVertices().length);
+   }
+
+   @Test
+   public void testBoundsOfReleasedMeshDoNotRegenerate()
+   {
+      AtomicInteger numberOfGenerations = new AtomicInteger();
+      AtomicReference<Double> height = new AtomicReference<>(3.0);
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(() ->
+      {
+         numberOfGenerations.incrementAndGet();
+         return MeshDataGenerator.Cube(1.0, 2.0, height.get(), true, null);
+      }, null);
+      List<Graphics3DPrimitiveInstruction> instructions = Collections.singletonList(instruction);
+
+      // Done by the executor: the mesh is generated, added to the scene, and released.
+      instruction.getMeshData();
+      instruction.releaseMeshData();
+      assertEquals(1, numberOfGenerations.get());
+
+      for (int i = 0; i < 3; i++)
+         assertEquals(1.5, Graphics3DBoundsCalculator.computeBoundingBox(instructions).getMaxZ(), EPSILON);
+      assertEquals(1, numberOfGenerations.get());
+      assertFalse(instruction.isMeshDataLoaded());
+
+      height.set(5.0);
+      instruction.regenerateMeshData();
+      instruction.releaseMeshData();
+      assertEquals(2.5, Graphics3DBoundsCalculator.computeBoundingBox(instructions).getMaxZ(), EPSILON);
+      assertEquals(2, numberOfGenerations.get());
+
+      instruction.setMesh(MeshDataGenerator.Cube(1.0, 2.0, 1.0, true, null));
+      assertEquals(0.5, Graphics3DBoundsCalculator.computeBoundingBox(instructions).getMaxZ(), EPSILON);
+   }
+
+   @Test
+   public void testUpdateMesh()
+   {
+      MeshDataHolder mesh = MeshDataGenerator.Cube(1.0, 1.0, 1.0, true, null);
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(mesh, null);
+      List<int[]> regions = new ArrayList<>();
+      List<MeshDataHolder> changedMeshes = new ArrayList<>();
+      instruction.setMeshChangedListener(new MeshChangedListener()
+      {
+         @Override
+         public void meshChanged(MeshDataHolder newMesh)
+         {
+            changedMeshes.add(newMesh);
+         }
+
+         @Override
+         public void meshRegionChanged(MeshDataHolder mesh, int fromVertex, int toVertex, int fromTriangleIndex, int toTriangleIndex)
+         {
+            regions.add(new int[] {fromVertex, toVertex, fromTriangleIndex, toTriangleIndex});
+         }
+      });
+
+      // Same topology, only a few vertices differ.
+      MeshDataHolder modified = new MeshDataHolder(mesh);
+      modified.getVertices()[3].addX(0.1);
+      modified.getVertexNormals()[7].setToZero();
+      instruction.updateMesh(modified);
+      assertTrue(modified == instruction.getMeshData());
+      assertEquals(0, changedMeshes.size());
+      assertEquals(1, regions.size());
+      assertArrayEquals(new int[] {3, 8, 0, 0}, regions.get(0));
+
+      // Nothing differs.
+      instruction.updateMesh(new MeshDataHolder(modified));
+      assertEquals(1, regions.size());
+
+      // Modified in place, the mesh cannot be compared with its previous state.
+      MeshDataHolder current = instruction.getMeshData();
+      current.getVertices()[0].setToZero();
+      instruction.updateMesh(current);
+      assertArrayEquals(new int[] {0, 24, 0, 36}, regions.get(1));
+      instruction.notifyVerticesChanged(2, 5);
+      assertArrayEquals(new int[] {2, 5, 0, 0}, regions.get(2));
+
+      // Different topology.
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(0.5, 8, 8);
+      instruction.updateMesh(sphere);
+      assertEquals(1, changedMeshes.size());
+      assertTrue(sphere == changedMeshes.get(0));
+
+      // The default implementation rebuilds the whole mesh.
+      List<MeshDataHolder> rebuiltMeshes = new ArrayList<>();
+      instruction.setMeshChangedListener(rebuiltMeshes::add);
+      instruction.notifyVerticesChanged(0, 1);
+      assertEquals(1, rebuiltMeshes.size());
+      assertTrue(sphere == rebuiltMeshes.get(0));
+   }
+
+   @Test
+   public void testUpdateMeshWithSameInstanceReportsTriangleIndices()
+   {
+      MeshDataHolder mesh = MeshDataGenerator.Cube(1.0, 1.0, 1.0, true, null);
+      Graphics3DAddMeshDataInstruction instruction = new Graphics3DAddMeshDataInstruction(mesh, null);
+      AtomicReference<int[]> region = new AtomicReference<>();
+      instruction.setMeshChangedListener(new MeshChangedListener()
+      {
+         @Override
+         public void meshChanged(MeshDataHolder newMesh)
+         {
+         }
+
+         @Override
+         public void meshRegionChanged(MeshDataHolder mesh, int fromVertex, int toVertex, int fromTriangleIndex, int toTriangleIndex)
+         {
+            region.set(new int[] {fromVertex, toVertex, fromTriangleIndex, toTriangleIndex});
+         }
+      });
+
+      // Only the triangle indices are modified in place, they must still reach the listener.
+      int[] triangleIndices = mesh.getTriangleIndices();
+      int swap = triangleIndices[1];
+      triangleIndices[1] = triangleIndices[2];
+      triangleIndices[2] = swap;
+      instruction.updateMesh(mesh);
+      assertArrayEquals(new int[] {0, mesh.getVertices().length, 0, triangleIndices.length}, region.get());
+   }
+
+   private static class RecordingExecutor extends Graphics3DInstructionExecutor
+   {
+      private final List<MeshDataHolder> executedMeshes;
+
+      public RecordingExecutor(List<MeshDataHolder> executedMeshes)
+      {
+         this.executedMeshes = executedMeshes;
+      }
+
+      @Override
+      protected void doAddMeshDataInstruction(Graphics3DAddMeshDataInstruction graphics3DAddMeshData)
+      {
+         executedMeshes.add(graphics3DAddMeshData.getMeshData());
+      }
+
+      @Override
+      protected void doAddPrimitiveInstruction(PrimitiveGraphics3DInstruction primitiveInstruction)
+      {
+      }
+
+      @Override
+      protected void doAddHeightMapInstruction(Graphics3DAddHeightMapInstruction graphics3DAddHeightMap)
+      {
+      }
+
+      @Override
+      protected void doAddExtrusionInstruction(Graphics3DAddExtrusionInstruction graphics3DAddText)
+      {
+      }
+
+      @Override
+      protected void doAddModelFileInstruction(Graphics3DAddModelFileInstruction graphics3DAddModelFile)
+      {
+      }
+
+      @Override
+      protected void doIdentityInstruction()
+      {
+      }
+
+      @Override
+      protected void doRotateInstruction(Graphics3DRotateInstruction graphics3DRotateMatrix)
+      {
+      }
+
+      @Override
+      protected void doScaleInstruction(Graphics3DScaleInstruction graphics3DScale)
+      {
+      }
+
+      @Override
+      protected void doTranslateInstruction(Graphics3DTranslateInstruction graphics3DTranslate)
+      {
+      }
+   }
+}